@@ -187,6 +187,28 @@ public class Jsonschema2PojoTask extends Task implements GenerationConfig {
 
     private Map<String, String> formatTypeMapping = new HashMap<>();
 
+    private boolean fuseScalaTransformers = false;
+
+    private boolean immutableTypes = false;
+
+    private boolean lazyAdditionalProperties = false;
+
+    private boolean streamOutput = false;
+
+    private boolean skipUnchangedOutput = false;
+
+    private boolean writeGenerationReport = false;
+
+    private boolean offline = false;
+
+    private long remoteCacheTtl = 86400;
+
+    private File remoteCacheDirectory;
+
+    private boolean incremental = false;
+
+    private int generationThreads = 1;
+
     /**
      * Execute this task (it's expected that all relevant setters will have been
      * called by Ant to provide task configuration <em>before</em> this method
@@ -577,6 +599,7 @@ public class Jsonschema2PojoTask extends Task implements GenerationConfig {
      *            <li><code>json</code></li>
      *            <li><code>yamlschema</code></li>
      *            <li><code>yaml</code></li>
+     *            <li><code>ndjson</code></li>
      *            </ul>
      */
     public void setSourceType(SourceType sourceType) {
@@ -1241,4 +1264,158 @@ public class Jsonschema2PojoTask extends Task implements GenerationConfig {
     public void setUseInnerClassBuilders(boolean useInnerClassBuilders) {
         this.useInnerClassBuilders = useInnerClassBuilders;
     }
+
+    @Override
+    public int getGenerationThreads() {
+        return generationThreads;
+    }
+
+    /**
+     * Sets the 'generationThreads' property of this class
+     *
+     * @param generationThreads the number of threads used to read and parse source documents before types are generated, and to convert generated sources when targeting Scala
+     */
+    public void setGenerationThreads(int generationThreads) {
+        this.generationThreads = generationThreads;
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    /**
+     * Sets the 'incremental' property of this class
+     *
+     * @param incremental whether to skip generation when no schema document, source or option has changed since the last run
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    @Override
+    public File getRemoteCacheDirectory() {
+        return remoteCacheDirectory;
+    }
+
+    /**
+     * Sets the 'remoteCacheDirectory' property of this class
+     *
+     * @param remoteCacheDirectory a directory in which the content of schemas read over http/https is cached between builds
+     */
+    public void setRemoteCacheDirectory(File remoteCacheDirectory) {
+        this.remoteCacheDirectory = remoteCacheDirectory;
+    }
+
+    @Override
+    public long getRemoteCacheTtl() {
+        return remoteCacheTtl;
+    }
+
+    /**
+     * Sets the 'remoteCacheTtl' property of this class
+     *
+     * @param remoteCacheTtl the time, in seconds, for which cached remote schema content is used without being revalidated
+     */
+    public void setRemoteCacheTtl(long remoteCacheTtl) {
+        this.remoteCacheTtl = remoteCacheTtl;
+    }
+
+    @Override
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Sets the 'offline' property of this class
+     *
+     * @param offline whether schemas referenced over http/https must be read only from the remote cache
+     */
+    public void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    @Override
+    public boolean isWriteGenerationReport() {
+        return writeGenerationReport;
+    }
+
+    /**
+     * Sets the 'writeGenerationReport' property of this class
+     *
+     * @param writeGenerationReport whether to write a report of the time and memory spent on each rule and schema to the target directory
+     */
+    public void setWriteGenerationReport(boolean writeGenerationReport) {
+        this.writeGenerationReport = writeGenerationReport;
+    }
+
+    @Override
+    public boolean isSkipUnchangedOutput() {
+        return skipUnchangedOutput;
+    }
+
+    /**
+     * Sets the 'skipUnchangedOutput' property of this class
+     *
+     * @param skipUnchangedOutput whether to leave generated files whose content is unchanged untouched and remove files that are no longer generated
+     */
+    public void setSkipUnchangedOutput(boolean skipUnchangedOutput) {
+        this.skipUnchangedOutput = skipUnchangedOutput;
+    }
+
+    @Override
+    public boolean isStreamOutput() {
+        return streamOutput;
+    }
+
+    /**
+     * Sets the 'streamOutput' property of this class
+     *
+     * @param streamOutput whether to write the classes generated from each source as soon as that source is done
+     */
+    public void setStreamOutput(boolean streamOutput) {
+        this.streamOutput = streamOutput;
+    }
+
+    @Override
+    public boolean isLazyAdditionalProperties() {
+        return lazyAdditionalProperties;
+    }
+
+    /**
+     * Sets the 'lazyAdditionalProperties' property of this class
+     *
+     * @param lazyAdditionalProperties whether the additionalProperties map of generated types is only allocated when it is first needed
+     */
+    public void setLazyAdditionalProperties(boolean lazyAdditionalProperties) {
+        this.lazyAdditionalProperties = lazyAdditionalProperties;
+    }
+
+    @Override
+    public boolean isImmutableTypes() {
+        return immutableTypes;
+    }
+
+    /**
+     * Sets the 'immutableTypes' property of this class
+     *
+     * @param immutableTypes whether to generate immutable value types, with final fields set through a constructor and a cached hash code
+     */
+    public void setImmutableTypes(boolean immutableTypes) {
+        this.immutableTypes = immutableTypes;
+    }
+
+    @Override
+    public boolean isFuseScalaTransformers() {
+        return fuseScalaTransformers;
+    }
+
+    /**
+     * Sets the 'fuseScalaTransformers' property of this class
+     *
+     * @param fuseScalaTransformers whether to apply adjacent node-local scalagen transformers in a single traversal when generating Scala
+     */
+    public void setFuseScalaTransformers(boolean fuseScalaTransformers) {
+        this.fuseScalaTransformers = fuseScalaTransformers;
+    }
 }
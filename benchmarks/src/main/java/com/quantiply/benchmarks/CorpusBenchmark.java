@@ -0,0 +1,79 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Base for benchmarks that run against a {@link SchemaCorpus}. The corpus is
+ * written to a temporary directory once per trial; its shape can be changed
+ * from the command line, e.g. <code>-p width=500 -p collisionRate=1.0</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public abstract class CorpusBenchmark {
+
+    @Param({ "20", "200" })
+    public int width;
+
+    @Param({ "4" })
+    public int depth;
+
+    @Param({ "0", "4" })
+    public int refFanOut;
+
+    @Param({ "0.1", "0.9" })
+    public double collisionRate;
+
+    protected SchemaCorpus corpus;
+    protected File corpusDirectory;
+    protected File rootSchema;
+
+    @Setup(Level.Trial)
+    public void writeCorpus() throws IOException {
+        corpus = new SchemaCorpus(width, depth, refFanOut, collisionRate);
+        corpusDirectory = Files.createTempDirectory("qmachine-corpus").toFile();
+        rootSchema = corpus.writeTo(corpusDirectory);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCorpus() throws IOException {
+        FileUtils.deleteDirectory(corpusDirectory);
+    }
+
+}
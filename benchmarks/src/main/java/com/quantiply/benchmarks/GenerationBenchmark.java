@@ -0,0 +1,80 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import com.quantiply.DefaultGenerationConfig;
+import com.quantiply.FileCodeWriterWithEncoding;
+import com.quantiply.GenerationConfig;
+import com.quantiply.Jackson2Annotator;
+import com.quantiply.SchemaGenerator;
+import com.quantiply.SchemaMapper;
+import com.quantiply.SchemaStore;
+import com.quantiply.rules.RuleFactory;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JType;
+
+/**
+ * Measures mapping the corpus to a code model ({@link SchemaMapper#generate})
+ * and writing that model out as source files ({@link JCodeModel#build}).
+ */
+public class GenerationBenchmark extends CorpusBenchmark {
+
+    private final GenerationConfig config = new DefaultGenerationConfig();
+
+    private URL rootSchemaUrl;
+    private JCodeModel generatedModel;
+    private File outputDirectory;
+
+    @Setup(Level.Trial)
+    public void generateModel() throws IOException {
+        rootSchemaUrl = rootSchema.toURI().toURL();
+        generatedModel = new JCodeModel();
+        newMapper().generate(generatedModel, "Root", "com.example", rootSchemaUrl);
+        outputDirectory = Files.createTempDirectory("qmachine-output").toFile();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteOutput() throws IOException {
+        FileUtils.deleteDirectory(outputDirectory);
+    }
+
+    @Benchmark
+    public JType generate() {
+        return newMapper().generate(new JCodeModel(), "Root", "com.example", rootSchemaUrl);
+    }
+
+    @Benchmark
+    public void build() throws IOException {
+        generatedModel.build(new FileCodeWriterWithEncoding(outputDirectory, config.getOutputEncoding()));
+    }
+
+    private SchemaMapper newMapper() {
+        return new SchemaMapper(new RuleFactory(config, new Jackson2Annotator(config), new SchemaStore()), new SchemaGenerator());
+    }
+
+}
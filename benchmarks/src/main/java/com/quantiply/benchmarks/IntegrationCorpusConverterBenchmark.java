@@ -0,0 +1,147 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import scala.collection.JavaConverters;
+
+import com.mysema.scalagen.ConversionSettings;
+import com.mysema.scalagen.Converter;
+import com.mysema.scalagen.UnitTransformer;
+import com.quantiply.DefaultGenerationConfig;
+import com.quantiply.FileCodeWriterWithEncoding;
+import com.quantiply.GenerationConfig;
+import com.quantiply.Jackson2Annotator;
+import com.quantiply.SchemaGenerator;
+import com.quantiply.SchemaMapper;
+import com.quantiply.SchemaStore;
+import com.quantiply.rules.RuleFactory;
+import com.sun.codemodel.JCodeModel;
+
+/**
+ * Measures converting the Java sources generated for the integration test
+ * schemas to Scala with scalagen's {@link Converter}. Unlike the synthetic
+ * {@link SchemaCorpus}, these schemas cover most of the features generation
+ * supports, so the converted sources exercise most of scalagen's
+ * transformers. Schemas that cannot be generated on their own with the
+ * default configuration (several are deliberately invalid, or only make sense
+ * with other options) are skipped, and setup reports how many were skipped,
+ * and which, so that runs over different corpora aren't compared by mistake.
+ * <p>
+ * {@link #parseAndPrint(Blackhole)} is the baseline: it parses and prints
+ * the same sources with no transformers, so the difference between it and
+ * {@link #convert(Blackhole)} is the time spent in the transformers. Record
+ * both when comparing changes to the transformers.
+ * <p>
+ * Run from the repository root, or point <code>schemaDirectory</code> at the
+ * integration test schemas, e.g.
+ * <code>-p schemaDirectory=/path/to/integration/src/test/resources/schema</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class IntegrationCorpusConverterBenchmark {
+
+    private static final ConversionSettings SETTINGS = new ConversionSettings(true, false);
+
+    private static final Converter WITHOUT_TRANSFORMERS = new Converter("UTF-8",
+            JavaConverters.asScalaBufferConverter(new ArrayList<UnitTransformer>()).asScala().toList());
+
+    @Param({ "integration/src/test/resources/schema" })
+    public String schemaDirectory;
+
+    private final List<String> javaSources = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void generateJavaSources() throws IOException {
+        File schemas = new File(schemaDirectory);
+        if (!schemas.isDirectory()) {
+            throw new IllegalStateException("Integration test schemas not found at " + schemas.getAbsolutePath());
+        }
+
+        GenerationConfig config = new DefaultGenerationConfig();
+        File sourcesDirectory = Files.createTempDirectory("qmachine-sources").toFile();
+        try {
+            int index = 0;
+            List<String> skipped = new ArrayList<>();
+            for (File schema : FileUtils.listFiles(schemas, new String[] { "json" }, true)) {
+                JCodeModel codeModel = new JCodeModel();
+                try {
+                    new SchemaMapper(new RuleFactory(config, new Jackson2Annotator(config), new SchemaStore()), new SchemaGenerator())
+                            .generate(codeModel, "Root", "com.example.schema" + index++, schema.toURI().toURL());
+                } catch (RuntimeException e) {
+                    skipped.add(schemas.toPath().relativize(schema.toPath()) + " (" + e.getMessage() + ")");
+                    continue;
+                }
+                codeModel.build(new FileCodeWriterWithEncoding(sourcesDirectory, config.getOutputEncoding()));
+            }
+            if (skipped.size() == index) {
+                throw new IllegalStateException("None of the " + index + " schemas in " + schemas.getAbsolutePath() + " could be generated");
+            }
+            System.out.println("Skipped " + skipped.size() + " of " + index + " schemas that could not be generated on their own:");
+            for (String schema : skipped) {
+                System.out.println("  " + schema);
+            }
+            for (File source : FileUtils.listFiles(sourcesDirectory, new String[] { "java" }, true)) {
+                javaSources.add(FileUtils.readFileToString(source, StandardCharsets.UTF_8));
+            }
+            System.out.println("Converting " + javaSources.size() + " generated sources");
+        } finally {
+            FileUtils.deleteDirectory(sourcesDirectory);
+        }
+    }
+
+    @Benchmark
+    public void convert(Blackhole blackhole) {
+        for (String javaSource : javaSources) {
+            blackhole.consume(Converter.instance().convert(javaSource, SETTINGS));
+        }
+    }
+
+    @Benchmark
+    public void parseAndPrint(Blackhole blackhole) {
+        for (String javaSource : javaSources) {
+            blackhole.consume(WITHOUT_TRANSFORMERS.convert(javaSource, SETTINGS));
+        }
+    }
+
+}
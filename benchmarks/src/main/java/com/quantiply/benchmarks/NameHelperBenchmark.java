@@ -0,0 +1,68 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.quantiply.DefaultGenerationConfig;
+import com.quantiply.util.NameHelper;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JPackage;
+
+/**
+ * Measures {@link NameHelper#getUniqueClassName} when the same class name is
+ * requested repeatedly in one package, as happens for inline objects that
+ * share a property name such as <code>item</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class NameHelperBenchmark {
+
+    private static final ObjectNode NODE = JsonNodeFactory.instance.objectNode();
+
+    @Param({ "10", "100", "1000" })
+    public int collisions;
+
+    @Benchmark
+    public JPackage uniqueClassNames() throws JClassAlreadyExistsException {
+        NameHelper nameHelper = new NameHelper(new DefaultGenerationConfig());
+        JPackage _package = new JCodeModel()._package("com.example");
+        for (int i = 0; i < collisions; i++) {
+            _package._class(nameHelper.getUniqueClassName("item", NODE, _package));
+        }
+        return _package;
+    }
+
+}
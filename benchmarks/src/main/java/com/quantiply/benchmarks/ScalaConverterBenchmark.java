@@ -0,0 +1,91 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.mysema.scalagen.ConversionSettings;
+import com.mysema.scalagen.Converter;
+import com.quantiply.DefaultGenerationConfig;
+import com.quantiply.FileCodeWriterWithEncoding;
+import com.quantiply.GenerationConfig;
+import com.quantiply.Jackson2Annotator;
+import com.quantiply.SchemaGenerator;
+import com.quantiply.SchemaMapper;
+import com.quantiply.SchemaStore;
+import com.quantiply.rules.RuleFactory;
+import com.sun.codemodel.JCodeModel;
+
+/**
+ * Measures converting the Java sources generated for the corpus to Scala with
+ * scalagen's {@link Converter}.
+ */
+public class ScalaConverterBenchmark extends CorpusBenchmark {
+
+    private static final ConversionSettings SETTINGS = new ConversionSettings(true, false);
+
+    private final List<String> javaSources = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void generateJavaSources() throws IOException {
+        javaSources.addAll(javaSourcesFor(rootSchema));
+    }
+
+    @Benchmark
+    public void convert(Blackhole blackhole) {
+        for (String javaSource : javaSources) {
+            blackhole.consume(Converter.instance().convert(javaSource, SETTINGS));
+        }
+    }
+
+    /**
+     * Generates Java sources for the given root schema with the default
+     * configuration.
+     *
+     * @return the content of each generated source file
+     */
+    static List<String> javaSourcesFor(File rootSchema) throws IOException {
+        List<String> javaSources = new ArrayList<>();
+        GenerationConfig config = new DefaultGenerationConfig();
+        JCodeModel codeModel = new JCodeModel();
+        new SchemaMapper(new RuleFactory(config, new Jackson2Annotator(config), new SchemaStore()), new SchemaGenerator())
+                .generate(codeModel, "Root", "com.example", rootSchema.toURI().toURL());
+
+        File sourcesDirectory = Files.createTempDirectory("qmachine-sources").toFile();
+        try {
+            codeModel.build(new FileCodeWriterWithEncoding(sourcesDirectory, config.getOutputEncoding()));
+            for (File source : FileUtils.listFiles(sourcesDirectory, new String[] { "java" }, true)) {
+                javaSources.add(FileUtils.readFileToString(source, StandardCharsets.UTF_8));
+            }
+        } finally {
+            FileUtils.deleteDirectory(sourcesDirectory);
+        }
+        return javaSources;
+    }
+
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Random;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Generates a synthetic schema corpus whose shape is controlled by a few
+ * parameters, so that benchmarks can show how each stage of generation scales
+ * rather than how it performs on one hand-picked schema.
+ * <ul>
+ * <li><b>width</b>: the number of scalar properties on every object</li>
+ * <li><b>depth</b>: the number of levels of inline object properties below
+ * the root (each object has two inline children until the last level)</li>
+ * <li><b>refFanOut</b>: the number of <code>$ref</code> properties on every
+ * object, each pointing into a separate definitions document</li>
+ * <li><b>collisionRate</b>: the fraction of inline objects given a common
+ * property name (<code>item</code> or <code>value</code>), which makes their
+ * class names collide and exercises unique naming</li>
+ * </ul>
+ * The same parameters always produce the same corpus.
+ */
+public class SchemaCorpus {
+
+    public static final String ROOT_FILE_NAME = "root.json";
+
+    private static final String[] COMMON_NAMES = { "item", "value" };
+    private static final String[] SCALAR_TYPES = { "string", "integer", "number", "boolean" };
+    private static final long SEED = 42L;
+
+    private final JsonNodeFactory nodes = JsonNodeFactory.instance;
+    private final int width;
+    private final int depth;
+    private final int refFanOut;
+    private final double collisionRate;
+
+    public SchemaCorpus(int width, int depth, int refFanOut, double collisionRate) {
+        if (width < 0 || depth < 0 || refFanOut < 0) {
+            throw new IllegalArgumentException("width, depth and refFanOut must not be negative");
+        }
+        if (collisionRate < 0 || collisionRate > 1) {
+            throw new IllegalArgumentException("collisionRate must be between 0 and 1");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.refFanOut = refFanOut;
+        this.collisionRate = collisionRate;
+    }
+
+    /**
+     * Writes the root schema and its definitions documents into a directory.
+     *
+     * @return the root schema file
+     */
+    public File writeTo(File directory) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+        for (int i = 0; i < refFanOut; i++) {
+            mapper.writerWithDefaultPrettyPrinter().writeValue(new File(directory, definitionFileName(i)), definitionsSchema(i));
+        }
+        File root = new File(directory, ROOT_FILE_NAME);
+        mapper.writerWithDefaultPrettyPrinter().writeValue(root, rootSchema());
+        return root;
+    }
+
+    /**
+     * @return the root schema; its <code>$ref</code>s are relative to the
+     *         directory given to {@link #writeTo(File)}
+     */
+    public ObjectNode rootSchema() {
+        return objectSchema(0, new Random(SEED), new int[1]);
+    }
+
+    /**
+     * @return a definitions document, referenced as
+     *         <code>definitions{index}.json#/definitions/shared</code>
+     */
+    public ObjectNode definitionsSchema(int index) {
+        ObjectNode shared = nodes.objectNode();
+        shared.put("type", "object");
+        ObjectNode properties = shared.putObject("properties");
+        for (int i = 0; i < width; i++) {
+            properties.set("shared" + index + "_" + i, scalarSchema(i));
+        }
+        ObjectNode document = nodes.objectNode();
+        document.putObject("definitions").set("shared", shared);
+        return document;
+    }
+
+    /**
+     * @return a fragment path (using <code>/</code> delimiters) from the root
+     *         schema to its deepest inline object
+     */
+    public String deepestPath() {
+        StringBuilder path = new StringBuilder("#");
+        JsonNode schema = rootSchema();
+        for (int level = 0; level < depth; level++) {
+            String child = null;
+            for (Iterator<String> names = schema.get("properties").fieldNames(); names.hasNext();) {
+                child = names.next();
+            }
+            path.append("/properties/").append(child);
+            schema = schema.get("properties").get(child);
+        }
+        return path.toString();
+    }
+
+    /**
+     * @return an example document with the same shape as the root schema, in
+     *         which every object also carries an array of example items
+     */
+    public ObjectNode example() {
+        return exampleObject(0, new Random(SEED));
+    }
+
+    private ObjectNode objectSchema(int level, Random random, int[] counter) {
+        ObjectNode schema = nodes.objectNode();
+        schema.put("type", "object");
+        ObjectNode properties = schema.putObject("properties");
+        ArrayNode required = nodes.arrayNode();
+
+        for (int i = 0; i < width; i++) {
+            String name = "field" + i;
+            properties.set(name, scalarSchema(i));
+            if (i % 2 == 0) {
+                required.add(name);
+            }
+        }
+
+        for (int i = 0; i < refFanOut; i++) {
+            properties.putObject("ref" + i).put("$ref", definitionFileName(i) + "#/definitions/shared");
+        }
+
+        if (level < depth) {
+            for (int i = 0; i < COMMON_NAMES.length; i++) {
+                String name = random.nextDouble() < collisionRate ? COMMON_NAMES[i] : "level" + level + "_" + counter[0]++;
+                properties.set(name, objectSchema(level + 1, random, counter));
+            }
+        }
+
+        if (required.size() > 0) {
+            schema.set("required", required);
+        }
+        return schema;
+    }
+
+    private ObjectNode scalarSchema(int index) {
+        ObjectNode schema = nodes.objectNode();
+        if (index % 7 == 3) {
+            schema.put("type", "string");
+            schema.put("format", index % 2 == 0 ? "uri" : "date-time");
+        } else {
+            schema.put("type", SCALAR_TYPES[index % SCALAR_TYPES.length]);
+        }
+        return schema;
+    }
+
+    private ObjectNode exampleObject(int level, Random random) {
+        ObjectNode example = nodes.objectNode();
+        for (int i = 0; i < width; i++) {
+            switch (SCALAR_TYPES[i % SCALAR_TYPES.length]) {
+                case "string":
+                    example.put("field" + i, "text" + i);
+                    break;
+                case "integer":
+                    example.put("field" + i, i);
+                    break;
+                case "number":
+                    example.put("field" + i, i + 0.5);
+                    break;
+                default:
+                    example.put("field" + i, i % 2 == 0);
+                    break;
+            }
+        }
+        if (level < depth) {
+            for (int i = 0; i < COMMON_NAMES.length; i++) {
+                example.set(COMMON_NAMES[i] + level, exampleObject(level + 1, random));
+            }
+            ArrayNode items = example.putArray("items");
+            for (int i = 0; i < width; i++) {
+                ObjectNode item = items.addObject();
+                item.put("id", i);
+                item.put("name" + random.nextInt(Math.max(1, width)), "name");
+            }
+        }
+        return example;
+    }
+
+    private static String definitionFileName(int index) {
+        return "definitions" + index + ".json";
+    }
+
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.quantiply.SchemaGenerator;
+
+/**
+ * Measures inferring a schema from an example document shaped like the corpus,
+ * both from an in-memory tree and streamed from a file.
+ */
+public class SchemaGeneratorBenchmark extends CorpusBenchmark {
+
+    private final SchemaGenerator schemaGenerator = new SchemaGenerator();
+
+    private ObjectNode example;
+    private URL exampleUrl;
+
+    @Setup(Level.Trial)
+    public void writeExample() throws IOException {
+        example = corpus.example();
+        File exampleFile = new File(corpusDirectory, "example.json");
+        new ObjectMapper().writeValue(exampleFile, example);
+        exampleUrl = exampleFile.toURI().toURL();
+    }
+
+    @Benchmark
+    public ObjectNode schemaFromTree() {
+        return schemaGenerator.schemaFromExample(example);
+    }
+
+    @Benchmark
+    public ObjectNode schemaFromFile() {
+        return schemaGenerator.schemaFromExample(exampleUrl);
+    }
+
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.benchmarks;
+
+import java.net.URI;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.quantiply.FragmentResolver;
+import com.quantiply.Schema;
+import com.quantiply.SchemaStore;
+
+/**
+ * Measures loading the corpus through a fresh {@link SchemaStore} (the root
+ * document plus every <code>$ref</code>ed definitions document) and resolving
+ * the deepest fragment path of the root schema with {@link FragmentResolver}.
+ */
+public class SchemaStoreBenchmark extends CorpusBenchmark {
+
+    private static final String DELIMITERS = "#/.";
+
+    private final FragmentResolver fragmentResolver = new FragmentResolver();
+
+    private URI rootSchemaUri;
+    private JsonNode rootContent;
+    private String deepestPath;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        rootSchemaUri = rootSchema.toURI();
+        rootContent = corpus.rootSchema();
+        deepestPath = corpus.deepestPath();
+    }
+
+    @Benchmark
+    public void create(Blackhole blackhole) {
+        SchemaStore schemaStore = new SchemaStore();
+        Schema root = schemaStore.create(rootSchemaUri, DELIMITERS);
+        blackhole.consume(root);
+        for (int i = 0; i < refFanOut; i++) {
+            blackhole.consume(schemaStore.create(root, "definitions" + i + ".json#/definitions/shared", DELIMITERS));
+        }
+    }
+
+    @Benchmark
+    public JsonNode resolveFragment() {
+        return fragmentResolver.resolve(rootContent, deepestPath, DELIMITERS);
+    }
+
+}
@@ -0,0 +1,68 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.mysema.scalagen.ConversionSettings;
+import com.mysema.scalagen.Converter;
+
+/**
+ * Compares converting the Java sources generated for the corpus to Scala with
+ * scalagen's transformers folded one after another against the fused
+ * pipeline. Run with <code>-prof gc</code> to report allocation per operation
+ * (<code>gc.alloc.rate.norm</code>) alongside the timings.
+ */
+public class TransformerPipelineBenchmark extends CorpusBenchmark {
+
+    private static final ConversionSettings FOLDED = new ConversionSettings(false, false);
+    private static final ConversionSettings FUSED = new ConversionSettings(false, true);
+
+    private final List<String> javaSources = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void generateJavaSources() throws IOException {
+        for (String javaSource : ScalaConverterBenchmark.javaSourcesFor(rootSchema)) {
+            if (!Converter.instance().convert(javaSource, FOLDED).equals(Converter.instance().convert(javaSource, FUSED))) {
+                throw new IllegalStateException("Fused transformers changed the output for a generated source");
+            }
+            javaSources.add(javaSource);
+        }
+    }
+
+    @Benchmark
+    public void folded(Blackhole blackhole) {
+        for (String javaSource : javaSources) {
+            blackhole.consume(Converter.instance().convert(javaSource, FOLDED));
+        }
+    }
+
+    @Benchmark
+    public void fused(Blackhole blackhole) {
+        for (String javaSource : javaSources) {
+            blackhole.consume(Converter.instance().convert(javaSource, FUSED));
+        }
+    }
+
+}
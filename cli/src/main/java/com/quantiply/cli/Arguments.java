@@ -37,6 +37,8 @@ import com.quantiply.Language;
 import com.quantiply.NoopAnnotator;
 import com.quantiply.SourceSortOrder;
 import com.quantiply.SourceType;
+import com.quantiply.URLProtocol;
+import com.quantiply.util.URLUtil;
 
 import com.beust.jcommander.JCommander;
 import com.beust.jcommander.Parameter;
@@ -57,8 +59,10 @@ public class Arguments implements GenerationConfig {
     @Parameter(names = { "-t", "--target" }, description = "The target directory into which generated types will be written", required = true)
     private File targetDirectory;
 
-    @Parameter(names = { "-s", "--source" }, description = "The source file(s) or directory(ies) from which JSON Schema will be read", required = true, converter = UrlConverter.class)
-    private List<URL> sourcePaths;
+    @Parameter(names = { "-s", "--source" }, description = "The source file(s) or directory(ies) from which JSON Schema will be read", required = true)
+    private List<String> sourcePaths;
+
+    private List<URL> sourceUrls;
 
     @Parameter(names = { "-b", "--generate-builders" }, description = "Generate builder-style methods as well as setters")
     private boolean generateBuilderMethods = false;
@@ -228,6 +232,45 @@ public class Arguments implements GenerationConfig {
     @Parameter(names = { "-ftm", "--format-type-mapping" }, description = "Mapping from format identifier to type: <format>:<fully.qualified.Type>.", variableArity = true)
     private List<String> formatTypeMapping = new ArrayList<>();
     
+    @Parameter(names = { "-gt", "--generation-threads" }, description = "The number of threads used to read and parse source documents before types are generated, and to convert generated sources when targeting Scala. Output does not depend on this value.")
+    private int generationThreads = 1;
+
+    @Parameter(names = { "-inc", "--incremental" }, description = "Skip generation when no schema document, source or option has changed since the last run, and leave unchanged generated files untouched when something has.")
+    private boolean incremental = false;
+
+    @Parameter(names = { "-rc", "--remote-cache" }, description = "A directory in which the content of schemas read over http/https is cached between builds")
+    private File remoteCacheDirectory;
+
+    @Parameter(names = { "--remote-cache-ttl" }, description = "The time, in seconds, for which cached remote schema content is used without revalidation. Entries unused for longer than this are removed from the cache.")
+    private long remoteCacheTtl = 86400;
+
+    @Parameter(names = { "--offline" }, description = "Read schemas referenced over http/https only from the remote cache, without contacting the server")
+    private boolean offline = false;
+
+    @Parameter(names = { "--generation-report" }, description = "Write a report of the time and memory spent on each rule and schema to the target directory")
+    private boolean writeGenerationReport = false;
+
+    @Parameter(names = { "--skip-unchanged-output" }, description = "Leave generated files whose content is unchanged untouched, replace changed files atomically and remove files that are no longer generated.")
+    private boolean skipUnchangedOutput = false;
+
+    @Parameter(names = { "--no-daemon" }, description = "Generate in this process even when a generation daemon (started with --daemon) is running")
+    private boolean noDaemon = false;
+
+    @Parameter(names = { "--watch" }, description = "Keep running, and regenerate the types affected by each change to a source or referenced schema. Implies --incremental.")
+    private boolean watch = false;
+
+    @Parameter(names = { "--stream-output" }, description = "Write the classes generated from each source as soon as it is done, so that peak memory use does not grow with the number of sources.")
+    private boolean streamOutput = false;
+
+    @Parameter(names = { "--lazy-additional-properties" }, description = "Allocate the additionalProperties map of generated types only when a property is first added to it (or it is first asked for).")
+    private boolean lazyAdditionalProperties = false;
+
+    @Parameter(names = { "--immutable-types" }, description = "Generate immutable value types, with final fields set through a constructor, no setters or builders, unmodifiable collections and a cached hash code.")
+    private boolean immutableTypes = false;
+
+    @Parameter(names = { "--fuse-scala-transformers" }, description = "When generating Scala, apply adjacent node-local scalagen transformers in a single traversal rather than one after another.")
+    private boolean fuseScalaTransformers = false;
+
     private static final int EXIT_OKAY = 0;
     private static final int EXIT_ERROR = 1;
 
@@ -244,6 +287,22 @@ public class Arguments implements GenerationConfig {
      * @return an instance of the parsed arguments object
      */
     public Arguments parse(String[] args) {
+        return parse(args, null);
+    }
+
+    /**
+     * Parses command line arguments given in another directory, so that
+     * relative paths are resolved against that directory rather than the
+     * working directory of this process.
+     *
+     * @param args
+     *            the command line arguments
+     * @param workingDirectory
+     *            the directory relative paths are resolved against, or
+     *            <code>null</code> for the working directory of this process
+     * @return an instance of the parsed arguments object
+     */
+    Arguments parse(String[] args, File workingDirectory) {
 
         JCommander jCommander = new JCommander(this);
         jCommander.setProgramName("jsonschema2pojo");
@@ -255,6 +314,8 @@ public class Arguments implements GenerationConfig {
                 jCommander.usage();
                 exit(EXIT_OKAY);
             }
+
+            resolvePaths(workingDirectory);
         } catch (ParameterException e) {
             System.err.println(e.getMessage());
             jCommander.usage();
@@ -264,9 +325,26 @@ public class Arguments implements GenerationConfig {
         return this;
     }
 
+    private void resolvePaths(File workingDirectory) {
+        if (sourcePaths != null) {
+            UrlConverter urlConverter = new UrlConverter("--source");
+            sourceUrls = new ArrayList<>(sourcePaths.size());
+            for (String sourcePath : sourcePaths) {
+                boolean relative = URLUtil.parseProtocol(sourcePath) == URLProtocol.NO_PROTOCOL && !new File(sourcePath).isAbsolute();
+                sourceUrls.add(urlConverter.convert(relative && workingDirectory != null ? new File(workingDirectory, sourcePath).getPath() : sourcePath));
+            }
+        }
+        targetDirectory = resolve(workingDirectory, targetDirectory);
+        remoteCacheDirectory = resolve(workingDirectory, remoteCacheDirectory);
+    }
+
+    private static File resolve(File workingDirectory, File file) {
+        return workingDirectory == null || file == null || file.isAbsolute() ? file : new File(workingDirectory, file.getPath());
+    }
+
     @Override
     public Iterator<URL> getSource() {
-        return sourcePaths.iterator();
+        return sourceUrls.iterator();
     }
 
     @Override
@@ -412,6 +490,22 @@ public class Arguments implements GenerationConfig {
         return serializable;
     }
 
+    /**
+     * @return whether to generate in this process rather than forwarding to a
+     *         running {@link GenerationDaemon}
+     */
+    public boolean isNoDaemon() {
+        return noDaemon;
+    }
+
+    /**
+     * @return whether to keep running and regenerate as schemas change, see
+     *         {@link SchemaWatcher}
+     */
+    public boolean isWatch() {
+        return watch;
+    }
+
     protected void exit(int status) {
         System.exit(status);
     }
@@ -567,4 +661,59 @@ public class Arguments implements GenerationConfig {
                 .stream()
                 .collect(Collectors.toMap(m -> m.split(":")[0], m -> m.split(":")[1]));
     }
+
+    @Override
+    public int getGenerationThreads() {
+        return generationThreads;
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return incremental || watch;
+    }
+
+    @Override
+    public File getRemoteCacheDirectory() {
+        return remoteCacheDirectory;
+    }
+
+    @Override
+    public long getRemoteCacheTtl() {
+        return remoteCacheTtl;
+    }
+
+    @Override
+    public boolean isOffline() {
+        return offline;
+    }
+
+    @Override
+    public boolean isWriteGenerationReport() {
+        return writeGenerationReport;
+    }
+
+    @Override
+    public boolean isSkipUnchangedOutput() {
+        return skipUnchangedOutput;
+    }
+
+    @Override
+    public boolean isStreamOutput() {
+        return streamOutput;
+    }
+
+    @Override
+    public boolean isLazyAdditionalProperties() {
+        return lazyAdditionalProperties;
+    }
+
+    @Override
+    public boolean isImmutableTypes() {
+        return immutableTypes;
+    }
+
+    @Override
+    public boolean isFuseScalaTransformers() {
+        return fuseScalaTransformers;
+    }
 }
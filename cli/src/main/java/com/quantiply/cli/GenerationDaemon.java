@@ -0,0 +1,347 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.quantiply.CachingContentResolver;
+import com.quantiply.ContentResolver;
+import com.quantiply.Jsonschema2Pojo;
+import com.quantiply.SourceType;
+import com.quantiply.exception.GenerationException;
+
+/**
+ * A long-running process that generates types on behalf of command line
+ * invocations, so that they do not each pay for starting a JVM, loading
+ * classes and warming up the parsers, code model and Scala converter.
+ * <p>
+ * The daemon is started with <code>jsonschema2pojo --daemon</code> and
+ * listens on a loopback port. It records the port, and a secret that clients
+ * must present, in {@link #STATE_FILE}, which is readable only by the current
+ * user. While that file exists, other invocations forward their arguments
+ * (and working directory) to the daemon instead of generating in-process.
+ * Requests are handled one at a time, and a request that is not received
+ * in time is dropped. Parsed schema documents are kept
+ * between requests and read again when their files change.
+ * <p>
+ * The state file also records the version of the daemon, and invocations
+ * of a different version generate in-process rather than forwarding to it,
+ * so a daemon left running across an upgrade is not used until it is
+ * restarted.
+ * <p>
+ * Custom rule factories and annotators must be on the classpath of the
+ * daemon.
+ */
+public final class GenerationDaemon {
+
+    public static final String DAEMON_OPTION = "--daemon";
+
+    public static final File STATE_FILE = new File(System.getProperty("user.home"), ".jsonschema2pojo" + File.separator + "daemon.properties");
+
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+
+    /**
+     * The version of this build, taken from the jar manifest (or
+     * <code>unknown</code> when running from classes).
+     */
+    private static final String VERSION = getVersion();
+
+    /**
+     * How long the daemon waits for each read of a request, so that a client
+     * that stalls can't hold up the clients queued behind it.
+     */
+    private static final int READ_TIMEOUT_MILLIS = 10000;
+
+    private final ServerSocket serverSocket;
+    private final String secret;
+    private final Map<List<Object>, ContentResolver> contentResolvers = new HashMap<>();
+
+    private GenerationDaemon(ServerSocket serverSocket, String secret) {
+        this.serverSocket = serverSocket;
+        this.secret = secret;
+    }
+
+    /**
+     * Starts a daemon and handles requests until the process is stopped.
+     *
+     * @param args
+     *            the command line arguments, including
+     *            {@value #DAEMON_OPTION}
+     * @throws IOException
+     *             if the daemon cannot listen or record its state
+     */
+    public static void serve(String[] args) throws IOException {
+        Options options = new Options();
+        JCommander jCommander = new JCommander(options);
+        jCommander.setProgramName("jsonschema2pojo " + DAEMON_OPTION);
+        try {
+            jCommander.parse(args);
+        } catch (ParameterException e) {
+            System.err.println(e.getMessage());
+            jCommander.usage();
+            System.exit(1);
+        }
+        if (options.showHelp) {
+            jCommander.usage();
+            return;
+        }
+
+        String secret = new BigInteger(256, new SecureRandom()).toString(16);
+
+        ServerSocket serverSocket = new ServerSocket();
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), options.port));
+
+        GenerationDaemon daemon = new GenerationDaemon(serverSocket, secret);
+        daemon.writeState();
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::removeState));
+
+        System.out.println("jsonschema2pojo daemon listening on port " + serverSocket.getLocalPort());
+        daemon.run();
+    }
+
+    /**
+     * Forwards an invocation to a running daemon, if there is one.
+     *
+     * @param args
+     *            the command line arguments, already checked by
+     *            {@link Arguments#parse(String[])}
+     * @param workingDirectory
+     *            the directory relative paths in the arguments refer to
+     * @return <code>true</code> if a daemon generated the types, or
+     *         <code>false</code> if no daemon of this version is running
+     * @throws GenerationException
+     *             if the daemon failed to generate the types
+     * @throws IOException
+     *             if the connection to the daemon fails during the request
+     */
+    public static boolean forward(String[] args, File workingDirectory) throws IOException {
+        Properties state = readState();
+        if (state == null) {
+            return false;
+        }
+        if (!VERSION.equals(state.getProperty("version"))) {
+            System.err.println("Ignoring generation daemon of version " + state.getProperty("version", "unknown") + " (this is " + VERSION + "); restart it with " + DAEMON_OPTION);
+            return false;
+        }
+
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(state.getProperty("port"))), CONNECT_TIMEOUT_MILLIS);
+        } catch (IOException | NumberFormatException e) {
+            // the daemon has gone away without removing its state
+            socket.close();
+            return false;
+        }
+
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            writeBytes(out, state.getProperty("secret", "").getBytes(StandardCharsets.US_ASCII));
+            out.writeUTF(workingDirectory.getAbsolutePath());
+            out.writeInt(args.length);
+            for (String arg : args) {
+                out.writeUTF(arg);
+            }
+            out.flush();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            boolean succeeded = in.readBoolean();
+            String failure = new String(readBytes(in), StandardCharsets.UTF_8);
+            if (!succeeded) {
+                throw new GenerationException("Generation daemon failed: " + failure);
+            }
+            return true;
+        } finally {
+            socket.close();
+        }
+    }
+
+    private void run() throws IOException {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                socket.setSoTimeout(READ_TIMEOUT_MILLIS);
+                handle(socket);
+            } catch (IOException e) {
+                // a client disconnected or stalled mid-request; keep serving others
+                System.err.println("Request failed: " + e.getMessage());
+            }
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        byte[] presentedSecret = readBytes(in);
+        if (!MessageDigest.isEqual(presentedSecret, secret.getBytes(StandardCharsets.US_ASCII))) {
+            return;
+        }
+        File workingDirectory = new File(in.readUTF());
+        String[] args = new String[in.readInt()];
+        for (int i = 0; i < args.length; i++) {
+            args[i] = in.readUTF();
+        }
+
+        String failure = "";
+        try {
+            Arguments arguments = new DaemonArguments().parse(args, workingDirectory);
+            Jsonschema2Pojo.generate(arguments, getContentResolver(arguments));
+        } catch (Exception | LinkageError e) {
+            StringWriter stackTrace = new StringWriter();
+            e.printStackTrace(new PrintWriter(stackTrace));
+            failure = stackTrace.toString();
+        }
+
+        out.writeBoolean(failure.isEmpty());
+        writeBytes(out, failure.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    /**
+     * Resolvers (and the documents they keep) are shared by requests that
+     * read schemas in the same way.
+     */
+    private ContentResolver getContentResolver(Arguments arguments) {
+        boolean yaml = arguments.getSourceType() == SourceType.YAMLSCHEMA || arguments.getSourceType() == SourceType.YAML;
+        List<Object> key = Arrays.asList(yaml, arguments.getRemoteCacheDirectory(), arguments.getRemoteCacheTtl(), arguments.isOffline());
+        return contentResolvers.computeIfAbsent(key, k -> new CachingContentResolver(Jsonschema2Pojo.createContentResolver(arguments)));
+    }
+
+    private void writeState() throws IOException {
+        File directory = STATE_FILE.getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory);
+        }
+
+        Properties state = new Properties();
+        state.setProperty("port", Integer.toString(serverSocket.getLocalPort()));
+        state.setProperty("secret", secret);
+        state.setProperty("version", VERSION);
+
+        File temporary = new File(directory, STATE_FILE.getName() + ".tmp");
+        try (OutputStream stateStream = new FileOutputStream(temporary)) {
+            restrictToOwner(temporary);
+            state.store(stateStream, "jsonschema2pojo daemon");
+        }
+        Files.move(temporary.toPath(), STATE_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void removeState() {
+        Properties state = readState();
+        if (state != null && secret.equals(state.getProperty("secret"))) {
+            STATE_FILE.delete();
+        }
+    }
+
+    private static Properties readState() {
+        if (!STATE_FILE.isFile()) {
+            return null;
+        }
+        try (InputStream stateStream = new FileInputStream(STATE_FILE)) {
+            Properties state = new Properties();
+            state.load(stateStream);
+            return state;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String getVersion() {
+        String version = GenerationDaemon.class.getPackage().getImplementationVersion();
+        return version == null ? "unknown" : version;
+    }
+
+    private static void restrictToOwner(File file) throws IOException {
+        try {
+            Files.setPosixFilePermissions(file.toPath(), PosixFilePermissions.fromString("rw-------"));
+        } catch (UnsupportedOperationException e) {
+            file.setReadable(false, false);
+            file.setReadable(true, true);
+        }
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > 1 << 24) {
+            throw new IOException("Invalid message length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    private static class Options {
+
+        @Parameter(names = { DAEMON_OPTION }, description = "Run a daemon that generates types on behalf of other invocations", required = true)
+        private boolean daemon;
+
+        @Parameter(names = { "--daemon-port" }, description = "The loopback port the daemon listens on (by default, any free port)")
+        private int port = 0;
+
+        @Parameter(names = { "-h", "--help" }, description = "Print help information and exit")
+        private boolean showHelp = false;
+
+    }
+
+    /**
+     * Arguments that report problems to the client rather than stopping the
+     * daemon.
+     */
+    private static class DaemonArguments extends Arguments {
+
+        @Override
+        protected void exit(int status) {
+            throw new IllegalArgumentException("Invalid arguments (exit status " + status + ")");
+        }
+
+    }
+
+}
@@ -16,8 +16,10 @@
 
 package com.quantiply.cli;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Arrays;
 
 import com.quantiply.Jsonschema2Pojo;
 
@@ -32,7 +34,9 @@ public final class Jsonschema2PojoCLI {
     /**
      * Main method, entry point for the application when invoked via the command
      * line. Arguments are expected in POSIX format, invoke with --help for
-     * details.
+     * details. With {@value GenerationDaemon#DAEMON_OPTION}, a
+     * {@link GenerationDaemon} is started instead; while one is running,
+     * other invocations are forwarded to it.
      * 
      * @param args
      *            Incoming arguments from the command line
@@ -44,13 +48,22 @@ public final class Jsonschema2PojoCLI {
      */
     public static void main(String[] args) throws IOException {
 
+        if (Arrays.asList(args).contains(GenerationDaemon.DAEMON_OPTION)) {
+            GenerationDaemon.serve(args);
+            return;
+        }
+
         Arguments arguments = new Arguments().parse(args);
 
         if (arguments.isUseCommonsLang3()) {
             System.err.println("--commons-lang3 is deprecated. Please remove the argument from your command-line arguments.");
         }
 
-        Jsonschema2Pojo.generate(arguments);
+        if (arguments.isWatch()) {
+            SchemaWatcher.watch(arguments);
+        } else if (arguments.isNoDaemon() || !GenerationDaemon.forward(args, new File(System.getProperty("user.dir")))) {
+            Jsonschema2Pojo.generate(arguments);
+        }
     }
 
 
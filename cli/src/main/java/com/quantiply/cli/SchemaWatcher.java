@@ -0,0 +1,220 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.cli;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import com.quantiply.CachingContentResolver;
+import com.quantiply.ContentResolver;
+import com.quantiply.GenerationConfig;
+import com.quantiply.Jsonschema2Pojo;
+import com.quantiply.SchemaDependencyGraph;
+import com.quantiply.URLProtocol;
+import com.quantiply.util.URLUtil;
+
+/**
+ * Watches the source directories (and every other schema file the last run
+ * read through <code>$ref</code>) and regenerates after each burst of
+ * changes. Generation is incremental, so only the sources that read a changed
+ * document are generated again, and parsed documents are kept between runs.
+ */
+final class SchemaWatcher {
+
+    /**
+     * How long the file system must be quiet before generating, so that a
+     * burst of changes (such as an editor saving through a temporary file, or
+     * a checkout) results in a single run.
+     */
+    private static final long DEBOUNCE_MILLIS = 200;
+
+    private final GenerationConfig config;
+    private final ContentResolver contentResolver;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+    private final List<Path> sourceDirectories = new ArrayList<>();
+    private final Set<Path> watchedFiles = new HashSet<>();
+    private final Path targetDirectory;
+
+    private SchemaWatcher(GenerationConfig config, WatchService watchService) {
+        this.config = config;
+        this.contentResolver = new CachingContentResolver(Jsonschema2Pojo.createContentResolver(config));
+        this.watchService = watchService;
+        this.targetDirectory = config.getTargetDirectory().toPath().toAbsolutePath();
+    }
+
+    /**
+     * Generates, then regenerates whenever a watched schema changes, until
+     * the thread is interrupted or the process is stopped.
+     *
+     * @param config
+     *            the configuration of each run, which must be incremental
+     * @throws IOException
+     *             if the source directories cannot be watched
+     */
+    static void watch(GenerationConfig config) throws IOException {
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            new SchemaWatcher(config, watchService).run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() throws IOException, InterruptedException {
+        for (Iterator<URL> sources = config.getSource(); sources.hasNext();) {
+            URL source = sources.next();
+            if (URLUtil.parseProtocol(source.toString()) != URLProtocol.FILE) {
+                continue;
+            }
+            Path path = URLUtil.getFileFromURL(source).toPath().toAbsolutePath();
+            if (Files.isDirectory(path)) {
+                sourceDirectories.add(path);
+                registerAll(path);
+            } else {
+                watchFile(path);
+            }
+        }
+
+        generate();
+        System.out.println("Watching for changes...");
+
+        while (true) {
+            boolean changed = handle(watchService.take());
+            for (WatchKey key; (key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null;) {
+                changed |= handle(key);
+            }
+            if (changed) {
+                generate();
+            }
+        }
+    }
+
+    private void generate() throws IOException {
+        long start = System.nanoTime();
+        try {
+            Jsonschema2Pojo.generate(config, contentResolver);
+            System.out.println("Generated in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        } catch (IOException | RuntimeException e) {
+            // keep watching, so that the schema can be fixed
+            System.err.println("Generation failed: " + e.getMessage());
+        }
+        watchReferencedDocuments();
+    }
+
+    private void watchReferencedDocuments() throws IOException {
+        SchemaDependencyGraph graph = SchemaDependencyGraph.read(config.getTargetDirectory());
+        if (graph == null) {
+            return;
+        }
+        for (URI document : graph.getDocuments()) {
+            if ("file".equals(document.getScheme())) {
+                Path path = new File(document).toPath().toAbsolutePath();
+                if (!isInSourceDirectory(path)) {
+                    watchFile(path);
+                }
+            }
+        }
+    }
+
+    private void watchFile(Path file) throws IOException {
+        if (watchedFiles.add(file) && Files.isDirectory(file.getParent())) {
+            register(file.getParent());
+        }
+    }
+
+    /**
+     * Handles the events of a watch key.
+     *
+     * @return whether any event concerns a schema
+     */
+    private boolean handle(WatchKey key) throws IOException {
+        Path directory = watchedDirectories.get(key);
+        boolean changed = false;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                changed = true;
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (path.startsWith(targetDirectory)) {
+                continue;
+            } else if (watchedFiles.contains(path)) {
+                changed = true;
+            } else if (isInSourceDirectory(path)) {
+                if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                    registerAll(path);
+                    changed = true;
+                } else if (event.kind() == ENTRY_DELETE || config.getFileFilter().accept(path.toFile())) {
+                    changed = true;
+                }
+            }
+        }
+
+        if (!key.reset()) {
+            watchedDirectories.remove(key);
+        }
+        return changed;
+    }
+
+    private boolean isInSourceDirectory(Path path) {
+        for (Path sourceDirectory : sourceDirectories) {
+            if (path.startsWith(sourceDirectory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void registerAll(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                register(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void register(Path directory) throws IOException {
+        if (!watchedDirectories.containsValue(directory)) {
+            watchedDirectories.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), directory);
+        }
+    }
+
+}
@@ -23,6 +23,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.net.URL;
+import java.util.Iterator;
 
 import com.quantiply.InclusionLevel;
 import org.hamcrest.Matchers;
@@ -144,6 +146,31 @@ public class ArgumentsTest {
         assertThat(new String(systemOutCapture.toByteArray(), "UTF-8"), is(containsString("Usage: jsonschema2pojo")));
     }
 
+    @Test
+    public void relativePathsAreResolvedAgainstGivenWorkingDirectory() {
+        File workingDirectory = new File("/home/project");
+        ArgsForTest args = (ArgsForTest) new ArgsForTest().parse(new String[] {
+                "--source", "schema", "--source", "/home/shared", "--target", "generated", "--remote-cache", "/home/cache"
+        }, workingDirectory);
+
+        assertThat(args.didExit(), is(false));
+        Iterator<URL> sources = args.getSource();
+        assertThat(sources.next().getFile(), endsWith("/home/project/schema"));
+        assertThat(sources.next().getFile(), endsWith("/home/shared"));
+        assertThat(args.getTargetDirectory(), is(new File(workingDirectory, "generated")));
+        assertThat(args.getRemoteCacheDirectory(), is(theFile("/home/cache")));
+    }
+
+    @Test
+    public void watchImpliesIncremental() {
+        ArgsForTest args = (ArgsForTest) new ArgsForTest().parse(new String[] {
+                "--source", "/home/source", "--target", "/home/target", "--watch"
+        });
+
+        assertThat(args.isWatch(), is(true));
+        assertThat(args.isIncremental(), is(true));
+    }
+
     private File theFile(String path) {
         return new File(path);
     }
@@ -47,11 +47,27 @@ public enum AnnotationStyle {
      */
     JACKSON2,
 
+    /**
+     * Jackson 2.x, with a generated serializer and deserializer for each type
+     * (registered by a generated <code>Jackson2SerializersModule</code>) so
+     * that binding needs no reflection. Types are annotated as for
+     * {@link #JACKSON2}, so they can also be bound without the module.
+     */
+    JACKSON2_SERIALIZERS,
+
     /**
      * Gson 2.x
      */
     GSON,
 
+    /**
+     * Gson 2.x, with a generated <code>TypeAdapter</code> for each type (created
+     * by a generated <code>GsonTypeAdapterFactory</code>) so that binding needs
+     * no reflection. Types are annotated as for {@link #GSON}, so they can also
+     * be bound without the factory.
+     */
+    GSON_TYPE_ADAPTERS,
+
     /**
      * Moshi 1.x
      *
@@ -60,6 +76,14 @@ public enum AnnotationStyle {
      */
     MOSHI1,
 
+    /**
+     * Moshi 1.x, with a generated <code>JsonAdapter</code> for each type
+     * (created by a generated <code>Moshi1JsonAdapterFactory</code>) so that
+     * binding needs no reflection. Types are annotated as for {@link #MOSHI1},
+     * so they can also be bound without the factory.
+     */
+    MOSHI1_JSON_ADAPTERS,
+
     /**
      * No-op style, adds no annotations at all.
      */
@@ -45,12 +45,15 @@ public class AnnotatorFactory {
         switch (style) {
             case JACKSON:
             case JACKSON2:
+            case JACKSON2_SERIALIZERS:
                 return new Jackson2Annotator(generationConfig);
             case JACKSON1:
                 return new Jackson1Annotator(generationConfig);
             case GSON:
+            case GSON_TYPE_ADAPTERS:
                 return new GsonAnnotator(generationConfig);
             case MOSHI1:
+            case MOSHI1_JSON_ADAPTERS:
                 return new Moshi1Annotator(generationConfig);
             case NONE:
                 return new NoopAnnotator();
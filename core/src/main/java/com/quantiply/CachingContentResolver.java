@@ -0,0 +1,106 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.FileUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.quantiply.util.DigestUtil;
+
+/**
+ * A content resolver that keeps the documents read through another resolver,
+ * so that a long-lived process generating from the same schemas repeatedly
+ * parses each document only once. Files are parsed again when a digest of
+ * their content changes (modification times are too coarse to rely on, as a
+ * file can be rewritten within the same second without changing its length);
+ * documents on the classpath are kept for the lifetime of the resolver, and
+ * remote documents are never kept (use a {@link RemoteContentCache} for
+ * those). Instances are safe to use from multiple threads.
+ * <p>
+ * Documents are shared between callers, which must not modify them.
+ */
+public class CachingContentResolver extends ContentResolver {
+
+    private final ContentResolver delegate;
+    private final Map<URI, Document> documents = new ConcurrentHashMap<>();
+
+    /**
+     * @param delegate
+     *            the resolver used to read documents that are not cached
+     */
+    public CachingContentResolver(ContentResolver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public JsonNode resolve(URI uri) {
+        if (isClasspath(uri)) {
+            return documents.computeIfAbsent(uri, u -> new Document(null, delegate.resolve(u))).content;
+        }
+
+        File file = toFile(uri);
+        if (file == null) {
+            return delegate.resolve(uri);
+        }
+
+        String digest;
+        try {
+            digest = DigestUtil.sha256Hex(FileUtils.readFileToByteArray(file));
+        } catch (IOException e) {
+            // let the delegate report the file in the usual way
+            return delegate.resolve(uri);
+        }
+        Document document = documents.get(uri);
+        if (document == null || !digest.equals(document.digest)) {
+            document = new Document(digest, delegate.resolve(uri));
+            documents.put(uri, document);
+        }
+        return document.content;
+    }
+
+    private static boolean isClasspath(URI uri) {
+        return "classpath".equals(uri.getScheme()) || "resource".equals(uri.getScheme()) || "java".equals(uri.getScheme());
+    }
+
+    private static File toFile(URI uri) {
+        if (!"file".equals(uri.getScheme())) {
+            return null;
+        }
+        try {
+            return new File(uri);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static final class Document {
+        private final String digest;
+        private final JsonNode content;
+
+        private Document(String digest, JsonNode content) {
+            this.digest = digest;
+            this.content = content;
+        }
+    }
+
+}
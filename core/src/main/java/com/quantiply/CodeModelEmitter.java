@@ -0,0 +1,196 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.io.output.NullWriter;
+
+import com.sun.codemodel.CodeWriter;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JPackage;
+import com.sun.codemodel.JVar;
+
+/**
+ * Writes the classes of a code model to the target directory, either all at
+ * once or in batches as generation proceeds.
+ * <p>
+ * A batch writes the top-level classes that no earlier batch has written and
+ * then releases them: each is hidden from later batches, its documentation is
+ * dropped and its methods and constructors are replaced with bodiless stubs.
+ * A stub keeps the modifiers, return type, name, parameters (with their
+ * modifiers) and varargs parameter of the method it replaces, but not its
+ * type parameters, throws clause or annotations, nor the annotations of its
+ * parameters. Later rules can still extend, refer to and look up fields and
+ * methods of a released class by name and parameter types, but the bulk of
+ * its code is no longer held, so memory use follows the sources being
+ * generated rather than everything generated so far.
+ * <p>
+ * Aggregate classes (see
+ * {@link com.quantiply.rules.RuleFactory#getAggregateClasses()}) grow with
+ * every source, so batches neither write nor release them and they are only
+ * written with the last batch.
+ */
+final class CodeModelEmitter implements Closeable {
+
+    private final GenerationConfig config;
+    private final GeneratedFiles generatedFiles;
+    private final GenerationMetrics metrics;
+    private final Set<JDefinedClass> aggregateClasses;
+
+    private CodeWriter sourcesWriter;
+    private CodeWriter resourcesWriter;
+
+    CodeModelEmitter(GenerationConfig config, GeneratedFiles generatedFiles, GenerationMetrics metrics, Set<JDefinedClass> aggregateClasses) {
+        this.config = config;
+        this.generatedFiles = generatedFiles;
+        this.metrics = metrics;
+        this.aggregateClasses = aggregateClasses;
+    }
+
+    /**
+     * Writes every class of the code model that has not been written yet.
+     *
+     * @param codeModel
+     *            the code model to write
+     * @param release
+     *            whether to release the written classes, because more
+     *            batches will follow
+     * @throws IOException
+     *             if a class cannot be written
+     */
+    void emit(JCodeModel codeModel, boolean release) throws IOException {
+        if (sourcesWriter == null) {
+            if (config.getTargetLanguage() == Language.SCALA) {
+                sourcesWriter = new ScalaFileCodeWriter(config.getTargetDirectory(), config.getOutputEncoding(), config.getGenerationThreads(), generatedFiles, metrics,
+                        config.isFuseScalaTransformers());
+            } else {
+                sourcesWriter = new FileCodeWriterWithEncoding(config.getTargetDirectory(), config.getOutputEncoding(), generatedFiles);
+            }
+            resourcesWriter = new FileCodeWriterWithEncoding(config.getTargetDirectory(), config.getOutputEncoding(), generatedFiles);
+        }
+
+        // JCodeModel.build closes its writers, which must stay open until the last batch
+        CodeWriter sources = new UnclosedCodeWriter(sourcesWriter, release ? aggregateClasses : Collections.<JDefinedClass>emptySet());
+        CodeWriter resources = new UnclosedCodeWriter(resourcesWriter, Collections.<JDefinedClass>emptySet());
+        if (metrics == null) {
+            codeModel.build(sources, resources);
+        } else {
+            metrics.measurePhase(GenerationMetrics.CODE_MODEL_BUILD, null, () -> {
+                codeModel.build(sources, resources);
+                return null;
+            });
+        }
+
+        if (release) {
+            for (Iterator<JPackage> packages = codeModel.packages(); packages.hasNext();) {
+                for (Iterator<JDefinedClass> classes = packages.next().classes(); classes.hasNext();) {
+                    JDefinedClass definedClass = classes.next();
+                    if (!definedClass.isHidden() && !aggregateClasses.contains(definedClass)) {
+                        definedClass.hide();
+                        release(definedClass);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (sourcesWriter != null) {
+            try {
+                sourcesWriter.close();
+            } finally {
+                resourcesWriter.close();
+            }
+        }
+    }
+
+    private static void release(JDefinedClass definedClass) {
+        definedClass.javadoc().clear();
+
+        List<JMethod> methods = new ArrayList<>(definedClass.methods());
+        definedClass.methods().clear();
+        for (JMethod method : methods) {
+            addParams(definedClass.method(method.mods().getValue(), method.type(), method.name()), method);
+        }
+
+        List<JMethod> constructors = new ArrayList<>();
+        for (Iterator<JMethod> i = definedClass.constructors(); i.hasNext();) {
+            constructors.add(i.next());
+            i.remove();
+        }
+        for (JMethod constructor : constructors) {
+            addParams(definedClass.constructor(constructor.mods().getValue()), constructor);
+        }
+
+        for (Iterator<JDefinedClass> nestedClasses = definedClass.classes(); nestedClasses.hasNext();) {
+            release(nestedClasses.next());
+        }
+    }
+
+    private static void addParams(JMethod stub, JMethod method) {
+        for (JVar param : method.params()) {
+            stub.param(param.mods().getValue(), param.type(), param.name());
+        }
+        if (method.hasVarArgs()) {
+            stub.varParam(method.listVarParamType(), method.listVarParam().name());
+        }
+    }
+
+    private static final class UnclosedCodeWriter extends CodeWriter {
+
+        private final CodeWriter delegate;
+        private final Set<JDefinedClass> skippedClasses;
+
+        private UnclosedCodeWriter(CodeWriter delegate, Set<JDefinedClass> skippedClasses) {
+            this.delegate = delegate;
+            this.skippedClasses = skippedClasses;
+        }
+
+        @Override
+        public OutputStream openBinary(JPackage pkg, String fileName) throws IOException {
+            return delegate.openBinary(pkg, fileName);
+        }
+
+        @Override
+        public Writer openSource(JPackage pkg, String fileName) throws IOException {
+            for (JDefinedClass skippedClass : skippedClasses) {
+                if (skippedClass._package() == pkg && fileName.equals(skippedClass.name() + ".java")) {
+                    return NullWriter.NULL_WRITER;
+                }
+            }
+            return delegate.openSource(pkg, fileName);
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+}
@@ -0,0 +1,127 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply;
+
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A {@link SchemaStore} that can be used from many threads at once without a
+ * store-wide lock.
+ * <p>
+ * Schemas are kept in a {@link ConcurrentHashMap}, and each base document is
+ * read exactly once: the first thread to request a document reads it while
+ * later requests for the same document wait on a future for its content,
+ * and requests for other documents carry on independently. Fragments are
+ * resolved against the shared content without locking. A document that fails
+ * to load is not remembered, so a later request will try again.
+ * <p>
+ * Use it by passing an instance to
+ * {@link com.quantiply.rules.RuleFactory#setSchemaStore(SchemaStore)}.
+ */
+public class ConcurrentSchemaStore extends SchemaStore {
+
+    private final ConcurrentMap<URI, CompletableFuture<JsonNode>> documents = new ConcurrentHashMap<>();
+
+    public ConcurrentSchemaStore() {
+        this(new ContentResolver());
+    }
+
+    public ConcurrentSchemaStore(ContentResolver contentResolver) {
+        super(contentResolver, new ConcurrentHashMap<>());
+    }
+
+    @Override
+    public Schema create(URI id, String refFragmentPathDelimiters) {
+
+        URI baseId = removeFragment(id);
+        addReferencedDocument(baseId);
+
+        Schema schema = schemas.get(id);
+        if (schema != null) {
+            return schema;
+        }
+
+        JsonNode baseContent = loadDocument(baseId);
+        Schema baseSchema = new Schema(baseId, baseContent, null);
+
+        if (id.toString().contains("#")) {
+            JsonNode childContent = fragmentResolver.resolve(baseContent, '#' + id.getFragment(), refFragmentPathDelimiters);
+            schema = new Schema(id, childContent, baseSchema);
+        } else {
+            schema = baseSchema;
+        }
+
+        Schema existing = schemas.putIfAbsent(id, schema);
+        return existing != null ? existing : schema;
+    }
+
+    @Override
+    public void prefetch(URI id) {
+
+        URI baseId = removeFragment(id);
+
+        if (!schemas.containsKey(baseId)) {
+            JsonNode baseContent = loadDocument(baseId);
+            schemas.putIfAbsent(baseId, new Schema(baseId, baseContent, null));
+        }
+    }
+
+    @Override
+    public void clearCache() {
+        schemas.clear();
+        documents.clear();
+        takeReferencedDocuments();
+        takeGeneratedTypes();
+    }
+
+    private JsonNode loadDocument(URI baseId) {
+
+        CompletableFuture<JsonNode> content = documents.get(baseId);
+
+        if (content == null) {
+            CompletableFuture<JsonNode> load = new CompletableFuture<>();
+            content = documents.putIfAbsent(baseId, load);
+
+            if (content == null) {
+                try {
+                    load.complete(contentResolver.resolve(baseId));
+                } catch (RuntimeException e) {
+                    documents.remove(baseId, load);
+                    load.completeExceptionally(e);
+                    throw e;
+                }
+                return load.join();
+            }
+        }
+
+        try {
+            return content.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+}
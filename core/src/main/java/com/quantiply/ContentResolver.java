@@ -38,17 +38,32 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 public class ContentResolver {
 
     private static final Set<String> CLASSPATH_SCHEMES = new HashSet<>(asList("classpath", "resource", "java"));
+    private static final Set<String> REMOTE_SCHEMES = new HashSet<>(asList("http", "https"));
     
     private final ObjectMapper objectMapper;
+    private final RemoteContentCache remoteContentCache;
 
     public ContentResolver() {
     	this(null);
 	}
 
     public ContentResolver(JsonFactory jsonFactory) {
+    	this(jsonFactory, null);
+	}
+
+    /**
+     * @param jsonFactory
+     *            the factory used to parse documents, or <code>null</code> for
+     *            JSON
+     * @param remoteContentCache
+     *            the cache through which http/https documents are read, or
+     *            <code>null</code> to always read them from the server
+     */
+    public ContentResolver(JsonFactory jsonFactory, RemoteContentCache remoteContentCache) {
     	this.objectMapper = new ObjectMapper(jsonFactory)
                 .enable(JsonParser.Feature.ALLOW_COMMENTS)
                 .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+    	this.remoteContentCache = remoteContentCache;
 	}
 
     /**
@@ -73,6 +88,9 @@ public class ContentResolver {
         }
 
         try {
+            if (remoteContentCache != null && REMOTE_SCHEMES.contains(uri.getScheme())) {
+                return objectMapper.readTree(remoteContentCache.get(uri));
+            }
             return objectMapper.readTree(uri.toURL());
         } catch (JsonProcessingException e) {
             throw new IllegalArgumentException("Error parsing document: " + uri, e);
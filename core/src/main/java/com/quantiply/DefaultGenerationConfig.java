@@ -456,4 +456,92 @@ public class DefaultGenerationConfig implements GenerationConfig {
 
     @Override
     public boolean isUseInnerClassBuilders() { return false; }
+
+    /**
+     * @return <code>1</code>
+     */
+    @Override
+    public int getGenerationThreads() {
+        return 1;
+    }
+
+    /**
+     * @return <code>false</code>
+     */
+    @Override
+    public boolean isIncremental() {
+        return false;
+    }
+
+    /**
+     * @return <code>null</code>
+     */
+    @Override
+    public File getRemoteCacheDirectory() {
+        return null;
+    }
+
+    /**
+     * @return <code>86400</code>
+     */
+    @Override
+    public long getRemoteCacheTtl() {
+        return 86400;
+    }
+
+    /**
+     * @return <code>false</code>
+     */
+    @Override
+    public boolean isOffline() {
+        return false;
+    }
+
+    /**
+     * @return <code>false</code>
+     */
+    @Override
+    public boolean isWriteGenerationReport() {
+        return false;
+    }
+
+    /**
+     * @return <code>false</code>
+     */
+    @Override
+    public boolean isSkipUnchangedOutput() {
+        return false;
+    }
+
+    /**
+     * @return <code>false</code>
+     */
+    @Override
+    public boolean isStreamOutput() {
+        return false;
+    }
+
+    /**
+     * @return <code>false</code>
+     */
+    @Override
+    public boolean isLazyAdditionalProperties() {
+        return false;
+    }
+
+    /**
+     * @return <code>false</code>
+     */
+    @Override
+    public boolean isImmutableTypes() {
+        return false;
+    }
+
+    /**
+     * @return <code>false</code>
+     */
+    @Override
+    public boolean isFuseScalaTransformers() {
+        return false;
+    }
 }
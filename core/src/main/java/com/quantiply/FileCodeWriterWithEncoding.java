@@ -16,8 +16,10 @@
 
 package com.quantiply;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.nio.charset.Charset;
@@ -33,8 +35,48 @@ import com.sun.codemodel.util.UnicodeEscapeWriter;
  */
 public class FileCodeWriterWithEncoding extends com.sun.codemodel.writer.FileCodeWriter {
 
+    private final GeneratedFiles generatedFiles;
+
     public FileCodeWriterWithEncoding(File target, String encoding) throws IOException {
+        this(target, encoding, null);
+    }
+
+    /**
+     * Creates a writer that, when given a set of generated files, writes
+     * through that set so that files whose content is unchanged are left
+     * untouched and every file produced is recorded.
+     *
+     * @param target
+     *            the directory into which files will be written
+     * @param encoding
+     *            the encoding of generated sources
+     * @param generatedFiles
+     *            the set through which files are written, or
+     *            <code>null</code> to always replace existing files
+     * @throws IOException
+     *             if the target directory cannot be used
+     */
+    public FileCodeWriterWithEncoding(File target, String encoding, GeneratedFiles generatedFiles) throws IOException {
         super(target, encoding);
+        this.generatedFiles = generatedFiles;
+    }
+
+    @Override
+    public OutputStream openBinary(JPackage pkg, String fileName) throws IOException {
+        if (generatedFiles == null) {
+            return super.openBinary(pkg, fileName);
+        }
+
+        final File file = generatedFiles.getFile(pkg, fileName);
+
+        return new ByteArrayOutputStream() {
+            @Override
+            public void close() throws IOException {
+                super.close();
+
+                generatedFiles.write(file, toByteArray());
+            }
+        };
     }
 
     @Override
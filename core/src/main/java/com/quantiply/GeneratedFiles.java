@@ -0,0 +1,148 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.FileUtils;
+
+import com.sun.codemodel.JPackage;
+
+/**
+ * Writes generated files beneath a target directory, leaving any file whose
+ * content would not change untouched (so that its timestamp is preserved and
+ * downstream tools do not consider it modified), and records every file that
+ * is produced. Changed files are replaced atomically, so a tool reading the
+ * target directory during generation never sees a partially written file.
+ * Instances are safe to use from multiple threads.
+ */
+public class GeneratedFiles {
+
+    private final File targetDirectory;
+    private final Set<File> files = ConcurrentHashMap.newKeySet();
+
+    public GeneratedFiles(File targetDirectory) {
+        this.targetDirectory = targetDirectory;
+    }
+
+    /**
+     * Locates the file with the given name in the directory for the given
+     * package. Unlike {@link com.sun.codemodel.writer.FileCodeWriter}, any
+     * existing file is left in place.
+     *
+     * @param pkg
+     *            the package the file belongs to
+     * @param fileName
+     *            the name of the file within the package directory
+     * @return the file beneath the target directory
+     */
+    public File getFile(JPackage pkg, String fileName) {
+        File dir = pkg.isUnnamed() ? targetDirectory : new File(targetDirectory, pkg.name().replace('.', File.separatorChar));
+        return new File(dir, fileName);
+    }
+
+    /**
+     * Writes the given content to a file, unless the file already holds
+     * exactly that content. The content is written to a temporary file in the
+     * same directory, which then replaces the file.
+     *
+     * @param file
+     *            the file to write
+     * @param content
+     *            the complete content of the file
+     * @throws IOException
+     *             if the existing file cannot be read or the new content
+     *             cannot be written
+     */
+    public void write(File file, byte[] content) throws IOException {
+        files.add(file);
+
+        if (file.isFile() && file.length() == content.length && Arrays.equals(FileUtils.readFileToByteArray(file), content)) {
+            return;
+        }
+
+        replace(file, out -> out.write(content));
+    }
+
+    /**
+     * Writes a file by streaming its content to a temporary file in the same
+     * directory, which replaces the file only once the content has been
+     * written completely. If writing fails, the existing file is left as it
+     * was and the temporary file is removed.
+     *
+     * @param file
+     *            the file to write
+     * @param content
+     *            writes the complete content of the file to the stream it is
+     *            given, which is closed afterwards
+     * @throws IOException
+     *             if the content cannot be written
+     */
+    public static void replace(File file, ContentWriter content) throws IOException {
+        FileUtils.forceMkdir(file.getParentFile());
+        // named rather than created with Files.createTempFile, which would restrict its permissions to the owner
+        Path temporary = new File(file.getParentFile(), "." + file.getName() + "." + UUID.randomUUID() + ".tmp").toPath();
+        try {
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                content.writeTo(out);
+            }
+            try {
+                Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * @return the paths, relative to the target directory and separated by
+     *         <code>/</code>, of all files written (or left unchanged) so far
+     */
+    public Set<String> getRelativePaths() {
+        Set<String> paths = new TreeSet<>();
+        String root = targetDirectory.getAbsolutePath() + File.separator;
+        for (File file : files) {
+            String path = file.getAbsolutePath();
+            paths.add((path.startsWith(root) ? path.substring(root.length()) : path).replace(File.separatorChar, '/'));
+        }
+        return paths;
+    }
+
+    /**
+     * Writes the content of a file to a stream.
+     */
+    @FunctionalInterface
+    public interface ContentWriter {
+
+        void writeTo(OutputStream out) throws IOException;
+
+    }
+
+}
@@ -259,6 +259,9 @@ public interface GenerationConfig {
      *         <ul>
      *         <li><code>jsonschema</code></li>
      *         <li><code>json</code></li>
+     *         <li><code>yamlschema</code></li>
+     *         <li><code>yaml</code></li>
+     *         <li><code>ndjson</code></li>
      *         </ul>
      */
     SourceType getSourceType();
@@ -590,4 +593,116 @@ public interface GenerationConfig {
      */
     default boolean isUseInnerClassBuilders(){ return false;}
 
+    /**
+     * Gets the 'generationThreads' configuration option.
+     *
+     * @return the number of threads used to read and parse source documents
+     *         ahead of type generation and, when targeting Scala, to convert
+     *         generated sources. A value of 1 (the default) does all of this
+     *         work sequentially. Types are always generated in source order,
+     *         so output does not depend on this value.
+     */
+    default int getGenerationThreads() { return 1; }
+
+    /**
+     * Gets the 'incremental' configuration option.
+     *
+     * @return Whether to skip generation when none of the schema documents,
+     *         sources or options used by the previous run have changed. When
+     *         anything has changed all types are generated again, but
+     *         generated files whose content is unchanged are not rewritten
+     *         and files that are no longer generated are removed.
+     */
+    default boolean isIncremental() { return false; }
+
+    /**
+     * Gets the 'remoteCacheDirectory' configuration option.
+     *
+     * @return A directory in which the content of schemas read over
+     *         http/https is cached between builds, or <code>null</code> (the
+     *         default) if remote content should not be cached.
+     */
+    default File getRemoteCacheDirectory() { return null; }
+
+    /**
+     * Gets the 'remoteCacheTtl' configuration option.
+     *
+     * @return The time, in seconds, for which cached remote schema content is
+     *         used without being revalidated with the server. Cache entries
+     *         that have not been used for longer than this are removed.
+     */
+    default long getRemoteCacheTtl() { return 86400; }
+
+    /**
+     * Gets the 'offline' configuration option.
+     *
+     * @return Whether schemas referenced over http/https must be read from the
+     *         remote cache without contacting the server. Has no effect
+     *         unless a remote cache directory is set.
+     */
+    default boolean isOffline() { return false; }
+
+    /**
+     * Gets the 'writeGenerationReport' configuration option.
+     *
+     * @return Whether the count, time and allocation of each rule application
+     *         (by rule and by schema), of reading schemas, of building the
+     *         code model and of converting sources to Scala are measured and
+     *         written as a report to the target directory.
+     */
+    default boolean isWriteGenerationReport() { return false; }
+
+    /**
+     * Gets the 'skipUnchangedOutput' configuration option.
+     *
+     * @return Whether generated files whose content has not changed are left
+     *         untouched, changed files are replaced atomically and files
+     *         produced by the previous run that are no longer generated are
+     *         removed. When this is set, {@link #isRemoveOldOutput()} is
+     *         ignored.
+     */
+    default boolean isSkipUnchangedOutput() { return false; }
+
+    /**
+     * Gets the 'streamOutput' configuration option.
+     *
+     * @return Whether the classes generated from each source are written as
+     *         soon as that source is done, rather than all at once after
+     *         every source has been processed. The output is the same either
+     *         way.
+     */
+    default boolean isStreamOutput() { return false; }
+
+    /**
+     * Gets the 'lazyAdditionalProperties' configuration option.
+     *
+     * @return Whether the <code>additionalProperties</code> map of generated
+     *         types starts out as a shared empty map and is only allocated
+     *         when a property is first added (or the map is first asked
+     *         for), rather than being allocated for every instance.
+     */
+    default boolean isLazyAdditionalProperties() { return false; }
+
+    /**
+     * Gets the 'immutableTypes' configuration option.
+     *
+     * @return Whether to generate immutable value types, whose property
+     *         fields are final and set through a constructor that takes every
+     *         property (no setters or builders are generated), whose
+     *         collections are copied into unmodifiable collections on
+     *         construction and whose hash code is cached.
+     */
+    default boolean isImmutableTypes() { return false; }
+
+    /**
+     * Gets the 'fuseScalaTransformers' configuration option.
+     *
+     * @return Whether, when generating Scala, adjacent scalagen transformers
+     *         that each rewrite a single node are applied together in one
+     *         traversal of the syntax tree rather than one after another.
+     *         A node created by one of these transformers is then not seen by
+     *         the ones after it, so the output may differ.
+     */
+    default boolean isFuseScalaTransformers() { return false; }
+
 }
@@ -0,0 +1,226 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply;
+
+import static org.apache.commons.lang3.StringEscapeUtils.escapeHtml4;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.FileUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Records how often, for how long and with how much allocation each stage of
+ * a generation run executes: every rule application (by rule and by schema
+ * URI) and the surrounding phases such as reading schema documents, building
+ * the code model and converting sources to Scala.
+ * <p>
+ * Measurements nest. Each entry reports its <em>total</em> cost (including
+ * anything measured within it, e.g. a SchemaRule applying an ObjectRule) and
+ * its <em>self</em> cost (excluding it), so the self columns add up to the
+ * measured work without double counting. Allocation is measured per thread
+ * where the JVM supports it and reported as zero otherwise. Instances are
+ * safe to use from multiple threads.
+ */
+public class GenerationMetrics {
+
+    public static final String REPORT_FILE_NAME = "jsonschema2pojo-generation-report";
+
+    public static final String CONTENT_RESOLUTION = "ContentResolver.resolve";
+    public static final String CODE_MODEL_BUILD = "JCodeModel.build";
+    public static final String SCALA_CONVERSION = "Converter.convert";
+
+    /**
+     * Work whose cost is measured.
+     */
+    public interface Measured<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    private final Map<String, Entry> phases = new ConcurrentHashMap<>();
+    private final Map<String, Entry> rules = new ConcurrentHashMap<>();
+    private final Map<String, Entry> schemas = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final boolean allocationSupported = isAllocationSupported(threads);
+
+    /**
+     * Measures a phase of generation, attributing it to the given schema
+     * document if there is one.
+     */
+    public <T, E extends Exception> T measurePhase(String phase, URI schema, Measured<T, E> work) throws E {
+        return measure(phases, phase, schema, work);
+    }
+
+    /**
+     * Measures the application of a rule to a schema.
+     */
+    public <T, E extends Exception> T measureRule(String rule, URI schema, Measured<T, E> work) throws E {
+        return measure(rules, rule, schema, work);
+    }
+
+    private <T, E extends Exception> T measure(Map<String, Entry> entries, String name, URI schema, Measured<T, E> work) throws E {
+        Deque<Frame> stack = frames.get();
+        Frame frame = new Frame(System.nanoTime(), allocatedBytes());
+        stack.push(frame);
+        try {
+            return work.call();
+        } finally {
+            stack.pop();
+            long nanos = System.nanoTime() - frame.startNanos;
+            long bytes = allocatedBytes() - frame.startBytes;
+            long selfNanos = nanos - frame.childNanos;
+            long selfBytes = bytes - frame.childBytes;
+
+            Frame parent = stack.peek();
+            if (parent != null) {
+                parent.childNanos += nanos;
+                parent.childBytes += bytes;
+            }
+
+            entries.computeIfAbsent(name, n -> new Entry()).add(nanos, selfNanos, bytes, selfBytes);
+            String schemaName = schema == null ? "(no schema)" : schema.toString();
+            schemas.computeIfAbsent(schemaName, n -> new Entry()).add(nanos, selfNanos, bytes, selfBytes);
+        }
+    }
+
+    private long allocatedBytes() {
+        return allocationSupported ? ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    private static boolean isAllocationSupported(ThreadMXBean threads) {
+        try {
+            return threads instanceof com.sun.management.ThreadMXBean
+                    && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported()
+                    && ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemoryEnabled();
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the report as JSON and HTML files named
+     * {@value #REPORT_FILE_NAME} into the given directory.
+     *
+     * @param directory
+     *            the directory that receives the report files
+     * @throws IOException
+     *             if a report file cannot be written
+     */
+    public void writeReport(File directory) throws IOException {
+        ObjectNode report = toJson();
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(new File(directory, REPORT_FILE_NAME + ".json"), report);
+        FileUtils.writeStringToFile(new File(directory, REPORT_FILE_NAME + ".html"), toHtml(report), StandardCharsets.UTF_8);
+    }
+
+    ObjectNode toJson() {
+        ObjectNode report = new ObjectMapper().createObjectNode();
+        report.put("allocationMeasured", allocationSupported);
+        addEntries(report.putArray("phases"), phases);
+        addEntries(report.putArray("rules"), rules);
+        addEntries(report.putArray("schemas"), schemas);
+        return report;
+    }
+
+    private static void addEntries(ArrayNode array, Map<String, Entry> entries) {
+        List<Map.Entry<String, Entry>> sorted = new ArrayList<>(entries.entrySet());
+        sorted.sort((a, b) -> Long.compare(b.getValue().selfNanos, a.getValue().selfNanos));
+        for (Map.Entry<String, Entry> entry : sorted) {
+            Entry value = entry.getValue();
+            synchronized (value) {
+                array.addObject()
+                        .put("name", entry.getKey())
+                        .put("count", value.count)
+                        .put("totalMillis", value.totalNanos / 1e6)
+                        .put("selfMillis", value.selfNanos / 1e6)
+                        .put("totalBytes", value.totalBytes)
+                        .put("selfBytes", value.selfBytes);
+            }
+        }
+    }
+
+    private static String toHtml(ObjectNode report) {
+        StringBuilder html = new StringBuilder();
+        html.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"UTF-8\">\n<title>Generation report</title>\n")
+                .append("<style>body{font-family:sans-serif}table{border-collapse:collapse;margin-bottom:2em}")
+                .append("th,td{border:1px solid #ccc;padding:2px 8px}td.n{text-align:right}</style>\n</head>\n<body>\n");
+        if (!report.get("allocationMeasured").asBoolean()) {
+            html.append("<p>Allocation is not measured on this JVM.</p>\n");
+        }
+        appendTable(html, "Phases", report.get("phases"));
+        appendTable(html, "Rules", report.get("rules"));
+        appendTable(html, "Schemas", report.get("schemas"));
+        return html.append("</body>\n</html>\n").toString();
+    }
+
+    private static void appendTable(StringBuilder html, String title, JsonNode entries) {
+        html.append("<h2>").append(title).append("</h2>\n<table>\n<tr><th>Name</th><th>Count</th><th>Total ms</th><th>Self ms</th>")
+                .append("<th>Total bytes</th><th>Self bytes</th></tr>\n");
+        for (JsonNode entry : entries) {
+            html.append("<tr><td>").append(escapeHtml4(entry.get("name").asText())).append("</td>");
+            for (String column : new String[] { "count", "totalMillis", "selfMillis", "totalBytes", "selfBytes" }) {
+                html.append("<td class=\"n\">").append(entry.get(column).asText()).append("</td>");
+            }
+            html.append("</tr>\n");
+        }
+        html.append("</table>\n");
+    }
+
+    private static final class Frame {
+        private final long startNanos;
+        private final long startBytes;
+        private long childNanos;
+        private long childBytes;
+
+        private Frame(long startNanos, long startBytes) {
+            this.startNanos = startNanos;
+            this.startBytes = startBytes;
+        }
+    }
+
+    private static final class Entry {
+        private long count;
+        private long totalNanos;
+        private long selfNanos;
+        private long totalBytes;
+        private long selfBytes;
+
+        private synchronized void add(long nanos, long selfNanos, long bytes, long selfBytes) {
+            this.count++;
+            this.totalNanos += nanos;
+            this.selfNanos += selfNanos;
+            this.totalBytes += bytes;
+            this.selfBytes += selfBytes;
+        }
+    }
+
+}
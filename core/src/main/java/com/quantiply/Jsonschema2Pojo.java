@@ -22,12 +22,19 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.net.URI;
 import java.net.URL;
 import java.net.URLDecoder;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 import com.quantiply.util.NameHelper;
 import com.quantiply.util.URLUtil;
@@ -35,9 +42,12 @@ import org.apache.commons.io.FilenameUtils;
 import com.quantiply.exception.GenerationException;
 import com.quantiply.rules.RuleFactory;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import com.sun.codemodel.CodeWriter;
 import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JPackage;
 
 public class Jsonschema2Pojo {
     /**
@@ -53,52 +63,166 @@ public class Jsonschema2Pojo {
      *             if the application is unable to read data from the source
      */
     public static void generate(GenerationConfig config) throws IOException {
+        generate(config, createContentResolver(config));
+    }
+
+    /**
+     * Reads the contents of the given source and initiates schema generation,
+     * reading schema documents through the given resolver. This allows a
+     * long-lived process to share one (caching) resolver between runs.
+     *
+     * @param config
+     *            the configuration options (including source and target paths,
+     *            and other behavioural options) that will control code
+     *            generation
+     * @param contentResolver
+     *            the resolver used to read schema documents, suitable for the
+     *            source type and remote cache settings of the config
+     * @throws FileNotFoundException
+     *             if the source path is not found
+     * @throws IOException
+     *             if the application is unable to read data from the source
+     */
+    public static void generate(GenerationConfig config, ContentResolver contentResolver) throws IOException {
         Annotator annotator = getAnnotator(config);
         RuleFactory ruleFactory = createRuleFactory(config);
 
         ruleFactory.setAnnotator(annotator);
         ruleFactory.setGenerationConfig(config);
-        ruleFactory.setSchemaStore(new SchemaStore(createContentResolver(config)));
+        GenerationMetrics metrics = config.isWriteGenerationReport() ? new GenerationMetrics() : null;
+        ruleFactory.setGenerationMetrics(metrics);
+        if (metrics != null) {
+            contentResolver = measure(contentResolver, metrics);
+        }
+        ruleFactory.setSchemaStore(config.getGenerationThreads() > 1 ? new ConcurrentSchemaStore(contentResolver) : new SchemaStore(contentResolver));
 
         SchemaMapper mapper = new SchemaMapper(ruleFactory, createSchemaGenerator(config));
 
-        JCodeModel codeModel = new JCodeModel();
-
-        if (config.isRemoveOldOutput()) {
-            removeOldOutput(config.getTargetDirectory());
-        }
-
+        List<SourceFile> sourceFiles = new ArrayList<>();
         for (Iterator<URL> sources = config.getSource(); sources.hasNext();) {
             URL source = sources.next();
 
             if (URLUtil.parseProtocol(source.toString()) == URLProtocol.FILE && URLUtil.getFileFromURL(source).isDirectory()) {
-                generateRecursive(config, mapper, codeModel, defaultString(config.getTargetPackage()), Arrays.asList(URLUtil.getFileFromURL(source).listFiles(config.getFileFilter())));
+                collectRecursive(config, defaultString(config.getTargetPackage()), Arrays.asList(URLUtil.getFileFromURL(source).listFiles(config.getFileFilter())), sourceFiles);
             } else {
-                mapper.generate(codeModel, getNodeName(source, config), defaultString(config.getTargetPackage()), source);
+                sourceFiles.add(new SourceFile(source, getNodeName(source, config), defaultString(config.getTargetPackage())));
             }
         }
 
-        if (config.getTargetDirectory().exists() || config.getTargetDirectory().mkdirs()) {
-            if (config.getTargetLanguage() == Language.SCALA) {
-                CodeWriter sourcesWriter = new ScalaFileCodeWriter(config.getTargetDirectory(), config.getOutputEncoding());
-                CodeWriter resourcesWriter = new FileCodeWriterWithEncoding(config.getTargetDirectory(), config.getOutputEncoding());
-                codeModel.build(sourcesWriter, resourcesWriter);
+        SchemaDependencyGraph previousGraph = null;
+        SchemaDependencyGraph graph = null;
+        GeneratedFiles generatedFiles = null;
+        List<SourceFile> affectedSourceFiles = null;
+
+        if (config.isIncremental() || config.isSkipUnchangedOutput()) {
+            List<String> sources = new ArrayList<>(sourceFiles.size());
+            for (SourceFile sourceFile : sourceFiles) {
+                sources.add(sourceFile.url + " " + sourceFile.packageName + "." + sourceFile.nodeName);
+            }
+            String configuration = SchemaDependencyGraph.describe(config, sources);
+
+            previousGraph = SchemaDependencyGraph.read(config.getTargetDirectory());
+            Set<URI> changedDocuments = null;
+            if (config.isIncremental() && previousGraph != null && previousGraph.getConfiguration().equals(configuration)
+                    && previousGraph.hasAllOutputs(config.getTargetDirectory())) {
+                changedDocuments = previousGraph.getChangedDocuments(contentResolver);
+                if (changedDocuments.isEmpty()) {
+                    // the recorded outputs are up to date, though a report from an earlier run is not
+                    if (metrics != null) {
+                        metrics.writeReport(config.getTargetDirectory());
+                    }
+                    return;
+                }
+            }
+
+            if (changedDocuments != null && !previousGraph.hasUniqueNameCollisions()) {
+                Set<String> affectedSources = previousGraph.getAffectedSources(changedDocuments);
+                affectedSourceFiles = new ArrayList<>();
+                for (SourceFile sourceFile : sourceFiles) {
+                    if (affectedSources.contains(sourceFile.url.toString())) {
+                        affectedSourceFiles.add(sourceFile);
+                    }
+                }
+                graph = previousGraph.without(affectedSources);
             } else {
-                CodeWriter sourcesWriter = new FileCodeWriterWithEncoding(config.getTargetDirectory(), config.getOutputEncoding());
-                CodeWriter resourcesWriter = new FileCodeWriterWithEncoding(config.getTargetDirectory(), config.getOutputEncoding());
-                codeModel.build(sourcesWriter, resourcesWriter);
+                graph = new SchemaDependencyGraph(configuration);
             }
-        } else {
+            generatedFiles = new GeneratedFiles(config.getTargetDirectory());
+        }
+
+        if (config.isRemoveOldOutput() && !config.isSkipUnchangedOutput() && affectedSourceFiles == null) {
+            removeOldOutput(config.getTargetDirectory());
+        }
+
+        if (!(config.getTargetDirectory().exists() || config.getTargetDirectory().mkdirs())) {
             throw new GenerationException("Could not create or access target directory " + config.getTargetDirectory().getAbsolutePath());
         }
+
+        try (CodeModelEmitter emitter = new CodeModelEmitter(config, generatedFiles, metrics, ruleFactory.getAggregateClasses())) {
+            JCodeModel partialCodeModel = null;
+            if (affectedSourceFiles != null) {
+                partialCodeModel = generateTypes(config, ruleFactory, mapper, affectedSourceFiles, graph, null);
+                if (graph.hasUniqueNameCollisions() || graph.hasDuplicateTypes() || !ruleFactory.getAggregateClasses().isEmpty()) {
+                    // names now depend on which sources are generated together, a type was
+                    // generated from another document under a name an unaffected source has,
+                    // or a class covers every source, so generate them all
+                    partialCodeModel = null;
+                    ruleFactory.getSchemaStore().clearCache();
+                    ruleFactory.getAggregateClasses().clear();
+                    graph = new SchemaDependencyGraph(graph.getConfiguration());
+                }
+            }
+            JCodeModel codeModel = partialCodeModel != null ? partialCodeModel
+                    : generateTypes(config, ruleFactory, mapper, sourceFiles, graph, config.isStreamOutput() ? emitter : null);
+
+            emitter.emit(codeModel, false);
+        }
+
+        if (graph != null) {
+            graph.addOutputs(generatedFiles.getRelativePaths());
+            graph.addDigests(contentResolver);
+            if (previousGraph != null) {
+                removeStaleOutput(config.getTargetDirectory(), previousGraph, graph);
+            } else if (config.isRemoveOldOutput() && config.isSkipUnchangedOutput()) {
+                // nothing records what earlier runs produced, so keep only what this run produced
+                removeUnproducedOutput(config.getTargetDirectory(), "", graph.getOutputs());
+            }
+            graph.write(config.getTargetDirectory());
+        }
+
+        if (metrics != null) {
+            metrics.writeReport(config.getTargetDirectory());
+        }
     }
     
-    private static ContentResolver createContentResolver(GenerationConfig config) {
-    	if (config.getSourceType() == SourceType.YAMLSCHEMA || config.getSourceType() == SourceType.YAML) {
-    		return new ContentResolver(new YAMLFactory());
-    	} else {
-    		return new ContentResolver();
-    	}
+    /**
+     * Creates the resolver that {@link #generate(GenerationConfig)} reads
+     * schema documents with, removing unused entries from the remote cache
+     * if one is configured.
+     *
+     * @param config
+     *            the configuration whose source type and remote cache
+     *            settings the resolver follows
+     * @return a new content resolver
+     */
+    public static ContentResolver createContentResolver(GenerationConfig config) {
+        RemoteContentCache remoteContentCache = null;
+        if (config.getRemoteCacheDirectory() != null) {
+            remoteContentCache = new RemoteContentCache(config.getRemoteCacheDirectory(), config.getRemoteCacheTtl(), config.isOffline());
+            remoteContentCache.evictUnused();
+        }
+
+        JsonFactory jsonFactory = config.getSourceType() == SourceType.YAMLSCHEMA || config.getSourceType() == SourceType.YAML ? new YAMLFactory() : null;
+        return new ContentResolver(jsonFactory, remoteContentCache);
+    }
+
+    private static ContentResolver measure(ContentResolver contentResolver, GenerationMetrics metrics) {
+        return new ContentResolver() {
+            @Override
+            public JsonNode resolve(URI uri) {
+                return metrics.measurePhase(GenerationMetrics.CONTENT_RESOLUTION, uri, () -> contentResolver.resolve(uri));
+            }
+        };
     }
 
     private static SchemaGenerator createSchemaGenerator(GenerationConfig config) {
@@ -125,16 +249,77 @@ public class Jsonschema2Pojo {
         }
     }
 
-    private static void generateRecursive(GenerationConfig config, SchemaMapper mapper, JCodeModel codeModel, String packageName, List<File> schemaFiles) throws IOException {
+    private static void collectRecursive(GenerationConfig config, String packageName, List<File> schemaFiles, List<SourceFile> sourceFiles) throws IOException {
 
         Collections.sort(schemaFiles, config.getSourceSortOrder().getComparator());
 
         for (File child : schemaFiles) {
             if (child.isFile()) {
-                mapper.generate(codeModel, getNodeName(child.toURI().toURL(), config), defaultString(packageName), child.toURI().toURL());
+                sourceFiles.add(new SourceFile(child.toURI().toURL(), getNodeName(child.toURI().toURL(), config), defaultString(packageName)));
             } else {
-                generateRecursive(config, mapper, codeModel, childQualifiedName(packageName, child.getName()), Arrays.asList(child.listFiles(config.getFileFilter())));
+                collectRecursive(config, childQualifiedName(packageName, child.getName()), Arrays.asList(child.listFiles(config.getFileFilter())), sourceFiles);
+            }
+        }
+    }
+
+    /**
+     * Generates the types of the given sources into a new code model,
+     * recording each source in the graph if there is one and, if there is an
+     * emitter, writing out the types of each source as soon as it is done.
+     */
+    private static JCodeModel generateTypes(GenerationConfig config, RuleFactory ruleFactory, SchemaMapper mapper, List<SourceFile> sourceFiles, SchemaDependencyGraph graph, CodeModelEmitter emitter) throws IOException {
+        if (config.getGenerationThreads() > 1) {
+            prefetch(mapper, sourceFiles, config.getGenerationThreads());
+        }
+
+        JCodeModel codeModel = new JCodeModel();
+        Set<String> knownTypes = new HashSet<>();
+        for (SourceFile sourceFile : sourceFiles) {
+            mapper.generate(codeModel, sourceFile.nodeName, sourceFile.packageName, sourceFile.url);
+
+            if (graph != null) {
+                Set<URI> documents = ruleFactory.getSchemaStore().takeReferencedDocuments();
+                documents.add(URI.create(sourceFile.url.toString()));
+                graph.addSource(sourceFile.url.toString(), takeNewTypes(codeModel, knownTypes), documents, ruleFactory.getSchemaStore().takeGeneratedTypes());
+            }
+            if (emitter != null) {
+                emitter.emit(codeModel, true);
+            }
+        }
+        return codeModel;
+    }
+
+    /**
+     * Reads and parses all sources using a pool of the given size. Types are
+     * not generated here: the code model is not thread safe and sources refer
+     * to each other's types, so generation happens afterwards, sequentially
+     * and in source order, which keeps the output identical to a sequential
+     * run.
+     */
+    private static void prefetch(SchemaMapper mapper, List<SourceFile> sourceFiles, int threads) {
+        final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+
+        ForkJoinPool pool = new ForkJoinPool(threads, p -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            worker.setContextClassLoader(contextClassLoader);
+            return worker;
+        }, null, false);
+
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>(sourceFiles.size());
+            for (SourceFile sourceFile : sourceFiles) {
+                tasks.add(() -> {
+                    try {
+                        mapper.prefetch(sourceFile.url);
+                    } catch (RuntimeException e) {
+                        // the source is read again during generation, which reports the failure in source order
+                    }
+                    return null;
+                });
             }
+            pool.invokeAll(tasks);
+        } finally {
+            pool.shutdown();
         }
     }
 
@@ -143,6 +328,55 @@ public class Jsonschema2Pojo {
         return isEmpty(parentQualifiedName) ? safeChildName : parentQualifiedName + "." + safeChildName;
     }
 
+    /**
+     * Lists the top level types that have been added to the code model since
+     * the last call, so that each type is attributed to the source that first
+     * generated it.
+     */
+    private static List<String> takeNewTypes(JCodeModel codeModel, Set<String> knownTypes) {
+        List<String> newTypes = new ArrayList<>();
+        for (Iterator<JPackage> packages = codeModel.packages(); packages.hasNext();) {
+            for (Iterator<JDefinedClass> classes = packages.next().classes(); classes.hasNext();) {
+                String typeName = classes.next().fullName();
+                if (knownTypes.add(typeName)) {
+                    newTypes.add(typeName);
+                }
+            }
+        }
+        return newTypes;
+    }
+
+    /**
+     * Deletes the files that were generated by the previous run but are no
+     * longer generated, along with any package directories this leaves empty.
+     */
+    @edu.umd.cs.findbugs.annotations.SuppressWarnings(value = "RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    private static void removeStaleOutput(File targetDirectory, SchemaDependencyGraph previousGraph, SchemaDependencyGraph graph) {
+        for (String output : previousGraph.getOutputs()) {
+            if (!graph.getOutputs().contains(output)) {
+                File stale = new File(targetDirectory, output);
+                stale.delete();
+                for (File dir = stale.getParentFile(); dir != null && !dir.equals(targetDirectory) && dir.delete(); dir = dir.getParentFile()) {
+                    // File.delete only removes empty directories
+                }
+            }
+        }
+    }
+
+    @edu.umd.cs.findbugs.annotations.SuppressWarnings(value = "RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    private static void removeUnproducedOutput(File directory, String relativePath, Set<String> outputs) {
+        for (File f : directory.listFiles()) {
+            String path = relativePath + f.getName();
+            if (f.isDirectory()) {
+                removeUnproducedOutput(f, path + "/", outputs);
+                // File.delete only removes empty directories
+                f.delete();
+            } else if (!outputs.contains(path)) {
+                f.delete();
+            }
+        }
+    }
+
     private static void removeOldOutput(File targetDirectory) {
         if (targetDirectory.exists()) {
             for (File f : targetDirectory.listFiles()) {
@@ -166,6 +400,18 @@ public class Jsonschema2Pojo {
         return factory.getAnnotator(factory.getAnnotator(config.getAnnotationStyle()), factory.getAnnotator(config.getCustomAnnotator()));
     }
 
+    private static final class SourceFile {
+        private final URL url;
+        private final String nodeName;
+        private final String packageName;
+
+        private SourceFile(URL url, String nodeName, String packageName) {
+            this.url = url;
+            this.nodeName = nodeName;
+            this.packageName = packageName;
+        }
+    }
+
     public static String getNodeName(URL file, GenerationConfig config) {
         return getNodeName(file.toString(), config);
     }
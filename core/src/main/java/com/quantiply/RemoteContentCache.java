@@ -0,0 +1,257 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.quantiply.util.DigestUtil;
+
+/**
+ * A cache of documents read over http/https, kept on disk so that it can be
+ * shared by many builds.
+ * <p>
+ * Document content is stored once per distinct content (named by its SHA-256
+ * digest) under <code>content/</code>, and each URL has an entry under
+ * <code>index/</code> recording the content it last returned along with the
+ * ETag and Last-Modified values sent by the server. An entry is used without
+ * contacting the server until it is older than the TTL, after which it is
+ * revalidated with a conditional request. If the server cannot be reached, a
+ * cached entry is used regardless of its age. In offline mode the server is
+ * never contacted.
+ */
+public class RemoteContentCache {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final File indexDirectory;
+    private final File contentDirectory;
+    private final long ttlMillis;
+    private final boolean offline;
+    private final Clock clock;
+
+    /**
+     * @param directory
+     *            the directory that holds the cache
+     * @param ttlSeconds
+     *            the time for which an entry is used without revalidation,
+     *            and after which an entry that has not been used is evicted
+     * @param offline
+     *            whether documents must only be read from the cache
+     */
+    public RemoteContentCache(File directory, long ttlSeconds, boolean offline) {
+        this(directory, ttlSeconds, offline, Clock.systemUTC());
+    }
+
+    RemoteContentCache(File directory, long ttlSeconds, boolean offline, Clock clock) {
+        this.indexDirectory = new File(directory, "index");
+        this.contentDirectory = new File(directory, "content");
+        this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+        this.offline = offline;
+        this.clock = clock;
+    }
+
+    /**
+     * Reads the content of the given http/https URI, from the cache where
+     * possible.
+     *
+     * @param uri
+     *            the location of the document
+     * @return the content of the document
+     * @throws IOException
+     *             if the document is not cached and cannot be read from the
+     *             server (or the cache is offline), or if the server responds
+     *             with an error
+     */
+    public byte[] get(URI uri) throws IOException {
+        File indexFile = new File(indexDirectory, DigestUtil.sha256Hex(uri.toString().getBytes(StandardCharsets.UTF_8)) + ".json");
+        ObjectNode entry = readEntry(indexFile);
+        byte[] cachedContent = entry == null ? null : readContent(entry);
+        long now = clock.millis();
+
+        if (cachedContent != null && (offline || now - entry.path("validated").asLong() < ttlMillis)) {
+            markUsed(indexFile, now);
+            return cachedContent;
+        }
+
+        if (offline) {
+            throw new IOException("Offline and " + uri + " is not in the remote cache " + indexDirectory.getParentFile());
+        }
+
+        URLConnection connection = uri.toURL().openConnection();
+        try {
+            if (cachedContent != null) {
+                if (entry.hasNonNull("etag")) {
+                    connection.setRequestProperty("If-None-Match", entry.get("etag").asText());
+                }
+                if (entry.hasNonNull("lastModified")) {
+                    connection.setRequestProperty("If-Modified-Since", entry.get("lastModified").asText());
+                }
+            }
+
+            int status;
+            try {
+                status = connection instanceof HttpURLConnection ? ((HttpURLConnection) connection).getResponseCode() : HttpURLConnection.HTTP_OK;
+            } catch (IOException e) {
+                if (cachedContent != null) {
+                    markUsed(indexFile, now);
+                    return cachedContent;
+                }
+                throw e;
+            }
+
+            if (status == HttpURLConnection.HTTP_NOT_MODIFIED && cachedContent != null) {
+                entry.put("validated", now);
+                writeEntry(indexFile, entry);
+                markUsed(indexFile, now);
+                return cachedContent;
+            }
+
+            if (status >= HttpURLConnection.HTTP_BAD_REQUEST) {
+                FileUtils.deleteQuietly(indexFile);
+                throw new IOException("Server returned HTTP response code: " + status + " for URL: " + uri);
+            }
+
+            byte[] content;
+            try (InputStream body = connection.getInputStream()) {
+                content = IOUtils.toByteArray(body);
+            }
+
+            String contentDigest = DigestUtil.sha256Hex(content);
+            File contentFile = new File(contentDirectory, contentDigest);
+            if (!contentFile.isFile()) {
+                writeAtomically(contentFile, content);
+            }
+
+            ObjectNode newEntry = OBJECT_MAPPER.createObjectNode();
+            newEntry.put("url", uri.toString());
+            newEntry.put("content", contentDigest);
+            newEntry.put("etag", connection.getHeaderField("ETag"));
+            newEntry.put("lastModified", connection.getHeaderField("Last-Modified"));
+            newEntry.put("validated", now);
+            writeEntry(indexFile, newEntry);
+            markUsed(indexFile, now);
+
+            return content;
+        } finally {
+            if (connection instanceof HttpURLConnection) {
+                ((HttpURLConnection) connection).disconnect();
+            }
+        }
+    }
+
+    /**
+     * Removes entries that have not been used for longer than the TTL, and
+     * any content no longer referenced by an entry. Nothing is removed in
+     * offline mode.
+     */
+    public void evictUnused() {
+        if (offline || !indexDirectory.isDirectory()) {
+            return;
+        }
+
+        long now = clock.millis();
+        Set<String> referencedContent = new HashSet<>();
+
+        File[] indexFiles = indexDirectory.listFiles();
+        for (File indexFile : indexFiles == null ? new File[0] : indexFiles) {
+            if (now - indexFile.lastModified() > ttlMillis) {
+                FileUtils.deleteQuietly(indexFile);
+            } else {
+                ObjectNode entry = readEntry(indexFile);
+                if (entry != null) {
+                    referencedContent.add(entry.path("content").asText());
+                }
+            }
+        }
+
+        File[] contentFiles = contentDirectory.listFiles();
+        for (File contentFile : contentFiles == null ? new File[0] : contentFiles) {
+            if (!referencedContent.contains(contentFile.getName())) {
+                FileUtils.deleteQuietly(contentFile);
+            }
+        }
+    }
+
+    private ObjectNode readEntry(File indexFile) {
+        if (!indexFile.isFile()) {
+            return null;
+        }
+        try {
+            JsonNode entry = OBJECT_MAPPER.readTree(indexFile);
+            return entry instanceof ObjectNode ? (ObjectNode) entry : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private byte[] readContent(ObjectNode entry) {
+        File contentFile = new File(contentDirectory, entry.path("content").asText());
+        try {
+            return contentFile.isFile() ? FileUtils.readFileToByteArray(contentFile) : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void writeEntry(File indexFile, ObjectNode entry) throws IOException {
+        writeAtomically(indexFile, OBJECT_MAPPER.writeValueAsBytes(entry));
+    }
+
+    @edu.umd.cs.findbugs.annotations.SuppressWarnings(value = "RV_RETURN_VALUE_IGNORED_BAD_PRACTICE")
+    private void markUsed(File indexFile, long now) {
+        indexFile.setLastModified(now);
+    }
+
+    /**
+     * Writes through a temporary file in the same directory, so that builds
+     * sharing the cache never see a partly written file.
+     */
+    private static void writeAtomically(File file, byte[] content) throws IOException {
+        FileUtils.forceMkdir(file.getParentFile());
+        File temporaryFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        try {
+            FileUtils.writeByteArrayToFile(temporaryFile, content);
+            try {
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            FileUtils.deleteQuietly(temporaryFile);
+        }
+    }
+
+}
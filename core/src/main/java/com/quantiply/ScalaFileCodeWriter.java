@@ -20,36 +20,259 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.OutputStream;
-
-import org.apache.commons.io.FileUtils;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import com.mysema.scalagen.ConversionSettings;
 import com.mysema.scalagen.Converter;
 import com.sun.codemodel.JPackage;
+import com.sun.codemodel.util.UnicodeEscapeWriter;
 
 public class ScalaFileCodeWriter extends com.sun.codemodel.writer.FileCodeWriter {
-    
+
+    private final ConversionSettings settings;
+    private final ExecutorService conversionPool;
+    private final GeneratedFiles generatedFiles;
+    private final GenerationMetrics generationMetrics;
+    private final List<Future<?>> conversions = new ArrayList<>();
+
     public ScalaFileCodeWriter(final File target, final String encoding) throws IOException {
+        this(target, encoding, 1);
+    }
+
+    /**
+     * Creates a writer that converts each Java source to Scala as its stream
+     * is closed. When more than one thread is requested, conversions are
+     * handed to a bounded pool of that size (the build thread converts
+     * sources itself whenever the pool falls behind) and {@link #close()}
+     * waits for all outstanding conversions to be written.
+     *
+     * @param target
+     *            the directory into which .scala files will be written
+     * @param encoding
+     *            the encoding of generated sources
+     * @param threads
+     *            the number of threads used to convert sources
+     * @throws IOException
+     *             if the target directory cannot be used
+     */
+    public ScalaFileCodeWriter(final File target, final String encoding, final int threads) throws IOException {
+        this(target, encoding, threads, null);
+    }
+
+    /**
+     * Creates a writer that converts each Java source to Scala as its stream
+     * is closed, writing the result through the given set of generated files
+     * so that files whose content is unchanged are left untouched.
+     *
+     * @param target
+     *            the directory into which .scala files will be written
+     * @param encoding
+     *            the encoding of generated sources
+     * @param threads
+     *            the number of threads used to convert sources
+     * @param generatedFiles
+     *            the set through which files are written, or
+     *            <code>null</code> to always replace existing files
+     * @throws IOException
+     *             if the target directory cannot be used
+     */
+    public ScalaFileCodeWriter(final File target, final String encoding, final int threads, final GeneratedFiles generatedFiles) throws IOException {
+        this(target, encoding, threads, generatedFiles, null);
+    }
+
+    /**
+     * Creates a writer that converts each Java source to Scala as its stream
+     * is closed, recording the cost of each conversion.
+     *
+     * @param target
+     *            the directory into which .scala files will be written
+     * @param encoding
+     *            the encoding of generated sources
+     * @param threads
+     *            the number of threads used to convert sources
+     * @param generatedFiles
+     *            the set through which files are written, or
+     *            <code>null</code> to always replace existing files
+     * @param generationMetrics
+     *            the metrics in which conversions are recorded, or
+     *            <code>null</code> if they are not measured
+     * @throws IOException
+     *             if the target directory cannot be used
+     */
+    public ScalaFileCodeWriter(final File target, final String encoding, final int threads, final GeneratedFiles generatedFiles, final GenerationMetrics generationMetrics) throws IOException {
+        this(target, encoding, threads, generatedFiles, generationMetrics, false);
+    }
+
+    /**
+     * Creates a writer that converts each Java source to Scala as its stream
+     * is closed, optionally applying scalagen's node-local transformers in a
+     * single traversal.
+     *
+     * @param target
+     *            the directory into which .scala files will be written
+     * @param encoding
+     *            the encoding of generated sources
+     * @param threads
+     *            the number of threads used to convert sources
+     * @param generatedFiles
+     *            the set through which files are written, or
+     *            <code>null</code> to always replace existing files
+     * @param generationMetrics
+     *            the metrics in which conversions are recorded, or
+     *            <code>null</code> if they are not measured
+     * @param fuseTransformers
+     *            whether adjacent node-local transformers are fused into one
+     *            traversal rather than applied one after another
+     * @throws IOException
+     *             if the target directory cannot be used
+     */
+    public ScalaFileCodeWriter(final File target, final String encoding, final int threads, final GeneratedFiles generatedFiles, final GenerationMetrics generationMetrics, final boolean fuseTransformers) throws IOException {
         super(target, encoding);
+        this.settings = new ConversionSettings(false, fuseTransformers);
+        this.generatedFiles = generatedFiles;
+        this.generationMetrics = generationMetrics;
+
+        if (threads > 1) {
+            this.conversionPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(threads * 2), new ThreadPoolExecutor.CallerRunsPolicy());
+        } else {
+            this.conversionPool = null;
+        }
+    }
+
+    /**
+     * Captures the Java source as characters, so that it is handed to the
+     * Scala converter without first being encoded to bytes and decoded again.
+     * Characters that cannot be represented in the output encoding are
+     * escaped in the same way as {@link FileCodeWriterWithEncoding}.
+     */
+    @Override
+    public Writer openSource(JPackage pkg, String fileName) throws IOException {
+        final StringWriter javaSourceWriter = new StringWriter();
+
+        final String scalaFileName = scalaFileName(pkg, fileName);
+
+        return new UnicodeEscapeWriter(javaSourceWriter) {
+            private final CharsetEncoder encoder = Charset.forName(encoding).newEncoder();
+
+            @Override
+            protected boolean requireEscaping(int ch) {
+                // control characters
+                if (ch < 0x20 && " \t\r\n".indexOf(ch) == -1) {
+                    return true;
+                }
+                // ASCII chars
+                if (ch < 0x80) {
+                    return false;
+                }
+                return !encoder.canEncode((char) ch);
+            }
+
+            @Override
+            public void close() throws IOException {
+                super.close();
+
+                submit(javaSourceWriter.toString(), scalaFileName);
+            }
+        };
     }
 
     public OutputStream openBinary(JPackage pkg, String fileName) throws IOException {
         final ByteArrayOutputStream javaSourceStream = new ByteArrayOutputStream();
         
-        final String javaFileName = getFile(pkg, fileName).getAbsolutePath();
-        final String scalaFileName = javaFileName.replaceAll("\\.java$", ".scala");
-        
+        final String scalaFileName = scalaFileName(pkg, fileName);
+
         return new FilterOutputStream(javaSourceStream) {
             public void close() throws IOException {
                 super.close();
                 
-                final String javaSource = new String(javaSourceStream.toByteArray(), encoding);
-                final String scalaSource = Converter.instance210().convert(javaSource, new ConversionSettings(false));
-                
-                FileUtils.writeStringToFile(new File(scalaFileName), scalaSource, encoding);
+                submit(new String(javaSourceStream.toByteArray(), encoding), scalaFileName);
             }
         };
     }
 
+    private String scalaFileName(JPackage pkg, String fileName) throws IOException {
+        final File javaFile = generatedFiles == null ? getFile(pkg, fileName) : generatedFiles.getFile(pkg, fileName);
+        return javaFile.getAbsolutePath().replaceAll("\\.java$", ".scala");
+    }
+
+    private void submit(final String javaSource, final String scalaFileName) throws IOException {
+        if (conversionPool == null) {
+            convert(javaSource, scalaFileName);
+        } else {
+            conversions.add(conversionPool.submit(() -> {
+                convert(javaSource, scalaFileName);
+                return null;
+            }));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (conversionPool != null) {
+            conversionPool.shutdown();
+            try {
+                for (Future<?> conversion : conversions) {
+                    conversion.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for Scala conversion to complete");
+            } catch (ExecutionException e) {
+                throw new IOException("Failed to convert generated source to Scala", e.getCause());
+            } finally {
+                conversionPool.shutdownNow();
+                conversions.clear();
+            }
+        }
+        super.close();
+    }
+
+    /**
+     * Converts the Java source, streaming the Scala source to a temporary file
+     * that replaces its file once conversion succeeds (or, when unchanged
+     * files are skipped, to the bytes that are compared with the existing
+     * file) rather than building it up as a string first.
+     */
+    private void convert(String javaSource, String scalaFileName) throws IOException {
+        if (generatedFiles == null) {
+            GeneratedFiles.replace(new File(scalaFileName), stream -> {
+                Writer out = new OutputStreamWriter(stream, encoding);
+                toScala(javaSource, out);
+                out.flush();
+            });
+        } else {
+            ByteArrayOutputStream scalaSource = new ByteArrayOutputStream(javaSource.length());
+            try (Writer out = new OutputStreamWriter(scalaSource, encoding)) {
+                toScala(javaSource, out);
+            }
+            generatedFiles.write(new File(scalaFileName), scalaSource.toByteArray());
+        }
+    }
+
+    private void toScala(String javaSource, Writer out) throws IOException {
+        if (generationMetrics == null) {
+            Converter.instance210().convert(javaSource, out, settings);
+        } else {
+            generationMetrics.measurePhase(GenerationMetrics.SCALA_CONVERSION, null, () -> {
+                Converter.instance210().convert(javaSource, out, settings);
+                return null;
+            });
+        }
+    }
+
 }
@@ -24,11 +24,27 @@ import java.io.ByteArrayOutputStream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 public class ScalaSingleStreamCodeWriter extends SingleStreamCodeWriter {
 
+    private final ConversionSettings settings;
+
     public ScalaSingleStreamCodeWriter(OutputStream os) {
+        this(os, false);
+    }
+
+    /**
+     * @param os
+     *            the stream the converted sources are written to
+     * @param fuseTransformers
+     *            whether adjacent node-local scalagen transformers are fused
+     *            into one traversal rather than applied one after another
+     */
+    public ScalaSingleStreamCodeWriter(OutputStream os, boolean fuseTransformers) {
         super(os);
+        this.settings = new ConversionSettings(false, fuseTransformers);
     }
 
     @Override
@@ -43,10 +59,11 @@ public class ScalaSingleStreamCodeWriter extends SingleStreamCodeWriter {
                 super.close();
 
                 final String javaSource = new String(javaSourceStream.toByteArray(), "utf-8");
-                final String scalaSource = Converter.instance210().convert(javaSource, new ConversionSettings(false));
 
                 OutputStream parentStream = ScalaSingleStreamCodeWriter.super.openBinary(pkg, scalaFileName);
-                parentStream.write(scalaSource.getBytes("utf-8"));
+                Writer scalaSourceWriter = new OutputStreamWriter(parentStream, "utf-8");
+                Converter.instance210().convert(javaSource, scalaSourceWriter, settings);
+                scalaSourceWriter.flush();
             }
         };
     }
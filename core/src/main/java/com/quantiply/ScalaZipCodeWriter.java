@@ -20,6 +20,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 import com.mysema.scalagen.ConversionSettings;
 import com.mysema.scalagen.Converter;
@@ -28,8 +30,22 @@ import com.sun.codemodel.writer.ZipCodeWriter;
 
 public class ScalaZipCodeWriter extends ZipCodeWriter {
 
+    private final ConversionSettings settings;
+
     public ScalaZipCodeWriter(OutputStream target) {
+        this(target, false);
+    }
+
+    /**
+     * @param target
+     *            the stream the converted sources are written to
+     * @param fuseTransformers
+     *            whether adjacent node-local scalagen transformers are fused
+     *            into one traversal rather than applied one after another
+     */
+    public ScalaZipCodeWriter(OutputStream target, boolean fuseTransformers) {
         super(target);
+        this.settings = new ConversionSettings(false, fuseTransformers);
     }
 
     @Override
@@ -44,10 +60,11 @@ public class ScalaZipCodeWriter extends ZipCodeWriter {
                 super.close();
 
                 final String javaSource = new String(javaSourceStream.toByteArray(), "utf-8");
-                final String scalaSource = Converter.instance210().convert(javaSource, new ConversionSettings(false));
 
                 OutputStream parentStream = ScalaZipCodeWriter.super.openBinary(pkg, scalaFileName);
-                parentStream.write(scalaSource.getBytes("utf-8"));
+                Writer scalaSourceWriter = new OutputStreamWriter(parentStream, "utf-8");
+                Converter.instance210().convert(javaSource, scalaSourceWriter, settings);
+                scalaSourceWriter.flush();
             }
         };
     }
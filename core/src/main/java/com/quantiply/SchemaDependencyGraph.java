@@ -0,0 +1,528 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.ArrayUtils;
+import org.apache.commons.lang3.StringUtils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.quantiply.exception.GenerationException;
+import com.quantiply.util.DigestUtil;
+
+/**
+ * Records what a generation run depended on and what it produced: for each
+ * source and each generated type, the schema documents it was derived from
+ * (the source document and every document reached through <code>$ref</code>),
+ * the document that defines each type, a digest of the content of each of
+ * those documents, a description of the configuration and sources used, and
+ * the files written. The graph is kept in
+ * the target directory so that a later run can tell whether anything has
+ * changed, and which sources are affected when something has.
+ */
+public class SchemaDependencyGraph {
+
+    public static final String FILE_NAME = ".jsonschema2pojo-dependencies.json";
+
+    private static final int VERSION = 3;
+
+    private static final Pattern UNIQUE_NAME = Pattern.compile(".*__\\d+$");
+
+    /**
+     * Options that do not influence generated content. The source iterator
+     * and file filter are described by the list of sources instead.
+     */
+    private static final Set<String> IGNORED_OPTIONS = new HashSet<>(Arrays.asList("getSource", "getFileFilter", "getGenerationThreads", "isIncremental", "isRemoveOldOutput",
+            "getRemoteCacheDirectory", "getRemoteCacheTtl", "isOffline", "isSkipUnchangedOutput", "isStreamOutput",
+            "isWriteGenerationReport"));
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final String configuration;
+    private final Map<String, String> documents = new TreeMap<>();
+    private final Map<String, Set<String>> types = new TreeMap<>();
+    private final Map<String, String> typeOrigins = new TreeMap<>();
+    private final Map<String, Set<String>> sourceDocuments = new TreeMap<>();
+    private final Map<String, Set<String>> sourceTypes = new TreeMap<>();
+    private final Set<String> outputs = new TreeSet<>();
+    private final Set<String> duplicateTypes = new TreeSet<>();
+
+    public SchemaDependencyGraph(String configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * Describes the options and sources of a generation run, so that a change
+     * to either can be detected by comparing descriptions.
+     *
+     * @param config
+     *            the configuration of the run
+     * @param sources
+     *            a description of each source, in generation order
+     * @return a description of the run
+     */
+    public static String describe(GenerationConfig config, Collection<String> sources) {
+        Method[] options = GenerationConfig.class.getMethods();
+        Arrays.sort(options, Comparator.comparing(Method::getName));
+
+        StringBuilder description = new StringBuilder();
+        for (Method option : options) {
+            if (option.getParameterCount() > 0 || IGNORED_OPTIONS.contains(option.getName())) {
+                continue;
+            }
+            try {
+                description.append(option.getName()).append('=').append(describeValue(option.invoke(config))).append('\n');
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new GenerationException("Unable to read configuration option " + option.getName(), e);
+            }
+        }
+        for (String source : sources) {
+            description.append("source=").append(source).append('\n');
+        }
+        return description.toString();
+    }
+
+    private static String describeValue(Object value) {
+        if (value instanceof Class) {
+            return ((Class<?>) value).getName();
+        } else if (value instanceof Map) {
+            return new TreeMap<>((Map<?, ?>) value).toString();
+        } else if (value != null && value.getClass().isArray()) {
+            return ArrayUtils.toString(value);
+        } else {
+            return String.valueOf(value);
+        }
+    }
+
+    /**
+     * Computes a digest of the content of a schema document.
+     *
+     * @param content
+     *            the parsed content of the document
+     * @return a hex encoded SHA-256 digest of the content
+     */
+    public static String digest(JsonNode content) {
+        return DigestUtil.sha256Hex(content.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Local files are digested as they are stored, so that every record of a
+     * multi-document source (such as NDJSON) is covered; other documents are
+     * digested after being read by the content resolver.
+     */
+    private static String digest(URI id, ContentResolver contentResolver) {
+        if ("file".equals(id.getScheme())) {
+            try {
+                return DigestUtil.sha256Hex(FileUtils.readFileToByteArray(new File(id)));
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Unable to read " + id, e);
+            }
+        }
+        return digest(contentResolver.resolve(id));
+    }
+
+    /**
+     * Reads the graph recorded in the given directory by a previous run.
+     *
+     * @param targetDirectory
+     *            the target directory of the previous run
+     * @return the recorded graph, or <code>null</code> if there is no graph
+     *         or it cannot be read
+     */
+    public static SchemaDependencyGraph read(File targetDirectory) {
+        File file = new File(targetDirectory, FILE_NAME);
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            JsonNode root = OBJECT_MAPPER.readTree(file);
+            if (root.path("version").asInt() != VERSION || !root.path("configuration").isTextual()) {
+                return null;
+            }
+
+            SchemaDependencyGraph graph = new SchemaDependencyGraph(root.get("configuration").asText());
+            for (Iterator<Map.Entry<String, JsonNode>> entries = root.path("documents").fields(); entries.hasNext();) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                graph.documents.put(entry.getKey(), entry.getValue().asText());
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> entries = root.path("types").fields(); entries.hasNext();) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                Set<String> typeDocuments = new TreeSet<>();
+                for (JsonNode document : entry.getValue()) {
+                    typeDocuments.add(document.asText());
+                }
+                graph.types.put(entry.getKey(), typeDocuments);
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> entries = root.path("origins").fields(); entries.hasNext();) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                graph.typeOrigins.put(entry.getKey(), entry.getValue().asText());
+            }
+            for (Iterator<Map.Entry<String, JsonNode>> entries = root.path("sources").fields(); entries.hasNext();) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                graph.sourceDocuments.put(entry.getKey(), readStrings(entry.getValue().path("documents")));
+                graph.sourceTypes.put(entry.getKey(), readStrings(entry.getValue().path("types")));
+            }
+            for (JsonNode output : root.path("outputs")) {
+                graph.outputs.add(output.asText());
+            }
+            return graph;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes this graph to the given directory, replacing any graph recorded
+     * by a previous run.
+     *
+     * @param targetDirectory
+     *            the target directory of this run
+     * @throws IOException
+     *             if the graph cannot be written
+     */
+    public void write(File targetDirectory) throws IOException {
+        ObjectNode root = OBJECT_MAPPER.createObjectNode();
+        root.put("version", VERSION);
+        root.put("configuration", configuration);
+
+        ObjectNode documentsNode = root.putObject("documents");
+        for (Map.Entry<String, String> document : documents.entrySet()) {
+            documentsNode.put(document.getKey(), document.getValue());
+        }
+
+        ObjectNode typesNode = root.putObject("types");
+        for (Map.Entry<String, Set<String>> type : types.entrySet()) {
+            ArrayNode typeDocuments = typesNode.putArray(type.getKey());
+            for (String document : type.getValue()) {
+                typeDocuments.add(document);
+            }
+        }
+
+        ObjectNode originsNode = root.putObject("origins");
+        for (Map.Entry<String, String> origin : typeOrigins.entrySet()) {
+            originsNode.put(origin.getKey(), origin.getValue());
+        }
+
+        ObjectNode sourcesNode = root.putObject("sources");
+        for (Map.Entry<String, Set<String>> source : sourceDocuments.entrySet()) {
+            ObjectNode sourceNode = sourcesNode.putObject(source.getKey());
+            writeStrings(sourceNode.putArray("documents"), source.getValue());
+            writeStrings(sourceNode.putArray("types"), sourceTypes.get(source.getKey()));
+        }
+
+        ArrayNode outputsNode = root.putArray("outputs");
+        for (String output : outputs) {
+            outputsNode.add(output);
+        }
+
+        OBJECT_MAPPER.writeValue(new File(targetDirectory, FILE_NAME), root);
+    }
+
+    private static Set<String> readStrings(JsonNode array) {
+        Set<String> strings = new TreeSet<>();
+        for (JsonNode element : array) {
+            strings.add(element.asText());
+        }
+        return strings;
+    }
+
+    private static void writeStrings(ArrayNode array, Collection<String> strings) {
+        for (String string : strings) {
+            array.add(string);
+        }
+    }
+
+    /**
+     * Records a source, the documents that were read while generating it and
+     * the types it generated. A type that is already recorded (for a source
+     * that was not generated together with this one) stays recorded for that
+     * source. If it was derived from the same document as the recorded type,
+     * both sources simply share it (as when they <code>$ref</code> the same
+     * schema); otherwise it is reported as a duplicate.
+     *
+     * @param source
+     *            the URL of the source
+     * @param typeNames
+     *            the fully qualified names of the types generated from the
+     *            source
+     * @param typeDocuments
+     *            the documents that were read while generating the source
+     * @param typeOrigins
+     *            the document each type was derived from, where known
+     * @return the names of the types that were already recorded for a
+     *         different (or unknown) document
+     */
+    public Set<String> addSource(String source, Collection<String> typeNames, Collection<URI> typeDocuments, Map<String, URI> typeOrigins) {
+        Set<String> newTypes = new TreeSet<>();
+        Set<String> duplicates = new TreeSet<>();
+        for (String typeName : typeNames) {
+            URI origin = typeOrigins.get(typeName);
+            if (!types.containsKey(typeName)) {
+                newTypes.add(typeName);
+                if (origin != null) {
+                    this.typeOrigins.put(typeName, origin.toString());
+                }
+            } else if (origin == null || !origin.toString().equals(this.typeOrigins.get(typeName))) {
+                duplicates.add(typeName);
+            }
+        }
+        addTypes(newTypes, typeDocuments);
+        duplicateTypes.addAll(duplicates);
+
+        Set<String> documentIds = new TreeSet<>();
+        for (URI document : typeDocuments) {
+            documentIds.add(document.toString());
+        }
+        sourceDocuments.put(source, documentIds);
+        sourceTypes.put(source, newTypes);
+        return duplicates;
+    }
+
+    /**
+     * Records the types generated from a source, and the documents that were
+     * read while generating them.
+     *
+     * @param typeNames
+     *            the fully qualified names of the types first generated from
+     *            the source
+     * @param typeDocuments
+     *            the documents that were read while generating the source
+     */
+    public void addTypes(Collection<String> typeNames, Collection<URI> typeDocuments) {
+        Set<String> documentIds = new TreeSet<>();
+        for (URI document : typeDocuments) {
+            documentIds.add(document.toString());
+            documents.putIfAbsent(document.toString(), null);
+        }
+        for (String typeName : typeNames) {
+            types.put(typeName, documentIds);
+        }
+    }
+
+    /**
+     * Records a digest of the current content of every document added to this
+     * graph.
+     *
+     * @param contentResolver
+     *            the resolver used to read documents
+     */
+    public void addDigests(ContentResolver contentResolver) {
+        for (Map.Entry<String, String> document : documents.entrySet()) {
+            document.setValue(digest(URI.create(document.getKey()), contentResolver));
+        }
+    }
+
+    /**
+     * Records the files produced by the run, relative to the target directory.
+     *
+     * @param paths
+     *            the relative paths of the files produced
+     */
+    public void addOutputs(Collection<String> paths) {
+        outputs.addAll(paths);
+    }
+
+    /**
+     * @return the ids of every document that the recorded types were derived
+     *         from
+     */
+    public Set<URI> getDocuments() {
+        Set<URI> ids = new TreeSet<>();
+        for (String document : documents.keySet()) {
+            ids.add(URI.create(document));
+        }
+        return ids;
+    }
+
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    public Set<String> getOutputs() {
+        return Collections.unmodifiableSet(outputs);
+    }
+
+    /**
+     * Finds the documents whose content differs from the content recorded in
+     * this graph, including documents that can no longer be read.
+     *
+     * @param contentResolver
+     *            the resolver used to read documents
+     * @return the ids of the documents that have changed
+     */
+    public Set<URI> getChangedDocuments(ContentResolver contentResolver) {
+        Set<URI> changed = new TreeSet<>();
+        for (Map.Entry<String, String> document : documents.entrySet()) {
+            URI id = URI.create(document.getKey());
+            try {
+                if (!digest(id, contentResolver).equals(document.getValue())) {
+                    changed.add(id);
+                }
+            } catch (IllegalArgumentException e) {
+                changed.add(id);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Finds the types that were derived from any of the given documents.
+     *
+     * @param changedDocuments
+     *            the ids of documents that have changed
+     * @return the fully qualified names of the affected types
+     */
+    public Set<String> getAffectedTypes(Collection<URI> changedDocuments) {
+        Set<String> changedIds = new HashSet<>();
+        for (URI document : changedDocuments) {
+            changedIds.add(document.toString());
+        }
+
+        Set<String> affected = new TreeSet<>();
+        for (Map.Entry<String, Set<String>> type : types.entrySet()) {
+            if (!Collections.disjoint(type.getValue(), changedIds)) {
+                affected.add(type.getKey());
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Finds the sources that read any of the given documents while they were
+     * generated.
+     *
+     * @param changedDocuments
+     *            the ids of documents that have changed
+     * @return the URLs of the affected sources
+     */
+    public Set<String> getAffectedSources(Collection<URI> changedDocuments) {
+        Set<String> changedIds = new HashSet<>();
+        for (URI document : changedDocuments) {
+            changedIds.add(document.toString());
+        }
+
+        Set<String> affected = new TreeSet<>();
+        for (Map.Entry<String, Set<String>> source : sourceDocuments.entrySet()) {
+            if (!Collections.disjoint(source.getValue(), changedIds)) {
+                affected.add(source.getKey());
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Creates a copy of this graph without the given sources, the types they
+     * generated and the files of those types, ready for the sources to be
+     * generated again and added back.
+     *
+     * @param excludedSources
+     *            the URLs of the sources to leave out
+     * @return a graph of the remaining sources
+     */
+    public SchemaDependencyGraph without(Collection<String> excludedSources) {
+        SchemaDependencyGraph graph = new SchemaDependencyGraph(configuration);
+        Set<String> excludedTypePaths = new HashSet<>();
+        for (Map.Entry<String, Set<String>> source : sourceDocuments.entrySet()) {
+            Set<String> typeNames = sourceTypes.get(source.getKey());
+            if (excludedSources.contains(source.getKey())) {
+                for (String typeName : typeNames) {
+                    excludedTypePaths.add(typeName.replace('.', '/'));
+                }
+                continue;
+            }
+            graph.sourceDocuments.put(source.getKey(), source.getValue());
+            graph.sourceTypes.put(source.getKey(), typeNames);
+            for (String typeName : typeNames) {
+                graph.types.put(typeName, types.get(typeName));
+                if (typeOrigins.containsKey(typeName)) {
+                    graph.typeOrigins.put(typeName, typeOrigins.get(typeName));
+                }
+            }
+            for (String document : source.getValue()) {
+                graph.documents.put(document, documents.get(document));
+            }
+        }
+        for (String output : outputs) {
+            if (!excludedTypePaths.contains(StringUtils.substringBeforeLast(output, "."))) {
+                graph.outputs.add(output);
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * @return whether any recorded type was renamed (with a numeric suffix)
+     *         because its name was already taken, in which case the names of
+     *         types depend on which sources are generated together
+     */
+    public boolean hasUniqueNameCollisions() {
+        for (String typeName : types.keySet()) {
+            if (UNIQUE_NAME.matcher(typeName).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return whether any source added to this graph generated a type that was
+     *         already recorded for a different document, in which case it may
+     *         have taken the name of a different type that a full run would
+     *         have renamed
+     */
+    public boolean hasDuplicateTypes() {
+        return !duplicateTypes.isEmpty();
+    }
+
+    /**
+     * @param targetDirectory
+     *            the target directory of the new run
+     * @return whether every recorded output is still present
+     */
+    public boolean hasAllOutputs(File targetDirectory) {
+        for (String output : outputs) {
+            if (!new File(targetDirectory, output).isFile()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -17,14 +17,17 @@
 package com.quantiply;
 
 import java.io.IOException;
+import java.io.Reader;
 import java.net.URL;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import com.quantiply.exception.GenerationException;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -32,14 +35,27 @@ import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.jsonschema.SchemaAware;
-import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.ser.BeanSerializerFactory;
 import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
 import com.fasterxml.jackson.databind.ser.std.NullSerializer;
 
+/**
+ * Infers JSON schema from example documents.
+ * <p>
+ * Examples are read as a stream of tokens and folded into a summary that has
+ * the shape of the resulting schema, so memory use depends on the variety of
+ * the example rather than its size. Where an array holds objects, all of its
+ * objects are merged: properties are collected in the order they first appear,
+ * nested objects are merged and nested arrays are concatenated, and a property
+ * whose values have different types takes its most recent value. Otherwise the
+ * type of an array's items is taken from its first item.
+ */
 public class SchemaGenerator {
 
+    private static final JsonNodeFactory NODE_FACTORY = JsonNodeFactory.instance;
+
     private final ObjectMapper objectMapper;
 
     public SchemaGenerator() {
@@ -54,98 +70,115 @@ public class SchemaGenerator {
     
     public ObjectNode schemaFromExample(URL example) {
 
-        try {
-            JsonNode content = this.objectMapper.readTree(example);
-            return schemaFromExample(content);
+        try (JsonParser parser = this.objectMapper.getFactory().createParser(example)) {
+            if (parser.nextToken() == null) {
+                throw new GenerationException("Could not process JSON in source file, no example found in " + example);
+            }
+            return summarize(parser).toSchema();
         } catch (IOException e) {
             throw new GenerationException("Could not process JSON in source file", e);
         }
 
     }
 
-    public ObjectNode schemaFromExample(JsonNode example) {
-
-        if (example.isObject()) {
-            return objectSchema(example);
-        } else if (example.isArray()) {
-            return arraySchema(example);
-        } else {
-            return simpleTypeSchema(example);
+    /**
+     * Infers a schema from newline delimited JSON (NDJSON), where each line of
+     * the source holds one example record. Records are merged in the same way
+     * as the items of an example array, one record at a time, so the number of
+     * records does not affect memory use.
+     *
+     * @param example
+     *            location of the NDJSON example
+     * @return a schema describing a single record
+     */
+    public ObjectNode schemaFromNdjsonExample(URL example) {
+
+        try (JsonParser parser = this.objectMapper.getFactory().createParser(example)) {
+            return schemaFromNdjsonRecords(parser, "Could not process NDJSON in source file, no records found in " + example);
+        } catch (IOException e) {
+            throw new GenerationException("Could not process NDJSON in source file", e);
         }
 
     }
 
-    private ObjectNode objectSchema(JsonNode exampleObject) {
-
-        ObjectNode schema = this.objectMapper.createObjectNode();
-        schema.put("type", "object");
-
-        ObjectNode properties = this.objectMapper.createObjectNode();
-        for (Iterator<String> iter = exampleObject.fieldNames(); iter.hasNext();) {
-            String property = iter.next();
-            properties.set(property, schemaFromExample(exampleObject.get(property)));
+    /**
+     * Infers a schema from newline delimited JSON (NDJSON) read from the given
+     * reader, in the same way as {@link #schemaFromNdjsonExample(URL)}.
+     *
+     * @param example
+     *            the NDJSON example, one record per line
+     * @return a schema describing a single record
+     */
+    public ObjectNode schemaFromNdjsonExample(Reader example) {
+
+        try (JsonParser parser = this.objectMapper.getFactory().createParser(example)) {
+            return schemaFromNdjsonRecords(parser, "Could not process NDJSON example, no records found");
+        } catch (IOException e) {
+            throw new GenerationException("Could not process NDJSON example", e);
         }
-        schema.set("properties", properties);
 
-        return schema;
     }
 
-    private ObjectNode arraySchema(JsonNode exampleArray) {
-        ObjectNode schema = this.objectMapper.createObjectNode();
+    private ObjectNode schemaFromNdjsonRecords(JsonParser parser, String noRecordsMessage) throws IOException {
 
-        schema.put("type", "array");
-
-        if (exampleArray.size() > 0) {
-
-            JsonNode exampleItem = exampleArray.get(0).isObject() ? mergeArrayItems(exampleArray) : exampleArray.get(0);
-
-            schema.set("items", schemaFromExample(exampleItem));
+        ArraySummary records = new ArraySummary();
+        while (parser.nextToken() != null) {
+            records.add(summarize(parser));
         }
+        if (records.empty) {
+            throw new GenerationException(noRecordsMessage);
+        }
+        return records.itemsSchema();
 
-        return schema;
     }
 
-    private JsonNode mergeArrayItems(JsonNode exampleArray) {
-
-        ObjectNode mergedItems = this.objectMapper.createObjectNode();
+    public ObjectNode schemaFromExample(JsonNode example) {
 
-        for (JsonNode item : exampleArray) {
-            if (item.isObject()) {
-                mergeObjectNodes(mergedItems, (ObjectNode) item);
-            }
+        try (JsonParser parser = this.objectMapper.treeAsTokens(example)) {
+            parser.nextToken();
+            return summarize(parser).toSchema();
+        } catch (IOException e) {
+            throw new GenerationException("Unable to generate a schema for this json example: " + example, e);
         }
 
-        return mergedItems;
     }
 
-    private ObjectNode mergeObjectNodes(ObjectNode targetNode, ObjectNode updateNode) {
-        Iterator<String> fieldNames = updateNode.fieldNames();
-        while (fieldNames.hasNext()) {
-
-            String fieldName = fieldNames.next();
-            JsonNode targetValue = targetNode.get(fieldName);
-            JsonNode updateValue = updateNode.get(fieldName);
-
-            if (targetValue == null) {
-                // Target node doesn't have this field from update node: just add it
-                targetNode.set(fieldName, updateValue);
-
-            } else {
-                // Both nodes have the same field: merge the values
-                if (targetValue.isObject() && updateValue.isObject()) {
-                    // Both values are objects: recurse
-                    targetNode.set(fieldName, mergeObjectNodes((ObjectNode) targetValue, (ObjectNode) updateValue));
-                } else if (targetValue.isArray() && updateValue.isArray()) {
-                    // Both values are arrays: concatenate them to be merged later
-                    ((ArrayNode) targetValue).addAll((ArrayNode) updateValue);
-                } else {
-                    // Values have different types: use the one from the update node
-                    targetNode.set(fieldName, updateValue);
+    /**
+     * Summarizes the value that starts at the parser's current token, leaving
+     * the parser on the last token of that value.
+     */
+    private Summary summarize(JsonParser parser) throws IOException {
+
+        switch (parser.getCurrentToken()) {
+            case START_OBJECT:
+                ObjectSummary object = new ObjectSummary();
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String property = parser.getCurrentName();
+                    parser.nextToken();
+                    object.put(property, summarize(parser));
                 }
-            }
+                return object;
+            case START_ARRAY:
+                ArraySummary array = new ArraySummary();
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    array.add(summarize(parser));
+                }
+                return array;
+            case VALUE_STRING:
+                return ScalarSummary.STRING;
+            case VALUE_NUMBER_INT:
+                return ScalarSummary.INTEGER;
+            case VALUE_NUMBER_FLOAT:
+                return ScalarSummary.NUMBER;
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return ScalarSummary.BOOLEAN;
+            case VALUE_NULL:
+                return ScalarSummary.NULL;
+            default:
+                return new ScalarSummary(simpleTypeSchema(this.objectMapper.readTree(parser)));
         }
 
-        return targetNode;
     }
 
     private ObjectNode simpleTypeSchema(JsonNode exampleValue) {
@@ -180,4 +213,153 @@ public class SchemaGenerator {
         }
     }
 
+    private abstract static class Summary {
+
+        abstract ObjectNode toSchema();
+
+    }
+
+    private static final class ScalarSummary extends Summary {
+
+        private static final ScalarSummary STRING = new ScalarSummary("string");
+        private static final ScalarSummary INTEGER = new ScalarSummary("integer");
+        private static final ScalarSummary NUMBER = new ScalarSummary("number");
+        private static final ScalarSummary BOOLEAN = new ScalarSummary("boolean");
+        private static final ScalarSummary NULL = new ScalarSummary("null");
+
+        private final ObjectNode schema;
+
+        private ScalarSummary(String type) {
+            this(NODE_FACTORY.objectNode().put("type", type));
+        }
+
+        private ScalarSummary(ObjectNode schema) {
+            this.schema = schema;
+        }
+
+        @Override
+        ObjectNode toSchema() {
+            return schema.deepCopy();
+        }
+
+    }
+
+    /**
+     * The values seen for one property. A property is reset once a value
+     * replaces an earlier one rather than being merged with it; from then on
+     * the values seen before it no longer matter, whatever the summary is
+     * later merged into.
+     */
+    private static final class Property {
+
+        private Summary value;
+        private boolean reset;
+
+        private Property(Summary value) {
+            this.value = value;
+        }
+
+    }
+
+    private static final class ObjectSummary extends Summary {
+
+        private final Map<String, Property> properties = new LinkedHashMap<>();
+
+        void put(String name, Summary value) {
+            Property property = properties.get(name);
+            if (property == null) {
+                properties.put(name, new Property(value));
+            } else {
+                property.value = value;
+            }
+        }
+
+        void merge(ObjectSummary update) {
+            for (Map.Entry<String, Property> entry : update.properties.entrySet()) {
+                Property target = properties.get(entry.getKey());
+                Property source = entry.getValue();
+
+                if (target == null) {
+                    properties.put(entry.getKey(), source);
+                } else if (!source.reset && target.value instanceof ObjectSummary && source.value instanceof ObjectSummary) {
+                    ((ObjectSummary) target.value).merge((ObjectSummary) source.value);
+                } else if (!source.reset && target.value instanceof ArraySummary && source.value instanceof ArraySummary) {
+                    ((ArraySummary) target.value).concat((ArraySummary) source.value);
+                } else {
+                    target.value = source.value;
+                    target.reset = true;
+                }
+            }
+        }
+
+        @Override
+        ObjectNode toSchema() {
+            ObjectNode schema = NODE_FACTORY.objectNode();
+            schema.put("type", "object");
+
+            ObjectNode propertiesNode = NODE_FACTORY.objectNode();
+            for (Map.Entry<String, Property> property : properties.entrySet()) {
+                propertiesNode.set(property.getKey(), property.getValue().value.toSchema());
+            }
+            schema.set("properties", propertiesNode);
+
+            return schema;
+        }
+
+    }
+
+    private static final class ArraySummary extends Summary {
+
+        private boolean empty = true;
+        /** The first item, unless it is an object. */
+        private Summary first;
+        /** All object items, merged. */
+        private ObjectSummary objects;
+
+        void add(Summary item) {
+            if (empty) {
+                empty = false;
+                first = item instanceof ObjectSummary ? null : item;
+            }
+            if (item instanceof ObjectSummary) {
+                mergeObjects((ObjectSummary) item);
+            }
+        }
+
+        void concat(ArraySummary update) {
+            if (empty) {
+                empty = update.empty;
+                first = update.first;
+            }
+            if (update.objects != null) {
+                mergeObjects(update.objects);
+            }
+        }
+
+        private void mergeObjects(ObjectSummary update) {
+            if (objects == null) {
+                objects = update;
+            } else {
+                objects.merge(update);
+            }
+        }
+
+        ObjectNode itemsSchema() {
+            return first != null ? first.toSchema() : objects.toSchema();
+        }
+
+        @Override
+        ObjectNode toSchema() {
+            ObjectNode schema = NODE_FACTORY.objectNode();
+            schema.put("type", "array");
+
+            if (!empty) {
+                schema.set("items", itemsSchema());
+            }
+
+            return schema;
+        }
+
+    }
+
 }
@@ -17,8 +17,11 @@
 package com.quantiply;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.net.URI;
 import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.quantiply.rules.RuleFactory;
 
@@ -41,6 +44,7 @@ public class SchemaMapper {
 
     private final RuleFactory ruleFactory;
     private final SchemaGenerator schemaGenerator;
+    private final Map<String, ObjectNode> prefetchedSchemas = new ConcurrentHashMap<>();
 
     /**
      * Create a schema mapper with the given {@link RuleFactory}.
@@ -93,6 +97,37 @@ public class SchemaMapper {
 
     }
 
+    /**
+     * Reads the document at the given location ahead of a call to
+     * {@link #generate(JCodeModel, String, String, URL)}, so that the costly
+     * work of reading and parsing sources can be done concurrently. This
+     * method is safe to call from multiple threads, but it does not touch the
+     * code model, so types must still be generated one source at a time.
+     *
+     * @param schemaUrl
+     *            location of the schema (or example document) that will later
+     *            be generated
+     */
+    public void prefetch(URL schemaUrl) {
+
+        switch (ruleFactory.getGenerationConfig().getSourceType()) {
+            case JSONSCHEMA:
+            case YAMLSCHEMA:
+                ruleFactory.getSchemaStore().prefetch(URI.create(schemaUrl.toString()));
+                break;
+            case JSON:
+            case YAML:
+                prefetchedSchemas.put(schemaUrl.toString(), schemaGenerator.schemaFromExample(schemaUrl));
+                break;
+            case NDJSON:
+                prefetchedSchemas.put(schemaUrl.toString(), schemaGenerator.schemaFromNdjsonExample(schemaUrl));
+                break;
+            default:
+                throw new IllegalArgumentException("Unrecognised source type: " + ruleFactory.getGenerationConfig().getSourceType());
+        }
+
+    }
+
     private ObjectNode readSchema(URL schemaUrl) {
 
         switch (ruleFactory.getGenerationConfig().getSourceType()) {
@@ -103,7 +138,11 @@ public class SchemaMapper {
                 return schemaNode;
             case JSON:
             case YAML:
-                return schemaGenerator.schemaFromExample(schemaUrl);
+                ObjectNode prefetchedSchema = prefetchedSchemas.remove(schemaUrl.toString());
+                return prefetchedSchema != null ? prefetchedSchema : schemaGenerator.schemaFromExample(schemaUrl);
+            case NDJSON:
+                ObjectNode prefetchedRecordSchema = prefetchedSchemas.remove(schemaUrl.toString());
+                return prefetchedRecordSchema != null ? prefetchedRecordSchema : schemaGenerator.schemaFromNdjsonExample(schemaUrl);
             default:
                 throw new IllegalArgumentException("Unrecognised source type: " + ruleFactory.getGenerationConfig().getSourceType());
         }
@@ -129,6 +168,8 @@ public class SchemaMapper {
         if (ruleFactory.getGenerationConfig().getSourceType() == SourceType.JSON) {
             JsonNode jsonNode = objectMapper().readTree(json);
             schemaNode = schemaGenerator.schemaFromExample(jsonNode);
+        } else if (ruleFactory.getGenerationConfig().getSourceType() == SourceType.NDJSON) {
+            schemaNode = schemaGenerator.schemaFromNdjsonExample(new StringReader(json));
         } else {
             schemaNode = objectMapper().readTree(json);
         }
@@ -21,23 +21,40 @@ import static org.apache.commons.lang3.StringUtils.*;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 
 import com.fasterxml.jackson.databind.JsonNode;
 
 public class SchemaStore {
 
-    protected final Map<URI, Schema> schemas = new HashMap<>();
+    protected final Map<URI, Schema> schemas;
 
     protected final FragmentResolver fragmentResolver = new FragmentResolver();
+    protected final Set<URI> referencedDocuments = new LinkedHashSet<>();
+    protected final Map<String, URI> generatedTypeDocuments = new LinkedHashMap<>();
     protected final ContentResolver contentResolver;
 
     public SchemaStore() {
-		this.contentResolver = new ContentResolver();
+		this(new ContentResolver());
 	}
 
     public SchemaStore(ContentResolver contentResolver) {
+		this(contentResolver, new HashMap<>());
+	}
+
+    /**
+     * @param contentResolver
+     *            the resolver used to read schema documents
+     * @param schemas
+     *            the (empty) map in which schemas are kept, allowing
+     *            subclasses to choose an implementation
+     */
+    protected SchemaStore(ContentResolver contentResolver, Map<URI, Schema> schemas) {
 		this.contentResolver = contentResolver;
+		this.schemas = schemas;
 	}
 
 	/**
@@ -53,6 +70,8 @@ public class SchemaStore {
      */
     public synchronized Schema create(URI id, String refFragmentPathDelimiters) {
 
+        addReferencedDocument(removeFragment(id));
+
         if (!schemas.containsKey(id)) {
 
             URI baseId = removeFragment(id);
@@ -70,6 +89,91 @@ public class SchemaStore {
         return schemas.get(id);
     }
 
+    /**
+     * Read the document with the given ID into this store ahead of a call to
+     * {@link #create(URI, String)}. The document content is resolved without
+     * holding the store's lock, so many documents can be loaded concurrently.
+     * If a schema with the given ID is already known then this method has no
+     * effect.
+     *
+     * @param id
+     *            the id of the schema document to load, any fragment is
+     *            ignored
+     */
+    public void prefetch(URI id) {
+
+        URI baseId = removeFragment(id);
+
+        synchronized (this) {
+            if (schemas.containsKey(baseId)) {
+                return;
+            }
+        }
+
+        JsonNode baseContent = contentResolver.resolve(baseId);
+
+        synchronized (this) {
+            if (!schemas.containsKey(baseId)) {
+                schemas.put(baseId, new Schema(baseId, baseContent, null));
+            }
+        }
+    }
+
+    /**
+     * Returns the ids (without fragments) of the documents that have been
+     * requested through {@link #create(URI, String)} since the last call to
+     * this method, whether or not they were already known to this store.
+     *
+     * @return the ids of the documents referenced since the last call, in the
+     *         order they were first requested
+     */
+    public Set<URI> takeReferencedDocuments() {
+        synchronized (referencedDocuments) {
+            Set<URI> documents = new LinkedHashSet<>(referencedDocuments);
+            referencedDocuments.clear();
+            return documents;
+        }
+    }
+
+    /**
+     * Records the document that a newly generated type was derived from.
+     *
+     * @param typeName
+     *            the fully qualified name of the type
+     * @param schema
+     *            the schema the type was generated for
+     */
+    public void addGeneratedType(String typeName, Schema schema) {
+        if (schema.getId() == null || schema.getId().toString().startsWith("#")) {
+            return;
+        }
+        synchronized (generatedTypeDocuments) {
+            generatedTypeDocuments.putIfAbsent(typeName, removeFragment(schema.getId()));
+        }
+    }
+
+    /**
+     * Returns the types recorded through
+     * {@link #addGeneratedType(String, Schema)} since the last call to this
+     * method, with the id (without fragment) of the document each was derived
+     * from.
+     *
+     * @return the document of each type generated since the last call
+     */
+    public Map<String, URI> takeGeneratedTypes() {
+        synchronized (generatedTypeDocuments) {
+            Map<String, URI> types = new LinkedHashMap<>(generatedTypeDocuments);
+            generatedTypeDocuments.clear();
+            return types;
+        }
+    }
+
+    protected void addReferencedDocument(URI baseId) {
+        synchronized (referencedDocuments) {
+            referencedDocuments.add(baseId);
+        }
+    }
+
     protected URI removeFragment(URI id) {
         return URI.create(substringBefore(id.toString(), "#"));
     }
@@ -139,6 +243,8 @@ public class SchemaStore {
 
     public synchronized void clearCache() {
         schemas.clear();
+        takeReferencedDocuments();
+        takeGeneratedTypes();
     }
 
 }
@@ -43,5 +43,13 @@ public enum SourceType {
      * YAML documents, that represent an example of the kind of YAML (or JSON) data that
      * the generated Java types will be mapped to.
      */
-    YAML
+    YAML,
+
+    /**
+     * Newline delimited JSON documents, where each line holds one example
+     * record of the kind of JSON data that the generated Java types will be
+     * mapped to. Records are merged, so the generated types describe every
+     * record in the document.
+     */
+    NDJSON
 }
@@ -16,6 +16,7 @@
 
 package com.quantiply.rules;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,6 +32,7 @@ import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JFieldRef;
 import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
@@ -47,6 +49,12 @@ import com.sun.codemodel.JVar;
  */
 public class AdditionalPropertiesRule implements Rule<JDefinedClass, JDefinedClass> {
 
+    /**
+     * Name of the shared empty map that a lazily allocated
+     * additionalProperties field starts out as.
+     */
+    public static final String NO_ADDITIONAL_PROPERTIES = "NO_ADDITIONAL_PROPERTIES";
+
     private final RuleFactory ruleFactory;
 
     protected AdditionalPropertiesRule(RuleFactory ruleFactory) {
@@ -74,6 +82,16 @@ public class AdditionalPropertiesRule implements Rule<JDefinedClass, JDefinedCla
      * additionalProperties schema provided. If the schema does not specify the
      * javaType property, the name of the newly generated type will be derived
      * from the nodeName and the suffix 'Property'.
+     * <p>
+     * If lazy additional properties are enabled, the map starts out as a
+     * shared, empty map and a {@link HashMap} is only allocated when a
+     * property is first added or the map is first asked for. Serializers read
+     * the map through a private any getter that returns it as it is, so
+     * writing out an instance without additional properties doesn't allocate.
+     * <p>
+     * If immutable types are generated, the map is only added to by the
+     * deserializer (through a private any setter) and is returned as an
+     * unmodifiable map.
      *
      * @param nodeName
      *            the name of the schema node for which the additionalProperties
@@ -112,7 +130,7 @@ public class AdditionalPropertiesRule implements Rule<JDefinedClass, JDefinedCla
 
         JFieldVar field = addAdditionalPropertiesField(jclass, propertyType);
 
-        addGetter(jclass, field);
+        addGetter(jclass, propertyType, field);
 
         addSetter(jclass, propertyType, field);
 
@@ -120,7 +138,7 @@ public class AdditionalPropertiesRule implements Rule<JDefinedClass, JDefinedCla
             ruleFactory.getValidRule().apply(nodeName, node, parent, field, schema);
         }
 
-        if (ruleFactory.getGenerationConfig().isGenerateBuilders()) {
+        if (ruleFactory.getGenerationConfig().isGenerateBuilders() && !ruleFactory.getGenerationConfig().isImmutableTypes()) {
             addBuilder(jclass, propertyType, field);
         }
 
@@ -134,34 +152,73 @@ public class AdditionalPropertiesRule implements Rule<JDefinedClass, JDefinedCla
         JClass propertiesMapImplType = jclass.owner().ref(HashMap.class);
         propertiesMapImplType = propertiesMapImplType.narrow(jclass.owner().ref(String.class), propertyType.boxify());
 
-        JFieldVar field = jclass.field(JMod.PRIVATE, propertiesMapType, "additionalProperties");
+        // a lazily allocated map is replaced when it is first written to, so can't be final
+        boolean isFinal = ruleFactory.getGenerationConfig().isImmutableTypes() && !ruleFactory.getGenerationConfig().isLazyAdditionalProperties();
+        JFieldVar field = jclass.field(isFinal ? JMod.PRIVATE | JMod.FINAL : JMod.PRIVATE, propertiesMapType, "additionalProperties");
 
         ruleFactory.getAnnotator().additionalPropertiesField(field, jclass, "additionalProperties");
 
-        field.init(JExpr._new(propertiesMapImplType));
+        if (ruleFactory.getGenerationConfig().isLazyAdditionalProperties()) {
+            JFieldVar empty = jclass.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, propertiesMapType, NO_ADDITIONAL_PROPERTIES);
+            empty.init(jclass.owner().ref(Collections.class).staticInvoke("emptyMap"));
+            field.init(empty);
+        } else {
+            field.init(JExpr._new(propertiesMapImplType));
+        }
 
         return field;
     }
 
+    /**
+     * Replaces the shared empty map held by a lazily allocated
+     * additionalProperties field with a map of its own, so that it can be
+     * written to.
+     */
+    private void materialize(JBlock body, JDefinedClass jclass, JType propertyType, JFieldRef map) {
+        if (!ruleFactory.getGenerationConfig().isLazyAdditionalProperties()) {
+            return;
+        }
+        JClass propertiesMapImplType = jclass.owner().ref(HashMap.class);
+        propertiesMapImplType = propertiesMapImplType.narrow(jclass.owner().ref(String.class), propertyType.boxify());
+
+        body._if(map.eq(jclass.staticRef(NO_ADDITIONAL_PROPERTIES)))._then()
+            .assign(map, JExpr._new(propertiesMapImplType));
+    }
+
     private void addSetter(JDefinedClass jclass, JType propertyType, JFieldVar field) {
-        JMethod setter = jclass.method(JMod.PUBLIC, void.class, "setAdditionalProperty");
+        // immutable types only take additional properties from their deserializer
+        int mods = ruleFactory.getGenerationConfig().isImmutableTypes() ? JMod.PRIVATE : JMod.PUBLIC;
+        JMethod setter = jclass.method(mods, void.class, "setAdditionalProperty");
 
         ruleFactory.getAnnotator().anySetter(setter, jclass);
 
         JVar nameParam = setter.param(String.class, "name");
         JVar valueParam = setter.param(propertyType, "value");
 
+        materialize(setter.body(), jclass, propertyType, JExpr._this().ref(field));
         JInvocation mapInvocation = setter.body().invoke(JExpr._this().ref(field), "put");
         mapInvocation.arg(nameParam);
         mapInvocation.arg(valueParam);
     }
 
-    private JMethod addGetter(JDefinedClass jclass, JFieldVar field) {
+    private JMethod addGetter(JDefinedClass jclass, JType propertyType, JFieldVar field) {
         JMethod getter = jclass.method(JMod.PUBLIC, field.type(), "getAdditionalProperties");
 
-        ruleFactory.getAnnotator().anyGetter(getter, jclass);
+        if (ruleFactory.getGenerationConfig().isLazyAdditionalProperties()) {
+            // the public getter allocates the map, so serializers read it through an accessor that doesn't
+            JMethod anyGetter = jclass.method(JMod.PRIVATE, field.type(), "anyAdditionalProperties");
+            ruleFactory.getAnnotator().anyGetter(anyGetter, jclass);
+            anyGetter.body()._return(JExpr._this().ref(field));
+        } else {
+            ruleFactory.getAnnotator().anyGetter(getter, jclass);
+        }
 
-        getter.body()._return(JExpr._this().ref(field));
+        if (ruleFactory.getGenerationConfig().isImmutableTypes()) {
+            getter.body()._return(jclass.owner().ref(Collections.class).staticInvoke("unmodifiableMap").arg(JExpr._this().ref(field)));
+        } else {
+            materialize(getter.body(), jclass, propertyType, JExpr._this().ref(field));
+            getter.body()._return(JExpr._this().ref(field));
+        }
         return getter;
     }
 
@@ -184,6 +241,7 @@ public class AdditionalPropertiesRule implements Rule<JDefinedClass, JDefinedCla
         JVar valueParam = builder.param(propertyType, "value");
 
         JBlock body = builder.body();
+        materialize(body, jclass, propertyType, JExpr._this().ref(field));
         JInvocation mapInvocation = body.invoke(JExpr._this().ref(field), "put");
         mapInvocation.arg(nameParam);
         mapInvocation.arg(valueParam);
@@ -204,6 +262,7 @@ public class AdditionalPropertiesRule implements Rule<JDefinedClass, JDefinedCla
         JVar valueParam = builder.param(propertyType, "value");
 
         JBlock body = builder.body();
+        materialize(body, jclass, propertyType, JExpr.ref(JExpr.cast(jclass, JExpr._this().ref("instance")), field));
         JInvocation mapInvocation = body.invoke(JExpr.ref(JExpr.cast(jclass, JExpr._this().ref("instance")), field), "put");
         mapInvocation.arg(nameParam);
         mapInvocation.arg(valueParam);
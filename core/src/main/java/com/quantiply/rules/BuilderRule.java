@@ -56,6 +56,8 @@ public class BuilderRule implements Rule<JDefinedClass, JDefinedClass> {
       return e.getExistingClass();
     }
 
+    reflectionHelper.registerClass(builderClass);
+
     // Determine which builder (if any) this builder should inherit from
     JClass parentBuilderClass = null;
     JClass parentClass = instanceClass._extends();
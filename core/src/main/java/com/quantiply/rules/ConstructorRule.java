@@ -18,22 +18,26 @@ package com.quantiply.rules;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.quantiply.GenerationConfig;
 import com.quantiply.Schema;
-import com.quantiply.util.NameHelper;
 import com.quantiply.util.ReflectionHelper;
 import com.sun.codemodel.JBlock;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JConditional;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JInvocation;
 import com.sun.codemodel.JMethod;
 import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JType;
 import com.sun.codemodel.JVar;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
@@ -56,9 +60,12 @@ public class ConstructorRule  implements Rule<JDefinedClass, JDefinedClass> {
 
     GenerationConfig generationConfig = ruleFactory.getGenerationConfig();
 
+    // Immutable types can only be given their properties through the constructor, so it takes all of them
+    boolean onlyRequired = generationConfig.isConstructorsRequiredPropertiesOnly() && !generationConfig.isImmutableTypes();
+
     // Determine which properties belong to that class (or its superType/parent)
-    LinkedHashSet<String> classProperties = getConstructorProperties(node, generationConfig.isConstructorsRequiredPropertiesOnly());
-    LinkedHashSet<String> combinedSuperProperties = getSuperTypeConstructorPropertiesRecursive(node, currentSchema, generationConfig.isConstructorsRequiredPropertiesOnly());
+    LinkedHashSet<String> classProperties = getConstructorProperties(node, onlyRequired);
+    LinkedHashSet<String> combinedSuperProperties = getSuperTypeConstructorPropertiesRecursive(node, currentSchema, onlyRequired);
 
     // no properties to put in the constructor => default constructor is good enough.
     if (classProperties.isEmpty() && combinedSuperProperties.isEmpty()) {
@@ -66,13 +73,16 @@ public class ConstructorRule  implements Rule<JDefinedClass, JDefinedClass> {
     }
 
     // Generate the no arguments constructor
-    generateNoArgsConstructor(instanceClass);
+    JMethod noargsConstructor = generateNoArgsConstructor(instanceClass);
+    if (generationConfig.isImmutableTypes()) {
+      assignDefaults(noargsConstructor, instanceClass, classProperties);
+    }
 
     // Generate the constructor with the properties which were located
     JMethod instanceConstructor = generateFieldsConstructor(instanceClass, classProperties, combinedSuperProperties);
 
     // If we're using InnerClassBuilder implementations then we also need to generate those
-    if (generationConfig.isGenerateBuilders() && generationConfig.isUseInnerClassBuilders()) {
+    if (generationConfig.isGenerateBuilders() && generationConfig.isUseInnerClassBuilders() && !generationConfig.isImmutableTypes()) {
       JDefinedClass builderClass = ruleFactory.getReflectionHelper().getBuilderClass(instanceClass);
       generateFieldsBuilderConstructor(builderClass, instanceClass, instanceConstructor);
     }
@@ -105,7 +115,7 @@ public class ConstructorRule  implements Rule<JDefinedClass, JDefinedClass> {
       }
     }
 
-    NameHelper nameHelper = ruleFactory.getNameHelper();
+    PropertyMetadata propertyMetadata = ruleFactory.getPropertyMetadata(node);
     for (Iterator<Entry<String, JsonNode>> properties = node.get("properties").fields(); properties.hasNext(); ) {
       Map.Entry<String, JsonNode> property = properties.next();
 
@@ -113,15 +123,15 @@ public class ConstructorRule  implements Rule<JDefinedClass, JDefinedClass> {
       if (onlyRequired) {
         // draft3 style
         if (propertyObj.has("required") && propertyObj.get("required").asBoolean()) {
-          rtn.add(nameHelper.getPropertyName(property.getKey(), property.getValue()));
+          rtn.add(propertyMetadata.getPropertyName(property.getKey(), property.getValue()));
         }
 
         // draft4 style
         if (draft4RequiredProperties.contains(property.getKey())) {
-          rtn.add(nameHelper.getPropertyName(property.getKey(), property.getValue()));
+          rtn.add(propertyMetadata.getPropertyName(property.getKey(), property.getValue()));
         }
       } else {
-        rtn.add(nameHelper.getPropertyName(property.getKey(), property.getValue()));
+        rtn.add(propertyMetadata.getPropertyName(property.getKey(), property.getValue()));
       }
     }
     return rtn;
@@ -198,7 +208,11 @@ public class ConstructorRule  implements Rule<JDefinedClass, JDefinedClass> {
 
       fieldsConstructor.javadoc().addParam(property);
       JVar param = fieldsConstructor.param(field.type(), field.name());
-      constructorBody.assign(JExpr._this().ref(field), param);
+      if (ruleFactory.getGenerationConfig().isImmutableTypes()) {
+        constructorBody.assign(JExpr._this().ref(field), unmodifiableCopy(field.type(), param));
+      } else {
+        constructorBody.assign(JExpr._this().ref(field), param);
+      }
       classFieldParams.put(property, param);
     }
 
@@ -228,10 +242,67 @@ public class ConstructorRule  implements Rule<JDefinedClass, JDefinedClass> {
     return fieldsConstructor;
   }
 
-  private void generateNoArgsConstructor(JDefinedClass jclass) {
+  private JMethod generateNoArgsConstructor(JDefinedClass jclass) {
     // add a no-args constructor for serialization purposes
     JMethod noargsConstructor = jclass.constructor(JMod.PUBLIC);
     noargsConstructor.javadoc().add("No args constructor for use in serialization");
+    return noargsConstructor;
+  }
+
+  /**
+   * Final fields must be assigned by every constructor, so the no args constructor assigns each one its default value (or
+   * null, zero or false if it has none).
+   */
+  private void assignDefaults(JMethod noargsConstructor, JDefinedClass jclass, LinkedHashSet<String> classProperties) {
+    Map<String, JFieldVar> fields = jclass.fields();
+
+    for (String property : classProperties) {
+      JFieldVar field = fields.get(property);
+
+      JExpression defaultValue = ruleFactory.getFieldDefaults().remove(field);
+      if (defaultValue == null) {
+        if (!field.type().isPrimitive()) {
+          defaultValue = JExpr._null();
+        } else if ("boolean".equals(field.type().name())) {
+          defaultValue = JExpr.FALSE;
+        } else {
+          defaultValue = JExpr.lit(0);
+        }
+      }
+      noargsConstructor.body().assign(JExpr._this().ref(field), defaultValue);
+    }
+  }
+
+  /**
+   * Copies a list, set or map into an unmodifiable collection, so that the instance it is given to can't be changed through
+   * it. Other values are returned as they are.
+   */
+  private JExpression unmodifiableCopy(JType type, JVar value) {
+    if (type.isPrimitive() || type.isArray()) {
+      return value;
+    }
+
+    JClass collectionType = (JClass) type;
+    List<JClass> typeParameters = collectionType.getTypeParameters();
+    String erasure = collectionType.erasure().fullName();
+
+    JClass copyType;
+    String wrapMethod;
+    if (erasure.equals(List.class.getName()) && typeParameters.size() == 1) {
+      copyType = type.owner().ref(ArrayList.class).narrow(typeParameters);
+      wrapMethod = "unmodifiableList";
+    } else if (erasure.equals(Set.class.getName()) && typeParameters.size() == 1) {
+      copyType = type.owner().ref(LinkedHashSet.class).narrow(typeParameters);
+      wrapMethod = "unmodifiableSet";
+    } else if (erasure.equals(Map.class.getName()) && typeParameters.size() == 2) {
+      copyType = type.owner().ref(LinkedHashMap.class).narrow(typeParameters);
+      wrapMethod = "unmodifiableMap";
+    } else {
+      return value;
+    }
+
+    JExpression copy = type.owner().ref(Collections.class).staticInvoke(wrapMethod).arg(JExpr._new(copyType).arg(value));
+    return JOp.cond(value.eq(JExpr._null()), JExpr._null(), copy);
   }
 
 
@@ -24,6 +24,7 @@ import java.net.URI;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -69,6 +70,9 @@ public class DefaultRule implements Rule<JFieldVar, JFieldVar> {
      * <p>
      * Collections (Lists and Sets) are initialized to an empty collection, even
      * when no default value is present in the schema (node is null).
+     * <p>
+     * When immutable types are generated, the default is recorded for the
+     * constructor to assign instead, and collections are unmodifiable.
      *
      * @param nodeName
      *            the name of the property which has (or may have) a default
@@ -87,19 +91,29 @@ public class DefaultRule implements Rule<JFieldVar, JFieldVar> {
 
         String fieldType = field.type().fullName();
 
+        JExpression defaultValue = null;
         if (defaultPresent && !field.type().isPrimitive() && node.isNull()) {
-            field.init(JExpr._null());
+            defaultValue = JExpr._null();
 
         } else if (fieldType.startsWith(List.class.getName())) {
-            field.init(getDefaultList(field.type(), node));
+            defaultValue = getDefaultList(field.type(), node);
 
         } else if (fieldType.startsWith(Set.class.getName())) {
-            field.init(getDefaultSet(field.type(), node));
+            defaultValue = getDefaultSet(field.type(), node);
         } else if (fieldType.startsWith(String.class.getName()) && node != null ) {
-            field.init(getDefaultValue(field.type(), node));
+            defaultValue = getDefaultValue(field.type(), node);
         } else if (defaultPresent) {
-            field.init(getDefaultValue(field.type(), node));
+            defaultValue = getDefaultValue(field.type(), node);
+
+        }
 
+        if (defaultValue != null) {
+            if (ruleFactory.getGenerationConfig().isImmutableTypes()) {
+                // final fields get their defaults from the no args constructor
+                ruleFactory.getFieldDefaults().put(field, defaultValue);
+            } else {
+                field.init(defaultValue);
+            }
         }
 
         return field;
@@ -195,8 +209,13 @@ public class DefaultRule implements Rule<JFieldVar, JFieldVar> {
             newListImpl.arg(invokeAsList);
         } else if (!ruleFactory.getGenerationConfig().isInitializeCollections()) {
             return JExpr._null();
+        } else if (ruleFactory.getGenerationConfig().isImmutableTypes()) {
+            return fieldType.owner().ref(Collections.class).staticInvoke("emptyList");
         }
 
+        if (ruleFactory.getGenerationConfig().isImmutableTypes()) {
+            return fieldType.owner().ref(Collections.class).staticInvoke("unmodifiableList").arg(newListImpl);
+        }
         return newListImpl;
 
     }
@@ -234,8 +253,13 @@ public class DefaultRule implements Rule<JFieldVar, JFieldVar> {
             newSetImpl.arg(invokeAsList);
         } else if (!ruleFactory.getGenerationConfig().isInitializeCollections()) {
             return JExpr._null();
+        } else if (ruleFactory.getGenerationConfig().isImmutableTypes()) {
+            return fieldType.owner().ref(Collections.class).staticInvoke("emptySet");
         }
 
+        if (ruleFactory.getGenerationConfig().isImmutableTypes()) {
+            return fieldType.owner().ref(Collections.class).staticInvoke("unmodifiableSet").arg(newSetImpl);
+        }
         return newSetImpl;
 
     }
@@ -100,24 +100,27 @@ public class DynamicPropertiesRule implements Rule<JDefinedClass, JDefinedClass>
             return jclass;
         }
 
+        // immutable types can't be changed, so only get the dynamic getters
+        boolean isImmutableTypes = ruleFactory.getGenerationConfig().isImmutableTypes();
         boolean isIncludeGetters = ruleFactory.getGenerationConfig().isIncludeGetters();
-        boolean isIncludeSetters = ruleFactory.getGenerationConfig().isIncludeSetters();
-        boolean isGenerateBuilders = ruleFactory.getGenerationConfig().isGenerateBuilders();
+        boolean isIncludeSetters = ruleFactory.getGenerationConfig().isIncludeSetters() && !isImmutableTypes;
+        boolean isGenerateBuilders = ruleFactory.getGenerationConfig().isGenerateBuilders() && !isImmutableTypes;
 
         if (isIncludeGetters || isIncludeSetters || isGenerateBuilders) {
+            PropertyMetadata propertyMetadata = ruleFactory.getPropertyMetadata(currentSchema.getContent());
             if (LanguageFeatures.canUseJava7(ruleFactory.getGenerationConfig())) {
                 if (isIncludeSetters) {
-                    addInternalSetMethodJava7(jclass, node);
+                    addInternalSetMethodJava7(jclass, node, propertyMetadata);
                 }
                 if (isIncludeGetters) {
-                    addInternalGetMethodJava7(jclass, node);
+                    addInternalGetMethodJava7(jclass, node, propertyMetadata);
                 }
             } else {
                 if (isIncludeSetters) {
-                    addInternalSetMethodJava6(jclass, node);
+                    addInternalSetMethodJava6(jclass, node, propertyMetadata);
                 }
                 if (isIncludeGetters) {
-                    addInternalGetMethodJava6(jclass, node);
+                    addInternalGetMethodJava6(jclass, node, propertyMetadata);
                 }
             }
         }
@@ -164,7 +167,12 @@ public class DynamicPropertiesRule implements Rule<JDefinedClass, JDefinedClass>
 
         JMethod getAdditionalProperties = jclass.getMethod("getAdditionalProperties", new JType[] {});
         if (getAdditionalProperties != null) {
-            notFound._return(cast(returnType, invoke(getAdditionalProperties).invoke("get").arg(nameParam)));
+            // reading does not need a lazily allocated map to be allocated, or an immutable one to be wrapped
+            JExpression additionalProperties = ruleFactory.getGenerationConfig().isLazyAdditionalProperties()
+                    || ruleFactory.getGenerationConfig().isImmutableTypes()
+                    ? _this().ref("additionalProperties")
+                    : invoke(getAdditionalProperties);
+            notFound._return(cast(returnType, additionalProperties.invoke("get").arg(nameParam)));
         } else {
             notFound._throw(illegalArgumentInvocation(jclass, nameParam));
         }
@@ -172,7 +180,7 @@ public class DynamicPropertiesRule implements Rule<JDefinedClass, JDefinedClass>
         return method;
     }
 
-    private JMethod addInternalGetMethodJava7(JDefinedClass jclass, JsonNode propertiesNode) {
+    private JMethod addInternalGetMethodJava7(JDefinedClass jclass, JsonNode propertiesNode, PropertyMetadata propertyMetadata) {
         JMethod method = jclass.method(PROTECTED, jclass.owner()._ref(Object.class), DEFINED_GETTER_NAME);
         JVar nameParam = method.param(String.class, "name");
         JVar notFoundParam = method.param(jclass.owner()._ref(Object.class), "notFoundValue");
@@ -183,7 +191,7 @@ public class DynamicPropertiesRule implements Rule<JDefinedClass, JDefinedClass>
                 Map.Entry<String, JsonNode> property = properties.next();
                 String propertyName = property.getKey();
                 JsonNode node = property.getValue();
-                String fieldName = ruleFactory.getNameHelper().getPropertyName(propertyName, node);
+                String fieldName = propertyMetadata.getPropertyName(propertyName, node);
                 JType propertyType = jclass.fields().get(fieldName).type();
 
                 addGetPropertyCase(jclass, propertySwitch, propertyName, propertyType, node);
@@ -204,7 +212,7 @@ public class DynamicPropertiesRule implements Rule<JDefinedClass, JDefinedClass>
         return method;
     }
 
-    private JMethod addInternalGetMethodJava6(JDefinedClass jclass, JsonNode propertiesNode) {
+    private JMethod addInternalGetMethodJava6(JDefinedClass jclass, JsonNode propertiesNode, PropertyMetadata propertyMetadata) {
         JMethod method = jclass.method(PROTECTED, jclass.owner()._ref(Object.class), DEFINED_GETTER_NAME);
         JVar nameParam = method.param(String.class, "name");
         JVar notFoundParam = method.param(jclass.owner()._ref(Object.class), "notFoundValue");
@@ -216,7 +224,7 @@ public class DynamicPropertiesRule implements Rule<JDefinedClass, JDefinedClass>
                 Map.Entry<String, JsonNode> property = properties.next();
                 String propertyName = property.getKey();
                 JsonNode node = property.getValue();
-                String fieldName = ruleFactory.getNameHelper().getPropertyName(propertyName, node);
+                String fieldName = propertyMetadata.getPropertyName(propertyName, node);
                 JType propertyType = jclass.fields().get(fieldName).type();
 
                 JExpression condition = lit(propertyName).invoke("equals").arg(nameParam);
@@ -305,7 +313,7 @@ public class DynamicPropertiesRule implements Rule<JDefinedClass, JDefinedClass>
         return method;
     }
 
-    private JMethod addInternalSetMethodJava7(JDefinedClass jclass, JsonNode propertiesNode) {
+    private JMethod addInternalSetMethodJava7(JDefinedClass jclass, JsonNode propertiesNode, PropertyMetadata propertyMetadata) {
         JMethod method = jclass.method(PROTECTED, jclass.owner().BOOLEAN, DEFINED_SETTER_NAME);
         JVar nameParam = method.param(String.class, "name");
         JVar valueParam = method.param(Object.class, "value");
@@ -316,7 +324,7 @@ public class DynamicPropertiesRule implements Rule<JDefinedClass, JDefinedClass>
                 Map.Entry<String, JsonNode> property = properties.next();
                 String propertyName = property.getKey();
                 JsonNode node = property.getValue();
-                String fieldName = ruleFactory.getNameHelper().getPropertyName(propertyName, node);
+                String fieldName = propertyMetadata.getPropertyName(propertyName, node);
                 JType propertyType = jclass.fields().get(fieldName).type();
 
                 addSetPropertyCase(jclass, propertySwitch, propertyName, propertyType, valueParam, node);
@@ -335,7 +343,7 @@ public class DynamicPropertiesRule implements Rule<JDefinedClass, JDefinedClass>
         return method;
     }
 
-    private JMethod addInternalSetMethodJava6(JDefinedClass jclass, JsonNode propertiesNode) {
+    private JMethod addInternalSetMethodJava6(JDefinedClass jclass, JsonNode propertiesNode, PropertyMetadata propertyMetadata) {
         JMethod method = jclass.method(PROTECTED, jclass.owner().BOOLEAN, DEFINED_SETTER_NAME);
         JVar nameParam = method.param(String.class, "name");
         JVar valueParam = method.param(Object.class, "value");
@@ -346,7 +354,7 @@ public class DynamicPropertiesRule implements Rule<JDefinedClass, JDefinedClass>
                 Map.Entry<String, JsonNode> property = properties.next();
                 String propertyName = property.getKey();
                 JsonNode node = property.getValue();
-                String fieldName = ruleFactory.getNameHelper().getPropertyName(propertyName, node);
+                String fieldName = propertyMetadata.getPropertyName(propertyName, node);
                 JType propertyType = jclass.fields().get(fieldName).type();
                 JExpression condition = lit(propertyName).invoke("equals").arg(nameParam);
                 propertyConditional = propertyConditional == null ? propertyConditional = body._if(condition)
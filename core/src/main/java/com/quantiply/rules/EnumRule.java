@@ -27,6 +27,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import com.quantiply.AnnotationStyle;
 import com.quantiply.Schema;
 import com.quantiply.util.TypeUtil;
 import com.quantiply.exception.ClassAlreadyExistsException;
@@ -107,6 +108,8 @@ public class EnumRule implements Rule<JClassContainer, JType> {
         }
 
         schema.setJavaTypeIfEmpty(_enum);
+        ruleFactory.getSchemaStore().addGeneratedType(_enum.fullName(), schema);
+        ruleFactory.getReflectionHelper().registerClass(_enum);
 
         if (node.has("javaInterfaces")) {
             addInterfaces(_enum, node.get("javaInterfaces"));
@@ -142,6 +145,18 @@ public class EnumRule implements Rule<JClassContainer, JType> {
             ruleFactory.getDescriptionRule().apply(nodeName, node.get("description"), node, _enum, schema);
         }
 
+        if (ruleFactory.getGenerationConfig().getAnnotationStyle() == AnnotationStyle.JACKSON2_SERIALIZERS) {
+            ruleFactory.getJackson2SerializersRule().apply(nodeName, node, parent, _enum, schema);
+        }
+
+        if (ruleFactory.getGenerationConfig().getAnnotationStyle() == AnnotationStyle.GSON_TYPE_ADAPTERS) {
+            ruleFactory.getGsonTypeAdaptersRule().apply(nodeName, node, parent, _enum, schema);
+        }
+
+        if (ruleFactory.getGenerationConfig().getAnnotationStyle() == AnnotationStyle.MOSHI1_JSON_ADAPTERS) {
+            ruleFactory.getMoshi1JsonAdaptersRule().apply(nodeName, node, parent, _enum, schema);
+        }
+
         return _enum;
     }
 
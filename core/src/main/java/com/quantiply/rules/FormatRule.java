@@ -53,7 +53,7 @@ public class FormatRule implements Rule<JType, JType> {
 
     protected FormatRule(RuleFactory ruleFactory) {
         this.ruleFactory = ruleFactory;
-        this.formatTypeMapping = getFormatTypeMapping(ruleFactory.getGenerationConfig());
+        this.formatTypeMapping = ruleFactory.getFormatTypeMapping();
     }
 
     /**
@@ -109,7 +109,7 @@ public class FormatRule implements Rule<JType, JType> {
         return formatTypeMapping.getOrDefault(format, null);
     }
 
-    private static Map<String, Class<?>> getFormatTypeMapping(GenerationConfig config) {
+    static Map<String, Class<?>> getFormatTypeMapping(GenerationConfig config) {
 
         Map<String, Class<?>> mapping = new HashMap<>(14);
         mapping.put("date-time", getDateTimeType(config));
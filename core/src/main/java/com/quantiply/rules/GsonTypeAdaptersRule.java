@@ -0,0 +1,359 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.rules;
+
+import static org.apache.commons.lang3.StringUtils.defaultString;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.quantiply.Schema;
+import com.quantiply.util.ReflectionHelper;
+import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JCatchBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JSwitch;
+import com.sun.codemodel.JTryBlock;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JTypeVar;
+import com.sun.codemodel.JVar;
+import com.sun.codemodel.JWhileLoop;
+
+/**
+ * Adds a streaming Gson <code>TypeAdapter</code> to a generated class or
+ * enum, and registers it with a generated <code>TypeAdapterFactory</code>
+ * ({@value #FACTORY_CLASS_NAME}, in the target package).
+ * <p>
+ * The adapter is nested in the type it handles, so it reads and writes its
+ * fields directly rather than through <code>ReflectiveTypeAdapterFactory</code>.
+ * Property names are matched with a <code>switch</code>, and strings, numbers
+ * and booleans are read straight from the <code>JsonReader</code> when the
+ * next token allows it. Every other value (and any token the fast path
+ * doesn't expect, such as a null) goes to the adapter Gson provides for the
+ * property's type, looked up once when the adapter is created. A subclass
+ * delegates the properties it inherits to the adapter of its superclass.
+ * <p>
+ * Classes that extend a type without an adapter, or that hide an inherited
+ * property, get no adapter and are left to Gson's reflection. So are enums
+ * that are not backed by strings, which Gson's own enum adapter handles
+ * without reflection once it has been created.
+ */
+public class GsonTypeAdaptersRule implements Rule<JDefinedClass, JDefinedClass> {
+
+    public static final String FACTORY_CLASS_NAME = "GsonTypeAdapterFactory";
+
+    private static final String ADAPTER_SUFFIX = "TypeAdapter";
+
+    private final RuleFactory ruleFactory;
+    private final ReflectionHelper reflectionHelper;
+
+    protected GsonTypeAdaptersRule(RuleFactory ruleFactory, ReflectionHelper reflectionHelper) {
+        this.ruleFactory = ruleFactory;
+        this.reflectionHelper = reflectionHelper;
+    }
+
+    /**
+     * Applies this schema rule to take the required code generation steps.
+     * <p>
+     * Adds the type adapter to the given class or enum, once all of its
+     * properties have been added.
+     *
+     * @param nodeName
+     *            the name of the schema node of the type
+     * @param node
+     *            the schema node of the type
+     * @param jclass
+     *            the class or enum generated for the schema node
+     * @return the given class or enum
+     */
+    @Override
+    public JDefinedClass apply(String nodeName, JsonNode node, JsonNode parent, JDefinedClass jclass, Schema schema) {
+        try {
+            JDefinedClass adapter = jclass.getClassType() == ClassType.ENUM ? addEnumAdapter(jclass) : addObjectAdapter(node, jclass, schema);
+            if (adapter != null) {
+                register(jclass, adapter);
+            }
+        } catch (JClassAlreadyExistsException e) {
+            // a type of that name is already nested here, so leave this one to reflection
+        }
+        return jclass;
+    }
+
+    private JDefinedClass addObjectAdapter(JsonNode node, JDefinedClass jclass, Schema schema) throws JClassAlreadyExistsException {
+        JCodeModel owner = jclass.owner();
+
+        JDefinedClass superClass = null;
+        JDefinedClass superAdapter = null;
+        if (jclass._extends() instanceof JDefinedClass) {
+            superClass = (JDefinedClass) jclass._extends();
+            superAdapter = nestedClass(superClass, ADAPTER_SUFFIX);
+            if (superAdapter == null) {
+                return null;
+            }
+        } else if (!jclass._extends().fullName().equals(Object.class.getName())) {
+            return null;
+        }
+
+        PropertyMetadata propertyMetadata = ruleFactory.getPropertyMetadata(schema.getContent());
+        Map<String, JFieldVar> fields = jclass.fields();
+        Map<String, JFieldVar> properties = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> i = node.path("properties").fields(); i.hasNext();) {
+            Map.Entry<String, JsonNode> property = i.next();
+            JFieldVar field = fields.get(propertyMetadata.getPropertyName(property.getKey(), property.getValue()));
+            if (field == null || (superClass != null && reflectionHelper.searchClassAndSuperClassesForField(field.name(), superClass) != null)) {
+                return null;
+            }
+            properties.put(property.getKey(), field);
+        }
+
+        JDefinedClass adapter = jclass._class(JMod.PUBLIC | JMod.STATIC, jclass.name() + ADAPTER_SUFFIX);
+        adapter._extends(owner.ref(TypeAdapter.class).narrow(jclass));
+        adapter.javadoc().add("Reads and writes {@link " + jclass.name() + "} without reflection.");
+
+        JMethod constructor = adapter.constructor(JMod.PUBLIC);
+        JVar gson = constructor.param(Gson.class, "gson");
+        JFieldVar superDelegate = null;
+        if (superAdapter != null) {
+            superDelegate = adapter.field(JMod.PRIVATE | JMod.FINAL, superAdapter, "superAdapter");
+            constructor.body().assign(JExpr._this().ref(superDelegate), JExpr._new(superAdapter).arg(gson));
+        }
+        Map<JFieldVar, JFieldVar> delegates = new LinkedHashMap<>();
+        for (JFieldVar field : properties.values()) {
+            JClass type = field.type().boxify();
+            JFieldVar delegate = adapter.field(JMod.PRIVATE | JMod.FINAL, owner.ref(TypeAdapter.class).narrow(type), field.name() + "Adapter");
+            JExpression typeToken = type.getTypeParameters().isEmpty() ? type.dotclass()
+                    : JExpr._new(owner.anonymousClass(owner.ref(TypeToken.class).narrow(type)));
+            constructor.body().assign(JExpr._this().ref(delegate), gson.invoke("getAdapter").arg(typeToken));
+            delegates.put(field, delegate);
+        }
+
+        JMethod writeProperties = adapter.method(JMod.PUBLIC, owner.VOID, "writeProperties");
+        JVar out = writeProperties.param(JsonWriter.class, "out");
+        JVar value = writeProperties.param(jclass, "value");
+        writeProperties._throws(IOException.class);
+        for (Map.Entry<String, JFieldVar> property : properties.entrySet()) {
+            JFieldVar field = property.getValue();
+            writeProperties.body().add(out.invoke("name").arg(property.getKey()));
+            writeValue(writeProperties.body(), field.type(), value.ref(field), delegates.get(field), out);
+        }
+        if (superDelegate != null) {
+            writeProperties.body().add(superDelegate.invoke("writeProperties").arg(out).arg(value));
+        }
+
+        JMethod readProperty = adapter.method(JMod.PUBLIC, owner.BOOLEAN, "readProperty");
+        readProperty.javadoc().add("Reads the value of the named property, if it is one of ours.");
+        readProperty.javadoc().addReturn().add("whether the property was read");
+        value = readProperty.param(jclass, "value");
+        JVar name = readProperty.param(String.class, "name");
+        JVar in = readProperty.param(JsonReader.class, "in");
+        readProperty._throws(IOException.class);
+        JExpression inherited = superDelegate == null ? JExpr.FALSE : superDelegate.invoke("readProperty").arg(value).arg(name).arg(in);
+        if (properties.isEmpty()) {
+            readProperty.body()._return(inherited);
+        } else {
+            JSwitch byName = readProperty.body()._switch(name);
+            for (Map.Entry<String, JFieldVar> property : properties.entrySet()) {
+                JFieldVar field = property.getValue();
+                JBlock body = byName._case(JExpr.lit(property.getKey())).body();
+                readValue(body, field.type(), value.ref(field), delegates.get(field), in);
+                body._return(JExpr.TRUE);
+            }
+            byName._default().body()._return(inherited);
+        }
+
+        JMethod write = adapter.method(JMod.PUBLIC, owner.VOID, "write");
+        write.annotate(Override.class);
+        out = write.param(JsonWriter.class, "out");
+        value = write.param(jclass, "value");
+        write._throws(IOException.class);
+        JConditional isNull = write.body()._if(value.eq(JExpr._null()));
+        isNull._then().add(out.invoke("nullValue"));
+        isNull._else().add(out.invoke("beginObject"));
+        isNull._else().add(JExpr.invoke(writeProperties).arg(out).arg(value));
+        isNull._else().add(out.invoke("endObject"));
+
+        JMethod read = adapter.method(JMod.PUBLIC, jclass, "read");
+        read.annotate(Override.class);
+        in = read.param(JsonReader.class, "in");
+        read._throws(IOException.class);
+        JBlock nullValue = read.body()._if(in.invoke("peek").eq(owner.ref(JsonToken.class).staticRef("NULL")))._then();
+        nullValue.add(in.invoke("nextNull"));
+        nullValue._return(JExpr._null());
+        value = read.body().decl(jclass, "value", JExpr._new(jclass));
+        read.body().add(in.invoke("beginObject"));
+        JWhileLoop nextName = read.body()._while(in.invoke("hasNext"));
+        nextName.body()._if(JExpr.invoke(readProperty).arg(value).arg(in.invoke("nextName")).arg(in).not())._then()
+                .add(in.invoke("skipValue"));
+        read.body().add(in.invoke("endObject"));
+        read.body()._return(value);
+
+        return adapter;
+    }
+
+    /**
+     * Writes a property value, straight to the writer for the types whose
+     * Gson adapters do no more than that (Gson 2.5 can't write a boxed
+     * boolean directly).
+     */
+    private void writeValue(JBlock body, JType type, JFieldRef field, JFieldVar delegate, JVar out) {
+        String typeName = type.fullName();
+        if (type.isPrimitive() ? typeName.equals("int") || typeName.equals("boolean")
+                : typeName.equals(String.class.getName()) || typeName.equals(Integer.class.getName())) {
+            body.add(out.invoke("value").arg(field));
+        } else {
+            body.add(delegate.invoke("write").arg(out).arg(field));
+        }
+    }
+
+    /**
+     * Reads a property value, straight from the reader when the next token is
+     * one the value's type can be read from directly.
+     */
+    private void readValue(JBlock body, JType type, JFieldRef field, JFieldVar delegate, JVar in) {
+        JClass tokenType = type.owner().ref(JsonToken.class);
+        String typeName = type.boxify().fullName();
+        JExpression read = delegate.invoke("read").arg(in);
+        if (typeName.equals(String.class.getName())) {
+            read = JOp.cond(in.invoke("peek").eq(tokenType.staticRef("STRING")), in.invoke("nextString"), read);
+        } else if (typeName.equals(Integer.class.getName())) {
+            read = JOp.cond(in.invoke("peek").eq(tokenType.staticRef("NUMBER")), boxIfNeeded(type, in.invoke("nextInt")), read);
+        } else if (typeName.equals(Long.class.getName())) {
+            read = JOp.cond(in.invoke("peek").eq(tokenType.staticRef("NUMBER")), boxIfNeeded(type, in.invoke("nextLong")), read);
+        } else if (typeName.equals(Double.class.getName())) {
+            read = JOp.cond(in.invoke("peek").eq(tokenType.staticRef("NUMBER")), boxIfNeeded(type, in.invoke("nextDouble")), read);
+        } else if (typeName.equals(Boolean.class.getName())) {
+            read = JOp.cond(in.invoke("peek").eq(tokenType.staticRef("BOOLEAN")), boxIfNeeded(type, in.invoke("nextBoolean")), read);
+        }
+
+        if (type.isPrimitive()) {
+            // as Gson does, a null leaves a primitive property unchanged
+            JConditional isNull = body._if(in.invoke("peek").eq(tokenType.staticRef("NULL")));
+            isNull._then().add(in.invoke("nextNull"));
+            isNull._else().assign(field, read);
+        } else {
+            body.assign(field, read);
+        }
+    }
+
+    private JDefinedClass addEnumAdapter(JDefinedClass _enum) throws JClassAlreadyExistsException {
+        JCodeModel owner = _enum.owner();
+        if (!_enum.fields().get("value").type().fullName().equals(String.class.getName())) {
+            return null;
+        }
+
+        JDefinedClass adapter = _enum._class(JMod.PUBLIC | JMod.STATIC, _enum.name() + ADAPTER_SUFFIX);
+        adapter._extends(owner.ref(TypeAdapter.class).narrow(_enum));
+        adapter.javadoc().add("Reads and writes {@link " + _enum.name() + "} by its value.");
+
+        JMethod constructor = adapter.constructor(JMod.PUBLIC);
+        constructor.param(Gson.class, "gson");
+
+        JMethod write = adapter.method(JMod.PUBLIC, owner.VOID, "write");
+        write.annotate(Override.class);
+        JVar out = write.param(JsonWriter.class, "out");
+        JVar value = write.param(_enum, "value");
+        write._throws(IOException.class);
+        write.body().add(out.invoke("value").arg(JOp.cond(value.eq(JExpr._null()), JExpr._null(), value.invoke("value"))));
+
+        JMethod read = adapter.method(JMod.PUBLIC, _enum, "read");
+        read.annotate(Override.class);
+        JVar in = read.param(JsonReader.class, "in");
+        read._throws(IOException.class);
+        JBlock nullValue = read.body()._if(in.invoke("peek").eq(owner.ref(JsonToken.class).staticRef("NULL")))._then();
+        nullValue.add(in.invoke("nextNull"));
+        nullValue._return(JExpr._null());
+        JTryBlock fromValue = read.body()._try();
+        fromValue.body()._return(_enum.staticInvoke("fromValue").arg(in.invoke("nextString")));
+        JCatchBlock unknown = fromValue._catch(owner.ref(IllegalArgumentException.class));
+        unknown.param("e");
+        unknown.body()._return(JExpr._null());
+
+        return adapter;
+    }
+
+    /**
+     * Adds the type's adapter to the factory that creates the adapters of
+     * every generated type, creating the factory on first use. Its
+     * <code>create</code> method switches on the name of the requested
+     * type, and the factory is one of the rule factory's aggregate classes
+     * because a case is added for every type that is generated.
+     */
+    private void register(JDefinedClass jclass, JDefinedClass adapter) throws JClassAlreadyExistsException {
+        JCodeModel owner = jclass.owner();
+        String packageName = defaultString(ruleFactory.getGenerationConfig().getTargetPackage());
+        JDefinedClass factory = owner._getClass(packageName.isEmpty() ? FACTORY_CLASS_NAME : packageName + "." + FACTORY_CLASS_NAME);
+        if (factory == null) {
+            factory = owner._package(packageName)._class(JMod.PUBLIC, FACTORY_CLASS_NAME);
+            factory._implements(TypeAdapterFactory.class);
+            factory.javadoc().add("Creates the generated type adapters of every generated type.");
+            ruleFactory.getAggregateClasses().add(factory);
+
+            JMethod create = factory.method(JMod.PUBLIC, owner.VOID, "create");
+            create.annotate(Override.class);
+            create.annotate(SuppressWarnings.class).param("value", "unchecked");
+            JTypeVar t = create.generify("T");
+            create.type(owner.ref(TypeAdapter.class).narrow(t));
+            create.param(Gson.class, "gson");
+            JVar type = create.param(owner.ref(TypeToken.class).narrow(t), "type");
+            JSwitch byName = create.body()._switch(type.invoke("getRawType").invoke("getName"));
+            byName._default().body()._return(JExpr._null());
+        }
+
+        JMethod create = factory.methods().iterator().next();
+        JSwitch byName = (JSwitch) create.body().getContents().get(0);
+        byName._case(JExpr.lit(jclass.binaryName())).body()
+                ._return(JExpr.cast(owner.ref(TypeAdapter.class).narrow(create.typeParams()[0]), JExpr._new(adapter).arg(create.params().get(0))));
+    }
+
+    private static JDefinedClass nestedClass(JDefinedClass jclass, String suffix) {
+        String name = jclass.name() + suffix;
+        for (Iterator<JDefinedClass> classes = jclass.classes(); classes.hasNext();) {
+            JDefinedClass nested = classes.next();
+            if (nested.name().equals(name)) {
+                return nested;
+            }
+        }
+        return null;
+    }
+
+    private static JExpression boxIfNeeded(JType type, JExpression primitive) {
+        return type.isPrimitive() ? primitive : type.boxify().staticInvoke("valueOf").arg(primitive);
+    }
+
+}
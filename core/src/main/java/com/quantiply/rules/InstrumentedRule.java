@@ -0,0 +1,49 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.rules;
+
+import java.net.URI;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.quantiply.GenerationMetrics;
+import com.quantiply.Schema;
+
+/**
+ * Decorates a rule so that every application is recorded in a
+ * {@link GenerationMetrics}, attributed to the rule and to the schema it was
+ * applied to.
+ */
+class InstrumentedRule<T, R> implements Rule<T, R> {
+
+    private final Rule<T, R> delegate;
+    private final String name;
+    private final GenerationMetrics metrics;
+
+    InstrumentedRule(Rule<T, R> delegate, GenerationMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+        String simpleName = delegate.getClass().getSimpleName();
+        this.name = simpleName.isEmpty() ? delegate.getClass().getName() : simpleName;
+    }
+
+    @Override
+    public R apply(String nodeName, JsonNode node, JsonNode parent, T generatableType, Schema currentSchema) {
+        URI schemaId = currentSchema == null ? null : currentSchema.getId();
+        return metrics.measureRule(name, schemaId, () -> delegate.apply(nodeName, node, parent, generatableType, currentSchema));
+    }
+
+}
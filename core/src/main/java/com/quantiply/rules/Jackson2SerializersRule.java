@@ -0,0 +1,587 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.rules;
+
+import static org.apache.commons.lang3.StringUtils.defaultString;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonView;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.module.SimpleSerializers;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.type.ClassKey;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.quantiply.InclusionLevel;
+import com.quantiply.Schema;
+import com.quantiply.util.ReflectionHelper;
+import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JAnnotationUse;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JCatchBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JForEach;
+import com.sun.codemodel.JForLoop;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JSwitch;
+import com.sun.codemodel.JTryBlock;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+
+/**
+ * Adds a companion Jackson 2.x serializer and deserializer to a generated
+ * class or enum, and registers them with a generated module
+ * ({@value #MODULE_CLASS_NAME}, in the target package).
+ * <p>
+ * The companions are nested in the type they handle, so they read and write
+ * its fields directly. They drive <code>JsonGenerator</code> and
+ * <code>JsonParser</code> themselves rather than leaving Jackson to introspect
+ * the bean: property names are written from precomputed
+ * <code>SerializedString</code>s and matched with a <code>switch</code> on the
+ * parser's (interned) field name, and strings, numbers, booleans and enums
+ * are read and written without a serializer lookup. Values of other types
+ * (including additional properties) are handed back to Jackson, which finds
+ * the companions of nested generated types through the module. A subclass delegates the
+ * properties it inherits to the companions of its superclass.
+ * <p>
+ * The companions only reproduce what the Jackson annotations express for
+ * most types, so no companions are generated for a class that relies on
+ * something they don't handle (formatted dates, JSON views, a superclass
+ * without companions, a property that hides an inherited one) and Jackson
+ * keeps using the annotations for it (the module only uses a serializer for
+ * exactly the class it was generated for, so such a class is never written
+ * by its superclass's serializer). For the same reason, no serializers are
+ * generated when the inclusion level is {@link InclusionLevel#NON_DEFAULT} or
+ * {@link InclusionLevel#USE_DEFAULTS}.
+ */
+public class Jackson2SerializersRule implements Rule<JDefinedClass, JDefinedClass> {
+
+    public static final String MODULE_CLASS_NAME = "Jackson2SerializersModule";
+
+    private static final String SERIALIZER_SUFFIX = "Serializer";
+    private static final String DESERIALIZER_SUFFIX = "Deserializer";
+    private static final String ADDITIONAL_PROPERTIES_FIELD = "additionalProperties";
+
+    private static final Set<String> UNSUPPORTED_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            JsonFormat.class.getName(), JsonView.class.getName()));
+
+    private final RuleFactory ruleFactory;
+    private final ReflectionHelper reflectionHelper;
+
+    protected Jackson2SerializersRule(RuleFactory ruleFactory, ReflectionHelper reflectionHelper) {
+        this.ruleFactory = ruleFactory;
+        this.reflectionHelper = reflectionHelper;
+    }
+
+    /**
+     * Applies this schema rule to take the required code generation steps.
+     * <p>
+     * Adds the companion serializer and deserializer to the given class or
+     * enum, once all of its properties have been added.
+     *
+     * @param nodeName
+     *            the name of the schema node of the type
+     * @param node
+     *            the schema node of the type
+     * @param jclass
+     *            the class or enum generated for the schema node
+     * @return the given class or enum
+     */
+    @Override
+    public JDefinedClass apply(String nodeName, JsonNode node, JsonNode parent, JDefinedClass jclass, Schema schema) {
+        try {
+            if (jclass.getClassType() == ClassType.ENUM) {
+                addEnumCompanions(jclass);
+            } else {
+                addObjectCompanions(node, jclass, schema);
+            }
+        } catch (JClassAlreadyExistsException e) {
+            // a type of that name is already nested here, so leave this one to the annotations
+        }
+        return jclass;
+    }
+
+    private void addObjectCompanions(JsonNode node, JDefinedClass jclass, Schema schema) throws JClassAlreadyExistsException {
+        JCodeModel owner = jclass.owner();
+
+        JDefinedClass superClass = definedSuperClass(jclass);
+        JDefinedClass superSerializer = null;
+        JDefinedClass superDeserializer = null;
+        if (superClass != null) {
+            superSerializer = nestedClass(superClass, SERIALIZER_SUFFIX);
+            superDeserializer = nestedClass(superClass, DESERIALIZER_SUFFIX);
+            if (superDeserializer == null) {
+                return;
+            }
+        } else if (!jclass._extends().fullName().equals(Object.class.getName())) {
+            return;
+        }
+
+        PropertyMetadata propertyMetadata = ruleFactory.getPropertyMetadata(schema.getContent());
+        Map<String, JFieldVar> fields = jclass.fields();
+        Map<String, JFieldVar> properties = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> i = node.path("properties").fields(); i.hasNext();) {
+            Map.Entry<String, JsonNode> property = i.next();
+            JFieldVar field = fields.get(propertyMetadata.getPropertyName(property.getKey(), property.getValue()));
+            if (field == null || hasUnsupportedAnnotation(field)
+                    || (superClass != null && reflectionHelper.searchClassAndSuperClassesForField(field.name(), superClass) != null)) {
+                return;
+            }
+            properties.put(property.getKey(), field);
+        }
+
+        JFieldVar additionalProperties = reflectionHelper.searchClassAndSuperClassesForField(ADDITIONAL_PROPERTIES_FIELD, jclass);
+        JClass additionalPropertyType = null;
+        if (additionalProperties != null) {
+            List<JClass> typeParameters = ((JClass) additionalProperties.type()).getTypeParameters();
+            additionalPropertyType = typeParameters.size() == 2 ? typeParameters.get(1) : owner.ref(Object.class);
+        }
+
+        JDefinedClass module = getModule(owner);
+        JBlock registrations = module.constructors().next().body();
+
+        if (serializersSupported() && (superClass == null || superSerializer != null)) {
+            JDefinedClass serializer = addObjectSerializer(jclass, properties, superSerializer, additionalProperties);
+            registrations.invoke("addSerializer").arg(jclass.dotclass()).arg(JExpr._new(serializer));
+        }
+
+        JDefinedClass deserializer = addObjectDeserializer(jclass, properties, superDeserializer, additionalPropertyType);
+        registrations.invoke("addDeserializer").arg(jclass.dotclass()).arg(JExpr._new(deserializer));
+    }
+
+    private JDefinedClass addObjectSerializer(JDefinedClass jclass, Map<String, JFieldVar> properties, JDefinedClass superSerializer, JFieldVar additionalProperties) throws JClassAlreadyExistsException {
+        JCodeModel owner = jclass.owner();
+        JDefinedClass serializer = jclass._class(JMod.PUBLIC | JMod.STATIC, jclass.name() + SERIALIZER_SUFFIX);
+        serializer._extends(owner.ref(StdSerializer.class).narrow(jclass));
+        serializer.javadoc().add("Writes {@link " + jclass.name() + "} without introspection.");
+
+        serializer.constructor(JMod.PUBLIC).body().invoke("super").arg(jclass.dotclass());
+
+        JMethod writeProperties = serializer.method(JMod.PUBLIC | JMod.STATIC, owner.VOID, "writeProperties");
+        JVar value = writeProperties.param(jclass, "value");
+        JVar gen = writeProperties.param(JsonGenerator.class, "gen");
+        JVar provider = writeProperties.param(SerializerProvider.class, "provider");
+        writeProperties._throws(IOException.class);
+
+        Set<String> constantNames = new HashSet<>();
+        for (Map.Entry<String, JFieldVar> property : properties.entrySet()) {
+            JFieldVar field = property.getValue();
+            JFieldVar name = serializer.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, SerializedString.class,
+                    constantName(field.name(), constantNames), JExpr._new(owner.ref(SerializedString.class)).arg(property.getKey()));
+            writeProperty(writeProperties.body(), name, field.type(), value.ref(field), gen, provider);
+        }
+        if (superSerializer != null) {
+            writeProperties.body().add(superSerializer.staticInvoke("writeProperties").arg(value).arg(gen).arg(provider));
+        }
+
+        JMethod serialize = serializer.method(JMod.PUBLIC, owner.VOID, "serialize");
+        serialize.annotate(Override.class);
+        value = serialize.param(jclass, "value");
+        gen = serialize.param(JsonGenerator.class, "gen");
+        provider = serialize.param(SerializerProvider.class, "provider");
+        serialize._throws(IOException.class);
+        serialize.body().add(gen.invoke("writeStartObject").arg(value));
+        serialize.body().add(JExpr.invoke(writeProperties).arg(value).arg(gen).arg(provider));
+        if (additionalProperties != null) {
+            writeAdditionalProperties(serialize.body(), jclass, additionalProperties, value, gen, provider);
+        }
+        serialize.body().add(gen.invoke("writeEndObject"));
+
+        JMethod serializeWithType = serializer.method(JMod.PUBLIC, owner.VOID, "serializeWithType");
+        serializeWithType.annotate(Override.class);
+        value = serializeWithType.param(jclass, "value");
+        gen = serializeWithType.param(JsonGenerator.class, "gen");
+        provider = serializeWithType.param(SerializerProvider.class, "provider");
+        JVar typeSerializer = serializeWithType.param(TypeSerializer.class, "typeSerializer");
+        serializeWithType._throws(IOException.class);
+        JVar typeId = serializeWithType.body().decl(owner.ref(WritableTypeId.class), "typeId",
+                typeSerializer.invoke("writeTypePrefix").arg(gen).arg(typeSerializer.invoke("typeId").arg(value).arg(owner.ref(JsonToken.class).staticRef("START_OBJECT"))));
+        serializeWithType.body().add(JExpr.invoke(writeProperties).arg(value).arg(gen).arg(provider));
+        if (additionalProperties != null) {
+            writeAdditionalProperties(serializeWithType.body(), jclass, additionalProperties, value, gen, provider);
+        }
+        serializeWithType.body().add(typeSerializer.invoke("writeTypeSuffix").arg(gen).arg(typeId));
+
+        return serializer;
+    }
+
+    private void writeProperty(JBlock body, JFieldVar name, JType type, JFieldRef field, JVar gen, JVar provider) {
+        if (type.isPrimitive()) {
+            body.add(gen.invoke("writeFieldName").arg(name));
+            writeValue(body, type, field, gen, provider);
+            return;
+        }
+
+        InclusionLevel inclusionLevel = ruleFactory.getGenerationConfig().getInclusionLevel();
+        if (inclusionLevel == InclusionLevel.ALWAYS) {
+            body.add(gen.invoke("writeFieldName").arg(name));
+            JConditional isNull = body._if(field.eq(JExpr._null()));
+            isNull._then().add(gen.invoke("writeNull"));
+            writeValue(isNull._else(), type, field, gen, provider);
+        } else {
+            JExpression included = field.ne(JExpr._null());
+            if (inclusionLevel == InclusionLevel.NON_EMPTY && hasIsEmpty(type)) {
+                included = included.cand(field.invoke("isEmpty").not());
+            }
+            JBlock then = body._if(included)._then();
+            then.add(gen.invoke("writeFieldName").arg(name));
+            writeValue(then, type, field, gen, provider);
+        }
+    }
+
+    private void writeValue(JBlock body, JType type, JExpression value, JVar gen, JVar provider) {
+        String typeName = type.unboxify().fullName();
+        if (typeName.equals(String.class.getName())) {
+            body.add(gen.invoke("writeString").arg(value));
+        } else if (typeName.equals("boolean")) {
+            body.add(gen.invoke("writeBoolean").arg(value));
+        } else if (Arrays.asList("int", "long", "double", "float", "short", BigDecimal.class.getName(), BigInteger.class.getName()).contains(typeName)) {
+            body.add(gen.invoke("writeNumber").arg(value));
+        } else if (type instanceof JDefinedClass && nestedClass((JDefinedClass) type, SERIALIZER_SUFFIX) != null
+                && ((JDefinedClass) type).getClassType() == ClassType.ENUM) {
+            body.add(nestedClass((JDefinedClass) type, SERIALIZER_SUFFIX).staticInvoke("write").arg(value).arg(gen).arg(provider));
+        } else {
+            body.add(provider.invoke("defaultSerializeValue").arg(value).arg(gen));
+        }
+    }
+
+    private void writeAdditionalProperties(JBlock body, JDefinedClass jclass, JFieldVar additionalProperties, JVar value, JVar gen, JVar provider) {
+        JCodeModel owner = value.type().owner();
+        JClass entryType = owner.ref(Map.Entry.class).narrow(owner.ref(String.class), owner.ref(Object.class).wildcard());
+        // a lazily allocated map is read directly where it is visible, since the getter would allocate it
+        JExpression map = ruleFactory.getGenerationConfig().isLazyAdditionalProperties() && jclass.fields().get(additionalProperties.name()) == additionalProperties
+                ? value.ref(additionalProperties)
+                : value.invoke("getAdditionalProperties");
+        JForEach forEach = body.forEach(entryType, "entry", map.invoke("entrySet"));
+        forEach.body().add(gen.invoke("writeFieldName").arg(forEach.var().invoke("getKey")));
+        forEach.body().add(provider.invoke("defaultSerializeValue").arg(forEach.var().invoke("getValue")).arg(gen));
+    }
+
+    private JDefinedClass addObjectDeserializer(JDefinedClass jclass, Map<String, JFieldVar> properties, JDefinedClass superDeserializer, JClass additionalPropertyType) throws JClassAlreadyExistsException {
+        JCodeModel owner = jclass.owner();
+        JClass tokenType = owner.ref(JsonToken.class);
+        JDefinedClass deserializer = jclass._class(JMod.PUBLIC | JMod.STATIC, jclass.name() + DESERIALIZER_SUFFIX);
+        deserializer._extends(owner.ref(StdDeserializer.class).narrow(jclass));
+        deserializer.javadoc().add("Reads {@link " + jclass.name() + "} without introspection.");
+
+        deserializer.constructor(JMod.PUBLIC).body().invoke("super").arg(jclass.dotclass());
+
+        JMethod readProperty = deserializer.method(JMod.PUBLIC | JMod.STATIC, owner.BOOLEAN, "readProperty");
+        readProperty.javadoc().add("Reads the value of the named property, if it is one of ours.");
+        readProperty.javadoc().addReturn().add("whether the property was read");
+        JVar value = readProperty.param(jclass, "value");
+        JVar name = readProperty.param(String.class, "name");
+        JVar p = readProperty.param(JsonParser.class, "p");
+        JVar ctxt = readProperty.param(DeserializationContext.class, "ctxt");
+        readProperty._throws(IOException.class);
+
+        JExpression inherited = superDeserializer == null ? JExpr.FALSE
+                : superDeserializer.staticInvoke("readProperty").arg(value).arg(name).arg(p).arg(ctxt);
+        if (properties.isEmpty()) {
+            readProperty.body()._return(inherited);
+        } else {
+            Set<String> constantNames = new HashSet<>();
+            JSwitch byName = readProperty.body()._switch(name);
+            for (Map.Entry<String, JFieldVar> property : properties.entrySet()) {
+                JFieldVar field = property.getValue();
+                JBlock body = byName._case(JExpr.lit(property.getKey())).body();
+                JExpression read = readValue(deserializer, field.type(), field.name(), constantNames, p, ctxt);
+                if (field.type().isPrimitive()) {
+                    body._if(p.invoke("getCurrentToken").ne(tokenType.staticRef("VALUE_NULL")))._then().assign(value.ref(field), read);
+                } else {
+                    body.assign(value.ref(field), JOp.cond(p.invoke("getCurrentToken").eq(tokenType.staticRef("VALUE_NULL")), JExpr._null(), read));
+                }
+                body._return(JExpr.TRUE);
+            }
+            byName._default().body()._return(inherited);
+        }
+
+        JMethod deserialize = deserializer.method(JMod.PUBLIC, jclass, "deserialize");
+        deserialize.annotate(Override.class);
+        p = deserialize.param(JsonParser.class, "p");
+        ctxt = deserialize.param(DeserializationContext.class, "ctxt");
+        deserialize._throws(IOException.class);
+        JBlock body = deserialize.body();
+
+        JVar token = body.decl(tokenType, "token", p.invoke("getCurrentToken"));
+        JConditional startObject = body._if(token.eq(tokenType.staticRef("START_OBJECT")));
+        startObject._then().assign(token, p.invoke("nextToken"));
+        startObject._elseif(token.ne(tokenType.staticRef("FIELD_NAME")).cand(token.ne(tokenType.staticRef("END_OBJECT"))))
+                ._then()._return(JExpr.cast(jclass, ctxt.invoke("handleUnexpectedToken").arg(jclass.dotclass()).arg(p)));
+
+        value = body.decl(jclass, "value", JExpr._new(jclass));
+        JForLoop forLoop = body._for();
+        forLoop.test(token.eq(tokenType.staticRef("FIELD_NAME")));
+        forLoop.update(token.assign(p.invoke("nextToken")));
+        name = forLoop.body().decl(owner.ref(String.class), "name", p.invoke("getCurrentName"));
+        forLoop.body().add(p.invoke("nextToken"));
+        JBlock unknown = forLoop.body()._if(JExpr.invoke(readProperty).arg(value).arg(name).arg(p).arg(ctxt).not())._then();
+        if (additionalPropertyType != null) {
+            JExpression read = readValue(deserializer, additionalPropertyType, ADDITIONAL_PROPERTIES_FIELD, new HashSet<>(), p, ctxt);
+            unknown.add(value.invoke("setAdditionalProperty").arg(name)
+                    .arg(JOp.cond(p.invoke("getCurrentToken").eq(tokenType.staticRef("VALUE_NULL")), JExpr._null(), read)));
+        } else {
+            unknown.add(ctxt.invoke("handleUnknownProperty").arg(p).arg(JExpr._this()).arg(value).arg(name));
+        }
+        body._return(value);
+
+        return deserializer;
+    }
+
+    /**
+     * Builds the expression that reads a (non-null) value of the given type
+     * at the parser's current token, adding a constant to the deserializer
+     * for the full type of a generic value.
+     */
+    private JExpression readValue(JDefinedClass deserializer, JType type, String fieldName, Set<String> constantNames, JVar p, JVar ctxt) {
+        JCodeModel owner = deserializer.owner();
+        JClass tokenType = owner.ref(JsonToken.class);
+        JExpression token = p.invoke("getCurrentToken");
+        JClass boxed = type.boxify();
+        String typeName = boxed.fullName();
+        JExpression fallback = ctxt.invoke("readValue").arg(p).arg(boxed.erasure().dotclass());
+
+        if (typeName.equals(String.class.getName())) {
+            return JOp.cond(token.eq(tokenType.staticRef("VALUE_STRING")), p.invoke("getText"), fallback);
+        } else if (typeName.equals(Integer.class.getName())) {
+            return JOp.cond(token.eq(tokenType.staticRef("VALUE_NUMBER_INT")), boxIfNeeded(type, p.invoke("getIntValue")), fallback);
+        } else if (typeName.equals(Long.class.getName())) {
+            return JOp.cond(token.eq(tokenType.staticRef("VALUE_NUMBER_INT")), boxIfNeeded(type, p.invoke("getLongValue")), fallback);
+        } else if (typeName.equals(Double.class.getName())) {
+            return JOp.cond(token.invoke("isNumeric"), boxIfNeeded(type, p.invoke("getDoubleValue")), fallback);
+        } else if (typeName.equals(Boolean.class.getName())) {
+            return JOp.cond(token.invoke("isBoolean"), boxIfNeeded(type, p.invoke("getBooleanValue")), fallback);
+        } else if (type instanceof JDefinedClass && ((JDefinedClass) type).getClassType() == ClassType.ENUM
+                && nestedClass((JDefinedClass) type, DESERIALIZER_SUFFIX) != null) {
+            return nestedClass((JDefinedClass) type, DESERIALIZER_SUFFIX).staticInvoke("read").arg(p).arg(ctxt);
+        } else if (boxed.getTypeParameters().isEmpty()) {
+            return fallback;
+        }
+
+        JClass fullType = boxed;
+        if (boxed.erasure().fullName().equals(Set.class.getName())) {
+            // as the Jackson annotator asks for with @JsonDeserialize(as = LinkedHashSet.class)
+            fullType = owner.ref(LinkedHashSet.class).narrow(boxed.getTypeParameters());
+        }
+        JFieldVar javaType = deserializer.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, JavaType.class, constantName(fieldName + "Type", constantNames),
+                owner.ref(TypeFactory.class).staticInvoke("defaultInstance").invoke("constructType")
+                        .arg(JExpr._new(owner.anonymousClass(owner.ref(TypeReference.class).narrow(fullType)))));
+        return ctxt.invoke("readValue").arg(p).arg(javaType);
+    }
+
+    private void addEnumCompanions(JDefinedClass _enum) throws JClassAlreadyExistsException {
+        JCodeModel owner = _enum.owner();
+        JClass tokenType = owner.ref(JsonToken.class);
+        JType backingType = _enum.fields().get("value").type();
+        boolean stringBacked = backingType.fullName().equals(String.class.getName());
+
+        JDefinedClass serializer = null;
+        if (serializersSupported()) {
+            serializer = _enum._class(JMod.PUBLIC | JMod.STATIC, _enum.name() + SERIALIZER_SUFFIX);
+            serializer._extends(owner.ref(StdSerializer.class).narrow(_enum));
+            serializer.javadoc().add("Writes {@link " + _enum.name() + "} as its value.");
+            serializer.constructor(JMod.PUBLIC).body().invoke("super").arg(_enum.dotclass());
+
+            JMethod write = serializer.method(JMod.PUBLIC | JMod.STATIC, owner.VOID, "write");
+            JVar value = write.param(_enum, "value");
+            JVar gen = write.param(JsonGenerator.class, "gen");
+            JVar provider = write.param(SerializerProvider.class, "provider");
+            write._throws(IOException.class);
+            writeValue(write.body(), backingType, value.invoke("value"), gen, provider);
+
+            JMethod serialize = serializer.method(JMod.PUBLIC, owner.VOID, "serialize");
+            serialize.annotate(Override.class);
+            value = serialize.param(_enum, "value");
+            gen = serialize.param(JsonGenerator.class, "gen");
+            provider = serialize.param(SerializerProvider.class, "provider");
+            serialize._throws(IOException.class);
+            serialize.body().add(JExpr.invoke(write).arg(value).arg(gen).arg(provider));
+        }
+
+        JDefinedClass deserializer = _enum._class(JMod.PUBLIC | JMod.STATIC, _enum.name() + DESERIALIZER_SUFFIX);
+        deserializer._extends(owner.ref(StdDeserializer.class).narrow(_enum));
+        deserializer.javadoc().add("Reads {@link " + _enum.name() + "} from its value.");
+        deserializer.constructor(JMod.PUBLIC).body().invoke("super").arg(_enum.dotclass());
+
+        JMethod read = deserializer.method(JMod.PUBLIC | JMod.STATIC, _enum, "read");
+        JVar p = read.param(JsonParser.class, "p");
+        JVar ctxt = read.param(DeserializationContext.class, "ctxt");
+        read._throws(IOException.class);
+        JVar text;
+        if (stringBacked) {
+            read.body()._if(p.invoke("getCurrentToken").ne(tokenType.staticRef("VALUE_STRING")))._then()
+                    ._return(JExpr.cast(_enum, ctxt.invoke("handleUnexpectedToken").arg(_enum.dotclass()).arg(p)));
+            text = read.body().decl(owner.ref(String.class), "text", p.invoke("getText"));
+        } else {
+            text = read.body().decl(backingType.boxify(), "backingValue", ctxt.invoke("readValue").arg(p).arg(backingType.boxify().dotclass()));
+        }
+        JTryBlock tryFromValue = read.body()._try();
+        tryFromValue.body()._return(_enum.staticInvoke("fromValue").arg(text));
+        JCatchBlock invalid = tryFromValue._catch(owner.ref(IllegalArgumentException.class));
+        JVar e = invalid.param("e");
+        invalid.body()._return(JExpr.cast(_enum, ctxt.invoke("handleWeirdStringValue").arg(_enum.dotclass())
+                .arg(owner.ref(String.class).staticInvoke("valueOf").arg(text)).arg(e.invoke("getMessage"))));
+
+        JMethod deserialize = deserializer.method(JMod.PUBLIC, _enum, "deserialize");
+        deserialize.annotate(Override.class);
+        p = deserialize.param(JsonParser.class, "p");
+        ctxt = deserialize.param(DeserializationContext.class, "ctxt");
+        deserialize._throws(IOException.class);
+        deserialize.body()._return(JExpr.invoke(read).arg(p).arg(ctxt));
+
+        JBlock registrations = getModule(owner).constructors().next().body();
+        if (serializer != null) {
+            registrations.invoke("addSerializer").arg(_enum.dotclass()).arg(JExpr._new(serializer));
+        }
+        registrations.invoke("addDeserializer").arg(_enum.dotclass()).arg(JExpr._new(deserializer));
+    }
+
+    /**
+     * Gets the module that registers the companions of every generated type,
+     * creating it on first use. Classes are added to it as generation
+     * proceeds, so it is one of the rule factory's aggregate classes.
+     */
+    private JDefinedClass getModule(JCodeModel owner) throws JClassAlreadyExistsException {
+        String packageName = defaultString(ruleFactory.getGenerationConfig().getTargetPackage());
+        JDefinedClass module = owner._getClass(packageName.isEmpty() ? MODULE_CLASS_NAME : packageName + "." + MODULE_CLASS_NAME);
+        if (module == null) {
+            module = owner._package(packageName)._class(JMod.PUBLIC, MODULE_CLASS_NAME);
+            module._extends(SimpleModule.class);
+            module.javadoc().add("Registers the generated serializers and deserializers of every generated type.");
+            module.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, owner.LONG, "serialVersionUID", JExpr.lit(1L));
+            JBlock constructor = module.constructor(JMod.PUBLIC).body();
+            constructor.invoke("super").arg(MODULE_CLASS_NAME).arg(owner.ref(Version.class).staticInvoke("unknownVersion"));
+            constructor.invoke("setSerializers").arg(JExpr._new(addExactClassSerializers(module)));
+            ruleFactory.getAggregateClasses().add(module);
+        }
+        return module;
+    }
+
+    /**
+     * Adds the serializer lookup used by the module. Unlike
+     * <code>SimpleSerializers</code>, it doesn't fall back to the serializer
+     * of a superclass, which would write a subclass without companions of its
+     * own (one that Jackson must serialize through its annotations) as though
+     * it were the superclass, dropping the subclass's properties.
+     */
+    private JDefinedClass addExactClassSerializers(JDefinedClass module) throws JClassAlreadyExistsException {
+        JCodeModel owner = module.owner();
+        JDefinedClass serializers = module._class(JMod.PRIVATE | JMod.STATIC, "ExactClassSerializers");
+        serializers._extends(SimpleSerializers.class);
+        serializers.javadoc().add("Finds the serializer registered for exactly the class being written, never that of a superclass.");
+        serializers.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, owner.LONG, "serialVersionUID", JExpr.lit(1L));
+
+        JMethod findSerializer = serializers.method(JMod.PUBLIC, owner.ref(JsonSerializer.class).narrow(owner.ref(Object.class).wildcard()), "findSerializer");
+        findSerializer.annotate(Override.class);
+        findSerializer.param(SerializationConfig.class, "config");
+        JVar type = findSerializer.param(JavaType.class, "type");
+        findSerializer.param(BeanDescription.class, "beanDesc");
+        JFieldRef classMappings = JExpr._this().ref("_classMappings");
+        findSerializer.body()._return(JOp.cond(classMappings.eq(JExpr._null()), JExpr._null(),
+                classMappings.invoke("get").arg(JExpr._new(owner.ref(ClassKey.class)).arg(type.invoke("getRawClass")))));
+
+        return serializers;
+    }
+
+    private boolean serializersSupported() {
+        InclusionLevel inclusionLevel = ruleFactory.getGenerationConfig().getInclusionLevel();
+        return inclusionLevel != InclusionLevel.NON_DEFAULT && inclusionLevel != InclusionLevel.USE_DEFAULTS;
+    }
+
+    private JDefinedClass definedSuperClass(JDefinedClass jclass) {
+        JClass superClass = jclass._extends();
+        return superClass instanceof JDefinedClass ? (JDefinedClass) superClass : null;
+    }
+
+    private static JDefinedClass nestedClass(JDefinedClass jclass, String suffix) {
+        String name = jclass.name() + suffix;
+        for (Iterator<JDefinedClass> classes = jclass.classes(); classes.hasNext();) {
+            JDefinedClass nested = classes.next();
+            if (nested.name().equals(name)) {
+                return nested;
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasUnsupportedAnnotation(JFieldVar field) {
+        for (JAnnotationUse annotation : field.annotations()) {
+            if (UNSUPPORTED_ANNOTATIONS.contains(annotation.getAnnotationClass().fullName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasIsEmpty(JType type) {
+        String typeName = type.erasure().fullName();
+        return typeName.equals(String.class.getName()) || typeName.equals(List.class.getName()) || typeName.equals(Set.class.getName())
+                || typeName.equals(Collection.class.getName()) || typeName.equals(Map.class.getName());
+    }
+
+    private static JExpression boxIfNeeded(JType type, JExpression primitive) {
+        return type.isPrimitive() ? primitive : type.boxify().staticInvoke("valueOf").arg(primitive);
+    }
+
+    private static String constantName(String name, Set<String> taken) {
+        String constantName = name.replaceAll("([a-z0-9])([A-Z])", "$1_$2").toUpperCase();
+        String unique = constantName;
+        for (int i = 2; !taken.add(unique); i++) {
+            unique = constantName + "_" + i;
+        }
+        return unique;
+    }
+
+}
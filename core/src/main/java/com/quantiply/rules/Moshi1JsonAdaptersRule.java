@@ -0,0 +1,433 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.rules;
+
+import static org.apache.commons.lang3.StringUtils.defaultString;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.quantiply.Schema;
+import com.quantiply.util.ReflectionHelper;
+import com.sun.codemodel.ClassType;
+import com.sun.codemodel.JArray;
+import com.sun.codemodel.JBlock;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JClassAlreadyExistsException;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JConditional;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JExpr;
+import com.sun.codemodel.JExpression;
+import com.sun.codemodel.JFieldRef;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JInvocation;
+import com.sun.codemodel.JMethod;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JOp;
+import com.sun.codemodel.JSwitch;
+import com.sun.codemodel.JType;
+import com.sun.codemodel.JVar;
+import com.sun.codemodel.JWhileLoop;
+
+/**
+ * Adds a Moshi <code>JsonAdapter</code> to a generated class or enum, and
+ * registers it with a generated <code>JsonAdapter.Factory</code>
+ * ({@value #FACTORY_CLASS_NAME}, in the target package).
+ * <p>
+ * The adapter is nested in the type it handles, so it reads and writes its
+ * fields directly rather than through Moshi's reflective
+ * <code>ClassJsonAdapter</code>. Property names (and enum values) are matched
+ * with <code>JsonReader.Options</code>, so a name is compared with the
+ * expected names in its encoded form and the value is dispatched on its
+ * index. Strings, numbers and booleans are read straight from the
+ * <code>JsonReader</code> when the next token allows it; every other value
+ * goes to the adapter Moshi provides for the property's type, looked up once
+ * when the adapter is created. A subclass's options list its own properties
+ * followed by those it inherits, in the order of its superclass's options, so
+ * an inherited property is handed to the superclass's adapter by index.
+ * <p>
+ * Classes that extend a type without an adapter, or that hide an inherited
+ * property, get no adapter and are left to Moshi's reflection. So are enums
+ * that are not backed by strings.
+ * <p>
+ * Moshi isn't a dependency of the generator, so its types are referred to
+ * by name.
+ */
+public class Moshi1JsonAdaptersRule implements Rule<JDefinedClass, JDefinedClass> {
+
+    public static final String FACTORY_CLASS_NAME = "Moshi1JsonAdapterFactory";
+
+    private static final String ADAPTER_SUFFIX = "JsonAdapter";
+
+    private static final String MOSHI = "com.squareup.moshi.Moshi";
+    private static final String JSON_ADAPTER = "com.squareup.moshi.JsonAdapter";
+    private static final String JSON_READER = "com.squareup.moshi.JsonReader";
+    private static final String JSON_WRITER = "com.squareup.moshi.JsonWriter";
+    private static final String JSON_DATA_EXCEPTION = "com.squareup.moshi.JsonDataException";
+    private static final String TYPES = "com.squareup.moshi.Types";
+
+    private final RuleFactory ruleFactory;
+    private final ReflectionHelper reflectionHelper;
+
+    protected Moshi1JsonAdaptersRule(RuleFactory ruleFactory, ReflectionHelper reflectionHelper) {
+        this.ruleFactory = ruleFactory;
+        this.reflectionHelper = reflectionHelper;
+    }
+
+    /**
+     * Applies this schema rule to take the required code generation steps.
+     * <p>
+     * Adds the JSON adapter to the given class or enum, once all of its
+     * properties have been added.
+     *
+     * @param nodeName
+     *            the name of the schema node of the type
+     * @param node
+     *            the schema node of the type
+     * @param jclass
+     *            the class or enum generated for the schema node
+     * @return the given class or enum
+     */
+    @Override
+    public JDefinedClass apply(String nodeName, JsonNode node, JsonNode parent, JDefinedClass jclass, Schema schema) {
+        try {
+            JDefinedClass adapter = jclass.getClassType() == ClassType.ENUM ? addEnumAdapter(node, jclass) : addObjectAdapter(node, jclass, schema);
+            if (adapter != null) {
+                register(jclass, adapter);
+            }
+        } catch (JClassAlreadyExistsException e) {
+            // a type of that name is already nested here, so leave this one to reflection
+        }
+        return jclass;
+    }
+
+    private JDefinedClass addObjectAdapter(JsonNode node, JDefinedClass jclass, Schema schema) throws JClassAlreadyExistsException {
+        JCodeModel owner = jclass.owner();
+
+        JDefinedClass superClass = null;
+        JDefinedClass superAdapter = null;
+        if (jclass._extends() instanceof JDefinedClass) {
+            superClass = (JDefinedClass) jclass._extends();
+            superAdapter = nestedClass(superClass, ADAPTER_SUFFIX);
+            if (superAdapter == null) {
+                return null;
+            }
+        } else if (!jclass._extends().fullName().equals(Object.class.getName())) {
+            return null;
+        }
+
+        PropertyMetadata propertyMetadata = ruleFactory.getPropertyMetadata(schema.getContent());
+        Map<String, JFieldVar> fields = jclass.fields();
+        Map<String, JFieldVar> properties = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> i = node.path("properties").fields(); i.hasNext();) {
+            Map.Entry<String, JsonNode> property = i.next();
+            JFieldVar field = fields.get(propertyMetadata.getPropertyName(property.getKey(), property.getValue()));
+            if (field == null || (superClass != null && reflectionHelper.searchClassAndSuperClassesForField(field.name(), superClass) != null)) {
+                return null;
+            }
+            properties.put(property.getKey(), field);
+        }
+
+        JDefinedClass adapter = jclass._class(JMod.PUBLIC | JMod.STATIC, jclass.name() + ADAPTER_SUFFIX);
+        adapter._extends(owner.directClass(JSON_ADAPTER).narrow(jclass));
+        adapter.javadoc().add("Reads and writes {@link " + jclass.name() + "} without reflection.");
+
+        JInvocation names = owner.directClass(JSON_READER + ".Options").staticInvoke("of");
+        for (String name : properties.keySet()) {
+            names.arg(name);
+        }
+        for (String name : getSuperTypePropertyNamesRecursive(node, schema)) {
+            names.arg(name);
+        }
+        JFieldVar options = adapter.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, owner.directClass(JSON_READER + ".Options"), "OPTIONS", names);
+
+        JMethod constructor = adapter.constructor(JMod.PUBLIC);
+        JVar moshi = constructor.param(owner.directClass(MOSHI), "moshi");
+        JFieldVar superDelegate = null;
+        if (superAdapter != null) {
+            superDelegate = adapter.field(JMod.PRIVATE | JMod.FINAL, superAdapter, "superAdapter");
+            constructor.body().assign(JExpr._this().ref(superDelegate), JExpr._new(superAdapter).arg(moshi));
+        }
+        Map<JFieldVar, JFieldVar> delegates = new LinkedHashMap<>();
+        for (JFieldVar field : properties.values()) {
+            JClass type = field.type().boxify();
+            JFieldVar delegate = adapter.field(JMod.PRIVATE | JMod.FINAL, owner.directClass(JSON_ADAPTER).narrow(type), field.name() + "Adapter");
+            constructor.body().assign(JExpr._this().ref(delegate), moshi.invoke("adapter").arg(typeExpression(type)));
+            delegates.put(field, delegate);
+        }
+
+        JMethod writeProperties = adapter.method(JMod.PUBLIC, owner.VOID, "writeProperties");
+        JVar writer = writeProperties.param(owner.directClass(JSON_WRITER), "writer");
+        JVar value = writeProperties.param(jclass, "value");
+        writeProperties._throws(IOException.class);
+        for (Map.Entry<String, JFieldVar> property : properties.entrySet()) {
+            JFieldVar field = property.getValue();
+            writeProperties.body().add(writer.invoke("name").arg(property.getKey()));
+            writeValue(writeProperties.body(), field.type(), value.ref(field), delegates.get(field), writer);
+        }
+        if (superDelegate != null) {
+            writeProperties.body().add(superDelegate.invoke("writeProperties").arg(writer).arg(value));
+        }
+
+        JMethod readProperty = adapter.method(JMod.PUBLIC, owner.VOID, "readProperty");
+        readProperty.javadoc().add("Reads the value of the property at the given index of this adapter's options.");
+        value = readProperty.param(jclass, "value");
+        JVar index = readProperty.param(owner.INT, "index");
+        JVar reader = readProperty.param(owner.directClass(JSON_READER), "reader");
+        readProperty._throws(IOException.class);
+        JSwitch byIndex = readProperty.body()._switch(index);
+        int i = 0;
+        for (JFieldVar field : properties.values()) {
+            JBlock body = byIndex._case(JExpr.lit(i++)).body();
+            readValue(body, field.type(), value.ref(field), delegates.get(field), reader);
+            body._break();
+        }
+        if (superDelegate != null) {
+            byIndex._default().body().add(superDelegate.invoke("readProperty").arg(value).arg(index.minus(JExpr.lit(properties.size()))).arg(reader));
+        }
+
+        JMethod toJson = adapter.method(JMod.PUBLIC, owner.VOID, "toJson");
+        toJson.annotate(Override.class);
+        writer = toJson.param(owner.directClass(JSON_WRITER), "writer");
+        value = toJson.param(jclass, "value");
+        toJson._throws(IOException.class);
+        JConditional isNull = toJson.body()._if(value.eq(JExpr._null()));
+        isNull._then().add(writer.invoke("nullValue"));
+        isNull._else().add(writer.invoke("beginObject"));
+        isNull._else().add(JExpr.invoke(writeProperties).arg(writer).arg(value));
+        isNull._else().add(writer.invoke("endObject"));
+
+        JMethod fromJson = adapter.method(JMod.PUBLIC, jclass, "fromJson");
+        fromJson.annotate(Override.class);
+        reader = fromJson.param(owner.directClass(JSON_READER), "reader");
+        fromJson._throws(IOException.class);
+        fromJson.body()._if(reader.invoke("peek").eq(owner.directClass(JSON_READER + ".Token").staticRef("NULL")))._then()
+                ._return(reader.invoke("nextNull"));
+        value = fromJson.body().decl(jclass, "value", JExpr._new(jclass));
+        fromJson.body().add(reader.invoke("beginObject"));
+        JWhileLoop nextName = fromJson.body()._while(reader.invoke("hasNext"));
+        index = nextName.body().decl(owner.INT, "index", reader.invoke("selectName").arg(options));
+        JConditional unknown = nextName.body()._if(index.eq(JExpr.lit(-1)));
+        unknown._then().add(reader.invoke("nextName"));
+        unknown._then().add(reader.invoke("skipValue"));
+        unknown._else().add(JExpr.invoke(readProperty).arg(value).arg(index).arg(reader));
+        fromJson.body().add(reader.invoke("endObject"));
+        fromJson.body()._return(value);
+
+        return adapter;
+    }
+
+    /**
+     * Lists the names of the properties a type inherits, in the order of its
+     * superclass's options.
+     */
+    private List<String> getSuperTypePropertyNamesRecursive(JsonNode node, Schema schema) {
+        Schema superTypeSchema = reflectionHelper.getSuperSchema(node, schema, true);
+
+        if (superTypeSchema == null) {
+            return new ArrayList<>();
+        }
+
+        JsonNode superSchemaNode = superTypeSchema.getContent();
+
+        List<String> names = new ArrayList<>();
+        superSchemaNode.path("properties").fieldNames().forEachRemaining(names::add);
+        names.addAll(getSuperTypePropertyNamesRecursive(superSchemaNode, superTypeSchema));
+
+        return names;
+    }
+
+    /**
+     * Builds the <code>Type</code> that the adapter for a property is looked
+     * up with, using Moshi's <code>Types</code> for parameterized types.
+     */
+    private JExpression typeExpression(JClass type) {
+        if (type.getTypeParameters().isEmpty()) {
+            return type.dotclass();
+        }
+        JInvocation parameterizedType = type.owner().directClass(TYPES).staticInvoke("newParameterizedType").arg(type.erasure().dotclass());
+        for (JClass typeParameter : type.getTypeParameters()) {
+            parameterizedType.arg(typeExpression(typeParameter));
+        }
+        return parameterizedType;
+    }
+
+    /**
+     * Writes a property value, straight to the writer for strings and the
+     * primitives the writer takes.
+     */
+    private void writeValue(JBlock body, JType type, JFieldRef field, JFieldVar delegate, JVar writer) {
+        String typeName = type.fullName();
+        if (typeName.equals(String.class.getName()) || typeName.equals("int") || typeName.equals("long")
+                || typeName.equals("double") || typeName.equals("boolean")) {
+            body.add(writer.invoke("value").arg(field));
+        } else {
+            body.add(delegate.invoke("toJson").arg(writer).arg(field));
+        }
+    }
+
+    /**
+     * Reads a property value, straight from the reader for primitives (which,
+     * as in Moshi, can't be null) and when the next token is one a boxed
+     * value can be read from directly.
+     */
+    private void readValue(JBlock body, JType type, JFieldRef field, JFieldVar delegate, JVar reader) {
+        JClass tokenType = type.owner().directClass(JSON_READER + ".Token");
+        String typeName = type.boxify().fullName();
+
+        String next;
+        JExpression token;
+        if (typeName.equals(String.class.getName())) {
+            next = "nextString";
+            token = tokenType.staticRef("STRING");
+        } else if (typeName.equals(Integer.class.getName())) {
+            next = "nextInt";
+            token = tokenType.staticRef("NUMBER");
+        } else if (typeName.equals(Long.class.getName())) {
+            next = "nextLong";
+            token = tokenType.staticRef("NUMBER");
+        } else if (typeName.equals(Double.class.getName())) {
+            next = "nextDouble";
+            token = tokenType.staticRef("NUMBER");
+        } else if (typeName.equals(Boolean.class.getName())) {
+            next = "nextBoolean";
+            token = tokenType.staticRef("BOOLEAN");
+        } else {
+            body.assign(field, delegate.invoke("fromJson").arg(reader));
+            return;
+        }
+
+        if (type.isPrimitive()) {
+            body.assign(field, reader.invoke(next));
+        } else {
+            body.assign(field, JOp.cond(reader.invoke("peek").eq(token),
+                    type.boxify().staticInvoke("valueOf").arg(reader.invoke(next)), delegate.invoke("fromJson").arg(reader)));
+        }
+    }
+
+    private JDefinedClass addEnumAdapter(JsonNode node, JDefinedClass _enum) throws JClassAlreadyExistsException {
+        JCodeModel owner = _enum.owner();
+        if (!_enum.fields().get("value").type().fullName().equals(String.class.getName())) {
+            return null;
+        }
+
+        Set<String> values = new LinkedHashSet<>();
+        for (JsonNode value : node.path("enum")) {
+            if (!value.isNull()) {
+                values.add(value.asText());
+            }
+        }
+
+        JDefinedClass adapter = _enum._class(JMod.PUBLIC | JMod.STATIC, _enum.name() + ADAPTER_SUFFIX);
+        adapter._extends(owner.directClass(JSON_ADAPTER).narrow(_enum));
+        adapter.javadoc().add("Reads and writes {@link " + _enum.name() + "} by its value.");
+
+        JInvocation names = owner.directClass(JSON_READER + ".Options").staticInvoke("of");
+        JArray constants = JExpr.newArray(_enum);
+        for (String value : values) {
+            names.arg(value);
+            constants.add(_enum.staticInvoke("fromValue").arg(value));
+        }
+        JFieldVar options = adapter.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, owner.directClass(JSON_READER + ".Options"), "OPTIONS", names);
+        JFieldVar constantsField = adapter.field(JMod.PRIVATE | JMod.STATIC | JMod.FINAL, _enum.array(), "CONSTANTS", constants);
+
+        JMethod constructor = adapter.constructor(JMod.PUBLIC);
+        constructor.param(owner.directClass(MOSHI), "moshi");
+
+        JMethod toJson = adapter.method(JMod.PUBLIC, owner.VOID, "toJson");
+        toJson.annotate(Override.class);
+        JVar writer = toJson.param(owner.directClass(JSON_WRITER), "writer");
+        JVar value = toJson.param(_enum, "value");
+        toJson._throws(IOException.class);
+        toJson.body().add(writer.invoke("value").arg(JOp.cond(value.eq(JExpr._null()), JExpr._null(), value.invoke("value"))));
+
+        JMethod fromJson = adapter.method(JMod.PUBLIC, _enum, "fromJson");
+        fromJson.annotate(Override.class);
+        JVar reader = fromJson.param(owner.directClass(JSON_READER), "reader");
+        fromJson._throws(IOException.class);
+        fromJson.body()._if(reader.invoke("peek").eq(owner.directClass(JSON_READER + ".Token").staticRef("NULL")))._then()
+                ._return(reader.invoke("nextNull"));
+        JVar index = fromJson.body().decl(owner.INT, "index", reader.invoke("selectString").arg(options));
+        // the same message as Moshi's own enum adapter
+        fromJson.body()._if(index.eq(JExpr.lit(-1)))._then()._throw(JExpr._new(owner.directClass(JSON_DATA_EXCEPTION))
+                .arg(JExpr.lit("Expected one of " + values + " but was ").plus(reader.invoke("nextString"))
+                        .plus(JExpr.lit(" at path ")).plus(reader.invoke("getPath"))));
+        fromJson.body()._return(constantsField.component(index));
+
+        return adapter;
+    }
+
+    /**
+     * Adds the type's adapter to the factory that creates the adapters of
+     * every generated type, creating the factory on first use. Its
+     * <code>create</code> method switches on the name of the requested
+     * type, and the factory is one of the rule factory's aggregate classes
+     * because a case is added for every type that is generated.
+     */
+    private void register(JDefinedClass jclass, JDefinedClass adapter) throws JClassAlreadyExistsException {
+        JCodeModel owner = jclass.owner();
+        String packageName = defaultString(ruleFactory.getGenerationConfig().getTargetPackage());
+        JDefinedClass factory = owner._getClass(packageName.isEmpty() ? FACTORY_CLASS_NAME : packageName + "." + FACTORY_CLASS_NAME);
+        if (factory == null) {
+            factory = owner._package(packageName)._class(JMod.PUBLIC, FACTORY_CLASS_NAME);
+            factory._implements(owner.directClass(JSON_ADAPTER + ".Factory"));
+            factory.javadoc().add("Creates the generated JSON adapters of every generated type.");
+            ruleFactory.getAggregateClasses().add(factory);
+
+            JMethod create = factory.method(JMod.PUBLIC, owner.directClass(JSON_ADAPTER).narrow(owner.ref(Object.class).wildcard()), "create");
+            create.annotate(Override.class);
+            JVar type = create.param(Type.class, "type");
+            JVar annotations = create.param(owner.ref(Set.class).narrow(owner.ref(Annotation.class).wildcard()), "annotations");
+            create.param(owner.directClass(MOSHI), "moshi");
+            // adapters for qualified uses of a type are left to Moshi
+            create.body()._if(annotations.invoke("isEmpty").not())._then()._return(JExpr._null());
+            JSwitch byName = create.body()._switch(owner.directClass(TYPES).staticInvoke("getRawType").arg(type).invoke("getName"));
+            byName._default().body()._return(JExpr._null());
+        }
+
+        JMethod create = factory.methods().iterator().next();
+        JSwitch byName = null;
+        for (Object statement : create.body().getContents()) {
+            if (statement instanceof JSwitch) {
+                byName = (JSwitch) statement;
+            }
+        }
+        byName._case(JExpr.lit(jclass.binaryName())).body()._return(JExpr._new(adapter).arg(create.params().get(2)));
+    }
+
+    private static JDefinedClass nestedClass(JDefinedClass jclass, String suffix) {
+        String name = jclass.name() + suffix;
+        for (Iterator<JDefinedClass> classes = jclass.classes(); classes.hasNext();) {
+            JDefinedClass nested = classes.next();
+            if (nested.name().equals(name)) {
+                return nested;
+            }
+        }
+        return null;
+    }
+
+}
@@ -45,7 +45,6 @@ import com.sun.codemodel.JVar;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
 
@@ -61,6 +60,8 @@ import com.quantiply.exception.GenerationException;
  */
 public class ObjectRule implements Rule<JPackage, JType> {
 
+    private static final String CACHED_HASH_CODE_FIELD = "cachedHashCode";
+
     private final RuleFactory ruleFactory;
     private final ReflectionHelper reflectionHelper;
     private final ParcelableHelper parcelableHelper;
@@ -96,6 +97,7 @@ public class ObjectRule implements Rule<JPackage, JType> {
         jclass._extends((JClass) superType);
 
         schema.setJavaTypeIfEmpty(jclass);
+        ruleFactory.getSchemaStore().addGeneratedType(jclass.fullName(), schema);
 
         if (node.has("title")) {
             ruleFactory.getTitleRule().apply(nodeName, node.get("title"), node, jclass, schema);
@@ -105,8 +107,10 @@ public class ObjectRule implements Rule<JPackage, JType> {
             ruleFactory.getDescriptionRule().apply(nodeName, node.get("description"), node, jclass, schema);
         }
 
+        boolean isImmutableTypes = ruleFactory.getGenerationConfig().isImmutableTypes();
+
         // Creates the class definition for the builder
-        if(ruleFactory.getGenerationConfig().isGenerateBuilders() && ruleFactory.getGenerationConfig().isUseInnerClassBuilders()){
+        if(ruleFactory.getGenerationConfig().isGenerateBuilders() && ruleFactory.getGenerationConfig().isUseInnerClassBuilders() && !isImmutableTypes){
             ruleFactory.getBuilderRule().apply(nodeName, node, parent, jclass, schema);
         }
 
@@ -129,15 +133,16 @@ public class ObjectRule implements Rule<JPackage, JType> {
         }
 
         if (ruleFactory.getGenerationConfig().isIncludeHashcodeAndEquals()) {
-            addHashCode(jclass, node);
-            addEquals(jclass, node);
+            JFieldVar cachedHashCode = addHashCode(jclass, node);
+            addEquals(jclass, node, cachedHashCode);
         }
 
-        if (ruleFactory.getGenerationConfig().isParcelable()) {
+        // the constructor from a parcel can't assign final fields that are initialized where they are declared
+        if (ruleFactory.getGenerationConfig().isParcelable() && !isImmutableTypes) {
             addParcelSupport(jclass);
         }
 
-        if (ruleFactory.getGenerationConfig().isIncludeConstructors()) {
+        if (ruleFactory.getGenerationConfig().isIncludeConstructors() || isImmutableTypes) {
             ruleFactory.getConstructorRule().apply(nodeName, node, parent, jclass, schema);
 
         }
@@ -146,6 +151,19 @@ public class ObjectRule implements Rule<JPackage, JType> {
             SerializableHelper.addSerializableSupport(jclass);
         }
 
+        // the generated adapters assign fields, so immutable types are left to the library's own (reflective) adapters
+        if (ruleFactory.getGenerationConfig().getAnnotationStyle() == AnnotationStyle.JACKSON2_SERIALIZERS && !isImmutableTypes) {
+            ruleFactory.getJackson2SerializersRule().apply(nodeName, node, parent, jclass, schema);
+        }
+
+        if (ruleFactory.getGenerationConfig().getAnnotationStyle() == AnnotationStyle.GSON_TYPE_ADAPTERS && !isImmutableTypes) {
+            ruleFactory.getGsonTypeAdaptersRule().apply(nodeName, node, parent, jclass, schema);
+        }
+
+        if (ruleFactory.getGenerationConfig().getAnnotationStyle() == AnnotationStyle.MOSHI1_JSON_ADAPTERS && !isImmutableTypes) {
+            ruleFactory.getMoshi1JsonAdaptersRule().apply(nodeName, node, parent, jclass, schema);
+        }
+
         return jclass;
 
     }
@@ -237,6 +255,8 @@ public class ObjectRule implements Rule<JPackage, JType> {
             throw new ClassAlreadyExistsException(e.getExistingClass());
         }
 
+        reflectionHelper.registerClass(newType);
+
         annotator.typeInfo(newType, node);
         annotator.propertyInclusion(newType, node);
 
@@ -353,11 +373,19 @@ public class ObjectRule implements Rule<JPackage, JType> {
         toString.annotate(Override.class);
     }
 
-    private void addHashCode(JDefinedClass jclass, JsonNode node) {
+    private JFieldVar addHashCode(JDefinedClass jclass, JsonNode node) {
         Map<String, JFieldVar> fields = removeFieldsExcludedFromEqualsAndHashCode(jclass.fields(), node);
 
         JMethod hashCode = jclass.method(JMod.PUBLIC, int.class, "hashCode");
         JBlock body = hashCode.body();
+
+        // Immutable types compute their hash code once, leaving zero to mean not yet computed (as String does)
+        JFieldVar cachedHashCode = null;
+        if (ruleFactory.getGenerationConfig().isImmutableTypes()) {
+            cachedHashCode = jclass.field(JMod.PRIVATE | JMod.TRANSIENT, int.class, cachedHashCodeFieldName(jclass));
+            body._if(JExpr._this().ref(cachedHashCode).ne(JExpr.lit(0)))._then()._return(JExpr._this().ref(cachedHashCode));
+        }
+
         JVar result = body.decl(jclass.owner().INT, "result", JExpr.lit(1));
 
         // Incorporate each non-excluded field in the hashCode calculation
@@ -404,42 +432,32 @@ public class ObjectRule implements Rule<JPackage, JType> {
             body.assign(result, result.mul(JExpr.lit(31)).plus(JExpr._super().invoke("hashCode")));
         }
 
+        if (cachedHashCode != null) {
+            body.assign(JExpr._this().ref(cachedHashCode), result);
+        }
+
         body._return(result);
         hashCode.annotate(Override.class);
-    }
 
-    private Map<String, JFieldVar> removeFieldsExcludedFromEqualsAndHashCode(Map<String, JFieldVar> fields, JsonNode node) {
-        Map<String, JFieldVar> filteredFields = new HashMap<>(fields);
-
-        JsonNode properties = node.get("properties");
-
-        if (properties != null) {
-            if (node.has("excludedFromEqualsAndHashCode")) {
-                JsonNode excludedArray = node.get("excludedFromEqualsAndHashCode");
-
-                for (Iterator<JsonNode> iterator = excludedArray.elements(); iterator.hasNext(); ) {
-                    String excludedPropertyName = iterator.next().asText();
-                    JsonNode excludedPropertyNode = properties.get(excludedPropertyName);
-                    filteredFields.remove(ruleFactory.getNameHelper().getPropertyName(excludedPropertyName, excludedPropertyNode));
-                }
-            }
-
-            for (Iterator<Map.Entry<String, JsonNode>> iterator = properties.fields(); iterator.hasNext(); ) {
-                Map.Entry<String, JsonNode> entry = iterator.next();
-                String propertyName = entry.getKey();
-                JsonNode propertyNode = entry.getValue();
+        return cachedHashCode;
+    }
 
-                if (propertyNode.has("excludedFromEqualsAndHashCode") &&
-                        propertyNode.get("excludedFromEqualsAndHashCode").asBoolean()) {
-                    filteredFields.remove(ruleFactory.getNameHelper().getPropertyName(propertyName, propertyNode));
-                }
-            }
+    private String cachedHashCodeFieldName(JDefinedClass jclass) {
+        // a property may already have taken the name
+        String name = CACHED_HASH_CODE_FIELD;
+        for (int i = 2; jclass.fields().containsKey(name); i++) {
+            name = CACHED_HASH_CODE_FIELD + i;
         }
+        return name;
+    }
 
+    private Map<String, JFieldVar> removeFieldsExcludedFromEqualsAndHashCode(Map<String, JFieldVar> fields, JsonNode node) {
+        Map<String, JFieldVar> filteredFields = new HashMap<>(fields);
+        filteredFields.keySet().removeAll(ruleFactory.getPropertyMetadata(node).getExcludedFromEqualsAndHashCode());
         return filteredFields;
     }
 
-    private void addEquals(JDefinedClass jclass, JsonNode node) {
+    private void addEquals(JDefinedClass jclass, JsonNode node, JFieldVar cachedHashCode) {
         Map<String, JFieldVar> fields = removeFieldsExcludedFromEqualsAndHashCode(jclass.fields(), node);
 
         JMethod equals = jclass.method(JMod.PUBLIC, boolean.class, "equals");
@@ -452,6 +470,15 @@ public class ObjectRule implements Rule<JPackage, JType> {
 
         JVar rhsVar = body.decl(jclass, "rhs").init(JExpr.cast(jclass, otherObject));
 
+        // Instances whose hash codes have both been computed can't be equal if they differ
+        if (cachedHashCode != null) {
+            fields.remove(cachedHashCode.name());
+            JFieldRef thisHashCode = JExpr._this().ref(cachedHashCode);
+            JFieldRef otherHashCode = rhsVar.ref(cachedHashCode);
+            body._if(thisHashCode.ne(JExpr.lit(0)).cand(otherHashCode.ne(JExpr.lit(0))).cand(thisHashCode.ne(otherHashCode)))
+                    ._then()._return(JExpr.FALSE);
+        }
+
         JExpression result = JExpr.lit(true);
 
         // First, check super.equals(other)
@@ -514,7 +541,8 @@ public class ObjectRule implements Rule<JPackage, JType> {
 
         if (annotationStyle == AnnotationStyle.JACKSON
                 || annotationStyle == AnnotationStyle.JACKSON1
-                || annotationStyle == AnnotationStyle.JACKSON2) {
+                || annotationStyle == AnnotationStyle.JACKSON2
+                || annotationStyle == AnnotationStyle.JACKSON2_SERIALIZERS) {
             return ruleFactory.getGenerationConfig().isIncludeTypeInfo() || node.has("deserializationClassProperty");
         }
 
@@ -0,0 +1,129 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.rules;
+
+import static java.util.Collections.unmodifiableSet;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.quantiply.util.NameHelper;
+
+/**
+ * The facts about the properties of one object schema that several rules
+ * need: which names are enumerated as "required" or "javaOptional", which
+ * fields are excluded from equals/hashCode, and the Java field name of each
+ * declared property.
+ * <p>
+ * Built once per schema node (see {@link RuleFactory#getPropertyMetadata(JsonNode)})
+ * so that rules don't rescan the schema's arrays or renormalize names for
+ * every property.
+ */
+public final class PropertyMetadata {
+
+    private final NameHelper nameHelper;
+    private final Map<String, JsonNode> propertyNodes = new HashMap<>();
+    private final Map<String, String> propertyNames = new HashMap<>();
+    private final Set<String> required;
+    private final Set<String> optional;
+    private final Set<String> excludedFromEqualsAndHashCode = new HashSet<>();
+
+    PropertyMetadata(JsonNode schemaNode, NameHelper nameHelper) {
+        this.nameHelper = nameHelper;
+        this.required = unmodifiableSet(enumerated(schemaNode, "required"));
+        this.optional = unmodifiableSet(enumerated(schemaNode, "javaOptional"));
+
+        JsonNode properties = schemaNode.get("properties");
+        if (properties != null) {
+            for (Iterator<Map.Entry<String, JsonNode>> iterator = properties.fields(); iterator.hasNext(); ) {
+                Map.Entry<String, JsonNode> property = iterator.next();
+                propertyNodes.put(property.getKey(), property.getValue());
+                propertyNames.put(property.getKey(), nameHelper.getPropertyName(property.getKey(), property.getValue()));
+
+                if (property.getValue().has("excludedFromEqualsAndHashCode")
+                        && property.getValue().get("excludedFromEqualsAndHashCode").asBoolean()) {
+                    excludedFromEqualsAndHashCode.add(propertyNames.get(property.getKey()));
+                }
+            }
+
+            if (schemaNode.has("excludedFromEqualsAndHashCode")) {
+                for (JsonNode excluded : schemaNode.get("excludedFromEqualsAndHashCode")) {
+                    excludedFromEqualsAndHashCode.add(getPropertyName(excluded.asText(), properties.get(excluded.asText())));
+                }
+            }
+        }
+    }
+
+    private static Set<String> enumerated(JsonNode schemaNode, String arrayFieldName) {
+        Set<String> names = new HashSet<>();
+        JsonNode array = schemaNode.get(arrayFieldName);
+        if (array != null) {
+            for (JsonNode name : array) {
+                names.add(name.asText());
+            }
+        }
+        return names;
+    }
+
+    /**
+     * @return whether the name is listed in the schema's "required" array
+     */
+    public boolean isRequired(String name) {
+        return required.contains(name);
+    }
+
+    /**
+     * @return whether the name is listed in the schema's "javaOptional" array
+     */
+    public boolean isOptional(String name) {
+        return optional.contains(name);
+    }
+
+    /**
+     * @return the Java field names of properties excluded from equals and
+     *         hashCode, either by the schema's "excludedFromEqualsAndHashCode"
+     *         array or by the property's own flag
+     */
+    public Set<String> getExcludedFromEqualsAndHashCode() {
+        return unmodifiableSet(excludedFromEqualsAndHashCode);
+    }
+
+    /**
+     * Gets the Java field name for a property. The precomputed name is used
+     * when the node is the one declared in this schema's "properties"; any
+     * other node is named by the {@link NameHelper} directly.
+     */
+    public String getPropertyName(String jsonName, JsonNode node) {
+        if (node != null && node == propertyNodes.get(jsonName)) {
+            return propertyNames.get(jsonName);
+        }
+        return nameHelper.getPropertyName(jsonName, node);
+    }
+
+    /**
+     * Gets the Java field name for a name listed in this schema, using the
+     * declared property node if there is one.
+     */
+    public String getPropertyName(String jsonName) {
+        return getPropertyName(jsonName, propertyNodes.get(jsonName));
+    }
+
+}
@@ -65,16 +65,21 @@ public class PropertyRule implements Rule<JDefinedClass, JDefinedClass> {
      */
     @Override
     public JDefinedClass apply(String nodeName, JsonNode node, JsonNode parent, JDefinedClass jclass, Schema schema) {
-        String propertyName = ruleFactory.getNameHelper().getPropertyName(nodeName, node);
+        PropertyMetadata propertyMetadata = ruleFactory.getPropertyMetadata(schema.getContent());
+        String propertyName = propertyMetadata.getPropertyName(nodeName, node);
 
         JType propertyType = ruleFactory.getSchemaRule().apply(nodeName, node, parent, jclass, schema);
 
+        boolean isImmutableTypes = ruleFactory.getGenerationConfig().isImmutableTypes();
         boolean isIncludeGetters = ruleFactory.getGenerationConfig().isIncludeGetters();
-        boolean isIncludeSetters = ruleFactory.getGenerationConfig().isIncludeSetters();
+        boolean isIncludeSetters = ruleFactory.getGenerationConfig().isIncludeSetters() && !isImmutableTypes;
 
         node = resolveRefs(node, schema);
 
         int accessModifier = isIncludeGetters || isIncludeSetters ? JMod.PRIVATE : JMod.PUBLIC;
+        if (isImmutableTypes) {
+            accessModifier |= JMod.FINAL;
+        }
         JFieldVar field = jclass.field(accessModifier, propertyType, propertyName);
 
         propertyAnnotations(nodeName, node, schema, field);
@@ -84,7 +89,8 @@ public class PropertyRule implements Rule<JDefinedClass, JDefinedClass> {
         ruleFactory.getAnnotator().propertyField(field, jclass, nodeName, node);
 
         if (isIncludeGetters) {
-            JMethod getter = addGetter(jclass, field, nodeName, node, isRequired(nodeName, node, schema), useOptional(nodeName, node, schema));
+            JMethod getter = addGetter(jclass, field, nodeName, node,
+                    isRequired(nodeName, node, propertyMetadata), useOptional(nodeName, node, propertyMetadata));
             ruleFactory.getAnnotator().propertyGetter(getter, jclass, nodeName);
             propertyAnnotations(nodeName, node, schema, getter);
         }
@@ -95,7 +101,7 @@ public class PropertyRule implements Rule<JDefinedClass, JDefinedClass> {
             propertyAnnotations(nodeName, node, schema, setter);
         }
 
-        if (ruleFactory.getGenerationConfig().isGenerateBuilders()) {
+        if (ruleFactory.getGenerationConfig().isGenerateBuilders() && !isImmutableTypes) {
             addBuilderMethod(jclass, field, nodeName, node);
         }
 
@@ -120,18 +126,6 @@ public class PropertyRule implements Rule<JDefinedClass, JDefinedClass> {
         return jclass;
     }
 
-    private boolean hasEnumerated(Schema schema, String arrayFieldName, String nodeName) {
-        JsonNode array = schema.getContent().get(arrayFieldName);
-        if (array != null) {
-            for (JsonNode requiredNode : array) {
-                if (nodeName.equals(requiredNode.asText()))
-                    return true;
-            }
-        }
-
-        return false;
-    }
-
     private boolean hasFlag(JsonNode node, String fieldName) {
         if (node.has(fieldName)) {
             final JsonNode requiredNode = node.get(fieldName);
@@ -141,16 +135,12 @@ public class PropertyRule implements Rule<JDefinedClass, JDefinedClass> {
         return false;
     }
 
-    private boolean isDeclaredAs(String type, String nodeName, JsonNode node, Schema schema) {
-        return hasEnumerated(schema, type, nodeName) || hasFlag(node, type);
-    }
-
-    private boolean isRequired(String nodeName, JsonNode node, Schema schema) {
-        return isDeclaredAs("required", nodeName, node, schema);
+    private boolean isRequired(String nodeName, JsonNode node, PropertyMetadata propertyMetadata) {
+        return propertyMetadata.isRequired(nodeName) || hasFlag(node, "required");
     }
 
-    private boolean useOptional(String nodeName, JsonNode node, Schema schema) {
-        return isDeclaredAs("javaOptional", nodeName, node, schema);
+    private boolean useOptional(String nodeName, JsonNode node, PropertyMetadata propertyMetadata) {
+        return propertyMetadata.isOptional(nodeName) || hasFlag(node, "javaOptional");
     }
 
     private void propertyAnnotations(String nodeName, JsonNode node, Schema schema, JDocCommentable generatedJavaConstruct) {
@@ -16,9 +16,9 @@
 
 package com.quantiply.rules;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
-import java.util.List;
+import java.util.Set;
 
 import javax.annotation.Nonnull;
 import javax.validation.constraints.NotNull;
@@ -51,9 +51,9 @@ public class RequiredArrayRule implements Rule<JDefinedClass, JDefinedClass> {
 
     @Override
     public JDefinedClass apply(String nodeName, JsonNode node, JsonNode parent, JDefinedClass jclass, Schema schema) {
-        List<String> requiredFieldMethods = new ArrayList<>();
+        Set<String> requiredFieldMethods = new HashSet<>();
 
-        JsonNode properties = schema.getContent().get("properties");
+        PropertyMetadata propertyMetadata = ruleFactory.getPropertyMetadata(schema.getContent());
 
         for (Iterator<JsonNode> iterator = node.elements(); iterator.hasNext(); ) {
             String requiredArrayItem = iterator.next().asText();
@@ -61,13 +61,7 @@ public class RequiredArrayRule implements Rule<JDefinedClass, JDefinedClass> {
                 continue;
             }
 
-            JsonNode propertyNode = null;
-
-            if (properties != null) {
-                propertyNode = properties.findValue(requiredArrayItem);
-            }
-
-            String fieldName = ruleFactory.getNameHelper().getPropertyName(requiredArrayItem, propertyNode);
+            String fieldName = propertyMetadata.getPropertyName(requiredArrayItem);
             JFieldVar field = jclass.fields().get(fieldName);
 
             if (field == null) {
@@ -93,7 +87,7 @@ public class RequiredArrayRule implements Rule<JDefinedClass, JDefinedClass> {
         return jclass;
     }
 
-    private void updateGetterSetterJavaDoc(JDefinedClass jclass, List<String> requiredFieldMethods) {
+    private void updateGetterSetterJavaDoc(JDefinedClass jclass, Set<String> requiredFieldMethods) {
         for (Iterator<JMethod> methods = jclass.methods().iterator(); methods.hasNext();) {
             JMethod method = methods.next();
             if (requiredFieldMethods.contains(method.name())) {
@@ -16,20 +16,30 @@
 
 package com.quantiply.rules;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
 import com.quantiply.util.NameHelper;
 import com.quantiply.util.ParcelableHelper;
 import com.quantiply.util.ReflectionHelper;
 import com.quantiply.Annotator;
 import com.quantiply.DefaultGenerationConfig;
 import com.quantiply.GenerationConfig;
+import com.quantiply.GenerationMetrics;
 import com.quantiply.Jackson2Annotator;
 import com.quantiply.SchemaStore;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.sun.codemodel.JClass;
 import com.sun.codemodel.JClassContainer;
 import com.sun.codemodel.JDefinedClass;
 import com.sun.codemodel.JDocComment;
 import com.sun.codemodel.JDocCommentable;
+import com.sun.codemodel.JExpression;
 import com.sun.codemodel.JFieldVar;
 import com.sun.codemodel.JPackage;
 import com.sun.codemodel.JType;
@@ -44,6 +54,12 @@ public class RuleFactory {
     private GenerationConfig generationConfig;
     private Annotator annotator;
     private SchemaStore schemaStore;
+    private final Map<Class<?>, Rule<?, ?>> rules = new HashMap<>();
+    private Map<String, Class<?>> formatTypeMapping;
+    private final Map<JsonNode, PropertyMetadata> propertyMetadata = new IdentityHashMap<>();
+    private final Set<JDefinedClass> aggregateClasses = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<JFieldVar, JExpression> fieldDefaults = new IdentityHashMap<>();
+    private GenerationMetrics generationMetrics;
 
     /**
      * Create a new rule factory with the given generation config options.
@@ -82,7 +98,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "array" declaration.
      */
     public Rule<JPackage, JClass> getArrayRule() {
-        return new ArrayRule(this);
+        return cached(ArrayRule.class, () -> new ArrayRule(this));
     }
 
     /**
@@ -92,7 +108,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "description" declaration.
      */
     public Rule<JDocCommentable, JDocComment> getDescriptionRule() {
-        return new DescriptionRule();
+        return cached(DescriptionRule.class, DescriptionRule::new);
     }
 
     /**
@@ -102,7 +118,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "enum" declaration.
      */
     public Rule<JClassContainer, JType> getEnumRule() {
-        return new EnumRule(this);
+        return cached(EnumRule.class, () -> new EnumRule(this));
     }
 
     /**
@@ -112,7 +128,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "format" declaration.
      */
     public Rule<JType, JType> getFormatRule() {
-        return new FormatRule(this);
+        return cached(FormatRule.class, () -> new FormatRule(this));
     }
 
     /**
@@ -122,7 +138,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "object" declaration.
      */
     public Rule<JPackage, JType> getObjectRule() {
-        return new ObjectRule(this, new ParcelableHelper(), reflectionHelper);
+        return cached(ObjectRule.class, () -> new ObjectRule(this, new ParcelableHelper(), reflectionHelper));
     }
 
     /**
@@ -132,7 +148,7 @@ public class RuleFactory {
      */
     public Rule<JDefinedClass, JDefinedClass> getConstructorRule()
     {
-        return new ConstructorRule(this, reflectionHelper);
+        return cached(ConstructorRule.class, () -> new ConstructorRule(this, reflectionHelper));
     }
 
     /**
@@ -141,7 +157,7 @@ public class RuleFactory {
      *
      * @return a schema rule that can handle the "required" declaration.
      */
-    public Rule<JDefinedClass, JDefinedClass> getRequiredArrayRule() { return new RequiredArrayRule(this); }
+    public Rule<JDefinedClass, JDefinedClass> getRequiredArrayRule() { return cached(RequiredArrayRule.class, () -> new RequiredArrayRule(this)); }
 
     /**
      * Provides a rule instance that should be applied when a "properties"
@@ -150,7 +166,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "properties" declaration.
      */
     public Rule<JDefinedClass, JDefinedClass> getPropertiesRule() {
-        return new PropertiesRule(this);
+        return cached(PropertiesRule.class, () -> new PropertiesRule(this));
     }
 
     /**
@@ -161,7 +177,7 @@ public class RuleFactory {
      * @return a schema rule that can handle a property declaration.
      */
     public Rule<JDefinedClass, JDefinedClass> getPropertyRule() {
-        return new PropertyRule(this);
+        return cached(PropertyRule.class, () -> new PropertyRule(this));
     }
 
     /**
@@ -171,7 +187,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "required" declaration.
      */
     public Rule<JDocCommentable, JDocCommentable> getRequiredRule() {
-        return new RequiredRule(this);
+        return cached(RequiredRule.class, () -> new RequiredRule(this));
     }
 
     /**
@@ -181,7 +197,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "required" declaration.
      */
     public Rule<JDocCommentable, JDocCommentable> getNotRequiredRule() {
-        return new NotRequiredRule(this);
+        return cached(NotRequiredRule.class, () -> new NotRequiredRule(this));
     }
 
     /**
@@ -193,7 +209,7 @@ public class RuleFactory {
      *         given schema node.
      */
     public Rule<JClassContainer, JType> getTypeRule() {
-        return new TypeRule(this);
+        return cached(TypeRule.class, () -> new TypeRule(this));
     }
 
     /**
@@ -204,7 +220,40 @@ public class RuleFactory {
      *         declaration.
      */
     public Rule<JDefinedClass, JDefinedClass> getAdditionalPropertiesRule() {
-        return new AdditionalPropertiesRule(this);
+        return cached(AdditionalPropertiesRule.class, () -> new AdditionalPropertiesRule(this));
+    }
+
+    /**
+     * Provides a rule instance that adds generated Jackson 2.x serializers and
+     * deserializers to a generated class or enum.
+     *
+     * @return a schema rule that adds serializer and deserializer companions
+     *         to a generated type, once its properties are complete.
+     */
+    public Rule<JDefinedClass, JDefinedClass> getJackson2SerializersRule() {
+        return cached(Jackson2SerializersRule.class, () -> new Jackson2SerializersRule(this, reflectionHelper));
+    }
+
+    /**
+     * Provides a rule instance that adds a generated Gson type adapter to a
+     * generated class or enum.
+     *
+     * @return a schema rule that adds a type adapter to a generated type, once
+     *         its properties are complete.
+     */
+    public Rule<JDefinedClass, JDefinedClass> getGsonTypeAdaptersRule() {
+        return cached(GsonTypeAdaptersRule.class, () -> new GsonTypeAdaptersRule(this, reflectionHelper));
+    }
+
+    /**
+     * Provides a rule instance that adds a generated Moshi JSON adapter to a
+     * generated class or enum.
+     *
+     * @return a schema rule that adds a JSON adapter to a generated type, once
+     *         its properties are complete.
+     */
+    public Rule<JDefinedClass, JDefinedClass> getMoshi1JsonAdaptersRule() {
+        return cached(Moshi1JsonAdaptersRule.class, () -> new Moshi1JsonAdaptersRule(this, reflectionHelper));
     }
 
     /**
@@ -214,7 +263,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "title" declaration.
      */
     public Rule<JDocCommentable, JDocComment> getTitleRule() {
-        return new TitleRule();
+        return cached(TitleRule.class, TitleRule::new);
     }
 
     /**
@@ -224,7 +273,7 @@ public class RuleFactory {
      * @return a schema rule that can handle a schema declaration.
      */
     public Rule<JClassContainer, JType> getSchemaRule() {
-        return new SchemaRule(this);
+        return cached(SchemaRule.class, () -> new SchemaRule(this));
     }
 
     /**
@@ -235,7 +284,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "default" declaration.
      */
     public Rule<JFieldVar, JFieldVar> getDefaultRule() {
-        return new DefaultRule(this);
+        return cached(DefaultRule.class, () -> new DefaultRule(this));
     }
 
     /**
@@ -246,7 +295,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "default" declaration.
      */
     public Rule<JFieldVar, JFieldVar> getMinimumMaximumRule() {
-        return new MinimumMaximumRule(this);
+        return cached(MinimumMaximumRule.class, () -> new MinimumMaximumRule(this));
     }
 
     /**
@@ -257,7 +306,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "default" declaration.
      */
     public Rule<JFieldVar, JFieldVar> getMinItemsMaxItemsRule() {
-        return new MinItemsMaxItemsRule(this);
+        return cached(MinItemsMaxItemsRule.class, () -> new MinItemsMaxItemsRule(this));
     }
 
     /**
@@ -268,7 +317,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "default" declaration.
      */
     public Rule<JFieldVar, JFieldVar> getMinLengthMaxLengthRule() {
-        return new MinLengthMaxLengthRule(this);
+        return cached(MinLengthMaxLengthRule.class, () -> new MinLengthMaxLengthRule(this));
     }
 
     /**
@@ -279,7 +328,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "digits" declaration.
      */
     public Rule<JFieldVar, JFieldVar> getDigitsRule() {
-        return new DigitsRule(this);
+        return cached(DigitsRule.class, () -> new DigitsRule(this));
     }
 
     /**
@@ -289,7 +338,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "pattern" declaration.
      */
     public Rule<JFieldVar, JFieldVar> getPatternRule() {
-        return new PatternRule(this);
+        return cached(PatternRule.class, () -> new PatternRule(this));
     }
 
     /**
@@ -300,7 +349,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "default" declaration.
      */
     public Rule<JFieldVar, JFieldVar> getValidRule() {
-        return new ValidRule(this);
+        return cached(ValidRule.class, () -> new ValidRule(this));
     }
 
     /**
@@ -324,6 +373,9 @@ public class RuleFactory {
     public void setGenerationConfig(final GenerationConfig generationConfig) {
         this.generationConfig = generationConfig;
         this.nameHelper = new NameHelper(generationConfig);
+        this.rules.clear();
+        this.formatTypeMapping = null;
+        this.propertyMetadata.clear();
     }
 
     /**
@@ -384,6 +436,94 @@ public class RuleFactory {
         return reflectionHelper;
     }
 
+    /**
+     * Gets the Java types used for "format" values, resolved from the current
+     * generation config. The mapping (and any class loading it needs) is built
+     * once and reused until {@link #setGenerationConfig(GenerationConfig)} is
+     * called.
+     */
+    Map<String, Class<?>> getFormatTypeMapping() {
+        if (formatTypeMapping == null) {
+            formatTypeMapping = FormatRule.getFormatTypeMapping(generationConfig);
+        }
+        return formatTypeMapping;
+    }
+
+    /**
+     * Gets the property metadata (required and optional names, equals/hashCode
+     * exclusions and Java field names) of an object schema. It is computed on
+     * first use for each schema node and shared by every rule that asks for it.
+     *
+     * @param schemaNode
+     *            the object schema whose "properties" are described
+     * @return the metadata for the schema's properties
+     */
+    public PropertyMetadata getPropertyMetadata(JsonNode schemaNode) {
+        return propertyMetadata.computeIfAbsent(schemaNode, node -> new PropertyMetadata(node, nameHelper));
+    }
+
+    /**
+     * Gets the generated classes that don't belong to any one schema but are
+     * added to by every schema that is generated (such as a module that
+     * registers the serializers of each generated type). Rules add such classes
+     * here when they create them, so that they are written only once
+     * generation is complete and are never generated from a subset of the
+     * schemas.
+     *
+     * @return the (mutable) set of aggregate classes, compared by identity
+     */
+    public Set<JDefinedClass> getAggregateClasses() {
+        return aggregateClasses;
+    }
+
+    /**
+     * Gets the default values of final fields, which can't be initialized
+     * where they are declared because they are also assigned by a
+     * constructor. The rule that generates the constructors removes the
+     * defaults of a class's fields when it assigns them.
+     *
+     * @return the (mutable) map from fields to their default values
+     */
+    public Map<JFieldVar, JExpression> getFieldDefaults() {
+        return fieldDefaults;
+    }
+
+    /**
+     * Gets the metrics that rule applications are recorded in.
+     *
+     * @return the metrics in use, or null if rules are not instrumented
+     */
+    public GenerationMetrics getGenerationMetrics() {
+        return generationMetrics;
+    }
+
+    /**
+     * Instruments every rule provided by this factory (including those applied
+     * from within other rules) so that the count, time and allocation of each
+     * application is recorded in the given metrics.
+     *
+     * @param generationMetrics
+     *            the metrics to record in, or null to stop instrumenting rules
+     */
+    public void setGenerationMetrics(final GenerationMetrics generationMetrics) {
+        this.generationMetrics = generationMetrics;
+        this.rules.clear();
+    }
+
+    /**
+     * Rules hold no per-invocation state, so a single instance of each is
+     * shared until the generation config changes.
+     */
+    @SuppressWarnings("unchecked")
+    private <T, R> Rule<T, R> cached(Class<? extends Rule<T, R>> type, Supplier<? extends Rule<T, R>> factory) {
+        Rule<?, ?> rule = rules.get(type);
+        if (rule == null) {
+            rule = generationMetrics == null ? factory.get() : new InstrumentedRule<>(factory.get(), generationMetrics);
+            rules.put(type, rule);
+        }
+        return (Rule<T, R>) rule;
+    }
+
 
     /**
      * Provides a rule instance that should be applied when a "media"
@@ -392,7 +532,7 @@ public class RuleFactory {
      * @return a schema rule that can handle the "media" declaration.
      */
     public Rule<JType, JType> getMediaRule() {
-        return new MediaRule();
+        return cached(MediaRule.class, MediaRule::new);
     }
 
     /**
@@ -400,15 +540,15 @@ public class RuleFactory {
      * building properties.
      */
     public Rule<JDefinedClass, JDefinedClass> getDynamicPropertiesRule() {
-        return new DynamicPropertiesRule(this);
+        return cached(DynamicPropertiesRule.class, () -> new DynamicPropertiesRule(this));
     }
 
     public Rule<JDefinedClass, JDefinedClass> getBuilderRule(){
-        return new BuilderRule(this, reflectionHelper);
+        return cached(BuilderRule.class, () -> new BuilderRule(this, reflectionHelper));
     }
 
     public Rule<JDocCommentable, JDocComment> getJavaNameRule() {
-        return new JavaNameRule();
+        return cached(JavaNameRule.class, JavaNameRule::new);
     }
 
 }
@@ -23,6 +23,10 @@ import static org.apache.commons.lang3.StringUtils.capitalize;
 import static org.apache.commons.lang3.StringUtils.containsAny;
 import static org.apache.commons.lang3.StringUtils.remove;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import com.fasterxml.jackson.databind.JsonNode;
 import com.quantiply.GenerationConfig;
 import com.sun.codemodel.JClass;
@@ -38,6 +42,8 @@ public class NameHelper {
 
     private final GenerationConfig generationConfig;
 
+    private final Map<JPackage, Map<String, UniqueNameSequence>> uniqueNames = new WeakHashMap<>();
+
     public NameHelper(GenerationConfig generationConfig) {
         this.generationConfig = generationConfig;
     }
@@ -252,13 +258,64 @@ public class NameHelper {
         return returnString;
     }
 
+    /**
+     * Finds the first name in the sequence <code>className</code>,
+     * <code>className__1</code>, <code>className__2</code>, ... that is not
+     * defined in the package. The position reached for each name is remembered
+     * per package so that repeated collisions resume where the last search
+     * stopped rather than probing every taken name again (classes are never
+     * removed from a package once generated).
+     */
     private String makeUnique(String className, JPackage _package) {
+        UniqueNameSequence names = uniqueNames.computeIfAbsent(_package, p -> new HashMap<>())
+                .computeIfAbsent(className, UniqueNameSequence::new);
+
+        while (true) {
+            String candidate = names.current();
+            if (_package._getClass(candidate) == null && canDefine(candidate, _package)) {
+                return candidate;
+            }
+            names.advance();
+        }
+    }
+
+    /**
+     * Confirms a free name with codemodel itself, which also rejects names
+     * that only differ by case on case-insensitive file systems.
+     */
+    private boolean canDefine(String className, JPackage _package) {
         try {
             JDefinedClass _class = _package._class(className);
             _package.remove(_class);
-            return className;
+            return true;
         } catch (JClassAlreadyExistsException e) {
-            return makeUnique(MakeUniqueClassName.makeUnique(className), _package);
+            return false;
+        }
+    }
+
+    private static final class UniqueNameSequence {
+
+        private final String className;
+        private String prefix;
+        private int suffix = -1;
+
+        UniqueNameSequence(String className) {
+            this.className = className;
+        }
+
+        String current() {
+            return suffix < 0 ? className : prefix + suffix;
+        }
+
+        void advance() {
+            if (suffix < 0) {
+                String next = MakeUniqueClassName.makeUnique(className);
+                int separator = next.lastIndexOf("__") + 2;
+                prefix = next.substring(0, separator);
+                suffix = Integer.parseInt(next.substring(separator));
+            } else {
+                suffix++;
+            }
         }
     }
 }
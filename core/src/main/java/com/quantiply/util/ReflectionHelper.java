@@ -24,10 +24,15 @@ import com.sun.codemodel.JPackage;
 import com.sun.codemodel.JType;
 import java.lang.reflect.Modifier;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
+import java.util.Set;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.WeakHashMap;
 import java.util.stream.StreamSupport;
 
 import com.quantiply.rules.RuleFactory;
@@ -36,6 +41,15 @@ public class ReflectionHelper {
 
   private RuleFactory ruleFactory;
 
+  private final Map<JPackage, Map<String, JDefinedClass>> classIndex = new WeakHashMap<>();
+
+  /**
+   * Names already looked for in each package and not found, even by a
+   * rescan, so that repeated misses (such as looking for the builder of a
+   * class that has none) don't rescan the package each time.
+   */
+  private final Map<JPackage, Set<String>> missingClasses = new WeakHashMap<>();
+
   public ReflectionHelper(RuleFactory ruleFactory) {
     this.ruleFactory = ruleFactory;
   }
@@ -97,8 +111,24 @@ public class ReflectionHelper {
 
   public JDefinedClass getBuilderClass(JClass target) {
     String builderClassname = ruleFactory.getNameHelper().getBuilderClassName(target);
-    return getAllPackageClasses(target._package()).stream().filter(definedClass -> definedClass.name().equals(builderClassname)).findFirst()
-        .orElse(null);
+    return findClass(builderClassname, target._package());
+  }
+
+  /**
+   * Records a newly created class (top-level or nested) so that later lookups
+   * by name in its package are answered from the index rather than by
+   * scanning every class in the package. Where several indexed classes share
+   * a name, the one that comes first in the package's alphabetical order of
+   * classes (each top-level class followed by its nested classes) is kept,
+   * whatever order they were registered in.
+   * <p>
+   * Registering a class also forgets the names that lookups in its package
+   * have missed, so that a class created without being registered is found
+   * once anything else in its package is registered.
+   */
+  public void registerClass(JDefinedClass definedClass) {
+    index(getPackageIndex(definedClass._package()), definedClass);
+    missingClasses.remove(definedClass._package());
   }
 
   public boolean isFinal(JType superType) {
@@ -129,8 +159,63 @@ public class ReflectionHelper {
   }
 
   private JDefinedClass _getClass(String name, JPackage _package) {
-    return getAllPackageClasses(_package).stream().filter(definedClass -> definedClass.name().equals(name)).findFirst()
-        .orElseThrow(() -> new NoClassDefFoundError(name));
+    JDefinedClass definedClass = findClass(name, _package);
+    if (definedClass == null) {
+      throw new NoClassDefFoundError(name);
+    }
+    return definedClass;
+  }
+
+  private JDefinedClass findClass(String name, JPackage _package) {
+    Map<String, JDefinedClass> index = getPackageIndex(_package);
+    JDefinedClass definedClass = index.get(name);
+    if (definedClass == null) {
+      Set<String> missing = missingClasses.computeIfAbsent(_package, p -> new HashSet<>());
+      if (missing.contains(name)) {
+        return null;
+      }
+      // classes created by rules that don't register them are picked up by a rescan
+      getAllPackageClasses(_package).forEach(_class -> index(index, _class));
+      definedClass = index.get(name);
+      if (definedClass == null) {
+        missing.add(name);
+      }
+    }
+    return definedClass;
+  }
+
+  private void index(Map<String, JDefinedClass> index, JDefinedClass definedClass) {
+    index.merge(definedClass.name(), definedClass, (indexed, added) -> compareScanOrder(indexed, added) <= 0 ? indexed : added);
+  }
+
+  /**
+   * Orders classes as a scan of their package lists them: top-level classes
+   * by name, each followed by its nested classes by name.
+   */
+  private static int compareScanOrder(JDefinedClass a, JDefinedClass b) {
+    LinkedList<String> pathA = enclosingNames(a);
+    LinkedList<String> pathB = enclosingNames(b);
+    Iterator<String> namesA = pathA.iterator();
+    Iterator<String> namesB = pathB.iterator();
+    while (namesA.hasNext() && namesB.hasNext()) {
+      int result = namesA.next().compareTo(namesB.next());
+      if (result != 0) {
+        return result;
+      }
+    }
+    return Integer.compare(pathA.size(), pathB.size());
+  }
+
+  private static LinkedList<String> enclosingNames(JDefinedClass definedClass) {
+    LinkedList<String> names = new LinkedList<>();
+    for (JClass _class = definedClass; _class != null; _class = _class.outer()) {
+      names.addFirst(_class.name());
+    }
+    return names;
+  }
+
+  private Map<String, JDefinedClass> getPackageIndex(JPackage _package) {
+    return classIndex.computeIfAbsent(_package, p -> new HashMap<>());
   }
 
   private Collection<JDefinedClass> getAllPackageClasses(JPackage _package) {
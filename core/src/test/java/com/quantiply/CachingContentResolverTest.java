@@ -0,0 +1,98 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class CachingContentResolverTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final CachingContentResolver resolver = new CachingContentResolver(new ContentResolver());
+
+    @Test
+    public void unchangedFileIsReadOnce() throws IOException {
+        File schema = folder.newFile("schema.json");
+        FileUtils.writeStringToFile(schema, "{\"type\":\"string\"}", StandardCharsets.UTF_8);
+
+        JsonNode first = resolver.resolve(schema.toURI());
+        JsonNode second = resolver.resolve(schema.toURI());
+
+        assertThat(second, is(sameInstance(first)));
+    }
+
+    @Test
+    public void modifiedFileIsReadAgain() throws IOException {
+        File schema = folder.newFile("schema.json");
+        FileUtils.writeStringToFile(schema, "{\"type\":\"string\"}", StandardCharsets.UTF_8);
+        assertThat(schema.setLastModified(1000000000000L), is(true));
+
+        JsonNode first = resolver.resolve(schema.toURI());
+
+        FileUtils.writeStringToFile(schema, "{\"type\":\"integer\"}", StandardCharsets.UTF_8);
+        assertThat(schema.setLastModified(1000000001000L), is(true));
+
+        JsonNode second = resolver.resolve(schema.toURI());
+
+        assertThat(first.path("type").asText(), is("string"));
+        assertThat(second.path("type").asText(), is("integer"));
+    }
+
+    @Test
+    public void fileRewrittenWithinTheSameSecondAtTheSameLengthIsReadAgain() throws IOException {
+        File schema = folder.newFile("schema.json");
+        FileUtils.writeStringToFile(schema, "{\"type\":\"string\"}", StandardCharsets.UTF_8);
+        assertThat(schema.setLastModified(1000000000000L), is(true));
+
+        JsonNode first = resolver.resolve(schema.toURI());
+
+        FileUtils.writeStringToFile(schema, "{\"type\":\"number\"}", StandardCharsets.UTF_8);
+        assertThat(schema.setLastModified(1000000000000L), is(true));
+
+        JsonNode second = resolver.resolve(schema.toURI());
+
+        assertThat(first.path("type").asText(), is("string"));
+        assertThat(second.path("type").asText(), is("number"));
+    }
+
+    @Test
+    public void classpathDocumentIsReadOnce() {
+        URI schema = URI.create("classpath:schema/address.json");
+
+        assertThat(resolver.resolve(schema), is(sameInstance(resolver.resolve(schema))));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingFileIsReported() {
+        resolver.resolve(new File(folder.getRoot(), "missing.json").toURI());
+    }
+
+}
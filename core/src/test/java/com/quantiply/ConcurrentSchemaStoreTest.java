@@ -0,0 +1,166 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+public class ConcurrentSchemaStoreTest {
+
+    @Test
+    public void createWithFragmentResolution() throws URISyntaxException {
+
+        URI addressSchemaUri = getClass().getResource("/schema/address.json").toURI();
+
+        SchemaStore schemaStore = new ConcurrentSchemaStore();
+        Schema addressSchema = schemaStore.create(addressSchemaUri, "#/.");
+        Schema innerSchema = schemaStore.create(addressSchema, "#/properties/post-office-box", "#/.");
+
+        assertThat(innerSchema.getId(), is(equalTo(URI.create(addressSchemaUri + "#/properties/post-office-box"))));
+        assertThat(innerSchema.getContent().get("type").asText(), is("string"));
+        assertThat(innerSchema.getParent().getId(), is(equalTo(addressSchemaUri)));
+
+    }
+
+    @Test
+    public void createWithEmbeddedSelfRef() throws URISyntaxException {
+
+        URI schemaUri = getClass().getResource("/schema/embeddedRef.json").toURI();
+
+        SchemaStore schemaStore = new ConcurrentSchemaStore();
+        Schema topSchema = schemaStore.create(schemaUri, "#/.");
+        Schema embeddedSchema = schemaStore.create(topSchema, "#/definitions/embedded", "#/.");
+        Schema selfRefSchema = schemaStore.create(embeddedSchema, "#", "#/.");
+
+        assertThat(topSchema, is(sameInstance(selfRefSchema)));
+
+    }
+
+    @Test
+    public void fragmentsOfOneDocumentShareOneLoad() throws URISyntaxException {
+
+        URI schemaUri = getClass().getResource("/schema/address.json").toURI();
+        CountingContentResolver contentResolver = new CountingContentResolver(0);
+
+        SchemaStore schemaStore = new ConcurrentSchemaStore(contentResolver);
+        schemaStore.create(schemaUri, "#/.");
+        schemaStore.create(URI.create(schemaUri + "#/properties/locality"), "#/.");
+        schemaStore.create(URI.create(schemaUri + "#/properties/region"), "#/.");
+
+        assertThat(contentResolver.loads.get(), is(1));
+
+    }
+
+    @Test
+    public void eachDocumentIsLoadedOnceUnderContention() throws Exception {
+
+        final URI schemaUri = getClass().getResource("/schema/address.json").toURI();
+        final CountingContentResolver contentResolver = new CountingContentResolver(50);
+        final SchemaStore schemaStore = new ConcurrentSchemaStore(contentResolver);
+        final CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Schema>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(new Callable<Schema>() {
+                    @Override
+                    public Schema call() throws Exception {
+                        start.await();
+                        return schemaStore.create(schemaUri, "#/.");
+                    }
+                }));
+            }
+            start.countDown();
+
+            Schema first = results.get(0).get();
+            for (Future<Schema> result : results) {
+                assertThat(result.get(), is(sameInstance(first)));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(contentResolver.loads.get(), is(1));
+
+    }
+
+    @Test
+    public void failedLoadIsRetried() throws URISyntaxException {
+
+        URI schemaUri = getClass().getResource("/schema/address.json").toURI();
+        final AtomicInteger attempts = new AtomicInteger();
+
+        SchemaStore schemaStore = new ConcurrentSchemaStore(new ContentResolver() {
+            @Override
+            public JsonNode resolve(URI uri) {
+                if (attempts.incrementAndGet() == 1) {
+                    throw new IllegalArgumentException("Unavailable: " + uri);
+                }
+                return super.resolve(uri);
+            }
+        });
+
+        try {
+            schemaStore.create(schemaUri, "#/.");
+            fail("Expected the first load to fail");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), startsWith("Unavailable"));
+        }
+
+        assertThat(schemaStore.create(schemaUri, "#/.").getContent().has("description"), is(true));
+        assertThat(attempts.get(), is(2));
+
+    }
+
+    private static class CountingContentResolver extends ContentResolver {
+
+        private final AtomicInteger loads = new AtomicInteger();
+        private final long delayMillis;
+
+        CountingContentResolver(long delayMillis) {
+            this.delayMillis = delayMillis;
+        }
+
+        @Override
+        public JsonNode resolve(URI uri) {
+            loads.incrementAndGet();
+            try {
+                Thread.sleep(delayMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.resolve(uri);
+        }
+    }
+
+}
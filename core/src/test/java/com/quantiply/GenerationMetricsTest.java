@@ -0,0 +1,109 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class GenerationMetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void nestedMeasurementsAreExcludedFromSelfTime() throws InterruptedException {
+        GenerationMetrics metrics = new GenerationMetrics();
+        URI schema = URI.create("file:/schema/a.json");
+
+        metrics.measureRule("OuterRule", schema, () -> {
+            Thread.sleep(20);
+            return metrics.measureRule("InnerRule", schema, () -> {
+                Thread.sleep(20);
+                return null;
+            });
+        });
+
+        ObjectNode report = metrics.toJson();
+        JsonNode outer = entry(report.get("rules"), "OuterRule");
+        JsonNode inner = entry(report.get("rules"), "InnerRule");
+
+        assertThat(outer.get("count").asLong(), is(1L));
+        assertThat(inner.get("count").asLong(), is(1L));
+        assertThat(outer.get("totalMillis").asDouble(), is(greaterThanOrEqualTo(40.0)));
+        assertThat(outer.get("selfMillis").asDouble(), is(lessThan(outer.get("totalMillis").asDouble() - 19)));
+        assertThat(inner.get("selfMillis").asDouble(), is(inner.get("totalMillis").asDouble()));
+
+        JsonNode schemaEntry = entry(report.get("schemas"), schema.toString());
+        assertThat(schemaEntry.get("count").asLong(), is(2L));
+    }
+
+    @Test
+    public void failedWorkIsStillRecorded() {
+        GenerationMetrics metrics = new GenerationMetrics();
+
+        try {
+            metrics.measurePhase(GenerationMetrics.CONTENT_RESOLUTION, null, () -> {
+                throw new IllegalArgumentException("unreadable");
+            });
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("unreadable"));
+        }
+
+        ObjectNode report = metrics.toJson();
+        assertThat(entry(report.get("phases"), GenerationMetrics.CONTENT_RESOLUTION).get("count").asLong(), is(1L));
+    }
+
+    @Test
+    public void reportIsWrittenAsJsonAndHtml() throws IOException {
+        GenerationMetrics metrics = new GenerationMetrics();
+        metrics.measureRule("<Rule>", null, () -> "applied");
+
+        File directory = folder.newFolder();
+        metrics.writeReport(directory);
+
+        JsonNode json = new ObjectMapper().readTree(new File(directory, GenerationMetrics.REPORT_FILE_NAME + ".json"));
+        assertThat(entry(json.get("rules"), "<Rule>").get("count").asLong(), is(1L));
+
+        String html = FileUtils.readFileToString(new File(directory, GenerationMetrics.REPORT_FILE_NAME + ".html"), "UTF-8");
+        assertThat(html, containsString("&lt;Rule&gt;"));
+        assertThat(html, not(containsString("<Rule>")));
+    }
+
+    private static JsonNode entry(JsonNode entries, String name) {
+        for (JsonNode entry : entries) {
+            if (entry.get("name").asText().equals(name)) {
+                return entry;
+            }
+        }
+        throw new AssertionError("No entry named " + name);
+    }
+
+}
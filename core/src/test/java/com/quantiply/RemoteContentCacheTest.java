@@ -0,0 +1,179 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.tomakehurst.wiremock.junit.WireMockRule;
+
+public class RemoteContentCacheTest {
+
+    private static final long TTL = 60;
+    private static final String CONTENT = "{\"type\" : \"string\"}";
+
+    @Rule
+    public WireMockRule server = new WireMockRule(options().dynamicPort().bindAddress("localhost"));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Clock clock = mock(Clock.class);
+
+    private File cacheDirectory;
+    private URI uri;
+
+    @Before
+    public void setUp() throws IOException {
+        cacheDirectory = folder.newFolder("cache");
+        uri = URI.create("http://localhost:" + server.port() + "/schema.json");
+        when(clock.millis()).thenReturn(TimeUnit.DAYS.toMillis(10000));
+
+        server.stubFor(get(urlEqualTo("/schema.json")).willReturn(aResponse().withHeader("ETag", "\"v1\"").withBody(CONTENT)));
+        server.stubFor(get(urlEqualTo("/schema.json")).withHeader("If-None-Match", equalTo("\"v1\"")).willReturn(aResponse().withStatus(304)));
+    }
+
+    @Test
+    public void freshEntryIsServedWithoutContactingServer() throws IOException {
+
+        assertThat(content(cache(false).get(uri)), is(CONTENT));
+        assertThat(content(cache(false).get(uri)), is(CONTENT));
+
+        server.verify(1, getRequestedFor(urlEqualTo("/schema.json")));
+
+    }
+
+    @Test
+    public void expiredEntryIsRevalidatedUsingEtag() throws IOException {
+
+        cache(false).get(uri);
+        advance(TTL + 1);
+
+        assertThat(content(cache(false).get(uri)), is(CONTENT));
+
+        server.verify(2, getRequestedFor(urlEqualTo("/schema.json")));
+        server.verify(1, getRequestedFor(urlEqualTo("/schema.json")).withHeader("If-None-Match", equalTo("\"v1\"")));
+
+    }
+
+    @Test
+    public void changedContentReplacesExpiredEntry() throws IOException {
+
+        cache(false).get(uri);
+        advance(TTL + 1);
+        server.resetMappings();
+        server.stubFor(get(urlEqualTo("/schema.json")).willReturn(aResponse().withHeader("ETag", "\"v2\"").withBody("{}")));
+
+        assertThat(content(cache(false).get(uri)), is("{}"));
+        assertThat(content(cache(true).get(uri)), is("{}"));
+
+    }
+
+    @Test
+    public void offlineCacheServesExpiredEntry() throws IOException {
+
+        cache(false).get(uri);
+        advance(TTL * 100);
+
+        assertThat(content(cache(true).get(uri)), is(CONTENT));
+
+        server.verify(1, getRequestedFor(urlEqualTo("/schema.json")));
+
+    }
+
+    @Test(expected = IOException.class)
+    public void offlineCacheFailsForMissingEntry() throws IOException {
+
+        cache(true).get(uri);
+
+    }
+
+    @Test(expected = IOException.class)
+    public void serverErrorCausesIOException() throws IOException {
+
+        server.stubFor(get(urlEqualTo("/missing.json")).willReturn(aResponse().withStatus(404)));
+
+        cache(false).get(URI.create("http://localhost:" + server.port() + "/missing.json"));
+
+    }
+
+    @Test
+    public void unusedEntriesAreEvicted() throws IOException {
+
+        cache(false).get(uri);
+        advance(TTL + 1);
+
+        cache(false).evictUnused();
+
+        assertThat(new File(cacheDirectory, "index").list(), is(emptyArray()));
+        assertThat(new File(cacheDirectory, "content").list(), is(emptyArray()));
+
+    }
+
+    @Test
+    public void recentlyUsedEntriesAreNotEvicted() throws IOException {
+
+        cache(false).get(uri);
+        advance(TTL - 1);
+
+        cache(false).evictUnused();
+
+        assertThat(content(cache(true).get(uri)), is(CONTENT));
+
+    }
+
+    @Test
+    public void contentResolverReadsRemoteDocumentsThroughCache() {
+
+        ContentResolver resolver = new ContentResolver(null, cache(false));
+
+        assertThat(resolver.resolve(uri).path("type").asText(), is("string"));
+        assertThat(resolver.resolve(uri).path("type").asText(), is("string"));
+
+        server.verify(1, getRequestedFor(urlEqualTo("/schema.json")));
+
+    }
+
+    private RemoteContentCache cache(boolean offline) {
+        return new RemoteContentCache(cacheDirectory, TTL, offline, clock);
+    }
+
+    private void advance(long seconds) {
+        long now = clock.millis();
+        when(clock.millis()).thenReturn(now + TimeUnit.SECONDS.toMillis(seconds));
+    }
+
+    private static String content(byte[] content) {
+        return new String(content, StandardCharsets.UTF_8);
+    }
+
+}
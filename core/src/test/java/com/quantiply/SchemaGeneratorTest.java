@@ -0,0 +1,130 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class SchemaGeneratorTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final SchemaGenerator schemaGenerator = new SchemaGenerator();
+
+    @Test
+    public void simpleTypesAreInferred() throws IOException {
+
+        ObjectNode schema = schemaFrom("{\"s\":\"a\",\"i\":1,\"l\":12345678901,\"n\":1.5,\"b\":true,\"z\":null}");
+
+        assertThat(schema, is(json("{\"type\":\"object\",\"properties\":{"
+                + "\"s\":{\"type\":\"string\"},\"i\":{\"type\":\"integer\"},\"l\":{\"type\":\"integer\"},"
+                + "\"n\":{\"type\":\"number\"},\"b\":{\"type\":\"boolean\"},\"z\":{\"type\":\"null\"}}}")));
+
+    }
+
+    @Test
+    public void objectItemsAreMergedAndNestedArraysConcatenated() throws IOException {
+
+        ObjectNode schema = schemaFrom("[{\"a\":1,\"c\":[{\"x\":1}]},{\"b\":\"s\",\"c\":[{\"y\":true}]}]");
+
+        assertThat(schema, is(json("{\"type\":\"array\",\"items\":{\"type\":\"object\",\"properties\":{"
+                + "\"a\":{\"type\":\"integer\"},"
+                + "\"c\":{\"type\":\"array\",\"items\":{\"type\":\"object\",\"properties\":{\"x\":{\"type\":\"integer\"},\"y\":{\"type\":\"boolean\"}}}},"
+                + "\"b\":{\"type\":\"string\"}}}}")));
+
+    }
+
+    @Test
+    public void propertyOfDifferentTypeReplacesEarlierValues() throws IOException {
+
+        ObjectNode schema = schemaFrom("[{\"a\":{\"x\":1}},{\"a\":\"s\"},{\"a\":{\"y\":1}}]");
+
+        assertThat(schema.at("/items/properties/a"), is(json("{\"type\":\"object\",\"properties\":{\"y\":{\"type\":\"integer\"}}}")));
+
+    }
+
+    @Test
+    public void replacedPropertyIsNotMergedIntoEarlierValueWhenArraysAreConcatenated() throws IOException {
+
+        ObjectNode schema = schemaFrom("[{\"c\":[{\"a\":{\"x\":1}}]},{\"c\":[{\"a\":\"s\"},{\"a\":{\"y\":1}}]}]");
+
+        assertThat(schema.at("/items/properties/c/items/properties/a"), is(json("{\"type\":\"object\",\"properties\":{\"y\":{\"type\":\"integer\"}}}")));
+
+    }
+
+    @Test
+    public void itemsOfArrayStartingWithScalarAreTakenFromFirstItem() throws IOException {
+
+        ObjectNode schema = schemaFrom("[1, {\"a\":1}, \"s\"]");
+
+        assertThat(schema, is(json("{\"type\":\"array\",\"items\":{\"type\":\"integer\"}}")));
+
+    }
+
+    @Test
+    public void exampleFromUrlMatchesExampleFromTree() throws IOException {
+
+        String example = "{\"a\":[{\"b\":[1,2],\"c\":{\"d\":\"x\"}},{\"b\":[3],\"c\":{\"e\":1.0}}],\"f\":[]}";
+
+        assertThat(schemaGenerator.schemaFromExample(write("example.json", example).toURI().toURL()), is(schemaFrom(example)));
+
+    }
+
+    @Test
+    public void ndjsonRecordsAreMerged() throws IOException {
+
+        File example = write("records.ndjson", "{\"id\":1,\"tags\":[\"a\"]}\n{\"id\":2,\"name\":\"b\"}\n\n{\"id\":3,\"tags\":[]}\n");
+
+        ObjectNode schema = schemaGenerator.schemaFromNdjsonExample(example.toURI().toURL());
+
+        assertThat(schema, is(json("{\"type\":\"object\",\"properties\":{"
+                + "\"id\":{\"type\":\"integer\"},\"tags\":{\"type\":\"array\",\"items\":{\"type\":\"string\"}},"
+                + "\"name\":{\"type\":\"string\"}}}")));
+
+    }
+
+    private ObjectNode schemaFrom(String example) throws IOException {
+        return schemaGenerator.schemaFromExample(OBJECT_MAPPER.readTree(example));
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = folder.newFile(name);
+        FileUtils.writeStringToFile(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private static JsonNode json(String content) throws IOException {
+        return OBJECT_MAPPER.readTree(content);
+    }
+
+}
@@ -119,6 +119,31 @@ public class SchemaMapperTest {
         assertThat(capturePackage.getValue().name(), is("com.example.package"));
     }
 
+    @Test
+    public void generateMergesEveryRecordOfNdjsonStringInput() throws IOException {
+
+        String ndjsonContent = "{\"name\":\"a\"}\n{\"age\":1}\n";
+
+        final SchemaRule mockSchemaRule = mock(SchemaRule.class);
+
+        final GenerationConfig mockGenerationConfig = mock(GenerationConfig.class);
+        when(mockGenerationConfig.getSourceType()).thenReturn(SourceType.NDJSON);
+
+        final RuleFactory mockRuleFactory = mock(RuleFactory.class);
+        when(mockRuleFactory.getSchemaRule()).thenReturn(mockSchemaRule);
+        when(mockRuleFactory.getGenerationConfig()).thenReturn(mockGenerationConfig);
+
+        new SchemaMapper(mockRuleFactory, new SchemaGenerator()).generate(new JCodeModel(), "User", "com.example.package", ndjsonContent);
+
+        ArgumentCaptor<JsonNode> captureNode = ArgumentCaptor.forClass(JsonNode.class);
+
+        verify(mockSchemaRule).apply(eq("User"), captureNode.capture(), eq(null), Mockito.isA(JPackage.class), Mockito.isA(Schema.class));
+
+        assertThat(captureNode.getValue().path("type").asText(), is("object"));
+        assertThat(captureNode.getValue().path("properties").has("name"), is(true));
+        assertThat(captureNode.getValue().path("properties").has("age"), is(true));
+    }
+
     @Test
     public void generateCreatesSchemaFromSchemaAsStringInput() throws IOException {
 
@@ -122,6 +122,52 @@ public class SchemaStoreTest {
 
     }
 
+    @Test
+    public void createReturnsPrefetchedSchema() throws URISyntaxException {
+
+        URI schemaUri = getClass().getResource("/schema/address.json").toURI();
+
+        SchemaStore schemaStore = new SchemaStore();
+        schemaStore.prefetch(schemaUri);
+
+        Schema schema = schemaStore.create(schemaUri, "#/.");
+
+        assertThat(schema.getId(), is(equalTo(schemaUri)));
+        assertThat(schema.getContent().has("description"), is(true));
+        assertThat(schema, is(sameInstance(schemaStore.create(schemaUri, "#/."))));
+
+    }
+
+    @Test
+    public void prefetchDoesNotReplaceKnownSchema() throws URISyntaxException {
+
+        URI schemaUri = getClass().getResource("/schema/address.json").toURI();
+
+        SchemaStore schemaStore = new SchemaStore();
+        Schema schema = schemaStore.create(schemaUri, "#/.");
+
+        schemaStore.prefetch(schemaUri);
+
+        assertThat(schemaStore.create(schemaUri, "#/."), is(sameInstance(schema)));
+
+    }
+
+    @Test
+    public void referencedDocumentsAreRecordedUntilTaken() throws URISyntaxException {
+
+        URI addressUri = getClass().getResource("/schema/address.json").toURI();
+        URI enumUri = getClass().getResource("/schema/enum.json").toURI();
+
+        SchemaStore schemaStore = new SchemaStore();
+        schemaStore.create(addressUri, "#/.");
+        schemaStore.create(URI.create(enumUri + "#/enum"), "#/.");
+        schemaStore.create(addressUri, "#/.");
+
+        assertThat(schemaStore.takeReferencedDocuments(), contains(addressUri, enumUri));
+        assertThat(schemaStore.takeReferencedDocuments(), is(empty()));
+
+    }
+
     @Test
     public void setIfEmptyOnlySetsIfEmpty() throws URISyntaxException {
 
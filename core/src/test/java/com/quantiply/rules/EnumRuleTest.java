@@ -22,7 +22,9 @@ import static org.mockito.Mockito.*;
 
 import com.quantiply.Annotator;
 import com.quantiply.Schema;
+import com.quantiply.SchemaStore;
 import com.quantiply.util.NameHelper;
+import com.quantiply.util.ReflectionHelper;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Matchers;
@@ -52,6 +54,8 @@ public class EnumRuleTest {
         when(ruleFactory.getNameHelper()).thenReturn(nameHelper);
         when(ruleFactory.getAnnotator()).thenReturn(annotator);
         when(ruleFactory.getTypeRule()).thenReturn(typeRule);
+        when(ruleFactory.getSchemaStore()).thenReturn(new SchemaStore());
+        when(ruleFactory.getReflectionHelper()).thenReturn(new ReflectionHelper(ruleFactory));
     }
 
     @Test
@@ -0,0 +1,83 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.rules;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class PropertyMetadataTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final RuleFactory ruleFactory = new RuleFactory();
+
+    @Test
+    public void requiredAndOptionalNamesAreIndexed() throws Exception {
+        ObjectNode schema = (ObjectNode) mapper.readTree("{"
+                + "\"properties\" : {\"a\" : {}, \"b\" : {}, \"c\" : {}},"
+                + "\"required\" : [\"a\", \"c\"],"
+                + "\"javaOptional\" : [\"b\"]}");
+
+        PropertyMetadata metadata = ruleFactory.getPropertyMetadata(schema);
+
+        assertThat(metadata.isRequired("a"), is(true));
+        assertThat(metadata.isRequired("b"), is(false));
+        assertThat(metadata.isRequired("c"), is(true));
+        assertThat(metadata.isOptional("b"), is(true));
+        assertThat(metadata.isOptional("a"), is(false));
+    }
+
+    @Test
+    public void propertyNamesUseDeclaredNodes() throws Exception {
+        ObjectNode schema = (ObjectNode) mapper.readTree("{"
+                + "\"properties\" : {"
+                + "  \"first\" : {\"type\" : \"object\", \"properties\" : {\"second_name\" : {\"javaName\" : \"nested\"}}},"
+                + "  \"second_name\" : {}}}");
+
+        PropertyMetadata metadata = ruleFactory.getPropertyMetadata(schema);
+
+        assertThat(metadata.getPropertyName("second_name"), is("secondName"));
+        assertThat(metadata.getPropertyName("undeclared_name"), is("undeclaredName"));
+        assertThat(metadata.getPropertyName("second_name", mapper.readTree("{\"javaName\" : \"other\"}")), is("other"));
+    }
+
+    @Test
+    public void exclusionsFromEqualsAndHashCodeAreCombined() throws Exception {
+        ObjectNode schema = (ObjectNode) mapper.readTree("{"
+                + "\"properties\" : {\"a\" : {}, \"b_b\" : {\"excludedFromEqualsAndHashCode\" : true}, \"c\" : {\"javaName\" : \"see\"}},"
+                + "\"excludedFromEqualsAndHashCode\" : [\"c\"]}");
+
+        PropertyMetadata metadata = ruleFactory.getPropertyMetadata(schema);
+
+        assertThat(metadata.getExcludedFromEqualsAndHashCode(), containsInAnyOrder("bB", "see"));
+    }
+
+    @Test
+    public void metadataIsSharedPerSchemaNode() throws Exception {
+        ObjectNode schema = (ObjectNode) mapper.readTree("{\"properties\" : {\"a\" : {}}}");
+
+        assertThat(ruleFactory.getPropertyMetadata(schema), is(sameInstance(ruleFactory.getPropertyMetadata(schema))));
+    }
+
+}
@@ -22,6 +22,7 @@ import static org.mockito.Mockito.*;
 
 import com.quantiply.DefaultGenerationConfig;
 import com.quantiply.GenerationConfig;
+import com.quantiply.GenerationMetrics;
 import com.quantiply.NoopAnnotator;
 import com.quantiply.SchemaStore;
 import org.junit.Test;
@@ -93,4 +94,40 @@ public class RuleFactoryImplTest {
 
     }
 
+    @Test
+    public void rulesAreReusedUntilGenerationConfigChanges() {
+
+        RuleFactory ruleFactory = new RuleFactory();
+
+        Rule<?, ?> formatRule = ruleFactory.getFormatRule();
+        Rule<?, ?> propertyRule = ruleFactory.getPropertyRule();
+
+        assertThat(ruleFactory.getFormatRule(), is(sameInstance(formatRule)));
+        assertThat(ruleFactory.getPropertyRule(), is(sameInstance(propertyRule)));
+
+        ruleFactory.setGenerationConfig(new DefaultGenerationConfig());
+
+        assertThat(ruleFactory.getFormatRule(), is(not(sameInstance(formatRule))));
+        assertThat(ruleFactory.getPropertyRule(), is(not(sameInstance(propertyRule))));
+
+    }
+
+    @Test
+    public void rulesAreInstrumentedWhenMetricsAreSet() {
+
+        RuleFactory ruleFactory = new RuleFactory();
+        Rule<?, ?> formatRule = ruleFactory.getFormatRule();
+
+        ruleFactory.setGenerationMetrics(new GenerationMetrics());
+
+        assertThat(ruleFactory.getFormatRule(), is(instanceOf(InstrumentedRule.class)));
+        assertThat(ruleFactory.getFormatRule(), is(sameInstance(ruleFactory.getFormatRule())));
+
+        ruleFactory.setGenerationMetrics(null);
+
+        assertThat(ruleFactory.getFormatRule(), is(instanceOf(FormatRule.class)));
+        assertThat(ruleFactory.getFormatRule(), is(not(sameInstance(formatRule))));
+
+    }
+
 }
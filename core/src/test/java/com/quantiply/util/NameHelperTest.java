@@ -28,6 +28,7 @@ import org.junit.Test;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JPackage;
 
 public class NameHelperTest {
 
@@ -82,4 +83,34 @@ public class NameHelperTest {
         return JsonNodeFactory.instance.objectNode()
                 .put(key, value);
     }
+
+    @Test
+    public void testUniqueClassNamesFollowCollisionSequence() throws Exception {
+        JPackage _package = new JCodeModel()._package("com.example");
+
+        assertThat(nameHelper.getUniqueClassName("item", NODE, _package), is("Item"));
+        _package._class("Item");
+        for (int i = 1; i <= 50; i++) {
+            String name = nameHelper.getUniqueClassName("item", NODE, _package);
+            assertThat(name, is("Item__" + i));
+            _package._class(name);
+        }
+
+        _package._class("Value__3");
+        assertThat(nameHelper.getUniqueClassName("Value__3", NODE, _package), is("Value__4"));
+    }
+
+    @Test
+    public void testUniqueClassNameSkipsClassesDefinedElsewhere() throws Exception {
+        JPackage _package = new JCodeModel()._package("com.example");
+        _package._class("Item");
+        _package._class("Item__1");
+
+        assertThat(nameHelper.getUniqueClassName("item", NODE, _package), is("Item__2"));
+        _package._class("Item__2");
+        _package._class("Item__3");
+        assertThat(nameHelper.getUniqueClassName("item", NODE, _package), is("Item__4"));
+        assertThat(nameHelper.getUniqueClassName("item", NODE, _package), is("Item__4"));
+    }
+
 }
@@ -0,0 +1,116 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.util;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+import com.quantiply.rules.RuleFactory;
+import com.sun.codemodel.JClass;
+import com.sun.codemodel.JCodeModel;
+import com.sun.codemodel.JDefinedClass;
+import com.sun.codemodel.JFieldVar;
+import com.sun.codemodel.JMod;
+import com.sun.codemodel.JPackage;
+
+public class ReflectionHelperTest {
+
+    private final ReflectionHelper reflectionHelper = new ReflectionHelper(new RuleFactory());
+
+    @Test
+    public void registeredBuilderIsFoundForTarget() throws Exception {
+        JPackage _package = new JCodeModel()._package("com.example");
+        JDefinedClass target = _package._class("Parent");
+        JDefinedClass builder = target._class(JMod.PUBLIC + JMod.STATIC, "ParentBuilder");
+        reflectionHelper.registerClass(target);
+        reflectionHelper.registerClass(builder);
+
+        assertThat(reflectionHelper.getBuilderClass((JClass) target), is(sameInstance(builder)));
+        assertThat(reflectionHelper.getBuilderClass(target), is(sameInstance(builder)));
+    }
+
+    @Test
+    public void unregisteredClassesAreFoundByRescan() throws Exception {
+        JPackage _package = new JCodeModel()._package("com.example");
+        JDefinedClass target = _package._class("Parent");
+        JDefinedClass builder = target._class(JMod.PUBLIC + JMod.STATIC, "ParentBuilder");
+
+        assertThat(reflectionHelper.getBuilderClass((JClass) target), is(sameInstance(builder)));
+    }
+
+    @Test
+    public void missesAreRememberedUntilAClassIsRegisteredInThePackage() throws Exception {
+        JPackage _package = new JCodeModel()._package("com.example");
+        JDefinedClass target = _package._class("Parent");
+
+        assertThat(reflectionHelper.getBuilderClass((JClass) target), is(nullValue()));
+
+        JDefinedClass builder = target._class(JMod.PUBLIC + JMod.STATIC, "ParentBuilder");
+
+        // the package is not rescanned for a name it has already missed
+        assertThat(reflectionHelper.getBuilderClass((JClass) target), is(nullValue()));
+
+        reflectionHelper.registerClass(_package._class("Other"));
+
+        assertThat(reflectionHelper.getBuilderClass((JClass) target), is(sameInstance(builder)));
+    }
+
+    @Test
+    public void classesSharingANameAreFoundInPackageOrderWhateverTheRegistrationOrder() throws Exception {
+        JPackage _package = new JCodeModel()._package("com.example");
+        JDefinedClass target = _package._class("Parent");
+        JDefinedClass topLevelBuilder = _package._class("ParentBuilder");
+        JDefinedClass nestedBuilder = target._class(JMod.PUBLIC + JMod.STATIC, "ParentBuilder");
+        reflectionHelper.registerClass(topLevelBuilder);
+        reflectionHelper.registerClass(target);
+        reflectionHelper.registerClass(nestedBuilder);
+
+        assertThat(reflectionHelper.getBuilderClass((JClass) target), is(sameInstance(nestedBuilder)));
+    }
+
+    @Test
+    public void registeredClassIsFoundBeforeAnUnregisteredClassOfTheSameName() throws Exception {
+        JPackage _package = new JCodeModel()._package("com.example");
+        JDefinedClass target = _package._class("Parent");
+        JDefinedClass topLevelBuilder = _package._class("ParentBuilder");
+        target._class(JMod.PUBLIC + JMod.STATIC, "ParentBuilder");
+        reflectionHelper.registerClass(topLevelBuilder);
+
+        // a scan of the package would list Parent.ParentBuilder first, but an indexed class is not looked for again
+        assertThat(reflectionHelper.getBuilderClass((JClass) target), is(sameInstance(topLevelBuilder)));
+    }
+
+    @Test
+    public void fieldsAreFoundThroughSuperClasses() throws Exception {
+        JCodeModel codeModel = new JCodeModel();
+        JPackage _package = codeModel._package("com.example");
+        JDefinedClass grandParent = _package._class("GrandParent");
+        JDefinedClass parent = _package._class("Parent")._extends(grandParent);
+        JDefinedClass child = _package._class("Child")._extends(parent);
+        JFieldVar name = grandParent.field(JMod.PRIVATE, String.class, "name");
+        reflectionHelper.registerClass(grandParent);
+        reflectionHelper.registerClass(parent);
+        reflectionHelper.registerClass(child);
+
+        assertThat(reflectionHelper.searchClassAndSuperClassesForField("name", child), is(sameInstance(name)));
+    }
+
+}
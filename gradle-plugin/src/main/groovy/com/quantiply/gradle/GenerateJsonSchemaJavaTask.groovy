@@ -16,6 +16,7 @@
 package com.quantiply.gradle
 
 import com.quantiply.Jsonschema2Pojo
+import com.quantiply.SchemaDependencyGraph
 import org.gradle.api.DefaultTask
 import org.gradle.api.GradleException
 import org.gradle.api.tasks.TaskAction
@@ -46,7 +47,22 @@ class GenerateJsonSchemaJavaTask extends DefaultTask {
 
       inputs.property("configuration", configuration.toString())
       inputs.files project.files(configuration.sourceFiles)
+      if (configuration.incremental) {
+        inputs.files project.files({ referencedSchemaFiles() })
+      }
+    }
+  }
+
+  /**
+   * Schema files recorded as dependencies by the previous run, including those
+   * outside the source directories that are reached through $ref.
+   */
+  def referencedSchemaFiles() {
+    def graph = SchemaDependencyGraph.read(configuration.targetDirectory)
+    if (graph == null) {
+      return []
     }
+    graph.documents.findAll { it.scheme == 'file' }.collect { new File(it) }.findAll { it.exists() }
   }
 
   def configureJava() {
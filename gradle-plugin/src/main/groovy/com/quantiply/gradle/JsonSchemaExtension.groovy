@@ -85,6 +85,17 @@ public class JsonSchemaExtension implements com.quantiply.GenerationConfig {
   com.quantiply.SourceSortOrder sourceSortOrder
   com.quantiply.Language targetLanguage
   Map<String, String> formatTypeMapping
+  boolean fuseScalaTransformers
+  boolean immutableTypes
+  boolean lazyAdditionalProperties
+  boolean streamOutput
+  boolean skipUnchangedOutput
+  boolean writeGenerationReport
+  boolean offline
+  long remoteCacheTtl
+  File remoteCacheDirectory
+  boolean incremental
+  int generationThreads
 
   public JsonSchemaExtension() {
     // See DefaultGenerationConfig
@@ -108,6 +119,16 @@ public class JsonSchemaExtension implements com.quantiply.GenerationConfig {
     useTitleAsClassname = false
     inclusionLevel = com.quantiply.InclusionLevel.NON_NULL
     customAnnotator = com.quantiply.NoopAnnotator.class
+    fuseScalaTransformers = false
+    immutableTypes = false
+    lazyAdditionalProperties = false
+    streamOutput = false
+    skipUnchangedOutput = false
+    writeGenerationReport = false
+    offline = false
+    remoteCacheTtl = 86400
+    incremental = false
+    generationThreads = 1
     customRuleFactory = RuleFactory.class
     includeJsr303Annotations = false
     includeJsr305Annotations = false
@@ -257,6 +278,17 @@ public class JsonSchemaExtension implements com.quantiply.GenerationConfig {
        |targetLanguage = ${targetLanguage}
        |formatTypeMapping = ${formatTypeMapping}
        |useInnerClassBuilders = ${useInnerClassBuilders}
+       |generationThreads = ${generationThreads}
+       |incremental = ${incremental}
+       |remoteCacheDirectory = ${remoteCacheDirectory}
+       |remoteCacheTtl = ${remoteCacheTtl}
+       |offline = ${offline}
+       |writeGenerationReport = ${writeGenerationReport}
+       |skipUnchangedOutput = ${skipUnchangedOutput}
+       |streamOutput = ${streamOutput}
+       |lazyAdditionalProperties = ${lazyAdditionalProperties}
+       |immutableTypes = ${immutableTypes}
+       |fuseScalaTransformers = ${fuseScalaTransformers}
      """.stripMargin()
   }
   
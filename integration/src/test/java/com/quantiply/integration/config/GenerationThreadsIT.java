@@ -0,0 +1,81 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.quantiply.integration.config;
+
+import static com.quantiply.integration.util.CodeGenerationHelper.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+public class GenerationThreadsIT {
+
+    @Test
+    public void parallelGenerationProducesIdenticalOutputForSchemaDirectory() throws IOException {
+
+        assertIdenticalOutput(getClass().getResource("/schema/sourceSortOrder/"), "jsonschema");
+
+    }
+
+    @Test
+    public void parallelGenerationProducesIdenticalOutputForManySchemas() throws IOException {
+
+        assertIdenticalOutput(getClass().getResource("/schema/properties/"), "jsonschema");
+
+    }
+
+    @Test
+    public void parallelGenerationProducesIdenticalOutputForExampleJson() throws IOException {
+
+        assertIdenticalOutput(getClass().getResource("/json/examples/"), "json");
+
+    }
+
+    private void assertIdenticalOutput(URL source, String sourceType) throws IOException {
+
+        File sequentialOutput = generate(source, "com.example", config("sourceType", sourceType, "generationThreads", 1));
+        File parallelOutput = generate(source, "com.example", config("sourceType", sourceType, "generationThreads", 4));
+
+        List<String> sequentialFiles = relativePaths(sequentialOutput);
+        assertThat(sequentialFiles, is(not(empty())));
+        assertThat(relativePaths(parallelOutput), is(equalTo(sequentialFiles)));
+
+        for (String path : sequentialFiles) {
+            assertThat(path, FileUtils.contentEquals(new File(sequentialOutput, path), new File(parallelOutput, path)), is(true));
+        }
+
+    }
+
+    private List<String> relativePaths(File directory) {
+        Collection<File> files = FileUtils.listFiles(directory, null, true);
+        List<String> paths = new ArrayList<>();
+        for (File file : files) {
+            paths.add(directory.toURI().relativize(file.toURI()).getPath());
+        }
+        Collections.sort(paths);
+        return paths;
+    }
+
+}
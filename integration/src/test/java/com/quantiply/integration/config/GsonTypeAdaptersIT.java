@@ -0,0 +1,115 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.integration.config;
+
+import static com.quantiply.integration.util.CodeGenerationHelper.*;
+import static com.quantiply.integration.util.FileSearchMatcher.containsText;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapterFactory;
+import com.quantiply.integration.util.JsonAssert;
+import com.quantiply.integration.util.Jsonschema2PojoRule;
+
+public class GsonTypeAdaptersIT {
+
+    @Rule
+    public Jsonschema2PojoRule schemaRule = new Jsonschema2PojoRule();
+
+    @Test
+    public void annotationStyleGsonTypeAdaptersGeneratesAdaptersAndFactory() throws ReflectiveOperationException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/json/examples/torrent.json", "com.example",
+                config("annotationStyle", "gson_type_adapters",
+                        "propertyWordDelimiters", "_",
+                        "sourceType", "json"));
+
+        assertThat(schemaRule.getGenerateDir(), containsText("@SerializedName"));
+        assertThat(schemaRule.getGenerateDir(), containsText("class TorrentTypeAdapter"));
+
+        Gson gson = gson(resultsClassLoader);
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.Torrent");
+
+        assertThat(gson.getAdapter(generatedType).getClass().getName(), is("com.example.Torrent$TorrentTypeAdapter"));
+    }
+
+    @Test
+    public void annotationStyleGsonTypeAdaptersMakesTypesThatRoundTrip() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/json/examples/", "com.example",
+                config("annotationStyle", "gson_type_adapters",
+                        "propertyWordDelimiters", "_",
+                        "sourceType", "json",
+                        "useLongIntegers", true));
+
+        assertJsonRoundTrip(resultsClassLoader, "com.example.Torrent", IOUtils.toString(getClass().getResource("/json/examples/torrent.json")));
+        assertJsonRoundTrip(resultsClassLoader, "com.example.GetUserData", IOUtils.toString(getClass().getResource("/json/examples/GetUserData.json")));
+    }
+
+    @Test
+    public void enumValuesAreReadAndWrittenByValue() throws ReflectiveOperationException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/enum/typeWithEnumProperty.json", "com.example",
+                config("annotationStyle", "gson_type_adapters",
+                        "propertyWordDelimiters", "_"));
+
+        Gson gson = gson(resultsClassLoader);
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.TypeWithEnumProperty");
+
+        Object instance = gson.fromJson("{\"enum_Property\" : \"4 ! 1\"}", generatedType);
+        JsonObject json = gson.toJsonTree(instance).getAsJsonObject();
+
+        assertThat(json.get("enum_Property").getAsString(), is("4 ! 1"));
+        assertThat(gson.toJson(gson.fromJson("{\"enum_Property\" : \"unknown\"}", generatedType)), is("{}"));
+    }
+
+    @Test
+    public void inheritedPropertiesAreReadAndWrittenByTheSuperclassAdapter() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/extends/subtypeOfSubtypeOfB.json", "com.example",
+                config("annotationStyle", "gson_type_adapters"));
+
+        assertJsonRoundTrip(resultsClassLoader, "com.example.SubtypeOfSubtypeOfB",
+                "{\"childChildProperty\":\"c\",\"childProperty\":\"b\",\"parentProperty\":\"a\"}");
+    }
+
+    private static Gson gson(ClassLoader resultsClassLoader) throws ReflectiveOperationException {
+        TypeAdapterFactory factory = (TypeAdapterFactory) resultsClassLoader.loadClass("com.example.GsonTypeAdapterFactory").newInstance();
+        return new GsonBuilder().registerTypeAdapterFactory(factory).create();
+    }
+
+    private static void assertJsonRoundTrip(ClassLoader resultsClassLoader, String className, String json) throws ReflectiveOperationException {
+        Gson gson = gson(resultsClassLoader);
+        Class<?> generatedType = resultsClassLoader.loadClass(className);
+
+        Object javaInstance = gson.fromJson(json, generatedType);
+        String actualJson = gson.toJson(javaInstance);
+
+        JsonAssert.assertEqualsJson(json, actualJson);
+        JsonAssert.assertEqualsJson(new Gson().toJson(javaInstance), actualJson);
+    }
+
+}
@@ -0,0 +1,232 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.integration.config;
+
+import static com.quantiply.integration.util.CodeGenerationHelper.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quantiply.integration.util.Jsonschema2PojoRule;
+
+public class ImmutableTypesIT {
+
+    @Rule
+    public Jsonschema2PojoRule schemaRule = new Jsonschema2PojoRule();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void immutableTypesHaveFinalFieldsAndNoSettersOrBuilders() throws ClassNotFoundException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/immutable/valueType.json", "com.example",
+                config("immutableTypes", true,
+                        "generateBuilders", true,
+                        "includeDynamicAccessors", true));
+
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.ValueType");
+
+        for (String fieldName : Arrays.asList("name", "tags", "ids", "count", "additionalProperties")) {
+            assertThat(fieldName, hasModifier(generatedType, fieldName, Modifier.FINAL), is(true));
+        }
+
+        for (Method method : generatedType.getMethods()) {
+            assertThat(method.getName(), not(startsWith("set")));
+            assertThat(method.getName(), not(startsWith("with")));
+        }
+        assertThat(generatedType.getDeclaredClasses().length, is(0));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void collectionsAreCopiedIntoUnmodifiableCollections() throws ReflectiveOperationException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/immutable/valueType.json", "com.example",
+                config("immutableTypes", true));
+
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.ValueType");
+        Constructor<?> constructor = generatedType.getConstructor(String.class, List.class, Set.class, Integer.class);
+
+        List<String> tags = new ArrayList<>(Arrays.asList("a", "b"));
+        Set<Integer> ids = new LinkedHashSet<>(Arrays.asList(1, 2));
+        Object instance = constructor.newInstance("x", tags, ids, 5);
+        tags.add("c");
+        ids.add(3);
+
+        List<String> instanceTags = (List<String>) generatedType.getMethod("getTags").invoke(instance);
+        Set<Integer> instanceIds = (Set<Integer>) generatedType.getMethod("getIds").invoke(instance);
+        assertThat(instanceTags, contains("a", "b"));
+        assertThat(instanceIds, contains(1, 2));
+        assertUnmodifiable(instanceTags);
+        assertUnmodifiable(instanceIds);
+
+        Object withoutCollections = constructor.newInstance("x", null, null, 5);
+        assertThat(generatedType.getMethod("getTags").invoke(withoutCollections), is(nullValue()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void noArgsConstructorAssignsDefaults() throws ReflectiveOperationException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/immutable/valueType.json", "com.example",
+                config("immutableTypes", true));
+
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.ValueType");
+        Object instance = generatedType.newInstance();
+
+        assertThat(generatedType.getMethod("getName").invoke(instance), is(nullValue()));
+        assertThat(generatedType.getMethod("getCount").invoke(instance), is((Object) 3));
+        List<String> tags = (List<String>) generatedType.getMethod("getTags").invoke(instance);
+        assertThat(tags, is(empty()));
+        assertUnmodifiable(tags);
+    }
+
+    @Test
+    public void defaultsOfAllTypesCanBeAssignedByTheConstructor() throws ReflectiveOperationException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/default/default.json", "com.example",
+                config("immutableTypes", true));
+
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.Default");
+        Object instance = generatedType.newInstance();
+
+        assertThat(generatedType.getMethod("getStringWithDefault").invoke(instance), is((Object) "abc"));
+        assertThat(generatedType.getMethod("getIntegerWithDefault").invoke(instance), is((Object) 1337));
+        assertThat(generatedType.getMethod("getBooleanWithDefault").invoke(instance), is((Object) true));
+        assertThat(generatedType.getMethod("getArrayPropertyWithNullDefault").invoke(instance), is(nullValue()));
+        assertThat((List<?>) generatedType.getMethod("getArrayWithDefault").invoke(instance), contains((Object) "one", "two", "three"));
+    }
+
+    @Test
+    public void hashCodeIsCachedAndUsedByEquals() throws ReflectiveOperationException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/immutable/valueType.json", "com.example",
+                config("immutableTypes", true));
+
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.ValueType");
+        Constructor<?> constructor = generatedType.getConstructor(String.class, List.class, Set.class, Integer.class);
+
+        Object instance = constructor.newInstance("x", Arrays.asList("a"), null, 5);
+        Object equalInstance = constructor.newInstance("x", Arrays.asList("a"), null, 5);
+        Object otherInstance = constructor.newInstance("y", Arrays.asList("a"), null, 5);
+
+        assertThat(cachedHashCode(instance), is(0));
+        int hashCode = instance.hashCode();
+        assertThat(cachedHashCode(instance), is(hashCode));
+        assertThat(instance.hashCode(), is(hashCode));
+
+        assertThat(instance, is(equalTo(equalInstance)));
+        assertThat(equalInstance.hashCode(), is(hashCode));
+        assertThat(instance, is(equalTo(equalInstance)));
+
+        otherInstance.hashCode();
+        assertThat(instance, is(not(equalTo(otherInstance))));
+        assertThat(otherInstance, is(not(equalTo(instance))));
+    }
+
+    @Test
+    public void cachedHashCodeDoesNotCollideWithPropertyOfTheSameName() throws ReflectiveOperationException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/immutable/propertyCalledCachedHashCode.json", "com.example",
+                config("immutableTypes", true));
+
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.PropertyCalledCachedHashCode");
+        Constructor<?> constructor = generatedType.getConstructor(String.class, String.class);
+
+        Object instance = constructor.newInstance("x", "y");
+        assertThat(generatedType.getMethod("getCachedHashCode").invoke(instance), is((Object) "y"));
+
+        int hashCode = instance.hashCode();
+        Field field = generatedType.getDeclaredField("cachedHashCode2");
+        field.setAccessible(true);
+        assertThat(field.getInt(instance), is(hashCode));
+
+        assertThat(instance, is(equalTo(constructor.newInstance("x", "y"))));
+        assertThat(instance, is(not(equalTo(constructor.newInstance("x", "z")))));
+    }
+
+    @Test
+    public void immutableTypesCanBeReadAndWritten() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/immutable/valueType.json", "com.example",
+                config("immutableTypes", true));
+
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.ValueType");
+        Constructor<?> constructor = generatedType.getConstructor(String.class, List.class, Set.class, Integer.class);
+
+        Object instance = mapper.readValue("{\"name\":\"x\",\"tags\":[\"a\"],\"extra\":true}", generatedType);
+
+        assertThat(instance, is(equalTo(constructor.newInstance("x", Arrays.asList("a"), null, 3))));
+        assertThat(mapper.readTree(mapper.writeValueAsString(instance)),
+                is(mapper.readTree("{\"name\":\"x\",\"tags\":[\"a\"],\"count\":3,\"extra\":true}")));
+    }
+
+    @Test
+    public void constructorsOfSubtypesPassInheritedPropertiesToTheirSupertype() throws ReflectiveOperationException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/extends/subtypeOfSubtypeOfB.json", "com.example",
+                config("immutableTypes", true));
+
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.SubtypeOfSubtypeOfB");
+        Object instance = generatedType.getConstructor(String.class, String.class, String.class).newInstance("a", "b", "c");
+
+        assertThat(generatedType.getMethod("getChildChildProperty").invoke(instance), is((Object) "a"));
+        assertThat(generatedType.getMethod("getChildProperty").invoke(instance), is((Object) "b"));
+        assertThat(generatedType.getMethod("getParentProperty").invoke(instance), is((Object) "c"));
+        assertThat(instance.hashCode(), is(generatedType.getConstructor(String.class, String.class, String.class).newInstance("a", "b", "c").hashCode()));
+    }
+
+    private static boolean hasModifier(Class<?> type, String fieldName, int modifier) {
+        try {
+            return (type.getDeclaredField(fieldName).getModifiers() & modifier) == modifier;
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+    }
+
+    private static int cachedHashCode(Object instance) throws ReflectiveOperationException {
+        Field field = instance.getClass().getDeclaredField("cachedHashCode");
+        field.setAccessible(true);
+        return field.getInt(instance);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void assertUnmodifiable(Collection<?> collection) {
+        try {
+            ((Collection<Object>) collection).add(null);
+        } catch (UnsupportedOperationException e) {
+            return;
+        }
+        throw new AssertionError("Expected an unmodifiable collection but got " + collection);
+    }
+
+}
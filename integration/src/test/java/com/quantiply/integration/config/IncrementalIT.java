@@ -0,0 +1,263 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.integration.config;
+
+import static com.quantiply.integration.util.CodeGenerationHelper.*;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.quantiply.CachingContentResolver;
+import com.quantiply.ContentResolver;
+import com.quantiply.DefaultGenerationConfig;
+import com.quantiply.GenerationConfig;
+import com.quantiply.GenerationMetrics;
+import com.quantiply.Jsonschema2Pojo;
+import com.quantiply.SchemaDependencyGraph;
+
+public class IncrementalIT {
+
+    private static final long EARLIER = 1000000000000L;
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private File sourceDirectory;
+    private File sharedDirectory;
+    private File outputDirectory;
+
+    @Before
+    public void writeSchemas() throws IOException {
+        sourceDirectory = folder.newFolder("schema");
+        sharedDirectory = folder.newFolder("shared");
+        outputDirectory = folder.newFolder("output");
+
+        write(new File(sourceDirectory, "a.json"), "{\"type\":\"object\",\"properties\":{\"b\":{\"$ref\":\"../shared/b.json\"}}}");
+        write(new File(sourceDirectory, "c.json"), "{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"}}}");
+        write(new File(sharedDirectory, "b.json"), "{\"type\":\"object\",\"properties\":{\"value\":{\"type\":\"string\"}}}");
+    }
+
+    @Test
+    public void dependencyGraphIsRecordedInTargetDirectory() throws IOException {
+
+        generateIncrementally();
+
+        SchemaDependencyGraph graph = SchemaDependencyGraph.read(outputDirectory);
+
+        assertThat(graph, is(notNullValue()));
+        assertThat(graph.getDocuments(), hasItem(new File(sharedDirectory, "b.json").toURI()));
+        assertThat(graph.getOutputs(), hasItems("com/example/A.java", "com/example/B.java", "com/example/C.java"));
+        assertThat(graph.getAffectedTypes(singletonList(new File(sharedDirectory, "b.json").toURI())), contains("com.example.A", "com.example.B"));
+
+    }
+
+    @Test
+    public void unchangedSchemasAreNotRegenerated() throws IOException {
+
+        generateIncrementally();
+        markOutputAsEarlier();
+
+        generateIncrementally();
+
+        for (File output : outputFiles()) {
+            assertThat(output.getName(), output.lastModified(), is(EARLIER));
+        }
+
+    }
+
+    @Test
+    public void changeToReferencedSchemaOnlyRewritesChangedFiles() throws IOException {
+
+        generateIncrementally();
+        markOutputAsEarlier();
+
+        write(new File(sharedDirectory, "b.json"), "{\"type\":\"object\",\"properties\":{\"value\":{\"type\":\"string\"},\"count\":{\"type\":\"integer\"}}}");
+        generateIncrementally();
+
+        File b = new File(outputDirectory, "com/example/B.java");
+        assertThat(b.lastModified(), is(not(EARLIER)));
+        assertThat(FileUtils.readFileToString(b, StandardCharsets.UTF_8), containsString("count"));
+        assertThat(new File(outputDirectory, "com/example/A.java").lastModified(), is(EARLIER));
+        assertThat(new File(outputDirectory, "com/example/C.java").lastModified(), is(EARLIER));
+
+    }
+
+    @Test
+    public void typesNoLongerGeneratedAreRemoved() throws IOException {
+
+        generateIncrementally();
+
+        assertThat(new File(sourceDirectory, "c.json").delete(), is(true));
+        generateIncrementally();
+
+        assertThat(new File(outputDirectory, "com/example/A.java").exists(), is(true));
+        assertThat(new File(outputDirectory, "com/example/C.java").exists(), is(false));
+
+    }
+
+    @Test
+    public void onlySourcesAffectedByChangeAreGeneratedAgain() throws IOException {
+
+        generateIncrementally();
+
+        File c = new File(outputDirectory, "com/example/C.java");
+        write(c, "// left alone while c.json is unchanged");
+
+        write(new File(sharedDirectory, "b.json"), "{\"type\":\"object\",\"properties\":{\"count\":{\"type\":\"integer\"}}}");
+        generateIncrementally();
+
+        assertThat(FileUtils.readFileToString(new File(outputDirectory, "com/example/B.java"), StandardCharsets.UTF_8), containsString("count"));
+        assertThat(FileUtils.readFileToString(c, StandardCharsets.UTF_8), is("// left alone while c.json is unchanged"));
+        assertThat(SchemaDependencyGraph.read(outputDirectory).getOutputs(), hasItems("com/example/A.java", "com/example/B.java", "com/example/C.java"));
+
+    }
+
+    @Test
+    public void typesNoLongerGeneratedByAffectedSourceAreRemoved() throws IOException {
+
+        write(new File(sourceDirectory, "c.json"), "{\"type\":\"object\",\"properties\":{\"d\":{\"type\":\"object\",\"javaType\":\"com.example.D\"}}}");
+        generateIncrementally();
+        assertThat(new File(outputDirectory, "com/example/D.java").exists(), is(true));
+
+        write(new File(sourceDirectory, "c.json"), "{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"}}}");
+        generateIncrementally();
+
+        assertThat(new File(outputDirectory, "com/example/C.java").exists(), is(true));
+        assertThat(new File(outputDirectory, "com/example/D.java").exists(), is(false));
+        assertThat(SchemaDependencyGraph.read(outputDirectory).getOutputs(), not(hasItem("com/example/D.java")));
+
+    }
+
+    @Test
+    public void typeNamedLikeTypeOfUnaffectedSourceIsRenamedAsInFullRun() throws IOException {
+
+        generateIncrementally();
+
+        write(new File(sourceDirectory, "c.json"), "{\"type\":\"object\",\"properties\":{\"a\":{\"type\":\"object\",\"properties\":{\"x\":{\"type\":\"string\"}}}}}");
+        generateIncrementally();
+
+        assertThat(FileUtils.readFileToString(new File(outputDirectory, "com/example/A.java"), StandardCharsets.UTF_8), containsString("getB"));
+        assertThat(FileUtils.readFileToString(new File(outputDirectory, "com/example/A__1.java"), StandardCharsets.UTF_8), containsString("getX"));
+        assertThat(SchemaDependencyGraph.read(outputDirectory).getOutputs(), hasItems("com/example/A.java", "com/example/A__1.java", "com/example/C.java"));
+
+    }
+
+    @Test
+    public void sourceReferencingTypeOfUnaffectedSourceIsGeneratedAlone() throws IOException {
+
+        write(new File(sourceDirectory, "c.json"), "{\"type\":\"object\",\"properties\":{\"b\":{\"$ref\":\"../shared/b.json\"}}}");
+        generateIncrementally();
+        markOutputAsEarlier();
+
+        File a = new File(outputDirectory, "com/example/A.java");
+        write(a, "// left alone while a.json is unchanged");
+
+        write(new File(sourceDirectory, "c.json"), "{\"type\":\"object\",\"properties\":{\"b\":{\"$ref\":\"../shared/b.json\"},\"name\":{\"type\":\"string\"}}}");
+        generateIncrementally();
+
+        assertThat(FileUtils.readFileToString(new File(outputDirectory, "com/example/C.java"), StandardCharsets.UTF_8), containsString("getName"));
+        assertThat(FileUtils.readFileToString(a, StandardCharsets.UTF_8), is("// left alone while a.json is unchanged"));
+        assertThat(new File(outputDirectory, "com/example/B.java").lastModified(), is(EARLIER));
+        assertThat(SchemaDependencyGraph.read(outputDirectory).getOutputs(), hasItems("com/example/A.java", "com/example/B.java", "com/example/C.java"));
+
+    }
+
+    @Test
+    public void generationReportIsWrittenWithoutRegeneratingUpToDateOutput() throws IOException {
+
+        generateIncrementally();
+        markOutputAsEarlier();
+
+        generate(sourceDirectory.toURI().toURL(), "com.example", config("incremental", true, "writeGenerationReport", true), outputDirectory);
+
+        assertThat(new File(outputDirectory, GenerationMetrics.REPORT_FILE_NAME + ".json").isFile(), is(true));
+        for (File output : outputFiles()) {
+            assertThat(output.getName(), output.lastModified(), is(EARLIER));
+        }
+
+    }
+
+    @Test
+    public void sameLengthEditWithinTheSameSecondIsPickedUpThroughASharedCachingResolver() throws IOException {
+
+        File c = new File(sourceDirectory, "c.json");
+        assertThat(c.setLastModified(EARLIER), is(true));
+        ContentResolver contentResolver = new CachingContentResolver(new ContentResolver());
+        GenerationConfig config = new DefaultGenerationConfig() {
+            @Override
+            public Iterator<URL> getSource() {
+                try {
+                    return singletonList(sourceDirectory.toURI().toURL()).iterator();
+                } catch (MalformedURLException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public File getTargetDirectory() {
+                return outputDirectory;
+            }
+
+            @Override
+            public String getTargetPackage() {
+                return "com.example";
+            }
+
+            @Override
+            public boolean isIncremental() {
+                return true;
+            }
+        };
+        Jsonschema2Pojo.generate(config, contentResolver);
+
+        write(c, "{\"type\":\"object\",\"properties\":{\"nick\":{\"type\":\"string\"}}}");
+        assertThat(c.setLastModified(EARLIER), is(true));
+        Jsonschema2Pojo.generate(config, contentResolver);
+
+        assertThat(FileUtils.readFileToString(new File(outputDirectory, "com/example/C.java"), StandardCharsets.UTF_8), containsString("getNick"));
+
+    }
+
+    private void generateIncrementally() throws IOException {
+        URL source = sourceDirectory.toURI().toURL();
+        generate(source, "com.example", config("incremental", true), outputDirectory);
+    }
+
+    private void markOutputAsEarlier() {
+        for (File output : outputFiles()) {
+            assertThat(output.setLastModified(EARLIER), is(true));
+        }
+    }
+
+    private Collection<File> outputFiles() {
+        return FileUtils.listFiles(outputDirectory, new String[] { "java" }, true);
+    }
+
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.integration.config;
+
+import static com.quantiply.integration.util.CodeGenerationHelper.*;
+import static com.quantiply.integration.util.FileSearchMatcher.containsText;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quantiply.integration.util.JsonAssert;
+import com.quantiply.integration.util.Jsonschema2PojoRule;
+
+public class Jackson2SerializersIT {
+
+    @Rule
+    public Jsonschema2PojoRule schemaRule = new Jsonschema2PojoRule();
+
+    @Test
+    public void annotationStyleJackson2SerializersGeneratesCompanionsAndModule() throws ReflectiveOperationException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/json/examples/torrent.json", "com.example",
+                config("annotationStyle", "jackson2_serializers",
+                        "propertyWordDelimiters", "_",
+                        "sourceType", "json"));
+
+        assertThat(schemaRule.getGenerateDir(), containsText("@com.fasterxml.jackson.annotation.JsonProperty"));
+        assertThat(schemaRule.getGenerateDir(), containsText("class TorrentSerializer"));
+        assertThat(schemaRule.getGenerateDir(), containsText("class TorrentDeserializer"));
+
+        ObjectMapper mapper = new ObjectMapper().registerModule(module(resultsClassLoader));
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.Torrent");
+
+        assertThat(mapper.getSerializerProviderInstance().findValueSerializer(generatedType).getClass().getName(),
+                is("com.example.Torrent$TorrentSerializer"));
+    }
+
+    @Test
+    public void annotationStyleJackson2SerializersMakesTypesThatRoundTrip() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/json/examples/", "com.example",
+                config("annotationStyle", "jackson2_serializers",
+                        "propertyWordDelimiters", "_",
+                        "sourceType", "json",
+                        "useLongIntegers", true));
+
+        assertJsonRoundTrip(resultsClassLoader, "com.example.Torrent", IOUtils.toString(getClass().getResource("/json/examples/torrent.json")));
+        assertJsonRoundTrip(resultsClassLoader, "com.example.GetUserData", IOUtils.toString(getClass().getResource("/json/examples/GetUserData.json")));
+    }
+
+    @Test
+    public void enumValuesAreReadAndWrittenByValue() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/enum/typeWithEnumProperty.json", "com.example",
+                config("annotationStyle", "jackson2_serializers",
+                        "propertyWordDelimiters", "_"));
+
+        ObjectMapper mapper = new ObjectMapper().registerModule(module(resultsClassLoader));
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.TypeWithEnumProperty");
+
+        Object instance = mapper.readValue("{\"enum_Property\" : \"4 ! 1\"}", generatedType);
+        JsonNode json = mapper.valueToTree(instance);
+
+        assertThat(json.get("enum_Property").asText(), is("4 ! 1"));
+    }
+
+    @Test
+    public void additionalPropertiesAreReadAndWritten() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/additionalProperties/additionalPropertiesString.json", "com.example",
+                config("annotationStyle", "jackson2_serializers"));
+
+        assertJsonRoundTrip(resultsClassLoader, "com.example.AdditionalPropertiesString", "{\"a\":\"1\",\"b\":\"2\"}");
+    }
+
+    @Test
+    public void inheritedPropertiesAreReadAndWrittenByTheSuperclassCompanions() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/extends/subtypeOfSubtypeOfB.json", "com.example",
+                config("annotationStyle", "jackson2_serializers"));
+
+        assertJsonRoundTrip(resultsClassLoader, "com.example.SubtypeOfSubtypeOfB",
+                "{\"childChildProperty\":\"c\",\"childProperty\":\"b\",\"parentProperty\":\"a\"}");
+    }
+
+    @Test
+    public void subclassWithoutCompanionsIsNotWrittenByTheSuperclassSerializer() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/extends/subtypeOfBWithFormattedDateTime.json", "com.example",
+                config("annotationStyle", "jackson2_serializers",
+                        "formatDateTimes", true));
+
+        assertThat(schemaRule.getGenerateDir(), containsText("class BSerializer"));
+        assertThat(schemaRule.getGenerateDir(), not(containsText("class SubtypeOfBWithFormattedDateTimeSerializer")));
+
+        assertJsonRoundTrip(resultsClassLoader, "com.example.SubtypeOfBWithFormattedDateTime",
+                "{\"childDateTime\":\"2001-09-09T01:46:39.999Z\",\"parentProperty\":\"a\"}");
+    }
+
+    private static Module module(ClassLoader resultsClassLoader) throws ReflectiveOperationException {
+        return (Module) resultsClassLoader.loadClass("com.example.Jackson2SerializersModule").newInstance();
+    }
+
+    private static void assertJsonRoundTrip(ClassLoader resultsClassLoader, String className, String json) throws ReflectiveOperationException, IOException {
+        ObjectMapper mapper = new ObjectMapper().registerModule(module(resultsClassLoader));
+        Class<?> generatedType = resultsClassLoader.loadClass(className);
+
+        Object javaInstance = mapper.readValue(json, generatedType);
+        String actualJson = mapper.writeValueAsString(javaInstance);
+
+        JsonAssert.assertEqualsJson(json, actualJson);
+        JsonAssert.assertEqualsJson(new ObjectMapper().writeValueAsString(javaInstance), actualJson);
+    }
+
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.integration.config;
+
+import static com.quantiply.integration.util.CodeGenerationHelper.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quantiply.integration.util.Jsonschema2PojoRule;
+
+public class LazyAdditionalPropertiesIT {
+
+    @Rule
+    public Jsonschema2PojoRule schemaRule = new Jsonschema2PojoRule();
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void additionalPropertiesStartOutAsSharedEmptyMap() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/additionalProperties/defaultAdditionalProperties.json", "com.example",
+                config("lazyAdditionalProperties", true));
+
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.DefaultAdditionalProperties");
+
+        Object instance = generatedType.newInstance();
+        Object other = generatedType.newInstance();
+        assertThat(additionalPropertiesField(instance), is(sameInstance(additionalPropertiesField(other))));
+
+        Object deserialized = mapper.readValue("{}", generatedType);
+        assertThat(additionalPropertiesField(deserialized), is(sameInstance(additionalPropertiesField(instance))));
+    }
+
+    @Test
+    public void serializationLeavesAdditionalPropertiesUnallocated() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/additionalProperties/defaultAdditionalProperties.json", "com.example",
+                config("lazyAdditionalProperties", true));
+
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.DefaultAdditionalProperties");
+
+        Object instance = generatedType.newInstance();
+        Map<?, ?> sharedEmptyMap = additionalPropertiesField(instance);
+
+        assertThat(mapper.writeValueAsString(instance), is("{}"));
+        assertThat(additionalPropertiesField(instance), is(sameInstance(sharedEmptyMap)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void additionalPropertiesAreAllocatedWhenFirstAdded() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/additionalProperties/defaultAdditionalProperties.json", "com.example",
+                config("lazyAdditionalProperties", true));
+
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.DefaultAdditionalProperties");
+
+        Object deserialized = mapper.readValue("{\"a\":\"1\",\"b\":2}", generatedType);
+        Map<String, Object> additionalProperties = (Map<String, Object>) generatedType.getMethod("getAdditionalProperties").invoke(deserialized);
+        assertThat(additionalProperties.size(), is(2));
+        assertThat(additionalProperties.get("a"), is((Object) "1"));
+        assertThat(mapper.writeValueAsString(deserialized), is("{\"a\":\"1\",\"b\":2}"));
+
+        Object instance = generatedType.newInstance();
+        ((Map<String, Object>) generatedType.getMethod("getAdditionalProperties").invoke(instance)).put("c", "3");
+        assertThat(mapper.writeValueAsString(instance), is("{\"c\":\"3\"}"));
+        assertThat(additionalPropertiesField(generatedType.newInstance()).isEmpty(), is(true));
+    }
+
+    @Test
+    public void unallocatedAdditionalPropertiesBehaveAsAnEmptyMap() throws ReflectiveOperationException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/additionalProperties/defaultAdditionalProperties.json", "com.example",
+                config("lazyAdditionalProperties", true, "includeDynamicAccessors", true));
+
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.DefaultAdditionalProperties");
+
+        Object instance = generatedType.newInstance();
+        assertThat(generatedType.getMethod("get", String.class).invoke(instance, "a"), is(nullValue()));
+        Map<?, ?> sharedEmptyMap = additionalPropertiesField(instance);
+
+        Object allocated = generatedType.newInstance();
+        generatedType.getMethod("getAdditionalProperties").invoke(allocated);
+        assertThat(additionalPropertiesField(instance), is(sameInstance(sharedEmptyMap)));
+        assertThat(additionalPropertiesField(allocated), is(not(sameInstance(sharedEmptyMap))));
+
+        assertThat(instance, is(equalTo(allocated)));
+        assertThat(instance.hashCode(), is(allocated.hashCode()));
+        assertThat(instance.toString().replaceAll("@[0-9a-f]+", ""), is(allocated.toString().replaceAll("@[0-9a-f]+", "")));
+    }
+
+    private static Map<?, ?> additionalPropertiesField(Object instance) throws ReflectiveOperationException {
+        Field field = instance.getClass().getDeclaredField("additionalProperties");
+        field.setAccessible(true);
+        return (Map<?, ?>) field.get(instance);
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.integration.config;
+
+import static com.quantiply.integration.util.CodeGenerationHelper.*;
+import static com.quantiply.integration.util.FileSearchMatcher.containsText;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.quantiply.integration.util.JsonAssert;
+import com.quantiply.integration.util.Jsonschema2PojoRule;
+import com.squareup.moshi.JsonAdapter;
+import com.squareup.moshi.JsonDataException;
+import com.squareup.moshi.Moshi;
+
+public class Moshi1JsonAdaptersIT {
+
+    @Rule
+    public Jsonschema2PojoRule schemaRule = new Jsonschema2PojoRule();
+
+    @Test
+    public void annotationStyleMoshi1JsonAdaptersGeneratesAdaptersAndFactory() throws ReflectiveOperationException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/json/examples/torrent.json", "com.example",
+                config("annotationStyle", "moshi1_json_adapters",
+                        "propertyWordDelimiters", "_",
+                        "sourceType", "json"));
+
+        assertThat(schemaRule.getGenerateDir(), containsText("@com.squareup.moshi.Json"));
+        assertThat(schemaRule.getGenerateDir(), containsText("class TorrentJsonAdapter"));
+
+        Moshi moshi = moshi(resultsClassLoader);
+        Class<?> generatedType = resultsClassLoader.loadClass("com.example.Torrent");
+
+        assertThat(moshi.adapter(generatedType).getClass().getName(), is("com.example.Torrent$TorrentJsonAdapter"));
+    }
+
+    @Test
+    public void annotationStyleMoshi1JsonAdaptersMakesTypesThatRoundTrip() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/json/examples/", "com.example",
+                config("annotationStyle", "moshi1_json_adapters",
+                        "propertyWordDelimiters", "_",
+                        "sourceType", "json",
+                        "useLongIntegers", true));
+
+        assertJsonRoundTrip(resultsClassLoader, "com.example.Torrent", IOUtils.toString(getClass().getResource("/json/examples/torrent.json")));
+        assertJsonRoundTrip(resultsClassLoader, "com.example.GetUserData", IOUtils.toString(getClass().getResource("/json/examples/GetUserData.json")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void enumValuesAreReadAndWrittenByValue() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/enum/typeWithEnumProperty.json", "com.example",
+                config("annotationStyle", "moshi1_json_adapters",
+                        "propertyWordDelimiters", "_"));
+
+        JsonAdapter<Object> adapter = (JsonAdapter<Object>) moshi(resultsClassLoader).adapter(resultsClassLoader.loadClass("com.example.TypeWithEnumProperty"));
+
+        assertThat(adapter.toJson(adapter.fromJson("{\"enum_Property\" : \"4 ! 1\"}")), is("{\"enum_Property\":\"4 ! 1\"}"));
+    }
+
+    @Test(expected = JsonDataException.class)
+    @SuppressWarnings("unchecked")
+    public void unknownEnumValuesAreRejected() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/enum/typeWithEnumProperty.json", "com.example",
+                config("annotationStyle", "moshi1_json_adapters",
+                        "propertyWordDelimiters", "_"));
+
+        JsonAdapter<Object> adapter = (JsonAdapter<Object>) moshi(resultsClassLoader).adapter(resultsClassLoader.loadClass("com.example.TypeWithEnumProperty"));
+
+        adapter.fromJson("{\"enum_Property\" : \"unknown\"}");
+    }
+
+    @Test
+    public void inheritedPropertiesAreReadAndWrittenByTheSuperclassAdapter() throws ReflectiveOperationException, IOException {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/schema/extends/subtypeOfSubtypeOfB.json", "com.example",
+                config("annotationStyle", "moshi1_json_adapters"));
+
+        assertJsonRoundTrip(resultsClassLoader, "com.example.SubtypeOfSubtypeOfB",
+                "{\"childChildProperty\":\"c\",\"childProperty\":\"b\",\"parentProperty\":\"a\"}");
+    }
+
+    private static Moshi moshi(ClassLoader resultsClassLoader) throws ReflectiveOperationException {
+        JsonAdapter.Factory factory = (JsonAdapter.Factory) resultsClassLoader.loadClass("com.example.Moshi1JsonAdapterFactory").newInstance();
+        return new Moshi.Builder().add(factory).build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void assertJsonRoundTrip(ClassLoader resultsClassLoader, String className, String json) throws ReflectiveOperationException, IOException {
+        Class<?> generatedType = resultsClassLoader.loadClass(className);
+        JsonAdapter<Object> adapter = (JsonAdapter<Object>) moshi(resultsClassLoader).adapter(generatedType);
+
+        Object javaInstance = adapter.fromJson(json);
+        String actualJson = adapter.toJson(javaInstance);
+
+        JsonAssert.assertEqualsJson(json, actualJson);
+        JsonAssert.assertEqualsJson(((JsonAdapter<Object>) new Moshi.Builder().build().adapter(generatedType)).toJson(javaInstance), actualJson);
+    }
+
+}
@@ -23,6 +23,10 @@ import org.junit.Test;
 import static org.junit.Assert.*;
 
 import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+
+import org.apache.commons.io.FileUtils;
 
 public class ScalaIT {
 
@@ -35,4 +39,20 @@ public class ScalaIT {
         
         assertTrue(new File(outputDirectory, "com/example/PrimitiveProperties.scala").exists());
     }
+
+    @Test
+    public void scalaFilesAreIdenticalWhenConvertedInParallel() throws IOException {
+        File sequentialOutput = CodeGenerationHelper.generate(getClass().getResource("/schema/properties/"), "com.example",
+                CodeGenerationHelper.config("targetLanguage", "scala", "generationThreads", 1));
+        File parallelOutput = CodeGenerationHelper.generate(getClass().getResource("/schema/properties/"), "com.example",
+                CodeGenerationHelper.config("targetLanguage", "scala", "generationThreads", 4));
+
+        Collection<File> scalaFiles = FileUtils.listFiles(sequentialOutput, new String[] { "scala" }, true);
+        assertFalse(scalaFiles.isEmpty());
+
+        for (File sequentialFile : scalaFiles) {
+            File parallelFile = new File(parallelOutput, sequentialOutput.toURI().relativize(sequentialFile.toURI()).getPath());
+            assertTrue(parallelFile.getName(), FileUtils.contentEquals(sequentialFile, parallelFile));
+        }
+    }
 }
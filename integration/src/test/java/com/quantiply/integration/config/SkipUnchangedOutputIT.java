@@ -0,0 +1,130 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.integration.config;
+
+import static com.quantiply.integration.util.CodeGenerationHelper.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SkipUnchangedOutputIT {
+
+    private static final long EARLIER = 1000000000000L;
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private File sourceDirectory;
+    private File outputDirectory;
+
+    @Before
+    public void writeSchemas() throws IOException {
+        sourceDirectory = folder.newFolder("schema");
+        outputDirectory = folder.newFolder("output");
+
+        write(new File(sourceDirectory, "a.json"), "{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"}}}");
+        write(new File(new File(sourceDirectory, "nested"), "c.json"), "{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"}}}");
+    }
+
+    @Test
+    public void onlyChangedFilesAreRewritten() throws IOException {
+
+        generateSkippingUnchanged();
+        markOutputAsEarlier();
+
+        write(new File(sourceDirectory, "a.json"), "{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"},\"count\":{\"type\":\"integer\"}}}");
+        generateSkippingUnchanged();
+
+        File a = new File(outputDirectory, "com/example/A.java");
+        assertThat(a.lastModified(), is(not(EARLIER)));
+        assertThat(FileUtils.readFileToString(a, StandardCharsets.UTF_8), containsString("count"));
+        assertThat(new File(outputDirectory, "com/example/nested/C.java").lastModified(), is(EARLIER));
+        assertThat(FileUtils.listFiles(outputDirectory, new String[] { "tmp" }, true), is(empty()));
+
+    }
+
+    @Test
+    public void removeOldOutputLeavesUnchangedFilesUntouched() throws IOException {
+
+        generateSkippingUnchanged();
+        markOutputAsEarlier();
+
+        Map<String, Object> config = config("skipUnchangedOutput", true, "removeOldOutput", true);
+        generate(sourceDirectory.toURI().toURL(), "com.example", config, outputDirectory);
+
+        for (File output : outputFiles()) {
+            assertThat(output.getName(), output.lastModified(), is(EARLIER));
+        }
+
+    }
+
+    @Test
+    public void removeOldOutputRemovesFilesNotProducedByFirstRun() throws IOException {
+
+        File stale = new File(outputDirectory, "com/example/old/Stale.java");
+        write(stale, "// left by an earlier build");
+
+        Map<String, Object> config = config("skipUnchangedOutput", true, "removeOldOutput", true);
+        generate(sourceDirectory.toURI().toURL(), "com.example", config, outputDirectory);
+
+        assertThat(stale.exists(), is(false));
+        assertThat(new File(outputDirectory, "com/example/old").exists(), is(false));
+        assertThat(new File(outputDirectory, "com/example/A.java").exists(), is(true));
+        assertThat(new File(outputDirectory, "com/example/nested/C.java").exists(), is(true));
+
+    }
+
+    @Test
+    public void filesNoLongerGeneratedAreRemoved() throws IOException {
+
+        generateSkippingUnchanged();
+
+        FileUtils.deleteDirectory(new File(sourceDirectory, "nested"));
+        generateSkippingUnchanged();
+
+        assertThat(new File(outputDirectory, "com/example/A.java").exists(), is(true));
+        assertThat(new File(outputDirectory, "com/example/nested").exists(), is(false));
+
+    }
+
+    private void generateSkippingUnchanged() throws IOException {
+        URL source = sourceDirectory.toURI().toURL();
+        generate(source, "com.example", config("skipUnchangedOutput", true), outputDirectory);
+    }
+
+    private void markOutputAsEarlier() {
+        for (File output : outputFiles()) {
+            assertThat(output.setLastModified(EARLIER), is(true));
+        }
+    }
+
+    private Collection<File> outputFiles() {
+        return FileUtils.listFiles(outputDirectory, new String[] { "java" }, true);
+    }
+
+}
@@ -0,0 +1,69 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.integration.config;
+
+import static com.quantiply.integration.util.CodeGenerationHelper.*;
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StreamOutputIT {
+
+    @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+    private File sourceDirectory;
+
+    @Before
+    public void writeSchemas() throws IOException {
+        sourceDirectory = folder.newFolder("schema");
+
+        write(new File(sourceDirectory, "a.json"), "{\"type\":\"object\",\"properties\":{\"name\":{\"type\":\"string\"},\"inner\":{\"type\":\"object\",\"properties\":{\"count\":{\"type\":\"integer\"}}}}}");
+        write(new File(sourceDirectory, "b.json"), "{\"type\":\"object\",\"extends\":{\"$ref\":\"a.json\"},\"properties\":{\"size\":{\"type\":\"number\"},\"a\":{\"$ref\":\"a.json\"}}}");
+        write(new File(sourceDirectory, "c.json"), "{\"type\":\"object\",\"extends\":{\"$ref\":\"b.json\"},\"additionalProperties\":{\"type\":\"string\"}}");
+    }
+
+    @Test
+    public void streamedOutputIsTheSameAsBufferedOutput() throws IOException {
+
+        File buffered = folder.newFolder("buffered");
+        File streamed = folder.newFolder("streamed");
+
+        generate(sourceDirectory.toURI().toURL(), "com.example", config("generateBuilders", true, "serializable", true, "includeConstructors", true), buffered);
+        generate(sourceDirectory.toURI().toURL(), "com.example", config("generateBuilders", true, "serializable", true, "includeConstructors", true, "streamOutput", true), streamed);
+
+        Collection<File> bufferedFiles = FileUtils.listFiles(buffered, new String[] { "java" }, true);
+        assertThat(bufferedFiles, hasSize(4));
+        for (File bufferedFile : bufferedFiles) {
+            File streamedFile = new File(streamed, buffered.toPath().relativize(bufferedFile.toPath()).toString());
+            assertThat(streamedFile.getName(), FileUtils.readFileToString(streamedFile, StandardCharsets.UTF_8),
+                    is(FileUtils.readFileToString(bufferedFile, StandardCharsets.UTF_8)));
+        }
+        assertThat(FileUtils.listFiles(streamed, new String[] { "java" }, true), hasSize(4));
+
+    }
+
+}
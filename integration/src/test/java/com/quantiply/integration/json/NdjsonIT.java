@@ -0,0 +1,65 @@
+/**
+ * Copyright © 2010-2017 Nokia
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.quantiply.integration.json;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.quantiply.integration.util.CodeGenerationHelper;
+import com.quantiply.integration.util.Jsonschema2PojoRule;
+
+public class NdjsonIT {
+
+    @Rule
+    public Jsonschema2PojoRule schemaRule = new Jsonschema2PojoRule();
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    @Test
+    public void recordsAreMergedIntoOneType() throws Exception {
+
+        ClassLoader resultsClassLoader = schemaRule.generateAndCompile("/json/events.ndjson", "com.example",
+                CodeGenerationHelper.config("sourceType", "ndjson"));
+
+        Class<?> eventClass = resultsClassLoader.loadClass("com.example.Events");
+        Class<?> targetClass = resultsClassLoader.loadClass("com.example.Target");
+
+        assertThat(eventClass.getMethod("getId").getReturnType().getName(), is(Integer.class.getName()));
+        assertThat(eventClass.getMethod("getDuration").getReturnType().getName(), is(Double.class.getName()));
+        assertThat(eventClass.getMethod("getTags").getReturnType().getName(), is(List.class.getName()));
+        assertThat(targetClass.getMethod("getElement"), is(notNullValue()));
+        assertThat(targetClass.getMethod("getPage"), is(notNullValue()));
+
+        try (BufferedReader records = new BufferedReader(new InputStreamReader(getClass().getResourceAsStream("/json/events.ndjson"), StandardCharsets.UTF_8))) {
+            for (String record = records.readLine(); record != null; record = records.readLine()) {
+                Object event = OBJECT_MAPPER.readValue(record, eventClass);
+                assertThat(eventClass.getMethod("getType").invoke(event), is(notNullValue()));
+            }
+        }
+
+    }
+
+}
@@ -28,6 +28,7 @@ import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -210,6 +211,19 @@ public class CodeGenerationHelper {
         return outputDirectory;
     }
 
+    /**
+     * Writes a schema (or any other text) to a file, replacing its content.
+     *
+     * @param file
+     *            the file to write, whose parent directories are created if
+     *            they don't exist
+     * @param content
+     *            the content to write, as UTF-8
+     */
+    public static void write(File file, String content) throws IOException {
+        writeStringToFile(file, content, StandardCharsets.UTF_8);
+    }
+
     /**
      * Deletes temporary output files on exit <em>recursively</em> (which is not
      * possible with {@link File#deleteOnExit}).
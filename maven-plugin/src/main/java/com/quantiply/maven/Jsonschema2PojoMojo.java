@@ -35,6 +35,7 @@ import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.project.MavenProject;
+import org.sonatype.plexus.build.incremental.BuildContext;
 import com.quantiply.AllFileFilter;
 import com.quantiply.AnnotationStyle;
 import com.quantiply.Annotator;
@@ -46,6 +47,7 @@ import com.quantiply.Language;
 import com.quantiply.NoopAnnotator;
 import com.quantiply.SourceSortOrder;
 import com.quantiply.SourceType;
+import com.quantiply.URLProtocol;
 import com.quantiply.rules.RuleFactory;
 import com.quantiply.util.URLUtil;
 
@@ -249,12 +251,22 @@ public class Jsonschema2PojoMojo extends AbstractMojo implements GenerationConfi
      * <li><code>jackson2</code> (apply annotations from the
      * <a href="https://github.com/FasterXML/jackson-annotations">Jackson
      * 2.x</a> library)</li>
+     * <li><code>jackson2_serializers</code> (apply annotations from the
+     * Jackson 2.x library, and generate a serializer and deserializer for
+     * each type, registered by a generated
+     * <code>Jackson2SerializersModule</code>)</li>
      * <li><code>jackson1</code> (apply annotations from the
      * <a href="http://jackson.codehaus.org/">Jackson 1.x</a> library)</li>
      * <li><code>gson</code> (apply annotations from the
      * <a href="https://code.google.com/p/google-gson/">gson</a> library)</li>
+     * <li><code>gson_type_adapters</code> (apply annotations from the gson
+     * library, and generate a type adapter for each type, created by a
+     * generated <code>GsonTypeAdapterFactory</code>)</li>
      * <li><code>moshi1</code> (apply annotations from the
      * <a href="https://github.com/square/moshi">moshi 1.x</a> library)</li>
+     * <li><code>moshi1_json_adapters</code> (apply annotations from the moshi
+     * 1.x library, and generate a JSON adapter for each type, created by a
+     * generated <code>Moshi1JsonAdapterFactory</code>)</li>
      * <li><code>none</code> (apply no annotations at all)</li>
      * </ul>
      *
@@ -374,6 +386,9 @@ public class Jsonschema2PojoMojo extends AbstractMojo implements GenerationConfi
      * <li><code>yamlschema</code> (JSON schema documents, represented as YAML)</li>
      * <li><code>yaml</code> (documents that represent an example of the kind of
      * YAML (or JSON) data that the generated Java types will be mapped to)</li>
+     * <li><code>ndjson</code> (newline delimited JSON documents, where each
+     * line is an example record of the kind of JSON data that the generated
+     * Java types will be mapped to)</li>
      * </ul>
      *
      * @parameter property="jsonschema2pojo.sourceType"
@@ -648,6 +663,14 @@ public class Jsonschema2PojoMojo extends AbstractMojo implements GenerationConfi
      */
     private MavenProject project;
 
+    /**
+     * The build context, which tells incremental (IDE) builds whether any
+     * source has changed and is told which outputs have been refreshed.
+     *
+     * @component
+     */
+    private BuildContext buildContext;
+
     /**
      * Whether the fields of type `date` are formatted during serialization with
      * a default pattern of yyyy-MM-dd.
@@ -763,6 +786,153 @@ public class Jsonschema2PojoMojo extends AbstractMojo implements GenerationConfi
      */
     private boolean useInnerClassBuilders = false;
 
+    /**
+     * The number of threads used to read and parse source documents before
+     * types are generated and, when targeting Scala, to convert generated
+     * sources. Types are always generated in source order, so the output is
+     * identical whatever value is used. A value of 1 does all of this work
+     * sequentially.
+     *
+     * @parameter property="jsonschema2pojo.generationThreads"
+     *            default-value="1"
+     * @since 1.0.2
+     */
+    private int generationThreads = 1;
+
+    /**
+     * Whether to skip generation when nothing it depends on has changed. The
+     * schema documents read while generating each type (including documents
+     * reached through <code>$ref</code>) are recorded in the target directory;
+     * the next run compares them, along with the configuration and the set of
+     * sources, against this record. When anything has changed all types are
+     * generated again, but generated files whose content is unchanged are left
+     * untouched and files that are no longer generated are removed.
+     *
+     * @parameter property="jsonschema2pojo.incremental"
+     *            default-value="false"
+     * @since 1.0.2
+     */
+    private boolean incremental = false;
+
+    /**
+     * A directory in which the content of schemas read over http/https is
+     * cached between builds. Cached content is used without contacting the
+     * server until it is older than <code>remoteCacheTtl</code>, and is then
+     * revalidated using its ETag or Last-Modified date. By default no cache is
+     * used.
+     *
+     * @parameter property="jsonschema2pojo.remoteCacheDirectory"
+     * @since 1.0.2
+     */
+    private File remoteCacheDirectory;
+
+    /**
+     * The time, in seconds, for which cached remote schema content is used
+     * without being revalidated with the server. Cache entries that have not
+     * been used by any build for longer than this are removed from the cache.
+     *
+     * @parameter property="jsonschema2pojo.remoteCacheTtl"
+     *            default-value="86400"
+     * @since 1.0.2
+     */
+    private long remoteCacheTtl = 86400;
+
+    /**
+     * Whether schemas referenced over http/https must be read from the
+     * <code>remoteCacheDirectory</code> without contacting the server, whatever
+     * their age. Generation fails if a remote schema is not in the cache.
+     * Has no effect unless <code>remoteCacheDirectory</code> is set.
+     *
+     * @parameter property="jsonschema2pojo.offline"
+     *            default-value="${settings.offline}"
+     * @since 1.0.2
+     */
+    private boolean offline = false;
+
+    /**
+     * Whether to measure generation and write a report of it to the target
+     * directory. The report (<code>jsonschema2pojo-generation-report.json</code>
+     * and <code>.html</code>) lists the number of applications, the time taken
+     * and the memory allocated for each rule and each schema, and for reading
+     * schemas, building the code model and converting sources to Scala.
+     *
+     * @parameter property="jsonschema2pojo.writeGenerationReport"
+     *            default-value="false"
+     * @since 1.0.2
+     */
+    private boolean writeGenerationReport = false;
+
+    /**
+     * Whether to leave generated files whose content has not changed untouched,
+     * so that their timestamps are preserved and compilers and IDEs do not
+     * consider them modified. Changed files are replaced atomically, and files
+     * produced by the previous run that are no longer generated are removed,
+     * so <code>removeOldOutput</code> does not empty the target directory when
+     * this option is set. It only applies when no record of a previous run is
+     * found: files in the target directory that the run does not produce are
+     * then removed once it is complete.
+     *
+     * @parameter property="jsonschema2pojo.skipUnchangedOutput"
+     *            default-value="false"
+     * @since 1.0.2
+     */
+    private boolean skipUnchangedOutput = false;
+
+    /**
+     * Whether to write the classes generated from each source as soon as that
+     * source is done, rather than holding every generated class in memory until
+     * all sources have been processed. The output is the same either way, but
+     * peak memory use no longer grows with the number of sources.
+     *
+     * @parameter property="jsonschema2pojo.streamOutput"
+     *            default-value="false"
+     * @since 1.0.2
+     */
+    private boolean streamOutput = false;
+
+    /**
+     * Whether the <code>additionalProperties</code> map of generated types
+     * starts out as a shared empty map and is only allocated when a property
+     * is first added (or the map is first asked for), rather than being
+     * allocated for every instance. <code>equals</code>, <code>hashCode</code>,
+     * <code>toString</code> and the accessors behave the same either way.
+     *
+     * @parameter property="jsonschema2pojo.lazyAdditionalProperties"
+     *            default-value="false"
+     * @since 1.0.2
+     */
+    private boolean lazyAdditionalProperties = false;
+
+    /**
+     * Whether to generate immutable value types: property fields are final
+     * and set through a constructor that takes every property, no setters or
+     * builders are generated, collections are copied into unmodifiable
+     * collections when an instance is constructed and the hash code is
+     * computed once and cached. Parcelable support is not generated for
+     * immutable types, and the adapters of the <code>jackson2_serializers</code>,
+     * <code>gson_type_adapters</code> and <code>moshi1_json_adapters</code>
+     * annotation styles are only generated for enums.
+     *
+     * @parameter property="jsonschema2pojo.immutableTypes"
+     *            default-value="false"
+     * @since 1.0.2
+     */
+    private boolean immutableTypes = false;
+
+    /**
+     * Whether, when generating Scala, adjacent scalagen transformers that each
+     * rewrite a single node are applied together in one traversal of the
+     * syntax tree rather than one after another. This copies the tree fewer
+     * times, but a node created by one of these transformers is not seen by
+     * the ones after it, so the output may differ from the sequential
+     * pipeline.
+     *
+     * @parameter property="jsonschema2pojo.fuseScalaTransformers"
+     *            default-value="false"
+     * @since 1.0.2
+     */
+    private boolean fuseScalaTransformers = false;
+
     /**
      * Executes the plugin, to read the given source and behavioural properties
      * and generate POJOs. The current implementation acts as a wrapper around
@@ -835,12 +1005,31 @@ public class Jsonschema2PojoMojo extends AbstractMojo implements GenerationConfi
             getLog().warn("useCommonsLang3 is deprecated. Please remove it from your config.");
         }
 
+        if (buildContext != null && buildContext.isIncremental() && !hasSourceDelta()) {
+            getLog().info("No changes to JSON Schema file(s), skipping generation");
+            return;
+        }
+
         try {
             Jsonschema2Pojo.generate(this);
         } catch (IOException e) {
             throw new MojoExecutionException("Error generating classes from JSON Schema file(s) " + sourceDirectory, e);
         }
 
+        if (buildContext != null) {
+            buildContext.refresh(outputDirectory);
+        }
+
+    }
+
+    private boolean hasSourceDelta() {
+        for (Iterator<URL> sources = getSource(); sources.hasNext();) {
+            URL source = sources.next();
+            if (URLUtil.parseProtocol(source.toString()) != URLProtocol.FILE || buildContext.hasDelta(URLUtil.getFileFromURL(source))) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private void addProjectDependenciesToClasspath() {
@@ -1188,4 +1377,59 @@ public class Jsonschema2PojoMojo extends AbstractMojo implements GenerationConfi
     public boolean isUseInnerClassBuilders() {
         return useInnerClassBuilders;
     }
+
+    @Override
+    public int getGenerationThreads() {
+        return generationThreads;
+    }
+
+    @Override
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    @Override
+    public File getRemoteCacheDirectory() {
+        return remoteCacheDirectory;
+    }
+
+    @Override
+    public long getRemoteCacheTtl() {
+        return remoteCacheTtl;
+    }
+
+    @Override
+    public boolean isOffline() {
+        return offline;
+    }
+
+    @Override
+    public boolean isWriteGenerationReport() {
+        return writeGenerationReport;
+    }
+
+    @Override
+    public boolean isSkipUnchangedOutput() {
+        return skipUnchangedOutput;
+    }
+
+    @Override
+    public boolean isStreamOutput() {
+        return streamOutput;
+    }
+
+    @Override
+    public boolean isLazyAdditionalProperties() {
+        return lazyAdditionalProperties;
+    }
+
+    @Override
+    public boolean isImmutableTypes() {
+        return immutableTypes;
+    }
+
+    @Override
+    public boolean isFuseScalaTransformers() {
+        return fuseScalaTransformers;
+    }
 }
@@ -24,7 +24,7 @@ import UnitTransformer._
  * Annotations turns Annotation type declarations into normal classes which extend
  * StaticAnnotation
  */
-class Annotations(targetVersion: ScalaVersion) extends UnitTransformerBase {
+class Annotations(targetVersion: ScalaVersion) extends UnitTransformerBase with NodeRewriter {
   
   private val staticAnnotationType = new ClassOrInterface("StaticAnnotation")
   
@@ -32,7 +32,14 @@ class Annotations(targetVersion: ScalaVersion) extends UnitTransformerBase {
     cu.accept(this, cu).asInstanceOf[CompilationUnit] 
   }  
     
-  override def visit(n: AnnotationDecl, arg: CompilationUnit) = {
+  override def visit(n: AnnotationDecl, arg: CompilationUnit): Node = rewrite(super.visit(n, arg), arg)
+  
+  def rewrite(node: Node, cu: CompilationUnit): Node = node match {
+    case n: AnnotationDecl => toClass(n, cu)
+    case _ => node
+  }
+  
+  private def toClass(n: AnnotationDecl, arg: CompilationUnit): ClassOrInterfaceDecl = {
     // turns annotations into StaticAnnotation subclasses
     if (targetVersion >= Scala210) {
       //StaticAnnotation was in the "scala" package in 2.9, so it was imported by default
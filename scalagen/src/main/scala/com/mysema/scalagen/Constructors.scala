@@ -142,7 +142,7 @@ class Constructors extends UnitTransformerBase {
       c: Constructor, variables: Map[String, Variable], variableToField: Map[String, Field] ) {
     if (fieldAccess.getScope.isInstanceOf[This] &&
         variables.contains(fieldAccess.getField)) {
-      if (fieldAccess.getField == assign.getValue.toString) {
+      if (str.unapply(assign.getValue).contains(fieldAccess.getField)) {
         val field = variableToField(fieldAccess.getField)
         c.getParameters.find(_.getId.getName == fieldAccess.getField)
           .foreach(copyAnnotationsAndModifiers(field,_))
@@ -23,7 +23,7 @@ object ControlStatements extends ControlStatements
 /**
  * ControlStatements transform ForStmt, SwitchEntryStmt and If statements
  */
-class ControlStatements extends UnitTransformerBase {
+class ControlStatements extends UnitTransformerBase with NodeRewriter {
   
   private val KEY = new Name("key")
   
@@ -61,13 +61,34 @@ class ControlStatements extends UnitTransformerBase {
   def transform(cu: CompilationUnit): CompilationUnit = {
     cu.accept(this, cu).asInstanceOf[CompilationUnit] 
   }  
+  
+  override def visit(n: For, arg: CompilationUnit): Node = rewrite(super.visit(n, arg), arg)
+  
+  override def visit(n: MethodCall, arg: CompilationUnit): Node = rewrite(super.visit(n, arg), arg)
+  
+  override def visit(n: Foreach, arg: CompilationUnit): Node = rewrite(super.visit(n, arg), arg)
+  
+  override def visit(n: Block, arg: CompilationUnit): Node = rewrite(super.visit(n, arg), arg)
+  
+  override def visit(n: If, arg: CompilationUnit): Node = rewrite(super.visit(n, arg), arg)
+  
+  override def visit(n: SwitchEntry, arg: CompilationUnit): Node = rewrite(super.visit(n, arg), arg)
+  
+  def rewrite(node: Node, cu: CompilationUnit): Node = node match {
+    case n: For => rewriteFor(n)
+    case n: MethodCall => rewriteMethodCall(n)
+    case n: Foreach => rewriteForeach(n)
+    case n: Block => rewriteBlock(n)
+    case n: If => rewriteIf(n)
+    case n: SwitchEntry => rewriteSwitchEntry(n)
+    case _ => node
+  }
         
-  override def visit(nn: For, arg: CompilationUnit): Node = {
+  private def rewriteFor(n: For): Node = {
     // transform
     //   for (int i = 0; i < x; i++) block 
     // into
     //   for (i <- 0 until x) block
-    val n = super.visit(nn, arg).asInstanceOf[For]    
     n match {
       case For((init: VariableDeclaration) :: Nil, l lt r, incr(_) :: Nil, _) => {
         val until = new MethodCall(init.getVars.get(0).getInit, "until", r :: Nil)
@@ -78,12 +99,11 @@ class ControlStatements extends UnitTransformerBase {
     }
   }
   
-  override def visit(nn: MethodCall, arg: CompilationUnit): Node = {
+  private def rewriteMethodCall(n: MethodCall): Node = {
     // transform
     //   System.out.println
     // into 
     //   println
-    val n = super.visit(nn, arg).asInstanceOf[MethodCall]
     n match {
       case MethodCall(str("System.out"), "println", args) => {
         new MethodCall(null, "println", args)
@@ -92,13 +112,12 @@ class ControlStatements extends UnitTransformerBase {
     }
   }
   
-  override def visit(nn: Foreach, arg: CompilationUnit): Node = {
-    val n = super.visit(nn, arg).asInstanceOf[Foreach]
+  private def rewriteForeach(n: Foreach): Node = {
     n match {
       case Foreach(
           VariableDeclaration(t, v :: Nil), 
           MethodCall(scope, "entrySet", Nil), body) => {
-        val vid = v.getId.toString
+        val vid = v.getId.getName
         new Foreach(
             VariableDeclaration(0, "(key, value)", Type.Object), 
             scope, n.getBody.accept(toKeyAndValue, vid).asInstanceOf[Statement])            
@@ -108,13 +127,12 @@ class ControlStatements extends UnitTransformerBase {
   }
   
   // TODO : maybe move this to own class
-  override def visit(nn: Block, arg: CompilationUnit): Node = {
+  private def rewriteBlock(n: Block): Node = {
     // simplify
     //   for (format <- values if format.mimetype == contentType) return format
     //   defaultFormat
     // into
     //   values.find(_.mimetype == contenType).getOrElse(defaultFormat)
-    val n = super.visit(nn, arg).asInstanceOf[Block]
     n match {
       case Block( 
           Foreach(v, it, If(cond, Return(rv1), null)) ::
@@ -131,25 +149,24 @@ class ControlStatements extends UnitTransformerBase {
   
   private def createFindCall(it: Expression, v: VariableDeclaration, 
       cond: Expression, rv1: Expression, rv2: Expression): Statement = {
-    val vid = v.getVars.get(0).getId.toString
+    val vid = v.getVars.get(0).getId.getName
     val newCond = createClosure(vid, cond)
     val newIt = it match {
       case MethodCall(_, "until", _ :: Nil) => new Enclosed(it)
       case _ => it
     }
     val findCall = new MethodCall(newIt, "find", newCond)
-    val expr = if (vid == rv1.toString) findCall
+    val expr = if (str.unapply(rv1).contains(vid)) findCall
                else new MethodCall(findCall, "map", createClosure(vid, rv1))
     val getOrElse = new MethodCall(expr, "getOrElse", rv2 :: Nil)
     new Block(new ExpressionStmt(getOrElse) :: Nil)
   } 
   
-  override def visit(nn: If, arg: CompilationUnit): Node = {
+  private def rewriteIf(n: If): Node = {
     // transform
     //   if (condition) target = x else target = y
     // into
     //   target = if (condition) e else y    
-    val n = super.visit(nn, arg).asInstanceOf[If]    
     n match {
       case If(cond, Stmt(t1 set v1), Stmt(t2 set v2)) if t1 == t2 => {
         new ExpressionStmt(new Assign(t1, new Conditional(n.getCondition, v1, v2), Assign.assign))  
@@ -158,9 +175,8 @@ class ControlStatements extends UnitTransformerBase {
     }    
   }
   
-  override def visit(nn: SwitchEntry, arg: CompilationUnit) = {    
+  private def rewriteSwitchEntry(n: SwitchEntry): Node = {    
     // remove break
-    val n = super.visit(nn, arg).asInstanceOf[SwitchEntry]
     val size = if (n.getStmts == null) 0 else n.getStmts.size
     if (size > 1 && n.getStmts.get(size-1).isInstanceOf[Break]) {
       //n.getStmts.remove(size-1)
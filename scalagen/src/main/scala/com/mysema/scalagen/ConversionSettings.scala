@@ -1,7 +1,18 @@
 package com.mysema.scalagen
 
-case class ConversionSettings(splitLongLines: Boolean = true)
+/**
+ * @param splitLongLines whether long lines are split in the generated source
+ * @param fuseTransformers whether adjacent NodeRewriters are applied in a single traversal,
+ *        which makes fewer copies of the syntax tree. Unlike the sequential pipeline, a node
+ *        created by one rewriter is not visited by the rewriters after it, and a rewriter sees
+ *        children that later rewriters have already rewritten, so the output may differ
+ */
+case class ConversionSettings(splitLongLines: Boolean = true, fuseTransformers: Boolean = false) {
+  
+  def this(splitLongLines: Boolean) = this(splitLongLines, false)
+  
+}
 
 object ConversionSettings {
   def defaultSettings = ConversionSettings()
-}
\ No newline at end of file
+}
@@ -13,11 +13,12 @@
  */
 package com.mysema.scalagen
 
-import java.io.{File, ByteArrayInputStream}
-import japa.parser.JavaParser
+import java.io.{File, ByteArrayInputStream, StringReader, Writer, BufferedWriter, OutputStream, OutputStreamWriter}
+import japa.parser.{ASTParser, JavaParser}
 import japa.parser.ast.{ImportDeclaration, CompilationUnit}
 import org.apache.commons.io.FileUtils
-import java.util.ArrayList
+import java.nio.file.{AtomicMoveNotSupportedException, Files, StandardCopyOption}
+import java.util.{ArrayList, UUID}
 import japa.parser.ParseException
 import java.io.ByteArrayInputStream
 import java.util.regex.Pattern
@@ -84,6 +85,11 @@ object Converter {
  * Converter converts Java sources into Scala sources
  */
 class Converter(encoding: String, transformers: List[UnitTransformer]) {
+  
+  // JavaParser.parse shares a single static parser, so each thread gets its own
+  private val parsers = new ThreadLocal[ASTParser]
+  
+  private lazy val fusedTransformers = FusedTransformer.fuse(transformers)
     
   def convert(inFolder: File, outFolder: File) {
     val inFolderLength = inFolder.getPath.length + 1
@@ -99,26 +105,96 @@ class Converter(encoding: String, transformers: List[UnitTransformer]) {
   def convertFile(in: File, out: File) {
     try {
       val compilationUnit = JavaParser.parse(in, encoding)
-      val sources = toScala(compilationUnit)   
-      FileUtils.writeStringToFile(out, sources, "UTF-8")  
+      // stream into a temporary file so that a failed conversion never leaves a truncated out file
+      FileUtils.forceMkdir(out.getAbsoluteFile.getParentFile)
+      val temporary = new File(out.getAbsoluteFile.getParentFile, "." + out.getName + "." + UUID.randomUUID + ".tmp").toPath
+      try {
+        val writer = new OutputStreamWriter(Files.newOutputStream(temporary), "UTF-8")
+        try {
+          toScala(compilationUnit, writer, ConversionSettings())
+        } finally {
+          writer.close()
+        }
+        try {
+          Files.move(temporary, out.toPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE)
+        } catch {
+          case e: AtomicMoveNotSupportedException =>
+            Files.move(temporary, out.toPath, StandardCopyOption.REPLACE_EXISTING)
+        }
+      } finally {
+        Files.deleteIfExists(temporary)
+      }
     } catch {
       case e: Exception => throw new RuntimeException("Caught Exception for " + in.getPath, e) 
     }    
   }
   
+  /**
+   * Converts the given Java source. Safe to call concurrently from multiple threads.
+   */
   def convert(javaSource: String, settings: ConversionSettings = ConversionSettings()): String = {
-    val compilationUnit = JavaParser.parse(new ByteArrayInputStream(javaSource.getBytes(encoding)), encoding)
+    val compilationUnit = parse(javaSource)
     toScala(compilationUnit, settings)
   }
   
+  /**
+   * Converts the given Java source, printing the Scala source to the given
+   * writer as it is produced rather than building it up in memory. The
+   * writer is flushed but not closed. Safe to call concurrently from
+   * multiple threads, each with its own writer.
+   */
+  def convert(javaSource: String, out: Writer, settings: ConversionSettings) {
+    toScala(parse(javaSource), out, settings)
+  }
+  
+  def convert(javaSource: String, out: Writer) {
+    convert(javaSource, out, ConversionSettings())
+  }
+  
+  /**
+   * Converts the given Java source, writing the Scala source to the given
+   * stream in this converter's encoding. The stream is flushed but not closed.
+   */
+  def convert(javaSource: String, out: OutputStream, settings: ConversionSettings) {
+    convert(javaSource, new OutputStreamWriter(out, encoding), settings)
+  }
+  
+  // parses straight from the characters, the source is never encoded to bytes
+  private def parse(javaSource: String): CompilationUnit = {
+    val in = new StringReader(javaSource)
+    val parser = parsers.get
+    if (parser == null) {
+      val newParser = new ASTParser(in)
+      parsers.set(newParser)
+      newParser.CompilationUnit()
+    } else {
+      parser.ReInit(in)
+      parser.CompilationUnit()
+    }
+  }
+  
   def toScala(unit: CompilationUnit, settings: ConversionSettings = ConversionSettings()): String = {
+    var visitor = new ScalaDumpVisitor(settings)
+    transform(unit, settings).accept(visitor, new ScalaDumpVisitor.Context())
+    visitor.getSource
+  }
+  
+  /**
+   * Prints the Scala source for the given unit to the given writer, which is
+   * flushed but not closed
+   */
+  def toScala(unit: CompilationUnit, out: Writer, settings: ConversionSettings) {
+    val buffered = new BufferedWriter(out)
+    transform(unit, settings).accept(new ScalaDumpVisitor(settings, buffered), new ScalaDumpVisitor.Context())
+    buffered.flush()
+  }
+  
+  private def transform(unit: CompilationUnit, settings: ConversionSettings): CompilationUnit = {
     if (unit.getImports == null) {
       unit.setImports(new ArrayList[ImportDeclaration]())  
     }    
-    val transformed = transformers.foldLeft(unit) { case (u,t) => t.transform(u) }    
-    var visitor = new ScalaDumpVisitor(settings)
-    transformed.accept(visitor, new ScalaDumpVisitor.Context())
-    visitor.getSource
+    val pipeline = if (settings.fuseTransformers) fusedTransformers else transformers
+    pipeline.foldLeft(unit) { case (u,t) => t.transform(u) }    
   }
   
   private def toOut(inFolderLength: Int, outFolder: File, in: File): File = {
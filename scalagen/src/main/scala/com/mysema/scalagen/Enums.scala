@@ -23,7 +23,7 @@ object Enums extends Enums
 /**
  * Enums converts Java enum type declarations into Scala enumerations
  */
-class Enums extends UnitTransformerBase {
+class Enums extends UnitTransformerBase with NodeRewriter {
   
   private val enumerationType = new ClassOrInterface("Enumeration")
   
@@ -35,7 +35,14 @@ class Enums extends UnitTransformerBase {
     cu.accept(this, cu).asInstanceOf[CompilationUnit] 
   }   
     
-  override def visit(n: EnumDecl, arg: CompilationUnit) = {
+  override def visit(n: EnumDecl, arg: CompilationUnit): Node = rewrite(super.visit(n, arg), arg)
+  
+  def rewrite(node: Node, cu: CompilationUnit): Node = node match {
+    case n: EnumDecl => toEnumeration(n)
+    case _ => node
+  }
+  
+  private def toEnumeration(n: EnumDecl): ClassOrInterfaceDecl = {
     // transform enums into Scala Enumerations
     val clazz = new ClassOrInterfaceDecl()
     clazz.setExtends(enumerationType :: Nil)
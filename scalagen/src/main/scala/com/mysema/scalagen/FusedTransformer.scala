@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2011, Mysema Ltd
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.mysema.scalagen 
+
+import java.util.{ArrayList, Collections}
+import UnitTransformer._
+
+object FusedTransformer {
+  
+  /**
+   * Replaces each run of adjacent NodeRewriters in the given pipeline with a single 
+   * FusedTransformer, leaving all other transformers and the overall order unchanged
+   */
+  def fuse(transformers: List[UnitTransformer]): List[UnitTransformer] = {
+    val grouped = transformers.foldRight(List[Either[List[NodeRewriter], UnitTransformer]]()) { 
+      case (r: NodeRewriter, Left(rewriters) :: rest) => Left(r :: rewriters) :: rest
+      case (r: NodeRewriter, rest) => Left(r :: Nil) :: rest
+      case (t, rest) => Right(t) :: rest
+    }
+    grouped.map {
+      case Left(r :: Nil) => r
+      case Left(rewriters) => new FusedTransformer(rewriters)
+      case Right(t) => t
+    }
+  }
+  
+}
+
+/**
+ * FusedTransformer applies a sequence of NodeRewriters in a single traversal, so that the
+ * tree is copied once instead of once per transformer. Each node is rewritten by all 
+ * rewriters, in order, after its children have been transformed
+ */
+class FusedTransformer(val rewriters: List[NodeRewriter]) extends UnitTransformerBase {
+  
+  def transform(cu: CompilationUnit): CompilationUnit = {
+    cu.accept(this, cu).asInstanceOf[CompilationUnit] 
+  }
+  
+  override protected def filter[T <: Node](node: T, arg: CompilationUnit): T = {
+    if (node != null) rewrite(node.accept(this, arg), arg).asInstanceOf[T] else node
+  }
+  
+  override protected def filter[T <: Node](list: JavaList[T], arg: CompilationUnit): JavaList[T] = {
+    if (list == null) {
+      return null
+    } else if (list.isEmpty) {
+      Collections.emptyList[T]() 
+    } else {
+      val rv = new ArrayList[T](list.size)
+      val it = list.iterator()
+      while (it.hasNext) {
+        val node = rewrite(it.next().accept(this, arg), arg).asInstanceOf[T]
+        if (node != null) rv.add(node)
+      }
+      rv
+    }
+  }
+  
+  private def rewrite(node: Node, cu: CompilationUnit): Node = {
+    var rv = node
+    var remaining = rewriters
+    while (rv != null && !remaining.isEmpty) {
+      rv = remaining.head.rewrite(rv, cu)
+      remaining = remaining.tail
+    }
+    rv
+  }
+  
+}
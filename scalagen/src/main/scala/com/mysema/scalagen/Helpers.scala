@@ -54,17 +54,56 @@ trait Helpers {
     def removeModifier(mod: Int) = ModifierSet.removeModifier(i,mod)    
   }  
   
-  type WithModifiers = { def getModifiers(): Int ; def setModifiers(v: Int): Unit }
+  /**
+   * Reads and writes the modifiers of an AST node type. The parser's nodes
+   * share no interface for modifiers, so each type that has them gets an
+   * instance below rather than being accessed through a structural type,
+   * which would dispatch every call reflectively.
+   */
+  trait Modifiable[-T] {
+    def getModifiers(t: T): Int
+    def setModifiers(t: T, modifiers: Int): Unit
+  }
+  
+  implicit object FieldModifiers extends Modifiable[Field] {
+    def getModifiers(f: Field) = f.getModifiers
+    def setModifiers(f: Field, modifiers: Int) = f.setModifiers(modifiers)
+  }
+  
+  implicit object MethodModifiers extends Modifiable[Method] {
+    def getModifiers(m: Method) = m.getModifiers
+    def setModifiers(m: Method, modifiers: Int) = m.setModifiers(modifiers)
+  }
+  
+  implicit object ConstructorModifiers extends Modifiable[Constructor] {
+    def getModifiers(c: Constructor) = c.getModifiers
+    def setModifiers(c: Constructor, modifiers: Int) = c.setModifiers(modifiers)
+  }
+  
+  implicit object TypeDeclModifiers extends Modifiable[TypeDecl] {
+    def getModifiers(t: TypeDecl) = t.getModifiers
+    def setModifiers(t: TypeDecl, modifiers: Int) = t.setModifiers(modifiers)
+  }
+  
+  implicit object ParameterModifiers extends Modifiable[Parameter] {
+    def getModifiers(p: Parameter) = p.getModifiers
+    def setModifiers(p: Parameter, modifiers: Int) = p.setModifiers(modifiers)
+  }
+  
+  implicit object VariableDeclarationModifiers extends Modifiable[VariableDeclaration] {
+    def getModifiers(v: VariableDeclaration) = v.getModifiers
+    def setModifiers(v: VariableDeclaration, modifiers: Int) = v.setModifiers(modifiers)
+  }
   
-  implicit def toRichWithModifiers(wm: WithModifiers) = new RichWithModifiers(wm)
+  implicit def toRichWithModifiers[T](wm: T)(implicit m: Modifiable[T]) = new RichWithModifiers(wm, m)
   
-  class RichWithModifiers(wm: WithModifiers) {
-    def addModifier(mod: Int): RichWithModifiers = {
-      wm.setModifiers(ModifierSet.addModifier(wm.getModifiers, mod))
+  class RichWithModifiers[T](wm: T, m: Modifiable[T]) {
+    def addModifier(mod: Int): RichWithModifiers[T] = {
+      m.setModifiers(wm, ModifierSet.addModifier(m.getModifiers(wm), mod))
       this
     } 
-    def removeModifier(mod: Int): RichWithModifiers = {
-      wm.setModifiers(ModifierSet.removeModifier(wm.getModifiers, mod))
+    def removeModifier(mod: Int): RichWithModifiers[T] = {
+      m.setModifiers(wm, ModifierSet.removeModifier(m.getModifiers(wm), mod))
       this
     }
   }
@@ -22,7 +22,7 @@ object Primitives extends Primitives
 /**
  * Primitives modifies primitive type related constants and method calls
  */
-class Primitives extends UnitTransformerBase {
+class Primitives extends UnitTransformerBase with NodeRewriter {
 
   private val TRUE = new BooleanLiteral(true)
 
@@ -34,10 +34,15 @@ class Primitives extends UnitTransformerBase {
     cu.accept(this, cu).asInstanceOf[CompilationUnit]
   }
 
-  override def visit(n: FieldAccess, arg: CompilationUnit): Node = n match {
-    case FieldAccess(str("Boolean"), "TRUE") => TRUE
-    case FieldAccess(str("Boolean"), "FALSE") => FALSE
-    case _ => super.visit(n, arg)
+  override def visit(n: FieldAccess, arg: CompilationUnit): Node = rewrite(super.visit(n, arg), arg)
+  
+  def rewrite(node: Node, cu: CompilationUnit): Node = node match {
+    case n: FieldAccess => n match {
+      case FieldAccess(str("Boolean"), "TRUE") => TRUE
+      case FieldAccess(str("Boolean"), "FALSE") => FALSE
+      case _ => n
+    }
+    case _ => node
   }
 
 //  override def visit(n: MethodCall, arg: CompilationUnit): Node = n match {
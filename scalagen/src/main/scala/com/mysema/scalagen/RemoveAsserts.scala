@@ -21,7 +21,7 @@ object RemoveAsserts extends RemoveAsserts
 /**
  * RemoveAsserts unwraps assertion method call
  */
-class RemoveAsserts extends UnitTransformerBase {
+class RemoveAsserts extends UnitTransformerBase with NodeRewriter {
   
   private val methods = Set("hasLength","hasText","notEmpty","notNull") 
   
@@ -31,9 +31,14 @@ class RemoveAsserts extends UnitTransformerBase {
     
   // TODO : don't remove method calls when used as statements
   
-  override def visit(n: MethodCall, arg: CompilationUnit) = n match {
-    case MethodCall(str("Assert"), _, a :: rest) => a.accept(this, arg)
-    case _ => super.visit(n, arg)
+  override def visit(n: MethodCall, arg: CompilationUnit): Node = rewrite(super.visit(n, arg), arg)
+  
+  def rewrite(node: Node, cu: CompilationUnit): Node = node match {
+    case n: MethodCall => n match {
+      case MethodCall(str("Assert"), _, a :: rest) => a
+      case _ => n
+    }
+    case _ => node
   }
     
 }
\ No newline at end of file
@@ -19,6 +19,7 @@ import japa.parser.ast.expr._
 import japa.parser.ast.stmt._
 import japa.parser.ast.`type`._
 import japa.parser.ast.visitor.VoidVisitor
+import java.io.Writer
 import java.util.ArrayList
 import java.util.HashMap
 import java.util.Iterator
@@ -80,10 +81,12 @@ object ScalaDumpVisitor {
  * ScalaDumpVisitor is a serializing visitor for CompilationUnit instances
  *
  */
-class ScalaDumpVisitor(settings: ConversionSettings) extends VoidVisitor[ScalaDumpVisitor.Context] with Helpers {
+class ScalaDumpVisitor(settings: ConversionSettings, out: Writer) extends VoidVisitor[ScalaDumpVisitor.Context] with Helpers {
   import ScalaDumpVisitor._
 
-  private val printer = new SourcePrinter()
+  def this(settings: ConversionSettings) = this(settings, null)
+
+  private val printer = new SourcePrinter(out)
 
   def getSource: String = printer.source
 
@@ -22,18 +22,20 @@ object SerialVersionUID extends SerialVersionUID
 /**
  * SerialVersionUID turns serialVersionUID fields into annotations
  */
-class SerialVersionUID extends UnitTransformerBase {
+class SerialVersionUID extends UnitTransformerBase with NodeRewriter {
   
   def transform(cu: CompilationUnit): CompilationUnit = {
     cu.accept(this, cu).asInstanceOf[CompilationUnit] 
   }  
   
-  override def visit(nn: ClassOrInterfaceDecl, cu: CompilationUnit): ClassOrInterfaceDecl = {      
-    val n = super.visit(nn, cu).asInstanceOf[ClassOrInterfaceDecl]
-    if (n.getMembers == null) {
-      return n
-    }
-    
+  override def visit(n: ClassOrInterfaceDecl, cu: CompilationUnit): Node = rewrite(super.visit(n, cu), cu)
+  
+  def rewrite(node: Node, cu: CompilationUnit): Node = node match {
+    case n: ClassOrInterfaceDecl if n.getMembers != null => rewriteClass(n)
+    case _ => node
+  }
+  
+  private def rewriteClass(n: ClassOrInterfaceDecl): ClassOrInterfaceDecl = {
     val varAndField = n.getMembers.collect { case f: Field => f }    
        .flatMap { f => f.getVariables.map( v => (v.getId.getName,v,f)) }
        .find(_._1 == "serialVersionUID").map(t => (t._2,t._3))
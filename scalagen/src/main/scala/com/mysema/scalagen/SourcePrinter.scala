@@ -13,19 +13,26 @@
  */
 package com.mysema.scalagen
 
+import java.io.Writer
+
 /**
  * @author tiwe
  *
+ * Prints into an internal buffer, or straight to the given writer so that a
+ * large source is never held in memory in full. Line lengths are tracked the
+ * same way for both.
  */
-class SourcePrinter {
+class SourcePrinter(out: Writer) {
+  
+  def this() = this(null)
   
-  private var offset = 0
+  private var column = 0
   
   private var level = 0
 
   private var indented = false
 
-  private val buf = new StringBuilder()
+  private val buf = if (out == null) new StringBuilder() else null
 
   def indent() { 
     level += 1 
@@ -35,8 +42,13 @@ class SourcePrinter {
     level -= 1 
   }
 
+  private def append(s: String) {
+    if (out == null) buf.append(s) else out.write(s)
+    column += s.length
+  }
+
   private def makeIndent() {
-    for (i <- 0 until level) { buf.append("  ") }
+    for (i <- 0 until level) { append("  ") }
   }
 
   def print(arg: String) {
@@ -44,7 +56,7 @@ class SourcePrinter {
       makeIndent()
       indented = true
     }
-    buf.append(arg)
+    append(arg)
   }
 
   def printLn(arg: String) {
@@ -53,15 +65,23 @@ class SourcePrinter {
   }
 
   def printLn() {
-    buf.append("\n")
-    offset = buf.length
+    append("\n")
+    column = 0
     indented = false
   }
 
-  def source: String = buf.toString
+  /**
+   * The printed source, only available when printing into the buffer
+   */
+  def source: String = {
+    if (out != null) {
+      throw new IllegalStateException("Source has been printed to a writer")
+    }
+    buf.toString
+  }
   
-  def lineLength = buf.length - offset
+  def lineLength = column
 
-  override def toString(): String = source
+  override def toString(): String = if (out == null) source else super.toString
   
 }
@@ -24,19 +24,23 @@ object Synchronized extends Synchronized
 /**
  * 
  */
-class Synchronized extends ModifierVisitor[CompilationUnit] with UnitTransformer {
+class Synchronized extends ModifierVisitor[CompilationUnit] with NodeRewriter {
   
   def transform(cu: CompilationUnit): CompilationUnit = {
     cu.accept(this, cu).asInstanceOf[CompilationUnit] 
   }  
   
-  override def visit(nn: Method, arg: CompilationUnit) = {
-    val n = super.visit(nn, arg).asInstanceOf[Method]
-    if (n.getModifiers.hasModifier(ModifierSet.SYNCHRONIZED)) {
-      n.removeModifier(ModifierSet.SYNCHRONIZED)
-      n.setBody(new SynchronizedStmt(null, n.getBody()))
+  override def visit(n: Method, arg: CompilationUnit): Node = rewrite(super.visit(n, arg), arg)
+  
+  def rewrite(node: Node, cu: CompilationUnit): Node = node match {
+    case n: Method => {
+      if (n.getModifiers.hasModifier(ModifierSet.SYNCHRONIZED)) {
+        n.removeModifier(ModifierSet.SYNCHRONIZED)
+        n.setBody(new SynchronizedStmt(null, n.getBody()))
+      }
+      n
     }
-    n
+    case _ => node
   }
   
 }  
\ No newline at end of file
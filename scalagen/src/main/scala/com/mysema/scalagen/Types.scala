@@ -41,8 +41,19 @@ trait Types {
     if (b.getOperator == o) Some(b.getLeft, b.getRight) else None 
   }
     
+  /**
+   * Matches names, qualified names, field accesses on names and unqualified
+   * <code>this</code> by the source text they would print as, built from the
+   * names alone so that no node is ever rendered
+   */
   object str {
-    def unapply(n: Node) = if (n != null) Some(n.toString) else None
+    def unapply(n: Node): Option[String] = n match {
+      case q: QualifiedNameExpr => unapply(q.getQualifier).map(_ + "." + q.getName)
+      case name: NameExpr => Some(name.getName)
+      case f: FieldAccessExpr => unapply(f.getScope).map(_ + "." + f.getField)
+      case t: ThisExpr if t.getClassExpr == null => Some("this")
+      case _ => None
+    }
   }
   
   object and {
@@ -62,7 +73,9 @@ trait Types {
   }
   
   object incr {
-    def unapply(u: Unary) = if (u.getOperator.toString.endsWith("Increment")) Some(u.getExpr) else None
+    def unapply(u: Unary) = {
+      if (u.getOperator == Unary.preIncrement || u.getOperator == Unary.posIncrement) Some(u.getExpr) else None
+    }
   }
   
   object lt {
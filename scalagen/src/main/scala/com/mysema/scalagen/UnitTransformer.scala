@@ -64,4 +64,22 @@ trait UnitTransformer {
   
   def transform(cu: CompilationUnit): CompilationUnit
   
+}
+
+/**
+ * NodeRewriter is implemented by transformers whose work is a local rewrite of a node
+ * after its children have been transformed. Adjacent NodeRewriters can be applied in a
+ * single traversal, see FusedTransformer
+ */
+trait NodeRewriter extends UnitTransformer {
+  
+  /**
+   * Rewrites the given node, whose children have already been transformed
+   * 
+   * @param n node to rewrite
+   * @param cu the compilation unit being built
+   * @return the given node, a replacement node or null to remove the node
+   */
+  def rewrite(n: Node, cu: CompilationUnit): Node
+  
 }
\ No newline at end of file
@@ -50,13 +50,19 @@ class VarToVal extends ModifierVisitor[Vars] with UnitTransformer {
   }
   
   override def visit(n: Assign, arg: Vars): Node = {
-    removeFinal(n.getTarget.toString, arg)
+    n.getTarget match {
+      case str(key) => removeFinal(key, arg)
+      case _ =>
+    }
     n
   }
   
   override def visit(n: Unary, arg: Vars): Node = {
     if (operators.contains(n.getOperator)) {
-      removeFinal(n.getExpr.toString, arg) 
+      n.getExpr match {
+        case str(key) => removeFinal(key, arg)
+        case _ =>
+      }
     } 
     n
   }
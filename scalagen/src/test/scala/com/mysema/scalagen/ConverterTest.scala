@@ -13,7 +13,9 @@
  */
 package com.mysema.scalagen
 
-import java.io.File
+import java.io.{File, StringWriter}
+import java.util.concurrent.{Callable, Executors, TimeUnit}
+import org.apache.commons.io.FileUtils
 import org.junit.Test
 import org.junit.Assert._
 
@@ -32,9 +34,65 @@ class ConverterTest extends AbstractParserTest {
     assertTrue(new File("target/test2/scala/com/mysema/examples/Bean.scala").length > 0)
   }
 
+  @Test
+  def Convert_File_Replaces_Output_Without_Leaving_Temporary_Files {
+    val dir = new File("target/test3/scala")
+    val out = new File(dir, "Bean.scala")
+    FileUtils.writeStringToFile(out, "stale", "UTF-8")
+    Converter.instance.convertFile(new File("src/test/scala/com/mysema/examples/Bean.java"), out)
+    assertNotEquals("stale", FileUtils.readFileToString(out, "UTF-8"))
+    assertEquals(List("Bean.scala"), dir.list.toList)
+  }
+
   @Test
   def Convert_String_Has_Content {
     assertTrue(Converter.instance.convert("class A {}").length > 0)
   }
   
+  @Test
+  def Fused_Transformers_Produce_Same_Output {
+    val examples = FileUtils.listFiles(new File("src/test/scala/com/mysema/examples"), Array("java"), false)
+    assertFalse(examples.isEmpty)
+    val it = examples.iterator
+    while (it.hasNext) {
+      val file = it.next()
+      val source = FileUtils.readFileToString(file, "UTF-8")
+      assertEquals(file.getName,
+          Converter.instance.convert(source, ConversionSettings(fuseTransformers = false)),
+          Converter.instance.convert(source, ConversionSettings(fuseTransformers = true)))
+    }
+  }
+  
+  @Test
+  def Streamed_Output_Is_Same_As_String_Output {
+    val examples = FileUtils.listFiles(new File("src/test/scala/com/mysema/examples"), Array("java"), false)
+    assertFalse(examples.isEmpty)
+    val it = examples.iterator
+    while (it.hasNext) {
+      val file = it.next()
+      val source = FileUtils.readFileToString(file, "UTF-8")
+      for (splitLongLines <- List(false, true)) {
+        val settings = ConversionSettings(splitLongLines = splitLongLines)
+        val out = new StringWriter()
+        Converter.instance.convert(source, out, settings)
+        assertEquals(file.getName, Converter.instance.convert(source, settings), out.toString)
+      }
+    }
+  }
+  
+  @Test
+  def Convert_String_Concurrently {
+    val source = FileUtils.readFileToString(new File("src/test/scala/com/mysema/examples/Bean.java"), "UTF-8")
+    val expected = Converter.instance.convert(source)
+    val executor = Executors.newFixedThreadPool(4)
+    try {
+      val results = (1 to 16).map(_ => executor.submit(new Callable[String] {
+        def call() = Converter.instance.convert(source)
+      }))
+      results.foreach(r => assertEquals(expected, r.get(30, TimeUnit.SECONDS)))
+    } finally {
+      executor.shutdown()
+    }
+  }
+  
 }
\ No newline at end of file